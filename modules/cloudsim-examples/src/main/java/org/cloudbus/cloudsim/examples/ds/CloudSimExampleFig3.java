@@ -3,11 +3,13 @@ package org.cloudbus.cloudsim.examples.ds;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Random;
+import java.util.Set;
 
 import org.cloudbus.cloudsim.Cloudlet;
 import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
@@ -478,7 +480,7 @@ class CustomDatacenterBrokerFig3 extends DatacenterBroker {
     @Override
     protected void submitCloudlets() {
         List<Vm> vmList = getAvailableVmList();
-        List<Cloudlet> successfullySubmitted = new ArrayList<>();
+        Set<Cloudlet> successfullySubmitted = new HashSet<>();
 
         // STEP 1: Process waiting queue first (as per flowchart)
         // "Queue Size > 0" → "Send Waiting Tasks"
@@ -531,7 +533,7 @@ class CustomDatacenterBrokerFig3 extends DatacenterBroker {
         }
 
         // Remove successfully processed cloudlets
-        getCloudletList().removeAll(successfullySubmitted);
+        getCloudletList().removeIf(successfullySubmitted::contains);
     }
 
     /**
@@ -3,11 +3,13 @@ package org.cloudbus.cloudsim.examples.ds;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Random;
+import java.util.Set;
 
 import org.cloudbus.cloudsim.Cloudlet;
 import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
@@ -453,7 +455,7 @@ class CustomDatacenterBroker extends DatacenterBroker {
     @Override
     protected void submitCloudlets() {
         List<Vm> vmList = getAvailableVmList();
-        List<Cloudlet> successfullySubmitted = new ArrayList<>();
+        Set<Cloudlet> successfullySubmitted = new HashSet<>();
 
         // STEP 1: Process waiting queue first (as per flowchart)
         // "Queue Size > 0" → "Send Waiting Tasks"
@@ -506,7 +508,7 @@ class CustomDatacenterBroker extends DatacenterBroker {
         }
 
         // Remove successfully processed cloudlets
-        getCloudletList().removeAll(successfullySubmitted);
+        getCloudletList().removeIf(successfullySubmitted::contains);
     }
 
     /**
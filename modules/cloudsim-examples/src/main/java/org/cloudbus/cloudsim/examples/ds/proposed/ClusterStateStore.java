@@ -0,0 +1,341 @@
+package org.cloudbus.cloudsim.examples.ds.proposed;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typed cluster state behind the Two-Level Redis Cache.
+ * Level 1 (Regional): the task table and the LB table, shared by all LBs.
+ * Level 2 (Zonal): one VM table per zone.
+ *
+ * Tables are indexed by the entity id (VM, cloudlet or LB id), store their
+ * fields in primitive arrays and grow on demand, so reads and writes on the
+ * hot paths (heartbeats, health checks) neither build keys nor parse values.
+ * An unset status is null and an unset timestamp is NaN, the same as a
+ * missing hash field.
+ */
+public class ClusterStateStore {
+
+    public enum NodeStatus {
+        ALIVE,
+        DEAD,
+        RESTARTING
+    }
+
+    public enum TaskStatus {
+        QUEUED,
+        RUNNING,
+        QUARANTINED
+    }
+
+    private final TaskTable tasks = new TaskTable();
+    private final LbTable loadBalancers = new LbTable();
+    private final Map<String, VmTable> zones = new HashMap<>();
+
+    // VM id -> the zone tables with an entry for it, so that a VM is found without visiting every zone
+    private final Map<Integer, List<VmTable>> zonesByVm = new HashMap<>();
+
+    /**
+     * Gets the Level 1 task table.
+     */
+    public TaskTable tasks() {
+        return tasks;
+    }
+
+    /**
+     * Gets the Level 1 LB table.
+     */
+    public LbTable loadBalancers() {
+        return loadBalancers;
+    }
+
+    /**
+     * Gets the Level 2 VM table of a zone, creating it on first use.
+     */
+    public VmTable zone(String zone) {
+        return zones.computeIfAbsent(zone, k -> new VmTable(zonesByVm));
+    }
+
+    /**
+     * Checks whether the VM table of any zone has an entry for a VM.
+     */
+    boolean containsVm(int vmId) {
+        return zonesByVm.containsKey(vmId);
+    }
+
+    /**
+     * Removes the entries of a VM from the VM tables of all zones.
+     */
+    void removeVm(int vmId) {
+        List<VmTable> tables = zonesByVm.get(vmId);
+        if (tables != null) {
+            for (VmTable table : List.copyOf(tables))
+                table.remove(vmId);
+        }
+    }
+
+    /**
+     * Base of the id-indexed tables: tracks which ids have an entry.
+     */
+    abstract static class IdTable {
+        private boolean[] present = new boolean[0];
+        private int size = 0;
+
+        public boolean contains(int id) {
+            return id >= 0 && id < present.length && present[id];
+        }
+
+        /**
+         * Gets the smallest id with an entry that is not smaller than the given one,
+         * so that the entries can be walked in id order without allocating:
+         * {@code for (int id = table.next(0); id >= 0; id = table.next(id + 1))}.
+         *
+         * @return the id, or -1 if there is none
+         */
+        public int next(int fromId) {
+            for (int id = Math.max(fromId, 0); id < present.length; id++) {
+                if (present[id])
+                    return id;
+            }
+            return -1;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Removes the entry of an id, clearing all of its fields.
+         */
+        public void remove(int id) {
+            if (contains(id)) {
+                present[id] = false;
+                size--;
+                clear(id);
+                removed(id);
+            }
+        }
+
+        /**
+         * Creates the entry of an id if needed; the fields of a new entry are unset.
+         */
+        protected final void touch(int id) {
+            if (id < 0)
+                throw new IllegalArgumentException("Negative id: " + id);
+            if (id >= present.length) {
+                int length = Math.max(id + 1, present.length * 2);
+                present = Arrays.copyOf(present, length);
+                grow(length);
+            }
+            if (!present[id]) {
+                present[id] = true;
+                size++;
+                added(id);
+            }
+        }
+
+        /** Called when the entry of an id is created. */
+        protected void added(int id) {
+        }
+
+        /** Called when the entry of an id is removed. */
+        protected void removed(int id) {
+        }
+
+        /** Grows the field arrays to the given length, leaving the new slots unset. */
+        protected abstract void grow(int length);
+
+        /** Unsets the fields of an id. */
+        protected abstract void clear(int id);
+
+        static double[] grow(double[] array, int length) {
+            int from = array.length;
+            double[] grown = Arrays.copyOf(array, length);
+            Arrays.fill(grown, from, length, Double.NaN);
+            return grown;
+        }
+    }
+
+    /**
+     * Level 2 VM table: status, last heartbeat time and number of tasks started
+     * since the entry was created.
+     */
+    public static final class VmTable extends IdTable {
+        private NodeStatus[] status = new NodeStatus[0];
+        private double[] lastHeartbeat = new double[0];
+        private int[] startedTasks = new int[0];
+        private final Map<Integer, List<VmTable>> zonesByVm;
+
+        private VmTable(Map<Integer, List<VmTable>> zonesByVm) {
+            this.zonesByVm = zonesByVm;
+        }
+
+        public NodeStatus getStatus(int vmId) {
+            return contains(vmId) ? status[vmId] : null;
+        }
+
+        public void setStatus(int vmId, NodeStatus newStatus) {
+            touch(vmId);
+            status[vmId] = newStatus;
+        }
+
+        /**
+         * @return the time of the last heartbeat, or NaN if none was recorded
+         */
+        public double getLastHeartbeat(int vmId) {
+            return contains(vmId) ? lastHeartbeat[vmId] : Double.NaN;
+        }
+
+        public void setLastHeartbeat(int vmId, double time) {
+            touch(vmId);
+            lastHeartbeat[vmId] = time;
+        }
+
+        /**
+         * Records a heartbeat, which also marks the VM as alive.
+         */
+        public void heartbeat(int vmId, double time) {
+            setLastHeartbeat(vmId, time);
+            status[vmId] = NodeStatus.ALIVE;
+        }
+
+        /**
+         * Records the same heartbeat for the first {@code count} VMs of the array.
+         */
+        public void heartbeat(int[] vmIds, int count, double time) {
+            for (int i = 0; i < count; i++) {
+                heartbeat(vmIds[i], time);
+            }
+        }
+
+        public int getStartedTasks(int vmId) {
+            return contains(vmId) ? startedTasks[vmId] : 0;
+        }
+
+        public void taskStarted(int vmId) {
+            touch(vmId);
+            startedTasks[vmId]++;
+        }
+
+        @Override
+        protected void grow(int length) {
+            status = Arrays.copyOf(status, length);
+            lastHeartbeat = grow(lastHeartbeat, length);
+            startedTasks = Arrays.copyOf(startedTasks, length);
+        }
+
+        @Override
+        protected void clear(int vmId) {
+            status[vmId] = null;
+            lastHeartbeat[vmId] = Double.NaN;
+            startedTasks[vmId] = 0;
+        }
+
+        @Override
+        protected void added(int vmId) {
+            zonesByVm.computeIfAbsent(vmId, k -> new ArrayList<>(1)).add(this);
+        }
+
+        @Override
+        protected void removed(int vmId) {
+            List<VmTable> tables = zonesByVm.get(vmId);
+            tables.remove(this);
+            if (tables.isEmpty())
+                zonesByVm.remove(vmId);
+        }
+    }
+
+    /**
+     * Level 1 task table: status and owning LB of every task by cloudlet id.
+     * Cloudlet ids are only unique per broker, so the last LB to write a task wins.
+     */
+    public static final class TaskTable extends IdTable {
+        private TaskStatus[] status = new TaskStatus[0];
+        private int[] assignedLb = new int[0];
+
+        public TaskStatus getStatus(int taskId) {
+            return contains(taskId) ? status[taskId] : null;
+        }
+
+        public void setStatus(int taskId, TaskStatus newStatus) {
+            touch(taskId);
+            status[taskId] = newStatus;
+        }
+
+        /**
+         * @return the id of the LB the task is assigned to, or 0 if unset
+         */
+        public int getAssignedLb(int taskId) {
+            return contains(taskId) ? assignedLb[taskId] : 0;
+        }
+
+        public void setAssignedLb(int taskId, int lbId) {
+            touch(taskId);
+            assignedLb[taskId] = lbId;
+        }
+
+        @Override
+        protected void grow(int length) {
+            status = Arrays.copyOf(status, length);
+            assignedLb = Arrays.copyOf(assignedLb, length);
+        }
+
+        @Override
+        protected void clear(int taskId) {
+            status[taskId] = null;
+            assignedLb[taskId] = 0;
+        }
+    }
+
+    /**
+     * Level 1 LB table: status and last heartbeat time of every LB by LB id.
+     */
+    public static final class LbTable extends IdTable {
+        private NodeStatus[] status = new NodeStatus[0];
+        private double[] lastHeartbeat = new double[0];
+
+        public NodeStatus getStatus(int lbId) {
+            return contains(lbId) ? status[lbId] : null;
+        }
+
+        public void setStatus(int lbId, NodeStatus newStatus) {
+            touch(lbId);
+            status[lbId] = newStatus;
+        }
+
+        /**
+         * @return the time of the last heartbeat, or NaN if none was recorded
+         */
+        public double getLastHeartbeat(int lbId) {
+            return contains(lbId) ? lastHeartbeat[lbId] : Double.NaN;
+        }
+
+        public void setLastHeartbeat(int lbId, double time) {
+            touch(lbId);
+            lastHeartbeat[lbId] = time;
+        }
+
+        /**
+         * Records a heartbeat, which also marks the LB as alive.
+         */
+        public void heartbeat(int lbId, double time) {
+            setLastHeartbeat(lbId, time);
+            status[lbId] = NodeStatus.ALIVE;
+        }
+
+        @Override
+        protected void grow(int length) {
+            status = Arrays.copyOf(status, length);
+            lastHeartbeat = grow(lastHeartbeat, length);
+        }
+
+        @Override
+        protected void clear(int lbId) {
+            status[lbId] = null;
+            lastHeartbeat[lbId] = Double.NaN;
+        }
+    }
+}
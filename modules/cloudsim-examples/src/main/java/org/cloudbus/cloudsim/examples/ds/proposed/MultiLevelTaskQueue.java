@@ -0,0 +1,374 @@
+package org.cloudbus.cloudsim.examples.ds.proposed;
+
+import org.cloudbus.cloudsim.Cloudlet;
+
+import java.util.AbstractSequentialList;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Multi-Level Feedback Queue of waiting tasks.
+ *
+ * Every level is a FIFO deque (doubly linked nodes), and an index maps each
+ * cloudlet id to its node(s), so that enqueue, dequeue from either end,
+ * removal of an arbitrary task and promotion to another level are all O(1).
+ * Cloudlet ids are only unique per broker, so tasks moved between brokers
+ * (work stealing, takeover) may share an id; such tasks are chained in the index.
+ *
+ * @param <T> the type of the queued tasks
+ */
+public class MultiLevelTaskQueue<T extends Cloudlet> {
+
+    private static final class Node<T> {
+        final T task;
+        final long sequence;
+        final int level;
+        Node<T> prev;
+        Node<T> next;
+        Node<T> nextSameId; // other queued tasks with the same cloudlet id
+
+        Node(T task, int level, long sequence) {
+            this.task = task;
+            this.level = level;
+            this.sequence = sequence;
+        }
+    }
+
+    private final Node<T>[] heads;
+    private final Node<T>[] tails;
+    private final int[] sizes;
+    private final Map<Integer, Node<T>> index = new HashMap<>();
+    private int size = 0;
+    private long nextSequence = 0;
+    private int modCount = 0;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public MultiLevelTaskQueue(int levels) {
+        heads = new Node[levels];
+        tails = new Node[levels];
+        sizes = new int[levels];
+    }
+
+    public int getLevels() {
+        return sizes.length;
+    }
+
+    /**
+     * Appends a task at the tail of a level.
+     */
+    public void addLast(int level, T task) {
+        Node<T> node = new Node<>(task, level, nextSequence++);
+        link(node);
+        Node<T> sameId = index.put(task.getCloudletId(), node);
+        node.nextSameId = sameId;
+    }
+
+    public T peekFirst(int level) {
+        return heads[level] == null ? null : heads[level].task;
+    }
+
+    /**
+     * Removes the task at the head of a level (the oldest one).
+     */
+    public T pollFirst(int level) {
+        Node<T> node = heads[level];
+        if (node == null)
+            return null;
+        remove(node);
+        return node.task;
+    }
+
+    /**
+     * Removes the task at the tail of a level (the newest one).
+     */
+    public T pollLast(int level) {
+        Node<T> node = tails[level];
+        if (node == null)
+            return null;
+        remove(node);
+        return node.task;
+    }
+
+    /**
+     * Removes the given task, wherever it is queued.
+     *
+     * @return true if the task was queued
+     */
+    public boolean remove(T task) {
+        Node<T> node = find(task);
+        if (node == null)
+            return false;
+        remove(node);
+        return true;
+    }
+
+    /**
+     * Gets the queued task with the given cloudlet id, looking at the levels in
+     * order among the given ones; the earliest enqueued wins within a level.
+     *
+     * @return the task, or null if none is queued on those levels
+     */
+    public T findById(int cloudletId, int fromLevel, int toLevel) {
+        Node<T> best = null;
+        for (Node<T> node = index.get(cloudletId); node != null; node = node.nextSameId) {
+            if (node.level >= fromLevel && node.level <= toLevel
+                    && (best == null || node.level < best.level
+                    || (node.level == best.level && node.sequence < best.sequence))) {
+                best = node;
+            }
+        }
+        return best == null ? null : best.task;
+    }
+
+    /**
+     * Gets the level a task is queued on.
+     *
+     * @return the level, or -1 if the task is not queued
+     */
+    public int getLevel(T task) {
+        Node<T> node = find(task);
+        return node == null ? -1 : node.level;
+    }
+
+    /**
+     * Gets the enqueue sequence number of a task, which orders tasks by the time
+     * they were added to (or moved to) their level.
+     *
+     * @return the sequence number, or -1 if the task is not queued
+     */
+    public long getSequence(T task) {
+        Node<T> node = find(task);
+        return node == null ? -1 : node.sequence;
+    }
+
+    /**
+     * Moves a task to the tail of another level (e.g. aging promotion).
+     *
+     * @return true if the task was queued
+     */
+    public boolean moveToLevel(T task, int level) {
+        Node<T> node = find(task);
+        if (node == null)
+            return false;
+        remove(node);
+        addLast(level, task);
+        return true;
+    }
+
+    public int size(int level) {
+        return sizes[level];
+    }
+
+    public boolean isEmpty(int level) {
+        return sizes[level] == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Iterates over a level from head to tail. The iterator supports removal.
+     */
+    public Iterator<T> iterator(int level) {
+        return new Iterator<T>() {
+            private Node<T> next = heads[level];
+            private Node<T> last;
+            private int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public T next() {
+                if (modCount != expectedModCount)
+                    throw new ConcurrentModificationException();
+                if (next == null)
+                    throw new NoSuchElementException();
+                last = next;
+                next = next.next;
+                return last.task;
+            }
+
+            @Override
+            public void remove() {
+                if (last == null)
+                    throw new IllegalStateException();
+                if (modCount != expectedModCount)
+                    throw new ConcurrentModificationException();
+                MultiLevelTaskQueue.this.remove(last);
+                last = null;
+                expectedModCount = modCount;
+            }
+        };
+    }
+
+    /**
+     * Gets a snapshot of a level, from head to tail.
+     */
+    public List<T> toList(int level) {
+        List<T> list = new ArrayList<>(sizes[level]);
+        for (Node<T> node = heads[level]; node != null; node = node.next) {
+            list.add(node.task);
+        }
+        return list;
+    }
+
+    /**
+     * Gets a read-only view of a level, from head to tail. The view reflects later
+     * changes to the queue; iterating it while the queue changes fails fast.
+     */
+    public List<T> view(int level) {
+        return new AbstractSequentialList<T>() {
+            @Override
+            public int size() {
+                return sizes[level];
+            }
+
+            @Override
+            public ListIterator<T> listIterator(int index) {
+                if (index < 0 || index > sizes[level])
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + sizes[level]);
+                return new ViewIterator(level, index);
+            }
+        };
+    }
+
+    /** Read-only list iterator over the nodes of a level. */
+    private final class ViewIterator implements ListIterator<T> {
+        private Node<T> next;
+        private Node<T> prev;
+        private int nextIndex;
+        private final int expectedModCount = modCount;
+
+        ViewIterator(int level, int index) {
+            next = heads[level];
+            prev = null;
+            for (nextIndex = 0; nextIndex < index; nextIndex++) {
+                prev = next;
+                next = next.next;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            if (next == null)
+                throw new NoSuchElementException();
+            prev = next;
+            next = next.next;
+            nextIndex++;
+            return prev.task;
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return prev != null;
+        }
+
+        @Override
+        public T previous() {
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            if (prev == null)
+                throw new NoSuchElementException();
+            next = prev;
+            prev = prev.prev;
+            nextIndex--;
+            return next.task;
+        }
+
+        @Override
+        public int nextIndex() {
+            return nextIndex;
+        }
+
+        @Override
+        public int previousIndex() {
+            return nextIndex - 1;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void set(T task) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void add(T task) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private Node<T> find(T task) {
+        for (Node<T> node = index.get(task.getCloudletId()); node != null; node = node.nextSameId) {
+            if (node.task == task)
+                return node;
+        }
+        return null;
+    }
+
+    private void link(Node<T> node) {
+        int level = node.level;
+        node.prev = tails[level];
+        node.next = null;
+        if (tails[level] == null)
+            heads[level] = node;
+        else
+            tails[level].next = node;
+        tails[level] = node;
+        sizes[level]++;
+        size++;
+        modCount++;
+    }
+
+    private void remove(Node<T> node) {
+        // unlink from the level
+        int level = node.level;
+        if (node.prev == null)
+            heads[level] = node.next;
+        else
+            node.prev.next = node.next;
+        if (node.next == null)
+            tails[level] = node.prev;
+        else
+            node.next.prev = node.prev;
+        sizes[level]--;
+        size--;
+        modCount++;
+
+        // unlink from the id chain
+        int id = node.task.getCloudletId();
+        Node<T> first = index.get(id);
+        if (first == node) {
+            if (node.nextSameId == null)
+                index.remove(id);
+            else
+                index.put(id, node.nextSameId);
+        } else {
+            Node<T> prev = first;
+            while (prev != null && prev.nextSameId != node)
+                prev = prev.nextSameId;
+            if (prev != null)
+                prev.nextSameId = node.nextSameId;
+        }
+    }
+}
@@ -5,12 +5,16 @@ import org.cloudbus.cloudsim.DatacenterBroker;
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.lists.VmList;
-import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.SimEvent;
 import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.core.CloudActionTags;
 import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
 import org.cloudbus.cloudsim.core.GuestEntity;
+import org.cloudbus.cloudsim.examples.ds.proposed.ClusterStateStore.LbTable;
+import org.cloudbus.cloudsim.examples.ds.proposed.ClusterStateStore.NodeStatus;
+import org.cloudbus.cloudsim.examples.ds.proposed.ClusterStateStore.TaskStatus;
+import org.cloudbus.cloudsim.examples.ds.proposed.ClusterStateStore.TaskTable;
+import org.cloudbus.cloudsim.examples.ds.proposed.ClusterStateStore.VmTable;
 
 import java.util.*;
 
@@ -24,30 +28,51 @@ public class ProposedBroker extends DatacenterBroker {
     private int lbId; // 1 or 2
     private String region; // "A" for LB1, "B" for LB2
 
-    // MLFQ Queues
-    private List<ProposedCloudlet> highPriorityQueue; // Text
-    private List<ProposedCloudlet> mediumPriorityQueue; // Image
-    private List<ProposedCloudlet> lowPriorityQueue; // Reel
-
-    // Overflow Queue (Backpressure)
-    private List<ProposedCloudlet> overflowQueue;
+    // MLFQ Levels
+    private static final int HIGH_PRIORITY = 0; // Text
+    private static final int MEDIUM_PRIORITY = 1; // Image
+    private static final int LOW_PRIORITY = 2; // Reel
+    private static final int OVERFLOW = 3; // Overflow Queue (Backpressure)
+    private static final int QUARANTINE = 4; // Quarantine Queue (Poison Tasks)
 
-    // Quarantine Queue (Poison Tasks)
-    private List<ProposedCloudlet> quarantineQueue;
+    // MLFQ Queues
+    private final MultiLevelTaskQueue<ProposedCloudlet> taskQueue = new MultiLevelTaskQueue<>(5);
 
     // Redis Connection
     private RedisMock redis;
+    private final ClusterStateStore clusterState;
+    private final TaskTable taskTable; // Level 1 (Regional)
+    private final LbTable lbTable; // Level 1 (Regional)
+    private final VmTable vmTable; // Level 2 (Zonal), this LB's region
 
     // Other Broker for Work Stealing
     private ProposedBroker otherBroker;
 
     // SBDLB Constants & State
-    private static final int TASK_THRESHOLD = 3;
+    private static final int DEFAULT_TASK_THRESHOLD = 3;
+    private int taskThreshold = DEFAULT_TASK_THRESHOLD;
     private static final double AGING_THRESHOLD = 5.0; // 5 seconds
     private Map<Integer, Integer> vmTaskCount;
     private Set<Integer> registeredVms = new HashSet<>(); // Track registered VMs to avoid redundant Redis calls
     private boolean simulationFinished = false;
 
+    // Incremental SBDLB index: VMs below the task threshold, best score first.
+    // Entries are refreshed whenever a VM's task count changes; the index is rebuilt
+    // when the created VM list changes (creation acks, takeover).
+    private final Map<Integer, VmSlot> vmSlots = new HashMap<>();
+    private final TreeSet<VmSlot> freeVms = new TreeSet<>(VmSlot.BY_SCORE);
+    private int indexedVmCount = -1;
+
+    // Smallest task proportion that found no VM during the current scheduling pass.
+    // VMs only fill up within a pass, so any task at least as demanding is skipped.
+    private double unplaceableTaskProp;
+
+    // Aging deadlines of the Low Priority Queue, earliest submission first
+    private final PriorityQueue<AgingEntry> agingIndex = new PriorityQueue<>();
+
+    // false: score every created VM and scan the Low Priority Queue on each pass (reference)
+    private boolean incrementalScheduling = true;
+
     // Task type ranges (MI)
     private static final long REEL_MIN_MI = 10000000L;
     private static final long REEL_MAX_MI = 1000000000L;
@@ -63,15 +88,14 @@ public class ProposedBroker extends DatacenterBroker {
         this.lbId = lbId;
         this.region = (lbId == 1) ? "A" : "B";
 
-        this.highPriorityQueue = new ArrayList<>();
-        this.mediumPriorityQueue = new ArrayList<>();
-        this.lowPriorityQueue = new ArrayList<>();
-        this.overflowQueue = new ArrayList<>();
-        this.quarantineQueue = new ArrayList<>();
         this.vmTaskCount = new HashMap<>();
         this.heartbeatStartedVms = new HashSet<>();
 
-        this.redis = RedisMock.getInstance();
+        this.redis = RedisMock.getInstance(getSimulation());
+        this.clusterState = redis.getClusterState();
+        this.taskTable = clusterState.tasks();
+        this.lbTable = clusterState.loadBalancers();
+        this.vmTable = clusterState.zone(region);
     }
 
     public int getLbId() {
@@ -82,14 +106,51 @@ public class ProposedBroker extends DatacenterBroker {
         this.otherBroker = otherBroker;
     }
 
+    /**
+     * Gets a read-only view of the Overflow Queue.
+     */
     public List<ProposedCloudlet> getOverflowQueue() {
-        return overflowQueue;
+        return taskQueue.view(OVERFLOW);
     }
 
     public void setFailureTime(double time) {
         this.failureTime = time;
     }
 
+    /**
+     * Sets the maximum number of tasks a VM may run at once (SBDLB pre-filter).
+     */
+    public void setTaskThreshold(int taskThreshold) {
+        this.taskThreshold = taskThreshold;
+        this.indexedVmCount = -1; // eligibility changed, rebuild the VM index
+    }
+
+    /**
+     * Chooses between the incremental SBDLB index and aging deadlines (default) and a
+     * full scan of the created VMs and of the Low Priority Queue on each scheduling pass.
+     * Both dispatch the same tasks to the same VMs; the full scan is kept as a reference.
+     * Must be set before the simulation starts.
+     */
+    public void setIncrementalScheduling(boolean incrementalScheduling) {
+        this.incrementalScheduling = incrementalScheduling;
+    }
+
+    /**
+     * Sets how long a peer LB / VM heartbeat stays valid before a failure is declared.
+     */
+    public void setHeartbeatTtls(double lbHeartbeatTtl, double vmHeartbeatTtl) {
+        this.lbHeartbeatTtl = lbHeartbeatTtl;
+        this.vmHeartbeatTtl = vmHeartbeatTtl;
+    }
+
+    /**
+     * Chooses between one heartbeat event per group of VMs started together (default)
+     * and one heartbeat event per VM. Applies to heartbeat loops started afterwards.
+     */
+    public void setBatchedHeartbeats(boolean batchedHeartbeats) {
+        this.batchedHeartbeats = batchedHeartbeats;
+    }
+
     @Override
     protected void submitCloudlets() {
         List<Cloudlet> list = getCloudletList();
@@ -98,11 +159,11 @@ public class ProposedBroker extends DatacenterBroker {
                 ProposedCloudlet pc = (ProposedCloudlet) c;
                 // Set submission time if not set (for aging)
                 if (pc.getSubmissionTime() == 0) {
-                    pc.setSubmissionTime(CloudSim.clock());
+                    pc.setSubmissionTime(getSimulation().clock());
                 }
                 enqueueTask(pc);
             } else {
-                Log.printLine(getName() + ": Error - Cloudlet is not of type ProposedCloudlet");
+                Log.println(() -> getName() + ": Error - Cloudlet is not of type ProposedCloudlet");
             }
         }
         getCloudletList().clear();
@@ -111,19 +172,21 @@ public class ProposedBroker extends DatacenterBroker {
 
     private void enqueueTask(ProposedCloudlet cloudlet) {
         // Register in Level 1 Cache
-        redis.hset(1, "Global", "Task_" + cloudlet.getCloudletId(), "status", "QUEUED");
-        redis.hset(1, "Global", "Task_" + cloudlet.getCloudletId(), "assigned_lb", "LB" + lbId);
+        taskTable.setStatus(cloudlet.getCloudletId(), TaskStatus.QUEUED);
+        taskTable.setAssignedLb(cloudlet.getCloudletId(), lbId);
 
         // Add to appropriate queue
         switch (cloudlet.getType()) {
             case TEXT:
-                highPriorityQueue.add(cloudlet);
+                taskQueue.addLast(HIGH_PRIORITY, cloudlet);
                 break;
             case IMAGE:
-                mediumPriorityQueue.add(cloudlet);
+                taskQueue.addLast(MEDIUM_PRIORITY, cloudlet);
                 break;
             case REEL:
-                lowPriorityQueue.add(cloudlet);
+                taskQueue.addLast(LOW_PRIORITY, cloudlet);
+                if (incrementalScheduling)
+                    agingIndex.add(new AgingEntry(cloudlet, cloudlet.getSubmissionTime(), taskQueue.getSequence(cloudlet)));
                 break;
         }
     }
@@ -133,27 +196,65 @@ public class ProposedBroker extends DatacenterBroker {
         processAging();
 
         // 2. Work Stealing (if idle)
-        if (highPriorityQueue.isEmpty() && mediumPriorityQueue.isEmpty() && lowPriorityQueue.isEmpty()) {
+        if (taskQueue.isEmpty(HIGH_PRIORITY) && taskQueue.isEmpty(MEDIUM_PRIORITY) && taskQueue.isEmpty(LOW_PRIORITY)) {
             stealWork();
         }
 
-        // 3. Process Queues in Priority Order
-        processQueue(highPriorityQueue);
-        processQueue(mediumPriorityQueue);
-        processQueue(lowPriorityQueue);
+        // 3. Process Queues in Priority Order, until no VM can take a task
+        syncVmIndex();
+        unplaceableTaskProp = Double.POSITIVE_INFINITY;
+        processQueue(HIGH_PRIORITY);
+        processQueue(MEDIUM_PRIORITY);
+        processQueue(LOW_PRIORITY);
     }
 
     private void processAging() {
-        double currentTime = CloudSim.clock();
-        Iterator<ProposedCloudlet> it = lowPriorityQueue.iterator();
-        while (it.hasNext()) {
-            ProposedCloudlet c = it.next();
-            if ((currentTime - c.getSubmissionTime()) > AGING_THRESHOLD) {
-                it.remove();
+        double currentTime = getSimulation().clock();
+        if (!incrementalScheduling) {
+            List<ProposedCloudlet> agedTasks = new ArrayList<>();
+            for (ProposedCloudlet c : taskQueue.toList(LOW_PRIORITY)) {
+                if ((currentTime - c.getSubmissionTime()) > AGING_THRESHOLD)
+                    agedTasks.add(c);
+            }
+            for (ProposedCloudlet c : agedTasks) {
                 c.setType(ProposedCloudlet.CloudletType.IMAGE); // Upgrade to Medium
-                mediumPriorityQueue.add(c);
-                Log.printLine(getName() + ": Task " + c.getCloudletId() + " aged from Low to Medium Priority.");
+                taskQueue.moveToLevel(c, MEDIUM_PRIORITY);
+                Log.println(() -> getName() + ": Task " + c.getCloudletId() + " aged from Low to Medium Priority.");
             }
+            return;
+        }
+
+        // Pop every deadline that has passed; the queue is ordered by submission time,
+        // so the first entry that has not aged ends the search.
+        List<AgingEntry> aged = new ArrayList<>();
+        while (!agingIndex.isEmpty()) {
+            AgingEntry entry = agingIndex.peek();
+            if ((currentTime - entry.submissionTime()) <= AGING_THRESHOLD) {
+                break;
+            }
+            agingIndex.poll();
+            ProposedCloudlet c = entry.cloudlet();
+            if (taskQueue.getLevel(c) != LOW_PRIORITY || taskQueue.getSequence(c) != entry.seq()) {
+                continue; // dispatched, stolen or re-enqueued since
+            }
+            if (c.getSubmissionTime() != entry.submissionTime()) {
+                // submission time changed while queued, track the new deadline
+                agingIndex.add(new AgingEntry(c, c.getSubmissionTime(), entry.seq()));
+                continue;
+            }
+            aged.add(entry);
+        }
+        if (aged.isEmpty()) {
+            return;
+        }
+
+        // Upgrade in Low Priority Queue order
+        aged.sort(Comparator.comparingLong(AgingEntry::seq));
+        for (AgingEntry entry : aged) {
+            ProposedCloudlet c = entry.cloudlet();
+            c.setType(ProposedCloudlet.CloudletType.IMAGE); // Upgrade to Medium
+            taskQueue.moveToLevel(c, MEDIUM_PRIORITY);
+            Log.println(() -> getName() + ": Task " + c.getCloudletId() + " aged from Low to Medium Priority.");
         }
     }
 
@@ -165,109 +266,128 @@ public class ProposedBroker extends DatacenterBroker {
         int limit = 5;
 
         // 1. Try Overflow Queue
-        stealFromQueue(otherBroker.getOverflowQueue(), stolen, limit);
+        stealFromQueue(otherBroker.taskQueue, OVERFLOW, stolen, limit);
 
         // 2. Try Low Priority Queue (if we still need tasks)
         if (stolen.size() < limit) {
-            stealFromQueue(otherBroker.getLowPriorityQueue(), stolen, limit - stolen.size());
+            stealFromQueue(otherBroker.taskQueue, LOW_PRIORITY, stolen, limit - stolen.size());
         }
 
         // 3. Try Medium Priority Queue
         if (stolen.size() < limit) {
-            stealFromQueue(otherBroker.getMediumPriorityQueue(), stolen, limit - stolen.size());
+            stealFromQueue(otherBroker.taskQueue, MEDIUM_PRIORITY, stolen, limit - stolen.size());
         }
 
         if (!stolen.isEmpty()) {
-            Log.printLine(getName() + ": Stole " + stolen.size() + " tasks from " + otherBroker.getName());
+            Log.println(() -> getName() + ": Stole " + stolen.size() + " tasks from " + otherBroker.getName());
             for (ProposedCloudlet c : stolen) {
                 enqueueTask(c);
             }
         }
     }
 
-    private void stealFromQueue(List<ProposedCloudlet> source, List<ProposedCloudlet> dest, int limit) {
-        Iterator<ProposedCloudlet> it = source.iterator();
+    private void stealFromQueue(MultiLevelTaskQueue<ProposedCloudlet> source, int level,
+                                List<ProposedCloudlet> dest, int limit) {
         int count = 0;
-        while (it.hasNext() && count < limit) {
-            ProposedCloudlet c = it.next();
+        while (!source.isEmpty(level) && count < limit) {
             // Only steal if task is waiting (not running) - In this sim, queue holds
             // waiting tasks
-            dest.add(c);
-            it.remove();
+            dest.add(source.pollFirst(level));
             count++;
         }
     }
 
-    private void processQueue(List<ProposedCloudlet> queue) {
-        if (queue.isEmpty())
+    private void processQueue(int level) {
+        if (!incrementalScheduling) {
+            Iterator<ProposedCloudlet> it = taskQueue.iterator(level);
+            while (it.hasNext()) {
+                ProposedCloudlet cloudlet = it.next();
+                Vm bestVm = scanBestVm(cloudlet, getTaskProportion(cloudlet));
+                if (bestVm != null) {
+                    it.remove();
+                    submitTaskToVm(cloudlet, bestVm);
+                }
+            }
             return;
+        }
 
-        List<ProposedCloudlet> toRemove = new ArrayList<>();
+        if (taskQueue.isEmpty(level) || freeVms.isEmpty())
+            return;
 
-        for (ProposedCloudlet cloudlet : queue) {
-            Vm bestVm = findBestVm(cloudlet);
+        Iterator<ProposedCloudlet> it = taskQueue.iterator(level);
+        while (it.hasNext()) {
+            // Stop as soon as no VM has a free slot, or even the smallest task cannot fit
+            if (freeVms.isEmpty() || unplaceableTaskProp <= 0)
+                break;
+
+            ProposedCloudlet cloudlet = it.next();
+            double taskProp = getTaskProportion(cloudlet);
+            if (taskProp >= unplaceableTaskProp)
+                continue; // a less demanding task already found no VM
+
+            Vm bestVm = findBestVm(cloudlet, taskProp);
 
             if (bestVm != null) {
+                it.remove();
                 submitTaskToVm(cloudlet, bestVm);
-                toRemove.add(cloudlet);
             } else {
-                // If no VM found, check if we should move to Overflow
-                // For now, we just keep it in the queue (Head-of-Line blocking simulation)
-                // Or we could skip to next task, but MLFQ usually blocks.
-                // Let's try to move to Overflow if queue is too big?
-                // For simplicity, we leave it here to retry next tick.
+                // No VM found: the task stays in its queue and is retried on the next pass
+                unplaceableTaskProp = taskProp;
             }
         }
+    }
 
-        queue.removeAll(toRemove);
+    /**
+     * Normalizes the task length to [0, 1] relative to the Min/Max MI of its type (Eq 1).
+     */
+    private double getTaskProportion(ProposedCloudlet cloudlet) {
+        return normalizeTaskRequirement(cloudlet.getCloudletLength(), getMinMi(cloudlet), getMaxMi(cloudlet), 0.0, 1.0);
     }
 
-    private Vm findBestVm(ProposedCloudlet cloudlet) {
+    /**
+     * Picks the VM with the highest score (sum of available resources) among those below
+     * the task threshold that can accommodate the task. The index is ordered by score, so
+     * the first suitable VM is the best one.
+     */
+    private Vm findBestVm(ProposedCloudlet cloudlet, double taskProp) {
+        for (VmSlot slot : freeVms) {
+            Vm vm = slot.vm;
+
+            // Required = Total_VM_Capacity * Prop, compared against what is available
+            double reqMips = (vm.getMips() * vm.getNumberOfPes()) * taskProp;
+            double reqRam = vm.getRam() * taskProp;
+            double reqBw = vm.getBw() * taskProp;
+
+            // Resource Suitability Check
+            if (getAvailableMips(vm) < reqMips || getAvailableRam(vm) < reqRam || getAvailableBw(vm) < reqBw) {
+                continue; // Score = -1 (Skipped)
+            }
+            return vm;
+        }
+        return null;
+    }
+
+    /**
+     * Same as {@link #findBestVm}, scoring every created VM.
+     */
+    private Vm scanBestVm(ProposedCloudlet cloudlet, double taskProp) {
         Vm bestVm = null;
         double bestScore = -1.0;
-
-        List<Vm> vmList = getGuestsCreatedList();
-        for (Vm vm : vmList) {
+        for (Vm vm : this.<Vm>getGuestsCreatedList()) {
             // 1. Pre-Filter: Task Threshold
-            int currentTasks = vmTaskCount.getOrDefault(vm.getId(), 0);
-            if (currentTasks >= TASK_THRESHOLD) {
-                // Log.printLine("DEBUG: VM " + vm.getId() + " skipped (Tasks: " + currentTasks
-                // + ")");
+            if (vmTaskCount.getOrDefault(vm.getId(), 0) >= taskThreshold)
                 continue;
-            }
 
-            // 2. Retrieve Available Resources
+            // 2. Resource Suitability Check
             double availMips = getAvailableMips(vm);
             double availRam = getAvailableRam(vm);
             double availBw = getAvailableBw(vm);
+            if (availMips < vm.getMips() * vm.getNumberOfPes() * taskProp || availRam < vm.getRam() * taskProp
+                    || availBw < vm.getBw() * taskProp)
+                continue;
 
-            // 3. Normalization (Eq 1) & Resource Requirement Calculation
-            long taskLen = cloudlet.getCloudletLength();
-            // Normalize task length to [0, 1] range relative to Min/Max MI for its type
-            double taskProp = normalizeTaskRequirement(taskLen, getMinMi(cloudlet), getMaxMi(cloudlet), 0.0, 1.0);
-
-            // Calculate required resources based on this proportion
-            // (Assuming task needs a proportion of the VM's *Total* capacity, or available?
-            // Paper says "mapped to the range of available resources".
-            // Let's assume it means proportion of *Available* resources is checked against
-            // available?
-            // No, "If a VM lacks sufficient resources to accommodate the task's normalized
-            // demands".
-            // This implies we compare Required vs Available.
-            // Let's assume Required = Total_VM_Capacity * Prop.
-
-            double reqMips = (vm.getMips() * vm.getNumberOfPes()) * taskProp;
-            double reqRam = vm.getRam() * taskProp;
-            double reqBw = vm.getBw() * taskProp;
-
-            // 4. Resource Suitability Check
-            if (availMips < reqMips || availRam < reqRam || availBw < reqBw) {
-                continue; // Score = -1 (Skipped)
-            }
-
-            // 5. Scoring (Sum of Available Resources)
+            // 3. Scoring (Sum of Available Resources)
             double score = availMips + availRam + availBw;
-
             if (score > bestScore) {
                 bestScore = score;
                 bestVm = vm;
@@ -276,10 +396,49 @@ public class ProposedBroker extends DatacenterBroker {
         return bestVm;
     }
 
+    /**
+     * Rebuilds the VM index if the created VM list has changed since it was last indexed.
+     * Ties on score go to the VM that comes first in the list.
+     */
+    private void syncVmIndex() {
+        List<Vm> vmList = getGuestsCreatedList();
+        if (vmList.size() == indexedVmCount)
+            return;
+
+        vmSlots.clear();
+        freeVms.clear();
+        for (int i = 0; i < vmList.size(); i++) {
+            Vm vm = vmList.get(i);
+            if (!vmSlots.containsKey(vm.getId())) {
+                VmSlot slot = new VmSlot(vm, i);
+                vmSlots.put(vm.getId(), slot);
+                indexVmSlot(slot);
+            }
+        }
+        indexedVmCount = vmList.size();
+    }
+
+    private void setVmTaskCount(int vmId, int count) {
+        VmSlot slot = vmSlots.get(vmId);
+        if (slot != null)
+            freeVms.remove(slot); // before the score changes
+        vmTaskCount.put(vmId, count);
+        if (slot != null)
+            indexVmSlot(slot);
+    }
+
+    private void indexVmSlot(VmSlot slot) {
+        Vm vm = slot.vm;
+        if (vmTaskCount.getOrDefault(vm.getId(), 0) < taskThreshold) {
+            slot.score = getAvailableMips(vm) + getAvailableRam(vm) + getAvailableBw(vm);
+            freeVms.add(slot);
+        }
+    }
+
     private void submitTaskToVm(ProposedCloudlet cloudlet, Vm vm) {
         // Update Local State
         int count = vmTaskCount.getOrDefault(vm.getId(), 0);
-        vmTaskCount.put(vm.getId(), count + 1);
+        setVmTaskCount(vm.getId(), count + 1);
 
         // DEBUG LOG
         // Log.printLine(getName() + ": Submitting Task " + cloudlet.getCloudletId() + "
@@ -288,24 +447,23 @@ public class ProposedBroker extends DatacenterBroker {
         // (count + 1) + ")");
 
         // Update Redis (L2 Cache) - User Requirement: Task_ID: RUNNING
-        redis.hset(2, region, "VM_" + vm.getId(), "Task_" + cloudlet.getCloudletId(), "RUNNING");
+        vmTable.taskStarted(vm.getId());
 
         // OPTIMIZATION: Only register VM presence ONCE to save performance
         if (!registeredVms.contains(vm.getId())) {
-            redis.hset(2, region, "VM_" + vm.getId(), "status", "ALIVE");
-            redis.hset(2, region, "VM_" + vm.getId(), "Last_Heartbeat", String.valueOf(CloudSim.clock()));
+            vmTable.heartbeat(vm.getId(), getSimulation().clock());
             registeredVms.add(vm.getId());
         }
 
         // Track original submission time for accurate response time calculation
         if (cloudlet instanceof ProposedCloudlet) {
-            ((ProposedCloudlet) cloudlet).setOriginalSubmissionTime(CloudSim.clock());
+            ((ProposedCloudlet) cloudlet).setOriginalSubmissionTime(getSimulation().clock());
         }
 
         // Submit to CloudSim
         cloudlet.setVmId(vm.getId());
         cloudlet.setUserId(getId()); // Ensure Cloudlet has the correct User ID (important for Work Stealing)
-        sendNow(getVmsToDatacentersMap().get(vm.getId()), CloudActionTags.CLOUDLET_SUBMIT, cloudlet);
+        sendCloudlet(getVmsToDatacentersMap().get(vm.getId()), cloudlet);
 
         cloudletsSubmitted++;
         getCloudletSubmittedList().add(cloudlet);
@@ -325,7 +483,7 @@ public class ProposedBroker extends DatacenterBroker {
         int tasks = vmTaskCount.getOrDefault(vm.getId(), 0);
         if (tasks == 0)
             return total;
-        double used = (total * tasks) / (double) TASK_THRESHOLD;
+        double used = (total * tasks) / (double) taskThreshold;
         return Math.max(0, total - used);
     }
 
@@ -334,7 +492,7 @@ public class ProposedBroker extends DatacenterBroker {
         int tasks = vmTaskCount.getOrDefault(vm.getId(), 0);
         if (tasks == 0)
             return total;
-        double used = (total * tasks) / (double) TASK_THRESHOLD;
+        double used = (total * tasks) / (double) taskThreshold;
         return Math.max(0, total - used);
     }
 
@@ -374,18 +532,19 @@ public class ProposedBroker extends DatacenterBroker {
 
         // DEBUG LOG
         // Log.printLine(getName() + ": Task " + cloudlet.getCloudletId() + " FINISHED
-        // at " + CloudSim.clock()
+        // at " + getSimulation().clock()
         // + " (CPU Time: " + cloudlet.getActualCPUTime() + ")");
 
         // Release VM Resource
         int vmId = cloudlet.getVmId();
         int count = vmTaskCount.getOrDefault(vmId, 0);
         if (count > 0)
-            vmTaskCount.put(vmId, count - 1);
+            setVmTaskCount(vmId, count - 1);
 
         // Update Redis (Task Done)
-        redis.del(2, region, "VM_" + vmId); // Simplified: In real app, we'd remove just the task field
-        redis.publish("tasks:complete", "Task " + cloudlet.getCloudletId() + " completed on VM " + vmId);
+        vmTable.remove(vmId); // Simplified: In real app, we'd remove just the task field
+        // Only built if someone listens; delivered on the next monitor tick
+        redis.publish("tasks:complete", () -> "Task " + cloudlet.getCloudletId() + " completed on VM " + vmId);
 
         cloudletsSubmitted--;
 
@@ -394,32 +553,33 @@ public class ProposedBroker extends DatacenterBroker {
 
         if (getCloudletList().isEmpty() && cloudletsSubmitted == 0) {
             simulationFinished = true;
-            Log.printLine(getName() + ": All Cloudlets finished. Stopping Heartbeats.");
+            Log.println(() -> getName() + ": All Cloudlets finished. Stopping Heartbeats.");
         }
     }
 
     // --- Fault Tolerance Methods ---
 
     // --- Getters for Failover Access ---
+    // Queue getters return read-only views; the queues themselves are only changed through the broker
     public List<ProposedCloudlet> getHighPriorityQueue() {
-        return highPriorityQueue;
+        return taskQueue.view(HIGH_PRIORITY);
     }
 
     public List<ProposedCloudlet> getMediumPriorityQueue() {
-        return mediumPriorityQueue;
+        return taskQueue.view(MEDIUM_PRIORITY);
     }
 
     public List<ProposedCloudlet> getLowPriorityQueue() {
-        return lowPriorityQueue;
+        return taskQueue.view(LOW_PRIORITY);
     }
 
     // --- Fault Tolerance Methods ---
 
     public void notifyVmFailure(int vmId) {
-        Log.printLine(getName() + ": WARNING - VM #" + vmId + " FAILED! Initiating Recovery...");
+        Log.println(() -> getName() + ": WARNING - VM #" + vmId + " FAILED! Initiating Recovery...");
 
         // 1. Mark VM as DEAD in Redis
-        redis.hset(2, region, "VM_" + vmId, "status", "DEAD");
+        vmTable.setStatus(vmId, NodeStatus.DEAD);
 
         // 2. Find ALL tasks that were assigned to this VM (from CloudSim's internal
         // state)
@@ -433,10 +593,11 @@ public class ProposedBroker extends DatacenterBroker {
             }
         }
 
-        Log.printLine(getName() + ": Found " + failedTasks.size() + " tasks on failed VM #" + vmId);
+        Log.println(() -> getName() + ": Found " + failedTasks.size() + " tasks on failed VM #" + vmId);
 
         // 3. Remove from Submitted List (they will be resubmitted)
-        getCloudletSubmittedList().removeAll(failedTasks);
+        Set<Cloudlet> failed = new HashSet<>(failedTasks);
+        getCloudletSubmittedList().removeIf(failed::contains);
         cloudletsSubmitted -= failedTasks.size();
 
         // 4. Retry ALL failed tasks (add to high priority queue for immediate
@@ -447,29 +608,29 @@ public class ProposedBroker extends DatacenterBroker {
         }
 
         // 5. Update VM Task Count (Clear it)
-        vmTaskCount.put(vmId, 0);
+        setVmTaskCount(vmId, 0);
 
         // 6. Clear Redis Entry for Dead VM
-        redis.del(2, region, "VM_" + vmId);
+        vmTable.remove(vmId);
 
         // 7. Auto-Recovery (Restart)
         restartVm(vmId);
     }
 
     private void restartVm(int vmId) {
-        Log.printLine(getName() + ": Auto-Recovery - Initiating Restart for VM #" + vmId);
+        Log.println(() -> getName() + ": Auto-Recovery - Initiating Restart for VM #" + vmId);
 
         // 1. Mark VM as RESTARTING (Simulating Shutdown + Boot Process)
-        redis.hset(2, region, "VM_" + vmId, "status", "RESTARTING");
+        vmTable.setStatus(vmId, NodeStatus.RESTARTING);
 
         // 2. Schedule Restart Completion Event (30s delay)
         schedule(getId(), VM_RESTART_DELAY, ProposedTags.VM_RESTART_COMPLETE, vmId);
 
-        Log.printLine(getName() + ": VM #" + vmId + " is RESTARTING (ETA: " + VM_RESTART_DELAY + "s)");
+        Log.println(() -> getName() + ": VM #" + vmId + " is RESTARTING (ETA: " + VM_RESTART_DELAY + "s)");
     }
 
     private void completeVmRestart(int vmId) {
-        Log.printLine(getName() + ": VM #" + vmId + " Restart Complete - Waiting for First Heartbeat");
+        Log.println(() -> getName() + ": VM #" + vmId + " Restart Complete - Waiting for First Heartbeat");
 
         // 1. DO NOT set status to ALIVE yet - wait for VM to send heartbeat
         // The heartbeat handler will mark it ALIVE when the VM sends its first
@@ -478,41 +639,50 @@ public class ProposedBroker extends DatacenterBroker {
         // 2. Start Heartbeat Loop (VM will send heartbeat and mark itself ALIVE)
         startVmHeartbeat(vmId);
 
-        Log.printLine(getName() + ": VM #" + vmId + " heartbeat loop initiated. Awaiting confirmation...");
+        Log.println(() -> getName() + ": VM #" + vmId + " heartbeat loop initiated. Awaiting confirmation...");
     }
 
     private void retryTask(ProposedCloudlet task) {
         task.incrementRetryCount();
-        Log.printLine(
+        Log.println(() ->
                 getName() + ": Retrying Task " + task.getCloudletId() + " (Attempt " + task.getRetryCount() + ")");
 
         if (task.getRetryCount() > 3) {
-            Log.printLine(getName() + ": Task " + task.getCloudletId() + " moved to QUARANTINE (Too many failures).");
-            quarantineQueue.add(task);
-            redis.hset(1, "Global", "Task_" + task.getCloudletId(), "status", "QUARANTINED");
+            Log.println(() -> getName() + ": Task " + task.getCloudletId() + " moved to QUARANTINE (Too many failures).");
+            taskQueue.addLast(QUARANTINE, task);
+            taskTable.setStatus(task.getCloudletId(), TaskStatus.QUARANTINED);
         } else {
             task.updateStatus(Cloudlet.CloudletStatus.CREATED);
-            highPriorityQueue.add(task);
-            redis.hset(1, "Global", "Task_" + task.getCloudletId(), "status", "QUEUED");
+            taskQueue.addLast(HIGH_PRIORITY, task);
+            taskTable.setStatus(task.getCloudletId(), TaskStatus.QUEUED);
         }
     }
 
     public List<ProposedCloudlet> getQuarantineQueue() {
-        return quarantineQueue;
+        return taskQueue.view(QUARANTINE);
     }
 
     // --- LB Failover Logic ---
 
     // Fault Tolerance Constants
-    private static final double LB_HEARTBEAT_TTL = 10.0; // Updated to 10s
+    private static final double DEFAULT_LB_HEARTBEAT_TTL = 10.0; // Updated to 10s
     private static final double LB_HEARTBEAT_INTERVAL = 5.0; // LB sends heartbeat every 5s
-    private static final double VM_HEARTBEAT_TTL = 10.0; // Updated to 10s
+    private static final double DEFAULT_VM_HEARTBEAT_TTL = 10.0; // Updated to 10s
     private static final double MONITOR_INTERVAL = 3.0; // Updated to 3s
     private static final double VM_HEARTBEAT_INTERVAL = 5.0; // Send every 5s
     private static final double VM_RESTART_DELAY = 30.0; // VM restart time (30s)
 
+    private double lbHeartbeatTtl = DEFAULT_LB_HEARTBEAT_TTL;
+    private double vmHeartbeatTtl = DEFAULT_VM_HEARTBEAT_TTL;
+
     private Set<Integer> heartbeatStartedVms;
 
+    // Batched heartbeats: the VMs whose loops start at the same time share one
+    // VM_HEARTBEAT_BATCH event per interval instead of one VM_HEARTBEAT event each.
+    // Every VM keeps its own heartbeat phase, so detection latencies are unchanged.
+    private boolean batchedHeartbeats = true;
+    private HeartbeatCohort openCohort; // cohort of the loops started at its start time
+
     // ... (Existing methods)
 
     @Override
@@ -523,16 +693,16 @@ public class ProposedBroker extends DatacenterBroker {
 
         // Start Periodic Health Monitor
         schedule(getId(), MONITOR_INTERVAL, ProposedTags.PERIODIC_MONITOR);
-        Log.printLine(getName() + " started Periodic Health Monitor (Interval: " + MONITOR_INTERVAL + "s)");
+        Log.println(() -> getName() + " started Periodic Health Monitor (Interval: " + MONITOR_INTERVAL + "s)");
 
         // Start Periodic LB Heartbeat Loop
         schedule(getId(), LB_HEARTBEAT_INTERVAL, ProposedTags.LB_HEARTBEAT);
-        Log.printLine(getName() + " started Periodic LB Heartbeat (Interval: " + LB_HEARTBEAT_INTERVAL + "s)");
+        Log.println(() -> getName() + " started Periodic LB Heartbeat (Interval: " + LB_HEARTBEAT_INTERVAL + "s)");
 
         // Schedule Failure if configured
         if (failureTime >= 0) {
             schedule(getId(), failureTime, ProposedTags.INJECT_LB_FAILURE);
-            Log.printLine(getName() + ": Scheduled Self-Destruction in " + failureTime + " seconds (Internal).");
+            Log.println(() -> getName() + ": Scheduled Self-Destruction in " + failureTime + " seconds (Internal).");
         }
     }
 
@@ -549,7 +719,7 @@ public class ProposedBroker extends DatacenterBroker {
             startVmHeartbeat(vmId);
         } else {
             // VM Creation Failed - Retry in next Datacenter
-            Log.printLine(getName() + ": Creation of Vm #" + vmId + " failed in Datacenter #" + datacenterId);
+            Log.println(() -> getName() + ": Creation of Vm #" + vmId + " failed in Datacenter #" + datacenterId);
 
             // Find next Datacenter
             List<Integer> dcList = getDatacenterIdsList();
@@ -564,7 +734,7 @@ public class ProposedBroker extends DatacenterBroker {
             }
 
             if (nextDcId != -1) {
-                Log.printLine(getName() + ": Retrying Vm #" + vmId + " in Datacenter #" + nextDcId);
+                Log.printlnConcat(getName(), ": Retrying Vm #", vmId, " in Datacenter #", nextDcId);
                 Vm vm = VmList.getById(getGuestList(), vmId);
                 if (vm != null) {
                     sendNow(nextDcId, CloudActionTags.VM_CREATE_ACK, vm); // Use VM_CREATE_ACK? No, VM_CREATE
@@ -582,7 +752,7 @@ public class ProposedBroker extends DatacenterBroker {
                     sendNow(nextDcId, CloudActionTags.VM_CREATE_ACK, vm);
                 }
             } else {
-                Log.printLine(getName() + ": Failed to create Vm #" + vmId + " in all Datacenters.");
+                Log.println(() -> getName() + ": Failed to create Vm #" + vmId + " in all Datacenters.");
             }
         }
     }
@@ -590,8 +760,17 @@ public class ProposedBroker extends DatacenterBroker {
     private void startVmHeartbeat(int vmId) {
         if (!heartbeatStartedVms.contains(vmId)) {
             heartbeatStartedVms.add(vmId);
-            schedule(getId(), VM_HEARTBEAT_INTERVAL, ProposedTags.VM_HEARTBEAT, vmId);
-            Log.printLine(getName() + ": Started Heartbeat Loop for VM #" + vmId);
+            if (batchedHeartbeats) {
+                double now = getSimulation().clock();
+                if (openCohort == null || openCohort.startTime != now) {
+                    openCohort = new HeartbeatCohort(now);
+                    schedule(getId(), VM_HEARTBEAT_INTERVAL, ProposedTags.VM_HEARTBEAT_BATCH, openCohort);
+                }
+                openCohort.add(vmId);
+            } else {
+                schedule(getId(), VM_HEARTBEAT_INTERVAL, ProposedTags.VM_HEARTBEAT, vmId);
+            }
+            Log.println(() -> getName() + ": Started Heartbeat Loop for VM #" + vmId);
         }
     }
 
@@ -616,7 +795,10 @@ public class ProposedBroker extends DatacenterBroker {
                 // 2. Check VM Health
                 checkVmHealth();
 
-                // 3. Reschedule Monitor
+                // 3. Expire Redis keys and deliver queued Pub/Sub messages
+                redis.tick(getSimulation().clock());
+
+                // 4. Reschedule Monitor
                 if (!simulationFinished && !failed) {
                     schedule(getId(), MONITOR_INTERVAL, ProposedTags.PERIODIC_MONITOR);
                 }
@@ -634,14 +816,23 @@ public class ProposedBroker extends DatacenterBroker {
                 int vmId = (Integer) ev.getData();
                 if (heartbeatStartedVms.contains(vmId)) {
                     // Update Redis
-                    redis.hset(2, region, "VM_" + vmId, "Last_Heartbeat", String.valueOf(CloudSim.clock()));
-                    redis.hset(2, region, "VM_" + vmId, "status", "ALIVE"); // Ensure it's marked ALIVE
+                    vmTable.heartbeat(vmId, getSimulation().clock()); // Also marks it ALIVE
 
                     // Reschedule
                     if (!simulationFinished && !failed) {
                         schedule(getId(), VM_HEARTBEAT_INTERVAL, ProposedTags.VM_HEARTBEAT, vmId);
                     }
                 }
+            } else if (ev.getTag() == ProposedTags.VM_HEARTBEAT_BATCH) {
+                // Heartbeat of every VM of the cohort; VMs whose loop stopped leave it
+                HeartbeatCohort cohort = (HeartbeatCohort) ev.getData();
+                cohort.retainAll(heartbeatStartedVms);
+                vmTable.heartbeat(cohort.vmIds, cohort.size, getSimulation().clock());
+
+                // Reschedule
+                if (cohort.size > 0 && !simulationFinished && !failed) {
+                    schedule(getId(), VM_HEARTBEAT_INTERVAL, ProposedTags.VM_HEARTBEAT_BATCH, cohort);
+                }
             } else if (ev.getTag() == ProposedTags.VM_RESTART_COMPLETE) {
                 // Handle VM Restart Completion
                 int vmId = (Integer) ev.getData();
@@ -649,15 +840,15 @@ public class ProposedBroker extends DatacenterBroker {
             } else if (ev.getTag() == ProposedTags.INJECT_VM_FAILURE) {
                 // Handle Manual Failure Injection (Silent Failure)
                 int vmId = (Integer) ev.getData();
-                Log.printLine(getName() + ": Injecting Failure into VM #" + vmId + " (Stopping Heartbeats)");
+                Log.println(() -> getName() + ": Injecting Failure into VM #" + vmId + " (Stopping Heartbeats)");
                 heartbeatStartedVms.remove(vmId);
                 // We do NOT call notifyVmFailure here. We let checkVmHealth detect it.
             } else if (ev.getTag() == ProposedTags.INJECT_LB_FAILURE) {
-                Log.printLine(getName() + ": CRITICAL FAILURE INJECTED! Stopping all operations.");
+                Log.println(() -> getName() + ": CRITICAL FAILURE INJECTED! Stopping all operations.");
                 failed = true;
             }
         } else if (ev.getTag() == CloudActionTags.BLANK) {
-            Log.printLine(getName() + ": CRITICAL FAILURE INJECTED (via BLANK)! Stopping all operations.");
+            Log.println(() -> getName() + ": CRITICAL FAILURE INJECTED (via BLANK)! Stopping all operations.");
             failed = true;
         } else {
             super.processEvent(ev);
@@ -668,18 +859,13 @@ public class ProposedBroker extends DatacenterBroker {
 
     public void checkVmHealth() {
         // Scan Local Zone (L2 Cache) for VM Heartbeats
-        Set<String> vmKeys = redis.scanKeys(2, region, "VM_");
-        double currentTime = CloudSim.clock();
-
-        for (String key : vmKeys) {
-            String status = redis.hget(2, region, key, "status");
-            String lastHeartbeatStr = redis.hget(2, region, key, "Last_Heartbeat");
-
-            if ("ALIVE".equals(status) && lastHeartbeatStr != null) {
-                double lastHeartbeat = Double.parseDouble(lastHeartbeatStr);
-                if (currentTime - lastHeartbeat > VM_HEARTBEAT_TTL) {
-                    int vmId = Integer.parseInt(key.replace("VM_", ""));
-                    Log.printLine(getName() + ": Detected VM Failure (VM #" + vmId + ") via Redis Heartbeat Timeout!");
+        double currentTime = getSimulation().clock();
+
+        for (int vmId = vmTable.next(0); vmId >= 0; vmId = vmTable.next(vmId + 1)) {
+            if (vmTable.getStatus(vmId) == NodeStatus.ALIVE) {
+                double lastHeartbeat = vmTable.getLastHeartbeat(vmId);
+                if (currentTime - lastHeartbeat > vmHeartbeatTtl) { // false while no heartbeat (NaN)
+                    Log.printlnConcat(getName(), ": Detected VM Failure (VM #", vmId, ") via Redis Heartbeat Timeout!");
                     notifyVmFailure(vmId);
                 }
             }
@@ -690,14 +876,13 @@ public class ProposedBroker extends DatacenterBroker {
         if (otherBroker != null && !takeoverDone) {
             // Redis-Based Failure Detection
             // Use getLbId() for Redis keys to match sendHeartbeat
-            String heartbeatStr = redis.hget(1, "Global", "LB_Status", "LB_" + otherBroker.getLbId() + "_Heartbeat");
+            double lastHeartbeat = lbTable.getLastHeartbeat(otherBroker.getLbId());
 
             boolean peerAlive = true;
-            if (heartbeatStr != null) {
-                double lastHeartbeat = Double.parseDouble(heartbeatStr);
-                if (CloudSim.clock() - lastHeartbeat > LB_HEARTBEAT_TTL) {
+            if (!Double.isNaN(lastHeartbeat)) {
+                if (getSimulation().clock() - lastHeartbeat > lbHeartbeatTtl) {
                     peerAlive = false;
-                    Log.printLine(getName() + ": Detected Peer Failure (LB" + otherBroker.getLbId()
+                    Log.println(() -> getName() + ": Detected Peer Failure (LB" + otherBroker.getLbId()
                             + ") via Redis Heartbeat Timeout!");
                 }
             }
@@ -712,31 +897,25 @@ public class ProposedBroker extends DatacenterBroker {
     private void sendHeartbeat() {
         // Update Redis L1 (Regional)
         // Use getLbId() (1 or 2) instead of getId() (Entity ID)
-        redis.hset(1, "Global", "LB_Status", "LB_" + lbId + "_Heartbeat", String.valueOf(CloudSim.clock()));
-        redis.hset(1, "Global", "LB_Status", "LB_" + lbId + "_Status", "ALIVE");
+        lbTable.heartbeat(lbId, getSimulation().clock());
     }
 
     public void takeOver(ProposedBroker victim) {
-        Log.printLine(getName() + ": CRITICAL - Detected " + victim.getName()
+        Log.println(() -> getName() + ": CRITICAL - Detected " + victim.getName()
                 + " FAILURE! Initiating TAKEOVER (Scenario C)...");
 
         // 1. Scan Level 1 Cache for Victim's Queued Tasks
-        Set<String> taskKeys = redis.scanKeys(1, "Global", "Task_");
         List<ProposedCloudlet> rescuedTasks = new ArrayList<>();
 
-        for (String key : taskKeys) {
-            String assignedLb = redis.hget(1, "Global", key, "assigned_lb");
-            String status = redis.hget(1, "Global", key, "status");
-
+        for (int taskId = taskTable.next(0); taskId >= 0; taskId = taskTable.next(taskId + 1)) {
             // Use victim.getLbId()
-            if (("LB" + victim.getLbId()).equals(assignedLb) && "QUEUED".equals(status)) {
-                int taskId = Integer.parseInt(key.replace("Task_", ""));
+            if (taskTable.getAssignedLb(taskId) == victim.getLbId() && taskTable.getStatus(taskId) == TaskStatus.QUEUED) {
                 ProposedCloudlet task = findTaskInBroker(victim, taskId);
 
                 if (task != null) {
                     rescuedTasks.add(task);
                     // Update Redis L1: Reassign to ME
-                    redis.hset(1, "Global", key, "assigned_lb", "LB" + lbId);
+                    taskTable.setAssignedLb(taskId, lbId);
                 }
             }
         }
@@ -745,28 +924,23 @@ public class ProposedBroker extends DatacenterBroker {
         for (ProposedCloudlet task : rescuedTasks) {
             enqueueTask(task);
             // Remove from victim's queues
-            victim.getHighPriorityQueue().remove(task);
-            victim.getMediumPriorityQueue().remove(task);
-            victim.getLowPriorityQueue().remove(task);
-            victim.getOverflowQueue().remove(task);
+            victim.taskQueue.remove(task);
         }
-        Log.printLine(getName() + ": Rescued " + rescuedTasks.size() + " queued tasks from L1 Cache.");
+        Log.println(() -> getName() + ": Rescued " + rescuedTasks.size() + " queued tasks from L1 Cache.");
 
         // 2. Connect to Victim's Level 2 Cache
         // Use victim.getLbId() to determine region
         String victimRegion = (victim.getLbId() == 1) ? "A" : "B";
-        Log.printLine(getName() + ": Connecting to Level 2 Cache Region " + victimRegion + "...");
+        Log.println(() -> getName() + ": Connecting to Level 2 Cache Region " + victimRegion + "...");
 
-        Set<String> vmKeys = redis.scanKeys(2, victimRegion, "VM_");
+        VmTable victimVmTable = clusterState.zone(victimRegion);
         List<Vm> victimVms = new ArrayList<>();
+        Set<Integer> connectedVmIds = new HashSet<>();
 
-        for (String vmKey : vmKeys) {
-            int vmId = Integer.parseInt(vmKey.replace("VM_", ""));
-            for (GuestEntity entity : victim.getGuestsCreatedList()) {
-                if (entity.getId() == vmId && entity instanceof Vm) {
-                    victimVms.add((Vm) entity);
-                    break;
-                }
+        // VMs registered in the victim's zone, once each, in the victim's creation order
+        for (GuestEntity entity : victim.getGuestsCreatedList()) {
+            if (entity instanceof Vm && victimVmTable.contains(entity.getId()) && connectedVmIds.add(entity.getId())) {
+                victimVms.add((Vm) entity);
             }
         }
 
@@ -774,22 +948,63 @@ public class ProposedBroker extends DatacenterBroker {
         getGuestsCreatedList().addAll(victimVms);
         // CRITICAL FIX: Copy VM-to-Datacenter mapping so we know where to send tasks!
         getVmsToDatacentersMap().putAll(victim.getVmsToDatacentersMap());
-        Log.printLine(getName() + ": Connected to " + victimVms.size() + " VMs via L2 Cache.");
+        Log.println(() -> getName() + ": Connected to " + victimVms.size() + " VMs via L2 Cache.");
     }
 
     private ProposedCloudlet findTaskInBroker(ProposedBroker broker, int taskId) {
-        for (ProposedCloudlet c : broker.getHighPriorityQueue())
-            if (c.getCloudletId() == taskId)
-                return c;
-        for (ProposedCloudlet c : broker.getMediumPriorityQueue())
-            if (c.getCloudletId() == taskId)
-                return c;
-        for (ProposedCloudlet c : broker.getLowPriorityQueue())
-            if (c.getCloudletId() == taskId)
-                return c;
-        for (ProposedCloudlet c : broker.getOverflowQueue())
-            if (c.getCloudletId() == taskId)
-                return c;
-        return null;
+        // High, Medium, Low, then Overflow (quarantined tasks are not rescued)
+        return broker.taskQueue.findById(taskId, HIGH_PRIORITY, OVERFLOW);
+    }
+
+    /** A created VM in the SBDLB index, with its score for the current task count. */
+    private static final class VmSlot {
+        static final Comparator<VmSlot> BY_SCORE = Comparator.<VmSlot>comparingDouble(slot -> slot.score).reversed()
+                .thenComparingInt(slot -> slot.position);
+
+        final Vm vm;
+        final int position; // position in the created VM list
+        double score;
+
+        VmSlot(Vm vm, int position) {
+            this.vm = vm;
+            this.position = position;
+        }
+    }
+
+    /** VMs whose heartbeat loops started at the same time. */
+    private static final class HeartbeatCohort {
+        final double startTime;
+        int[] vmIds = new int[8];
+        int size = 0;
+
+        HeartbeatCohort(double startTime) {
+            this.startTime = startTime;
+        }
+
+        void add(int vmId) {
+            if (size == vmIds.length)
+                vmIds = Arrays.copyOf(vmIds, size * 2);
+            vmIds[size++] = vmId;
+        }
+
+        void retainAll(Set<Integer> vms) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (vms.contains(vmIds[i]))
+                    vmIds[kept++] = vmIds[i];
+            }
+            size = kept;
+        }
+    }
+
+    /** Aging deadline of a task in the Low Priority Queue; seq is its position in that queue. */
+    private record AgingEntry(ProposedCloudlet cloudlet, double submissionTime, long seq)
+            implements Comparable<AgingEntry> {
+
+        @Override
+        public int compareTo(AgingEntry other) {
+            int bySubmission = Double.compare(submissionTime, other.submissionTime);
+            return bySubmission != 0 ? bySubmission : Long.compare(seq, other.seq);
+        }
     }
 }
@@ -5,6 +5,7 @@ import org.cloudbus.cloudsim.core.CloudSimTags;
 public enum ProposedTags implements CloudSimTags {
     PERIODIC_MONITOR,
     VM_HEARTBEAT,
+    VM_HEARTBEAT_BATCH,
     VM_RESTART_COMPLETE,
     LB_HEARTBEAT,
     INJECT_VM_FAILURE,
@@ -1,14 +1,36 @@
 package org.cloudbus.cloudsim.examples.ds.proposed;
 
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimulationContext;
+
 import java.util.*;
+import java.util.function.Supplier;
 
 /**
  * Simulates a Two-Level Redis Cache Architecture.
  * Level 1: Regional (Shared)
  * Level 2: Zonal (Split into Zone 1 for LB1 and Zone 2 for LB2)
+ *
+ * Task ("Task_&lt;id&gt;"), LB ("LB_Status") and VM ("VM_&lt;id&gt;") entries are kept
+ * in a typed {@link ClusterStateStore}; the string hash API below is an adapter
+ * over it for compatibility, so brokers should use {@link #getClusterState()}.
+ *
+ * One instance exists per simulation context, so simulations running in parallel
+ * never see each other's keys.
  */
 public class RedisMock {
-    private static RedisMock instance;
+
+    private static final String VM_PREFIX = "VM_";
+    private static final String TASK_PREFIX = "Task_";
+    private static final String LB_STATUS_KEY = "LB_Status";
+    private static final String STATUS = "status";
+    private static final String LAST_HEARTBEAT = "Last_Heartbeat";
+    private static final String ASSIGNED_LB = "assigned_lb";
+    private static final String LB_HEARTBEAT_SUFFIX = "_Heartbeat";
+    private static final String LB_STATUS_SUFFIX = "_Status";
+
+    // Typed tables behind the well-known keys (tasks, LBs, VMs)
+    private final ClusterStateStore state = new ClusterStateStore();
 
     // Level 1 Cache (Regional)
     private Map<String, Map<String, String>> regionalCache;
@@ -16,11 +38,28 @@ public class RedisMock {
     // Level 2 Caches (Zonal) - Map<ZoneID, Cache>
     private Map<String, Map<String, Map<String, String>>> zonalCache;
 
-    // TTL Management: Key -> Expiry Time (Simulation Time)
-    private Map<String, Double> expiryMap;
+    // Key -> the zones whose Level 2 Cache holds it, so that a key is found without visiting every zone
+    private final Map<String, List<String>> zonesByKey = new HashMap<>();
+
+    // TTL Management: Key -> Expiry (Simulation Time)
+    private Map<String, Expiry> expiryMap;
+
+    // Pending expiries, earliest first. An entry that is no longer the key's
+    // current expiry (TTL reset, key deleted) is stale and skipped when polled.
+    private final PriorityQueue<Expiry> expiryQueue = new PriorityQueue<>();
+    private long expirySequence = 0;
+
+    // Pub/Sub: Channel -> Subscriptions, plus pattern subscriptions (PSUBSCRIBE)
+    private Map<String, List<Subscription>> subscribers;
+    private final List<Subscription> patternSubscribers = new ArrayList<>();
 
-    // Pub/Sub: Channel -> List of Subscribers
-    private Map<String, List<RedisSubscriber>> subscribers;
+    // Subscriptions in subscription order, for dispatching
+    private final List<Subscription> allSubscriptions = new ArrayList<>();
+
+    // Channel -> number of messages published on it
+    private final Map<String, long[]> publishedCount = new HashMap<>();
+
+    public static final int DEFAULT_SUBSCRIBER_CAPACITY = 1024;
 
     public interface RedisSubscriber {
         void onMessage(String channel, String message);
@@ -33,15 +72,27 @@ public class RedisMock {
         subscribers = new HashMap<>();
     }
 
+    /**
+     * Gets the cache of the current simulation context, creating it on first use.
+     * A fresh cache is created after every {@code CloudSim.init}.
+     */
     public static RedisMock getInstance() {
-        if (instance == null) {
-            instance = new RedisMock();
-        }
-        return instance;
+        return getInstance(CloudSim.getContext());
+    }
+
+    public static RedisMock getInstance(SimulationContext context) {
+        return context.getService(RedisMock.class, RedisMock::new);
     }
 
     public static void reset() {
-        instance = new RedisMock();
+        CloudSim.getContext().putService(RedisMock.class, new RedisMock());
+    }
+
+    /**
+     * Gets the typed cluster state (task, LB and VM tables) behind the string API.
+     */
+    public ClusterStateStore getClusterState() {
+        return state;
     }
 
     // --- Helper Methods ---
@@ -59,19 +110,223 @@ public class RedisMock {
         return null; // Should not happen with valid level
     }
 
+    /**
+     * Gets the typed table a key is stored in: "Task_&lt;id&gt;" and "LB_Status" on
+     * Level 1, "VM_&lt;id&gt;" on Level 2. Other keys are plain string hashes.
+     */
+    private ClusterStateStore.IdTable getTable(int level, String region, String key) {
+        if (level == 1) {
+            if (LB_STATUS_KEY.equals(key))
+                return state.loadBalancers();
+            if (parseId(key, TASK_PREFIX) >= 0)
+                return state.tasks();
+        } else if (level == 2 && parseId(key, VM_PREFIX) >= 0) {
+            return state.zone(region);
+        }
+        return null;
+    }
+
+    /**
+     * @return the id after the prefix, or -1 if the key is not prefix + id
+     */
+    private static int parseId(String key, String prefix) {
+        if (!key.startsWith(prefix) || key.length() == prefix.length() || key.length() > prefix.length() + 9)
+            return -1;
+        int id = 0;
+        for (int i = prefix.length(); i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c < '0' || c > '9')
+                return -1;
+            id = id * 10 + (c - '0');
+        }
+        return id;
+    }
+
+    private static String formatTime(double time) {
+        return Double.isNaN(time) ? null : String.valueOf(time);
+    }
+
+    private static String formatName(Enum<?> value) {
+        return value == null ? null : value.name();
+    }
+
+    /**
+     * Reads a typed field, or returns null if the field is not a typed one.
+     */
+    private String getTypedField(ClusterStateStore.IdTable table, String key, String field) {
+        if (table instanceof ClusterStateStore.VmTable vms) {
+            int vmId = parseId(key, VM_PREFIX);
+            if (STATUS.equals(field))
+                return formatName(vms.getStatus(vmId));
+            if (LAST_HEARTBEAT.equals(field))
+                return formatTime(vms.getLastHeartbeat(vmId));
+        } else if (table instanceof ClusterStateStore.TaskTable tasks) {
+            int taskId = parseId(key, TASK_PREFIX);
+            if (STATUS.equals(field))
+                return formatName(tasks.getStatus(taskId));
+            if (ASSIGNED_LB.equals(field))
+                return tasks.getAssignedLb(taskId) == 0 ? null : "LB" + tasks.getAssignedLb(taskId);
+        } else if (table instanceof ClusterStateStore.LbTable lbs) {
+            int lbId = parseLbField(field, LB_HEARTBEAT_SUFFIX);
+            if (lbId >= 0)
+                return formatTime(lbs.getLastHeartbeat(lbId));
+            lbId = parseLbField(field, LB_STATUS_SUFFIX);
+            if (lbId >= 0)
+                return formatName(lbs.getStatus(lbId));
+        }
+        return null;
+    }
+
+    /**
+     * Writes a typed field. A value the typed table cannot hold (an unknown status,
+     * a time or LB that does not parse) clears the typed field instead, so that the
+     * caller keeps the raw string: any string written can be read back.
+     *
+     * @return false if the field is not a typed one, or the value is not valid for it
+     */
+    private boolean setTypedField(ClusterStateStore.IdTable table, String key, String field, String value) {
+        if (table instanceof ClusterStateStore.VmTable vms) {
+            int vmId = parseId(key, VM_PREFIX);
+            if (STATUS.equals(field)) {
+                ClusterStateStore.NodeStatus status = parseEnum(ClusterStateStore.NodeStatus.class, value);
+                vms.setStatus(vmId, status);
+                return status != null;
+            }
+            if (LAST_HEARTBEAT.equals(field)) {
+                double time = parseTime(value);
+                vms.setLastHeartbeat(vmId, time);
+                return !Double.isNaN(time);
+            }
+        } else if (table instanceof ClusterStateStore.TaskTable tasks) {
+            int taskId = parseId(key, TASK_PREFIX);
+            if (STATUS.equals(field)) {
+                ClusterStateStore.TaskStatus status = parseEnum(ClusterStateStore.TaskStatus.class, value);
+                tasks.setStatus(taskId, status);
+                return status != null;
+            }
+            if (ASSIGNED_LB.equals(field)) {
+                int lbId = value == null ? -1 : parseId(value, "LB");
+                tasks.setAssignedLb(taskId, Math.max(0, lbId));
+                return lbId > 0;
+            }
+        } else if (table instanceof ClusterStateStore.LbTable lbs) {
+            int lbId = parseLbField(field, LB_HEARTBEAT_SUFFIX);
+            if (lbId >= 0) {
+                double time = parseTime(value);
+                lbs.setLastHeartbeat(lbId, time);
+                return !Double.isNaN(time);
+            }
+            lbId = parseLbField(field, LB_STATUS_SUFFIX);
+            if (lbId >= 0) {
+                ClusterStateStore.NodeStatus status = parseEnum(ClusterStateStore.NodeStatus.class, value);
+                lbs.setStatus(lbId, status);
+                return status != null;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the constant with the given name, or null if there is none
+     */
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value) {
+        if (value == null)
+            return null;
+        for (E constant : type.getEnumConstants()) {
+            if (constant.name().equals(value))
+                return constant;
+        }
+        return null;
+    }
+
+    /**
+     * @return the time, or NaN if the value is not a number
+     */
+    private static double parseTime(String value) {
+        if (value == null)
+            return Double.NaN;
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * @return n for a field "LB_&lt;n&gt;&lt;suffix&gt;", -1 otherwise
+     */
+    private static int parseLbField(String field, String suffix) {
+        if (!field.endsWith(suffix))
+            return -1;
+        return parseId(field.substring(0, field.length() - suffix.length()), "LB_");
+    }
+
+    private void putTypedFields(ClusterStateStore.IdTable table, String key, Map<String, String> fields) {
+        if (table instanceof ClusterStateStore.LbTable lbs) {
+            for (int lbId = lbs.next(0); lbId >= 0; lbId = lbs.next(lbId + 1)) {
+                putIfSet(fields, "LB_" + lbId + LB_HEARTBEAT_SUFFIX, formatTime(lbs.getLastHeartbeat(lbId)));
+                putIfSet(fields, "LB_" + lbId + LB_STATUS_SUFFIX, formatName(lbs.getStatus(lbId)));
+            }
+        } else if (table instanceof ClusterStateStore.TaskTable) {
+            putIfSet(fields, STATUS, getTypedField(table, key, STATUS));
+            putIfSet(fields, ASSIGNED_LB, getTypedField(table, key, ASSIGNED_LB));
+        } else {
+            putIfSet(fields, STATUS, getTypedField(table, key, STATUS));
+            putIfSet(fields, LAST_HEARTBEAT, getTypedField(table, key, LAST_HEARTBEAT));
+        }
+    }
+
+    private static void putIfSet(Map<String, String> fields, String field, String value) {
+        if (value != null)
+            fields.put(field, value);
+    }
+
+    private boolean existsTyped(ClusterStateStore.IdTable table, String key) {
+        if (table instanceof ClusterStateStore.LbTable)
+            return table.size() > 0;
+        return table.contains(parseId(key, table instanceof ClusterStateStore.VmTable ? VM_PREFIX : TASK_PREFIX));
+    }
+
+    private void removeTyped(ClusterStateStore.IdTable table, String key) {
+        if (table instanceof ClusterStateStore.LbTable) {
+            for (int lbId = table.next(0); lbId >= 0; lbId = table.next(lbId + 1))
+                table.remove(lbId);
+        } else {
+            table.remove(parseId(key, table instanceof ClusterStateStore.VmTable ? VM_PREFIX : TASK_PREFIX));
+        }
+    }
+
     // --- Hash Operations (HSET, HGET, HGETALL, DEL) ---
+    // Typed fields ("status", "Last_Heartbeat", "assigned_lb", "LB_<n>_Heartbeat",
+    // "LB_<n>_Status") of typed keys live in the ClusterStateStore; any other field,
+    // or a typed field set to a value its table cannot hold, is kept as a string.
 
     public void hset(int level, String region, String key, String field, String value) {
+        ClusterStateStore.IdTable table = getTable(level, region, key);
         Map<String, Map<String, String>> cache = getCache(level, region);
+        if (table != null && setTypedField(table, key, field, value)) {
+            // the typed value replaces a raw string set before
+            if (cache != null && cache.containsKey(key))
+                cache.get(key).remove(field);
+            return;
+        }
         if (cache != null) {
             if (!cache.containsKey(key)) {
                 cache.put(key, new HashMap<>());
+                if (level == 2)
+                    zonesByKey.computeIfAbsent(key, k -> new ArrayList<>(1)).add(region);
             }
             cache.get(key).put(field, value);
         }
     }
 
     public String hget(int level, String region, String key, String field) {
+        ClusterStateStore.IdTable table = getTable(level, region, key);
+        if (table != null) {
+            String value = getTypedField(table, key, field);
+            if (value != null)
+                return value;
+        }
         Map<String, Map<String, String>> cache = getCache(level, region);
         if (cache != null && cache.containsKey(key)) {
             return cache.get(key).get(field);
@@ -81,8 +336,15 @@ public class RedisMock {
 
     public Map<String, String> hgetAll(int level, String region, String key) {
         Map<String, Map<String, String>> cache = getCache(level, region);
-        if (cache != null && cache.containsKey(key)) {
-            return new HashMap<>(cache.get(key));
+        ClusterStateStore.IdTable table = getTable(level, region, key);
+        boolean typed = table != null && existsTyped(table, key);
+        if (cache != null && (typed || cache.containsKey(key))) {
+            Map<String, String> fields = new HashMap<>();
+            if (cache.containsKey(key))
+                fields.putAll(cache.get(key));
+            if (typed)
+                putTypedFields(table, key, fields);
+            return fields;
         }
         return null;
     }
@@ -90,7 +352,15 @@ public class RedisMock {
     public void del(int level, String region, String key) {
         Map<String, Map<String, String>> cache = getCache(level, region);
         if (cache != null) {
-            cache.remove(key);
+            if (cache.remove(key) != null && level == 2) {
+                List<String> zones = zonesByKey.get(key);
+                zones.remove(region);
+                if (zones.isEmpty())
+                    zonesByKey.remove(key);
+            }
+            ClusterStateStore.IdTable table = getTable(level, region, key);
+            if (table != null)
+                removeTyped(table, key);
             expiryMap.remove(key); // Remove TTL if exists
         }
     }
@@ -104,49 +374,89 @@ public class RedisMock {
                     matches.add(key);
                 }
             }
+            if (level == 1) {
+                ClusterStateStore.TaskTable tasks = state.tasks();
+                for (int id = tasks.next(0); id >= 0; id = tasks.next(id + 1))
+                    addIfMatches(matches, TASK_PREFIX + id, prefix);
+                if (state.loadBalancers().size() > 0)
+                    addIfMatches(matches, LB_STATUS_KEY, prefix);
+            } else {
+                ClusterStateStore.VmTable vms = state.zone(region);
+                for (int id = vms.next(0); id >= 0; id = vms.next(id + 1))
+                    addIfMatches(matches, VM_PREFIX + id, prefix);
+            }
         }
         return matches;
     }
 
+    private static void addIfMatches(Set<String> matches, String key, String prefix) {
+        if (key.startsWith(prefix))
+            matches.add(key);
+    }
+
     // --- TTL Operations (SETEX, EXPIRE) ---
 
     public void setEx(int level, String region, String key, String value, double currentSimTime, double ttlSeconds) {
         // For simplicity, we treat SETEX as setting a field "status" = value in the
         // hash
         hset(level, region, key, "status", value);
-        expiryMap.put(key, currentSimTime + ttlSeconds);
+        setExpiry(key, currentSimTime + ttlSeconds);
     }
 
     public void expire(String key, double currentSimTime, double ttlSeconds) {
         if (expiryMap.containsKey(key) || existsInAnyCache(key)) {
-            expiryMap.put(key, currentSimTime + ttlSeconds);
+            setExpiry(key, currentSimTime + ttlSeconds);
+        }
+    }
+
+    /**
+     * Gets the expiry time of a key.
+     *
+     * @return the expiry time, or -1 if the key has no TTL
+     */
+    public double getExpiry(String key) {
+        Expiry expiry = expiryMap.get(key);
+        return expiry == null ? -1 : expiry.time();
+    }
+
+    private void setExpiry(String key, double time) {
+        Expiry expiry = new Expiry(time, expirySequence++, key);
+        expiryMap.put(key, expiry);
+        expiryQueue.add(expiry);
+
+        // drop stale entries once they outnumber the live ones
+        if (expiryQueue.size() > 2 * expiryMap.size() + 64) {
+            expiryQueue.clear();
+            expiryQueue.addAll(expiryMap.values());
         }
     }
 
     private boolean existsInAnyCache(String key) {
-        if (regionalCache.containsKey(key))
+        if (regionalCache.containsKey(key) || zonesByKey.containsKey(key))
             return true;
-        for (Map<String, Map<String, String>> zoneCache : zonalCache.values()) {
-            if (zoneCache.containsKey(key))
-                return true;
-        }
-        return false;
+        ClusterStateStore.IdTable table = getTable(1, null, key);
+        if (table != null && existsTyped(table, key))
+            return true;
+        int vmId = parseId(key, VM_PREFIX);
+        return vmId >= 0 && state.containsVm(vmId);
     }
 
     // --- Simulation Tick (Check for Expired Keys) ---
 
     /**
-     * Checks for expired keys and publishes "expired" events.
+     * Checks for expired keys and publishes "expired" events, in expiry order
+     * (keys with the same expiry time in the order their TTL was set), then
+     * delivers the queued Pub/Sub messages.
+     * Only the keys that expired are visited.
      * 
      * @param currentSimTime Current simulation time
      */
     public void tick(double currentSimTime) {
-        Iterator<Map.Entry<String, Double>> it = expiryMap.entrySet().iterator();
-        while (it.hasNext()) {
-            Map.Entry<String, Double> entry = it.next();
-            if (currentSimTime >= entry.getValue()) {
-                String key = entry.getKey();
-                it.remove();
+        while (!expiryQueue.isEmpty() && currentSimTime >= expiryQueue.peek().time()) {
+            Expiry expiry = expiryQueue.poll();
+            String key = expiry.key();
+            if (expiryMap.get(key) == expiry) {
+                expiryMap.remove(key);
 
                 // Publish Expiry Event
                 // Format: "expired:<key>"
@@ -154,27 +464,261 @@ public class RedisMock {
 
                 // Auto-delete from all caches (Simulating Redis behavior)
                 regionalCache.remove(key);
-                for (Map<String, Map<String, String>> zoneCache : zonalCache.values()) {
-                    zoneCache.remove(key);
+                List<String> zones = zonesByKey.remove(key);
+                if (zones != null) {
+                    for (String zone : zones)
+                        zonalCache.get(zone).remove(key);
                 }
+                ClusterStateStore.IdTable table = getTable(1, null, key);
+                if (table != null)
+                    removeTyped(table, key);
+                int vmId = parseId(key, VM_PREFIX);
+                if (vmId >= 0)
+                    state.removeVm(vmId);
             }
         }
+        dispatch();
+    }
+
+    /** A TTL deadline; seq orders keys that expire at the same time. */
+    private record Expiry(double time, long seq, String key) implements Comparable<Expiry> {
+
+        @Override
+        public int compareTo(Expiry other) {
+            int byTime = Double.compare(time, other.time);
+            return byTime != 0 ? byTime : Long.compare(seq, other.seq);
+        }
     }
 
     // --- Pub/Sub Operations ---
 
-    public void subscribe(String channel, RedisSubscriber subscriber) {
-        if (!subscribers.containsKey(channel)) {
-            subscribers.put(channel, new ArrayList<>());
+    /**
+     * Subscribes to a channel, with a buffer of {@link #DEFAULT_SUBSCRIBER_CAPACITY} messages.
+     */
+    public Subscription subscribe(String channel, RedisSubscriber subscriber) {
+        return subscribe(channel, subscriber, DEFAULT_SUBSCRIBER_CAPACITY);
+    }
+
+    /**
+     * Subscribes to a channel. Messages are buffered and delivered by {@link #dispatch()};
+     * once the subscriber has {@code capacity} undelivered messages, new ones are dropped.
+     */
+    public Subscription subscribe(String channel, RedisSubscriber subscriber, int capacity) {
+        Subscription subscription = new Subscription(channel, false, subscriber, capacity);
+        subscribers.computeIfAbsent(channel, k -> new ArrayList<>()).add(subscription);
+        allSubscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Subscribes to all channels matching a glob-style pattern ('*' matches any
+     * sequence of characters, '?' any single character).
+     */
+    public Subscription psubscribe(String pattern, RedisSubscriber subscriber) {
+        return psubscribe(pattern, subscriber, DEFAULT_SUBSCRIBER_CAPACITY);
+    }
+
+    public Subscription psubscribe(String pattern, RedisSubscriber subscriber, int capacity) {
+        Subscription subscription = new Subscription(pattern, true, subscriber, capacity);
+        patternSubscribers.add(subscription);
+        allSubscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Cancels a subscription; its undelivered messages are discarded.
+     */
+    public void unsubscribe(Subscription subscription) {
+        if (subscription.pattern) {
+            patternSubscribers.remove(subscription);
+        } else {
+            List<Subscription> list = subscribers.get(subscription.channel);
+            if (list != null)
+                list.remove(subscription);
+        }
+        allSubscriptions.remove(subscription);
+        subscription.clear();
+    }
+
+    /**
+     * Checks whether a message published on the channel would reach any subscriber.
+     */
+    public boolean hasSubscribers(String channel) {
+        List<Subscription> list = subscribers.get(channel);
+        if (list != null && !list.isEmpty())
+            return true;
+        for (Subscription subscription : patternSubscribers) {
+            if (globMatches(subscription.channel, channel))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Publishes a message. It is queued for every matching subscriber and delivered
+     * on the next {@link #dispatch()} (or {@link #tick(double)}), not in the
+     * publisher's call stack.
+     *
+     * @return the number of subscribers the message was queued for, as Redis
+     *         PUBLISH replies; callers may ignore it
+     */
+    public int publish(String channel, String message) {
+        publishedCount.computeIfAbsent(channel, k -> new long[1])[0]++;
+        int receivers = 0;
+        List<Subscription> list = subscribers.get(channel);
+        if (list != null) {
+            for (Subscription subscription : list) {
+                if (subscription.offer(channel, message))
+                    receivers++;
+            }
+        }
+        for (Subscription subscription : patternSubscribers) {
+            if (globMatches(subscription.channel, channel) && subscription.offer(channel, message))
+                receivers++;
+        }
+        return receivers;
+    }
+
+    /**
+     * Publishes a message that is only built if some subscriber would receive it.
+     *
+     * @return the number of subscribers the message was queued for
+     */
+    public int publish(String channel, Supplier<String> message) {
+        if (!hasSubscribers(channel)) {
+            publishedCount.computeIfAbsent(channel, k -> new long[1])[0]++;
+            return 0;
+        }
+        return publish(channel, message.get());
+    }
+
+    /**
+     * Gets the number of messages published on a channel, whether or not anyone
+     * was subscribed.
+     */
+    public long getPublishedCount(String channel) {
+        long[] count = publishedCount.get(channel);
+        return count == null ? 0 : count[0];
+    }
+
+    /**
+     * Delivers the queued messages, subscriber by subscriber in subscription order.
+     * Messages published while dispatching are left for the next dispatch.
+     *
+     * @return the number of messages delivered
+     */
+    public int dispatch() {
+        int delivered = 0;
+        for (Subscription subscription : new ArrayList<>(allSubscriptions)) {
+            delivered += subscription.deliver();
         }
-        subscribers.get(channel).add(subscriber);
+        return delivered;
     }
 
-    public void publish(String channel, String message) {
-        if (subscribers.containsKey(channel)) {
-            for (RedisSubscriber sub : subscribers.get(channel)) {
-                sub.onMessage(channel, message);
+    /**
+     * Glob-style matching with '*' and '?'.
+     */
+    static boolean globMatches(String pattern, String text) {
+        int p = 0, t = 0, star = -1, mark = 0;
+        while (t < text.length()) {
+            if (p < pattern.length() && (pattern.charAt(p) == '?' || pattern.charAt(p) == text.charAt(t))) {
+                p++;
+                t++;
+            } else if (p < pattern.length() && pattern.charAt(p) == '*') {
+                star = p++;
+                mark = t;
+            } else if (star >= 0) {
+                p = star + 1;
+                t = ++mark;
+            } else {
+                return false;
             }
         }
+        while (p < pattern.length() && pattern.charAt(p) == '*')
+            p++;
+        return p == pattern.length();
+    }
+
+    /**
+     * A channel or pattern subscription, with a bounded ring buffer of undelivered
+     * messages and delivery/drop counters.
+     */
+    public static final class Subscription {
+        private final String channel; // or pattern
+        private final boolean pattern;
+        private final RedisSubscriber subscriber;
+        private final String[] channels;
+        private final String[] messages;
+        private int head = 0;
+        private int size = 0;
+        private long delivered = 0;
+        private long dropped = 0;
+
+        private Subscription(String channel, boolean pattern, RedisSubscriber subscriber, int capacity) {
+            if (capacity <= 0)
+                throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+            this.channel = channel;
+            this.pattern = pattern;
+            this.subscriber = subscriber;
+            this.channels = new String[capacity];
+            this.messages = new String[capacity];
+        }
+
+        private boolean offer(String channel, String message) {
+            if (size == messages.length) {
+                dropped++;
+                return false;
+            }
+            int tail = (head + size) % messages.length;
+            channels[tail] = channel;
+            messages[tail] = message;
+            size++;
+            return true;
+        }
+
+        private int deliver() {
+            int pending = size;
+            int count = 0;
+            for (; count < pending && size > 0; count++) {
+                String messageChannel = channels[head];
+                String message = messages[head];
+                channels[head] = null;
+                messages[head] = null;
+                head = (head + 1) % messages.length;
+                size--;
+                delivered++;
+                subscriber.onMessage(messageChannel, message);
+            }
+            return count;
+        }
+
+        private void clear() {
+            Arrays.fill(channels, null);
+            Arrays.fill(messages, null);
+            head = 0;
+            size = 0;
+        }
+
+        /** Gets the subscribed channel, or the pattern of a pattern subscription. */
+        public String getChannel() {
+            return channel;
+        }
+
+        public boolean isPattern() {
+            return pattern;
+        }
+
+        public int getPendingCount() {
+            return size;
+        }
+
+        public long getDeliveredCount() {
+            return delivered;
+        }
+
+        /** Gets the number of messages dropped because the buffer was full. */
+        public long getDroppedCount() {
+            return dropped;
+        }
     }
 }
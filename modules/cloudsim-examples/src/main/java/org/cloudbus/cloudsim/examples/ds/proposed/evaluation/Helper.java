@@ -17,6 +17,7 @@ import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Random;
 
 public class Helper {
 
@@ -144,4 +145,33 @@ public class Helper {
 
         return list;
     }
+
+    /**
+     * Same cloudlet shapes as {@link #createCloudletList(int, int)}, but the type of
+     * every cloudlet is drawn uniformly at random from the given seed, so different
+     * seeds yield different TEXT/IMAGE/REEL mixes and arrival orders.
+     */
+    public static List<ProposedCloudlet> createCloudletList(int brokerId, int count, long seed) {
+        List<ProposedCloudlet> list = new ArrayList<ProposedCloudlet>();
+        ProposedCloudlet.CloudletType[] types = ProposedCloudlet.CloudletType.values();
+        Random random = new Random(seed);
+        org.cloudbus.cloudsim.UtilizationModel utilizationModel = new org.cloudbus.cloudsim.UtilizationModelFull();
+
+        for (int i = 0; i < count; i++) {
+            ProposedCloudlet.CloudletType type = types[random.nextInt(types.length)];
+            long length = switch (type) {
+                case TEXT -> 5000;
+                case IMAGE -> 50000;
+                case REEL -> 200000;
+            };
+
+            ProposedCloudlet cloudlet = new ProposedCloudlet(
+                    i, length, 1, 300, 300,
+                    utilizationModel, utilizationModel, utilizationModel, type);
+            cloudlet.setUserId(brokerId);
+            list.add(cloudlet);
+        }
+
+        return list;
+    }
 }
@@ -1,14 +1,34 @@
 package org.cloudbus.cloudsim.examples.ds.proposed.evaluation;
 
 import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.EX.util.ExperimentDefinition;
+import org.cloudbus.cloudsim.EX.util.ExperimentsRunner;
+
+import java.util.Arrays;
+import java.util.List;
 
 public class RunAllExperiments {
 
-    public static void main(String[] args) {
+    /**
+     * Runs Experiments 1-4. With "--parallel" they run concurrently, each in its own
+     * simulation context (their logs will interleave).
+     */
+    public static void main(String[] args) throws Exception {
         Log.printLine("==========================================");
         Log.printLine("Running All Experiments for Research Paper");
         Log.printLine("==========================================");
 
+        if (Arrays.asList(args).contains("--parallel")) {
+            List<ExperimentDefinition> experiments = Arrays.asList(
+                    new ExperimentDefinition(Experiment1_Baseline.class, -1, -1),
+                    new ExperimentDefinition(Experiment2_VmFailure.class, -1, -1),
+                    new ExperimentDefinition(Experiment3_LbFailure.class, -1, -1),
+                    new ExperimentDefinition(Experiment4_WorkStealing.class, -1, -1));
+            ExperimentsRunner.runExperimentsInProcess(experiments, 0);
+            Log.println("All Experiments Completed.");
+            return;
+        }
+
         // Run Experiment 1
         Experiment1_Baseline.main(args);
         Log.printLine("\n------------------------------------------\n");
@@ -0,0 +1,177 @@
+package org.cloudbus.cloudsim.examples.ds.proposed.evaluation;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.EX.util.ExperimentsRunner;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.examples.ds.proposed.ProposedBroker;
+import org.cloudbus.cloudsim.examples.ds.proposed.ProposedCloudlet;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+
+/**
+ * Parameter sweep over the scalability scenario of Experiment 5 (one
+ * ProposedBroker and one Datacenter per region, brokers linked in a ring).
+ *
+ * Every point of the grid is an isolated simulation; the runs are spread over
+ * all cores by {@link ExperimentsRunner#runInProcess} and each run's metrics are
+ * appended to the CSV file as soon as it finishes.
+ *
+ * Usage: ScalabilitySweep [output.csv] [numFreeCPUs]
+ */
+public class ScalabilitySweep {
+
+    private static final String HEADER = "DCs,VMs_per_DC,Total_VMs,Tasks,Task_Threshold,LB_Heartbeat_TTL,VM_Heartbeat_TTL,Seed,"
+            + "Completed,Avg_Response_Time_s,Throughput_tasks_s,Makespan_s,Wall_Time_ms";
+
+    /** One point of the parameter grid. */
+    public record Parameters(int numDCs, int vmsPerDC, int totalTasks, int taskThreshold,
+                             double lbHeartbeatTtl, double vmHeartbeatTtl, long seed) {
+    }
+
+    /** The metrics collected from one run. */
+    public record Result(Parameters parameters, int completed, double avgResponseTime,
+                         double throughput, double makespan, long wallTimeMs) {
+
+        public String toCsvLine() {
+            Parameters p = parameters;
+            return String.format(Locale.ROOT, "%d,%d,%d,%d,%d,%.2f,%.2f,%d,%d,%.2f,%.2f,%.2f,%d",
+                    p.numDCs(), p.vmsPerDC(), p.numDCs() * p.vmsPerDC(), p.totalTasks(), p.taskThreshold(),
+                    p.lbHeartbeatTtl(), p.vmHeartbeatTtl(), p.seed(),
+                    completed, avgResponseTime, throughput, makespan, wallTimeMs);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String output = args.length > 0 ? args[0] : "scalability_sweep_results.csv";
+        int numFreeCPUs = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+
+        List<Parameters> grid = grid(
+                new int[] { 2, 4, 8 },       // DCs
+                new int[] { 10, 20 },        // VMs per DC
+                new int[] { 2000 },          // Tasks
+                new int[] { 3, 5, 6 },       // TASK_THRESHOLD
+                new double[] { 10.0 },       // LB heartbeat TTL
+                new double[] { 10.0 },       // VM heartbeat TTL
+                new long[] { 1, 2, 3 });     // Seeds
+
+        long start = System.currentTimeMillis();
+        List<Result> results = run(grid, numFreeCPUs, output);
+
+        Log.println("Finished " + results.size() + " runs in " + (System.currentTimeMillis() - start)
+                + " ms. Results written to " + output);
+    }
+
+    /**
+     * Builds the cartesian product of the given parameter values.
+     */
+    public static List<Parameters> grid(int[] numDCs, int[] vmsPerDC, int[] totalTasks, int[] taskThresholds,
+                                        double[] lbHeartbeatTtls, double[] vmHeartbeatTtls, long[] seeds) {
+        List<Parameters> grid = new ArrayList<>();
+        for (int dcs : numDCs)
+            for (int vms : vmsPerDC)
+                for (int tasks : totalTasks)
+                    for (int threshold : taskThresholds)
+                        for (double lbTtl : lbHeartbeatTtls)
+                            for (double vmTtl : vmHeartbeatTtls)
+                                for (long seed : seeds)
+                                    grid.add(new Parameters(dcs, vms, tasks, threshold, lbTtl, vmTtl, seed));
+        return grid;
+    }
+
+    /**
+     * Runs every point of the grid in parallel, streaming the results into the given CSV file.
+     * The log output of the runs is disabled in their own contexts only.
+     */
+    public static List<Result> run(List<Parameters> grid, int numFreeCPUs, String csvFile) throws Exception {
+        List<Callable<Result>> runs = new ArrayList<>();
+        for (Parameters parameters : grid) {
+            runs.add(() -> {
+                CloudSim.getContext().setLogDisabled(true);
+                return runScenario(parameters);
+            });
+        }
+
+        try (PrintWriter writer = new PrintWriter(new FileWriter(csvFile))) {
+            writer.println(HEADER);
+            writer.flush();
+            return ExperimentsRunner.runInProcess(runs, numFreeCPUs, result -> {
+                synchronized (writer) {
+                    writer.println(result.toCsvLine());
+                    writer.flush();
+                }
+            });
+        } catch (IOException e) {
+            throw new IOException("Could not write sweep results to " + csvFile, e);
+        }
+    }
+
+    /**
+     * Runs a single scalability scenario in the current simulation context.
+     */
+    public static Result runScenario(Parameters p) throws Exception {
+        long wallStart = System.currentTimeMillis();
+        CloudSim.init(1, Calendar.getInstance(), false);
+
+        int tasksPerLB = p.totalTasks() / p.numDCs();
+        List<ProposedBroker> brokers = new ArrayList<>();
+
+        // 1. Create Datacenters and Brokers
+        for (int i = 1; i <= p.numDCs(); i++) {
+            Helper.createDatacenter("Datacenter_" + i);
+
+            ProposedBroker lb = new ProposedBroker("LB" + i, i);
+            lb.setTaskThreshold(p.taskThreshold());
+            lb.setHeartbeatTtls(p.lbHeartbeatTtl(), p.vmHeartbeatTtl());
+            brokers.add(lb);
+        }
+
+        // 2. Link Brokers (Ring Topology)
+        for (int i = 0; i < p.numDCs(); i++) {
+            brokers.get(i).setOtherBroker(brokers.get((i + 1) % p.numDCs()));
+        }
+
+        // 3. Create VMs and Cloudlets
+        for (ProposedBroker lb : brokers) {
+            List<Vm> vms = Helper.createVmList(lb.getId(), p.vmsPerDC());
+            lb.submitGuestList(vms);
+
+            List<ProposedCloudlet> cloudlets = Helper.createCloudletList(lb.getId(), tasksPerLB, p.seed() + lb.getLbId());
+            lb.submitCloudletList(cloudlets);
+        }
+
+        // 4. Start Simulation
+        CloudSim.startSimulation();
+        CloudSim.stopSimulation();
+
+        // 5. Collect Metrics
+        List<Cloudlet> finished = new ArrayList<>();
+        for (ProposedBroker lb : brokers) {
+            finished.addAll(lb.getCloudletReceivedList());
+        }
+
+        int completed = 0;
+        double totalResponseTime = 0;
+        double maxFinishTime = 0;
+        for (Cloudlet cloudlet : finished) {
+            if (cloudlet.getStatus() == Cloudlet.CloudletStatus.SUCCESS) {
+                completed++;
+                totalResponseTime += cloudlet.getExecFinishTime() - cloudlet.getSubmissionTime();
+                maxFinishTime = Math.max(maxFinishTime, cloudlet.getExecFinishTime());
+            }
+        }
+
+        double avgResponseTime = completed > 0 ? totalResponseTime / completed : 0;
+        double throughput = maxFinishTime > 0 ? completed / maxFinishTime : 0;
+        return new Result(p, completed, avgResponseTime, throughput, maxFinishTime,
+                System.currentTimeMillis() - wallStart);
+    }
+}
@@ -9,20 +9,21 @@ import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.core.SimEvent;
 import org.cloudbus.cloudsim.core.CloudActionTags;
 
-import java.util.ArrayList;
+import java.util.ArrayDeque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 
 public class ThrottledBroker extends DatacenterBroker {
 
     private Map<Integer, Boolean> vmAvailability; // True = Available, False = Busy
-    private List<Cloudlet> throttledQueue;
+    private Queue<Cloudlet> throttledQueue;
 
     public ThrottledBroker(String name) throws Exception {
         super(name);
         vmAvailability = new HashMap<>();
-        throttledQueue = new ArrayList<>();
+        throttledQueue = new ArrayDeque<>();
     }
 
     @Override
@@ -49,24 +50,21 @@ public class ThrottledBroker extends DatacenterBroker {
     }
 
     private void scheduleThrottled() {
-        List<Cloudlet> toRemove = new ArrayList<>();
-
-        for (Cloudlet cloudlet : throttledQueue) {
+        while (!throttledQueue.isEmpty()) {
             Vm vm = findAvailableVm();
-            if (vm != null) {
-                // Assign
-                vmAvailability.put(vm.getId(), false); // Mark Busy
-                cloudlet.setVmId(vm.getId());
-                sendNow(getVmsToDatacentersMap().get(vm.getId()), CloudActionTags.CLOUDLET_SUBMIT, cloudlet);
-                cloudletsSubmitted++;
-                getCloudletSubmittedList().add(cloudlet);
-                toRemove.add(cloudlet);
-            } else {
+            if (vm == null) {
                 // No VM available, stop scheduling for now
                 break;
             }
+
+            // Assign
+            Cloudlet cloudlet = throttledQueue.poll();
+            vmAvailability.put(vm.getId(), false); // Mark Busy
+            cloudlet.setVmId(vm.getId());
+            sendNow(getVmsToDatacentersMap().get(vm.getId()), CloudActionTags.CLOUDLET_SUBMIT, cloudlet);
+            cloudletsSubmitted++;
+            getCloudletSubmittedList().add(cloudlet);
         }
-        throttledQueue.removeAll(toRemove);
     }
 
     private Vm findAvailableVm() {
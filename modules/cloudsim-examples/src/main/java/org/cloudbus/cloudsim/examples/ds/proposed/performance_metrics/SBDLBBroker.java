@@ -2,10 +2,12 @@ package org.cloudbus.cloudsim.examples.ds.proposed.performance_metrics;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.Set;
 
 import org.cloudbus.cloudsim.Cloudlet;
 import org.cloudbus.cloudsim.DatacenterBroker;
@@ -51,7 +53,7 @@ public class SBDLBBroker extends DatacenterBroker {
             return;
         }
 
-        List<Cloudlet> successfullySubmitted = new ArrayList<>();
+        Set<Cloudlet> successfullySubmitted = new HashSet<>();
 
         // STEP 1: Process waiting queue first
         if (!waitingQueue.isEmpty()) {
@@ -99,7 +101,7 @@ public class SBDLBBroker extends DatacenterBroker {
         maxWaitingQueueSize = Math.max(maxWaitingQueueSize, waitingQueue.size());
 
         // Remove successfully processed/queued cloudlets from the main list
-        getCloudletList().removeAll(successfullySubmitted);
+        getCloudletList().removeIf(successfullySubmitted::contains);
     }
 
     private void assignCloudletToVm(Cloudlet cloudlet, Vm vm) {
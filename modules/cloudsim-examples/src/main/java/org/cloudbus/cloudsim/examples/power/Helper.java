@@ -22,6 +22,7 @@ import org.cloudbus.cloudsim.HostDynamicWorkload;
 import org.cloudbus.cloudsim.HostStateHistoryEntry;
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.StateHistory;
 import org.cloudbus.cloudsim.Storage;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.VmAllocationPolicy;
@@ -193,14 +194,16 @@ public class Helper {
 		for (Host host : hosts) {
 			boolean previousIsActive = true;
 			double lastTimeSwitchedOn = 0;
-			for (HostStateHistoryEntry entry : ((HostDynamicWorkload) host).getStateHistory()) {
-				if (previousIsActive && !entry.isActive()) {
-					timeBeforeShutdown.add(entry.getTime() - lastTimeSwitchedOn);
+			StateHistory<HostStateHistoryEntry> history = ((HostDynamicWorkload) host).getStateHistory();
+			for (int i = 0; i < history.size(); i++) {
+				boolean isActive = history.getFlag(i);
+				if (previousIsActive && !isActive) {
+					timeBeforeShutdown.add(history.getTime(i) - lastTimeSwitchedOn);
 				}
-				if (!previousIsActive && entry.isActive()) {
-					lastTimeSwitchedOn = entry.getTime();
+				if (!previousIsActive && isActive) {
+					lastTimeSwitchedOn = history.getTime(i);
 				}
-				previousIsActive = entry.isActive();
+				previousIsActive = isActive;
 			}
 		}
 		return timeBeforeShutdown;
@@ -217,14 +220,16 @@ public class Helper {
 		for (Vm vm : vms) {
 			boolean previousIsInMigration = false;
 			double lastTimeMigrationFinished = 0;
-			for (VmStateHistoryEntry entry : vm.getStateHistory()) {
-				if (previousIsInMigration && !entry.isInMigration()) {
-					timeBeforeVmMigration.add(entry.getTime() - lastTimeMigrationFinished);
+			StateHistory<VmStateHistoryEntry> history = vm.getStateHistory();
+			for (int i = 0; i < history.size(); i++) {
+				boolean isInMigration = history.getFlag(i);
+				if (previousIsInMigration && !isInMigration) {
+					timeBeforeVmMigration.add(history.getTime(i) - lastTimeMigrationFinished);
 				}
-				if (!previousIsInMigration && entry.isInMigration()) {
-					lastTimeMigrationFinished = entry.getTime();
+				if (!previousIsInMigration && isInMigration) {
+					lastTimeMigrationFinished = history.getTime(i);
 				}
-				previousIsInMigration = entry.isInMigration();
+				previousIsInMigration = isInMigration;
 			}
 		}
 		return timeBeforeVmMigration;
@@ -498,19 +503,20 @@ public class Helper {
 			double previousRequested = 0;
 			boolean previousIsActive = true;
 
-			for (HostStateHistoryEntry entry : host.getStateHistory()) {
+			StateHistory<HostStateHistoryEntry> history = host.getStateHistory();
+			for (int i = 0; i < history.size(); i++) {
 				if (previousTime != -1 && previousIsActive) {
-					double timeDiff = entry.getTime() - previousTime;
+					double timeDiff = history.getTime(i) - previousTime;
 					totalTime += timeDiff;
 					if (previousAllocated < previousRequested) {
 						slaViolationTimePerHost += timeDiff;
 					}
 				}
 
-				previousAllocated = entry.getAllocatedMips();
-				previousRequested = entry.getRequestedMips();
-				previousTime = entry.getTime();
-				previousIsActive = entry.isActive();
+				previousAllocated = history.getAllocatedMips(i);
+				previousRequested = history.getRequestedMips(i);
+				previousTime = history.getTime(i);
+				previousIsActive = history.getFlag(i);
 			}
 		}
 
@@ -533,18 +539,19 @@ public class Helper {
 			double previousAllocated = 0;
 			double previousRequested = 0;
 
-			for (HostStateHistoryEntry entry : host.getStateHistory()) {
+			StateHistory<HostStateHistoryEntry> history = host.getStateHistory();
+			for (int i = 0; i < history.size(); i++) {
 				if (previousTime != -1) {
-					double timeDiff = entry.getTime() - previousTime;
+					double timeDiff = history.getTime(i) - previousTime;
 					totalTime += timeDiff;
 					if (previousAllocated < previousRequested) {
 						slaViolationTimePerHost += timeDiff;
 					}
 				}
 
-				previousAllocated = entry.getAllocatedMips();
-				previousRequested = entry.getRequestedMips();
-				previousTime = entry.getTime();
+				previousAllocated = history.getAllocatedMips(i);
+				previousRequested = history.getRequestedMips(i);
+				previousTime = history.getTime(i);
 			}
 		}
 
@@ -573,9 +580,10 @@ public class Helper {
 			double previousRequested = 0;
 			boolean previousIsInMigration = false;
 
-			for (VmStateHistoryEntry entry : vm.getStateHistory()) {
+			StateHistory<VmStateHistoryEntry> history = vm.getStateHistory();
+			for (int i = 0; i < history.size(); i++) {
 				if (previousTime != -1) {
-					double timeDiff = entry.getTime() - previousTime;
+					double timeDiff = history.getTime(i) - previousTime;
 					vmTotalAllocated += previousAllocated * timeDiff;
 					vmTotalRequested += previousRequested * timeDiff;
 
@@ -588,10 +596,10 @@ public class Helper {
 					}
 				}
 
-				previousAllocated = entry.getAllocatedMips();
-				previousRequested = entry.getRequestedMips();
-				previousTime = entry.getTime();
-				previousIsInMigration = entry.isInMigration();
+				previousAllocated = history.getAllocatedMips(i);
+				previousRequested = history.getRequestedMips(i);
+				previousTime = history.getTime(i);
+				previousIsInMigration = history.getFlag(i);
 			}
 
 			totalAllocated += vmTotalAllocated;
@@ -0,0 +1,107 @@
+package org.cloudbus.cloudsim.examples.ds.proposed;
+
+import org.cloudbus.cloudsim.core.SimulationContext;
+import org.cloudbus.cloudsim.examples.ds.proposed.ClusterStateStore.NodeStatus;
+import org.cloudbus.cloudsim.examples.ds.proposed.ClusterStateStore.TaskStatus;
+import org.cloudbus.cloudsim.examples.ds.proposed.ClusterStateStore.VmTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClusterStateStoreTest {
+
+    @Test
+    public void testVmTable() {
+        ClusterStateStore store = new ClusterStateStore();
+        VmTable zoneA = store.zone("A");
+        assertSame(zoneA, store.zone("A"));
+        assertNotSame(zoneA, store.zone("B"));
+
+        zoneA.taskStarted(40);
+        assertTrue(zoneA.contains(40));
+        assertNull(zoneA.getStatus(40));
+        assertTrue(Double.isNaN(zoneA.getLastHeartbeat(40)));
+
+        zoneA.heartbeat(3, 12.5);
+        zoneA.setStatus(7, NodeStatus.RESTARTING);
+        assertEquals(NodeStatus.ALIVE, zoneA.getStatus(3));
+        assertEquals(12.5, zoneA.getLastHeartbeat(3));
+        assertEquals(3, zoneA.size());
+        assertFalse(store.zone("B").contains(3));
+
+        int[] ids = new int[3];
+        int n = 0;
+        for (int id = zoneA.next(0); id >= 0; id = zoneA.next(id + 1)) {
+            ids[n++] = id;
+        }
+        assertArrayEquals(new int[] { 3, 7, 40 }, ids);
+
+        zoneA.remove(40);
+        assertFalse(zoneA.contains(40));
+        assertEquals(0, zoneA.getStartedTasks(40));
+        zoneA.taskStarted(40);
+        assertEquals(1, zoneA.getStartedTasks(40));
+        assertThrows(IllegalArgumentException.class, () -> zoneA.taskStarted(-1));
+    }
+
+    @Test
+    public void testVmsAcrossZones() {
+        ClusterStateStore store = new ClusterStateStore();
+        store.zone("A").heartbeat(3, 1.0);
+        store.zone("B").taskStarted(3);
+        store.zone("B").setStatus(4, NodeStatus.DEAD);
+        assertTrue(store.containsVm(3));
+        assertFalse(store.containsVm(5));
+
+        store.zone("B").remove(4);
+        assertFalse(store.containsVm(4));
+        store.zone("A").remove(3);
+        assertTrue(store.containsVm(3));
+
+        store.zone("A").heartbeat(3, 2.0);
+        store.removeVm(3);
+        assertFalse(store.containsVm(3));
+        assertFalse(store.zone("A").contains(3));
+        assertFalse(store.zone("B").contains(3));
+    }
+
+    @Test
+    public void testStringAdapter() throws Exception {
+        new SimulationContext().execute(() -> {
+            RedisMock redis = RedisMock.getInstance();
+            ClusterStateStore store = redis.getClusterState();
+
+            // typed writes are visible through the string API...
+            store.zone("A").heartbeat(5, 10.0);
+            store.tasks().setStatus(9, TaskStatus.QUEUED);
+            store.tasks().setAssignedLb(9, 2);
+            store.loadBalancers().heartbeat(1, 4.0);
+            assertEquals("ALIVE", redis.hget(2, "A", "VM_5", "status"));
+            assertEquals("10.0", redis.hget(2, "A", "VM_5", "Last_Heartbeat"));
+            assertNull(redis.hget(2, "B", "VM_5", "status"));
+            assertEquals("LB2", redis.hget(1, "Global", "Task_9", "assigned_lb"));
+            assertEquals("4.0", redis.hget(1, "Global", "LB_Status", "LB_1_Heartbeat"));
+            assertEquals(Set.of("VM_5"), redis.scanKeys(2, "A", "VM_"));
+            assertEquals(Set.of("Task_9"), redis.scanKeys(1, "Global", "Task_"));
+
+            // ...and string writes end up in the typed tables, other fields stay strings
+            redis.hset(2, "B", "VM_6", "status", "DEAD");
+            redis.hset(2, "B", "VM_6", "Task_1", "RUNNING");
+            redis.hset(1, "Global", "LB_Status", "LB_2_Status", "ALIVE");
+            assertEquals(NodeStatus.DEAD, store.zone("B").getStatus(6));
+            assertEquals(NodeStatus.ALIVE, store.loadBalancers().getStatus(2));
+            assertEquals(Map.of("status", "DEAD", "Task_1", "RUNNING"), redis.hgetAll(2, "B", "VM_6"));
+
+            redis.del(2, "B", "VM_6");
+            assertFalse(store.zone("B").contains(6));
+            assertNull(redis.hgetAll(2, "B", "VM_6"));
+
+            redis.hset(1, "Global", "Config", "mode", "dual");
+            assertEquals("dual", redis.hget(1, "Global", "Config", "mode"));
+            return null;
+        });
+    }
+}
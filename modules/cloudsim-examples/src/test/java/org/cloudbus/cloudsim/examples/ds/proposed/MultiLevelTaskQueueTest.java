@@ -0,0 +1,96 @@
+package org.cloudbus.cloudsim.examples.ds.proposed;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MultiLevelTaskQueueTest {
+
+    private static Cloudlet task(int id) {
+        UtilizationModelFull full = new UtilizationModelFull();
+        return new Cloudlet(id, 1000, 1, 300, 300, full, full, full);
+    }
+
+    @Test
+    public void testFifoPerLevelAndPromotion() {
+        MultiLevelTaskQueue<Cloudlet> queue = new MultiLevelTaskQueue<>(3);
+        Cloudlet a = task(1), b = task(2), c = task(3), d = task(4);
+        queue.addLast(2, a);
+        queue.addLast(2, b);
+        queue.addLast(2, c);
+        queue.addLast(1, d);
+
+        assertTrue(queue.moveToLevel(b, 1));
+        assertEquals(List.of(a, c), queue.toList(2));
+        assertEquals(List.of(d, b), queue.toList(1));
+        assertEquals(1, queue.getLevel(b));
+        assertTrue(queue.getSequence(b) > queue.getSequence(d));
+
+        assertSame(c, queue.pollLast(2));
+        assertSame(a, queue.pollFirst(2));
+        assertNull(queue.pollFirst(2));
+        assertTrue(queue.isEmpty(2));
+        assertEquals(2, queue.size());
+        assertEquals(-1, queue.getLevel(a));
+    }
+
+    @Test
+    public void testRemovalByIdWithDuplicateIds() {
+        // tasks stolen from another broker may reuse an id
+        MultiLevelTaskQueue<Cloudlet> queue = new MultiLevelTaskQueue<>(4);
+        Cloudlet own = task(7), stolen = task(7), other = task(8);
+        queue.addLast(2, own);
+        queue.addLast(0, stolen);
+        queue.addLast(2, other);
+
+        assertSame(stolen, queue.findById(7, 0, 3));
+        assertSame(own, queue.findById(7, 1, 3));
+        assertNull(queue.findById(9, 0, 3));
+
+        assertTrue(queue.remove(stolen));
+        assertFalse(queue.remove(stolen));
+        assertSame(own, queue.findById(7, 0, 3));
+
+        Iterator<Cloudlet> it = queue.iterator(2);
+        assertSame(own, it.next());
+        it.remove();
+        assertSame(other, it.next());
+        assertFalse(it.hasNext());
+
+        assertEquals(List.of(other), queue.toList(2));
+        assertNull(queue.findById(7, 0, 3));
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    public void testReadOnlyView() {
+        MultiLevelTaskQueue<Cloudlet> queue = new MultiLevelTaskQueue<>(2);
+        Cloudlet a = task(1), b = task(2), c = task(3);
+        List<Cloudlet> view = queue.view(1);
+        assertTrue(view.isEmpty());
+
+        queue.addLast(1, a);
+        queue.addLast(1, b);
+        queue.addLast(0, c);
+        assertEquals(List.of(a, b), view);
+        assertSame(b, view.get(1));
+        assertEquals(List.of(b, a), view.reversed());
+
+        assertThrows(UnsupportedOperationException.class, () -> view.remove(0));
+        assertThrows(UnsupportedOperationException.class, () -> view.add(c));
+        assertThrows(UnsupportedOperationException.class, view::clear);
+
+        Iterator<Cloudlet> it = view.iterator();
+        it.next();
+        queue.moveToLevel(a, 0);
+        assertThrows(ConcurrentModificationException.class, it::next);
+        assertEquals(List.of(b), view);
+        assertEquals(List.of(c, a), queue.view(0));
+    }
+}
@@ -0,0 +1,157 @@
+package org.cloudbus.cloudsim.examples.ds.proposed;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimEvent;
+import org.cloudbus.cloudsim.core.SimulationContext;
+import org.cloudbus.cloudsim.examples.ds.proposed.ClusterStateStore.VmTable;
+import org.cloudbus.cloudsim.examples.ds.proposed.evaluation.Helper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProposedBrokerTest {
+
+    /** How a broker dispatched its tasks: dispatch order, and placement and timing of each task. */
+    private record Dispatch(List<String> submitted, List<String> received, int aged) {
+    }
+
+    /**
+     * Two LBs with work stealing, an overloaded one and a VM failure, on a fixed
+     * mix of tasks; REEL tasks wait long enough to age.
+     */
+    private static List<Dispatch> runWorkload(boolean incrementalScheduling) throws Exception {
+        return new SimulationContext().execute(() -> {
+            CloudSim.getContext().setLogDisabled(true);
+            CloudSim.init(1, Calendar.getInstance(), false);
+            Helper.createDatacenter("Datacenter_1");
+            Helper.createDatacenter("Datacenter_2");
+
+            ProposedBroker lb1 = new ProposedBroker("LB1", 1);
+            ProposedBroker lb2 = new ProposedBroker("LB2", 2);
+            lb1.setOtherBroker(lb2);
+            lb2.setOtherBroker(lb1);
+            lb1.setIncrementalScheduling(incrementalScheduling);
+            lb2.setIncrementalScheduling(incrementalScheduling);
+
+            lb1.submitGuestList(Helper.createVmList(lb1.getId(), 6));
+            lb2.submitGuestList(Helper.createVmList(lb2.getId(), 12));
+            List<ProposedCloudlet> cloudlets1 = Helper.createCloudletList(lb1.getId(), 150, 7);
+            List<ProposedCloudlet> cloudlets2 = Helper.createCloudletList(lb2.getId(), 40, 11);
+            lb1.submitCloudletList(cloudlets1);
+            lb2.submitCloudletList(cloudlets2);
+            CloudSim.send(lb2.getId(), lb2.getId(), 40.0, ProposedTags.INJECT_VM_FAILURE, 3);
+
+            CloudSim.startSimulation();
+            CloudSim.stopSimulation();
+
+            return List.of(dispatch(lb1, cloudlets1), dispatch(lb2, cloudlets2));
+        });
+    }
+
+    private static Dispatch dispatch(ProposedBroker broker, List<ProposedCloudlet> cloudlets) {
+        List<String> submitted = new ArrayList<>();
+        for (Cloudlet c : broker.getCloudletSubmittedList()) {
+            submitted.add(c.getCloudletId() + "@" + c.getGuestId());
+        }
+        List<String> received = new ArrayList<>();
+        for (Cloudlet c : broker.getCloudletReceivedList()) {
+            received.add(c.getCloudletId() + "@" + c.getGuestId() + " " + c.getExecStartTime() + "-" + c.getExecFinishTime());
+        }
+        // Helper gives REEL tasks 200000 MI, aging turns them into IMAGE tasks
+        int aged = 0;
+        for (ProposedCloudlet c : cloudlets) {
+            if (c.getCloudletLength() == 200000 && c.getType() == ProposedCloudlet.CloudletType.IMAGE)
+                aged++;
+        }
+        return new Dispatch(submitted, received, aged);
+    }
+
+    @Test
+    public void testIncrementalSchedulingMatchesFullScan() throws Exception {
+        List<Dispatch> incremental = runWorkload(true);
+        List<Dispatch> fullScan = runWorkload(false);
+
+        assertEquals(fullScan, incremental);
+
+        // the workload exercises aging, contention and recovery
+        Dispatch lb1 = incremental.get(0);
+        assertTrue(lb1.aged() > 0);
+        assertEquals(190, lb1.received().size() + incremental.get(1).received().size());
+        assertTrue(incremental.get(1).received().stream().anyMatch(task -> task.contains("@3 ")));
+    }
+
+    /** Records when VM failures are detected, and the heartbeats seen by every health check. */
+    private static class MonitoredBroker extends ProposedBroker {
+        private final VmTable vmTable;
+        private final int vms;
+        final List<String> detections = new ArrayList<>();
+        final List<String> heartbeats = new ArrayList<>();
+
+        MonitoredBroker(int vms) throws Exception {
+            super("LB1", 1);
+            this.vmTable = RedisMock.getInstance(getSimulation()).getClusterState().zone("A");
+            this.vms = vms;
+        }
+
+        @Override
+        public void processEvent(SimEvent ev) {
+            if (ev.getTag() == ProposedTags.PERIODIC_MONITOR) {
+                double[] lastHeartbeats = new double[vms];
+                for (int vmId = 0; vmId < vms; vmId++)
+                    lastHeartbeats[vmId] = vmTable.getLastHeartbeat(vmId);
+                heartbeats.add(getSimulation().clock() + " " + Arrays.toString(lastHeartbeats));
+            }
+            super.processEvent(ev);
+        }
+
+        @Override
+        public void notifyVmFailure(int vmId) {
+            detections.add(vmId + "@" + getSimulation().clock());
+            super.notifyVmFailure(vmId);
+        }
+    }
+
+    /**
+     * One cohort of VMs, some of which fail between two heartbeats of the cohort, at the
+     * time of one and right after their restart.
+     */
+    private static List<List<String>> runHeartbeats(boolean batchedHeartbeats) throws Exception {
+        return new SimulationContext().execute(() -> {
+            CloudSim.getContext().setLogDisabled(true);
+            CloudSim.init(1, Calendar.getInstance(), false);
+            Helper.createDatacenter("Datacenter_1");
+
+            MonitoredBroker lb = new MonitoredBroker(12);
+            lb.setBatchedHeartbeats(batchedHeartbeats);
+            lb.submitGuestList(Helper.createVmList(lb.getId(), 12));
+            lb.submitCloudletList(Helper.createCloudletList(lb.getId(), 60, 3));
+            CloudSim.send(lb.getId(), lb.getId(), 42.0, ProposedTags.INJECT_VM_FAILURE, 5);
+            CloudSim.send(lb.getId(), lb.getId(), 45.1, ProposedTags.INJECT_VM_FAILURE, 0);
+            CloudSim.send(lb.getId(), lb.getId(), 90.0, ProposedTags.INJECT_VM_FAILURE, 5);
+
+            CloudSim.startSimulation();
+            CloudSim.stopSimulation();
+            return List.of(lb.detections, lb.heartbeats);
+        });
+    }
+
+    @Test
+    public void testBatchedHeartbeatsMatchPerVmEvents() throws Exception {
+        List<List<String>> batched = runHeartbeats(true);
+        List<List<String>> perVm = runHeartbeats(false);
+
+        assertEquals(perVm.get(0), batched.get(0));
+        assertEquals(perVm.get(1), batched.get(1));
+
+        // VM 5 dies mid-cohort, then again after its restart, VM 0 right after a heartbeat
+        assertEquals(3, batched.get(0).size());
+        assertTrue(batched.get(0).stream().anyMatch(detection -> detection.startsWith("0@")));
+        assertTrue(batched.get(1).size() > 10);
+    }
+}
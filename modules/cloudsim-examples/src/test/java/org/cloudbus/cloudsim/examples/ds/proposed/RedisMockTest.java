@@ -0,0 +1,176 @@
+package org.cloudbus.cloudsim.examples.ds.proposed;
+
+import org.cloudbus.cloudsim.core.SimulationContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RedisMockTest {
+
+    @Test
+    public void testExpiryOrder() throws Exception {
+        new SimulationContext().execute(() -> {
+            RedisMock redis = RedisMock.getInstance();
+            List<String> expired = new ArrayList<>();
+            redis.subscribe("keyspace:expired", (channel, message) -> expired.add(message));
+
+            redis.setEx(1, "Global", "Session_c", "ALIVE", 0, 30);
+            redis.setEx(2, "A", "VM_1", "ALIVE", 0, 10);
+            redis.setEx(1, "Global", "Session_a", "ALIVE", 0, 20);
+            redis.setEx(1, "Global", "Session_b", "ALIVE", 0, 20);
+            redis.hset(1, "Global", "Config", "mode", "dual");
+
+            // resetting a TTL replaces the previous deadline
+            redis.expire("Session_c", 5, 1);
+            redis.expire("Config", 0, 25);
+            redis.expire("Missing", 0, 1);
+            assertEquals(-1, redis.getExpiry("Missing"));
+            assertEquals(6, redis.getExpiry("Session_c"));
+
+            redis.tick(5);
+            assertTrue(expired.isEmpty());
+            redis.tick(10);
+            assertEquals(List.of("Session_c", "VM_1"), expired);
+            assertFalse(redis.getClusterState().zone("A").contains(1));
+
+            // deleted keys never expire
+            redis.del(1, "Global", "Session_b");
+            redis.tick(100);
+            assertEquals(List.of("Session_c", "VM_1", "Session_a", "Config"), expired);
+            assertNull(redis.hget(1, "Global", "Config", "mode"));
+            return null;
+        });
+    }
+
+    @Test
+    public void testExpiryAcrossZones() throws Exception {
+        new SimulationContext().execute(() -> {
+            RedisMock redis = RedisMock.getInstance();
+            redis.hset(2, "A", "Session_1", "owner", "LB1");
+            redis.hset(2, "B", "Session_1", "owner", "LB2");
+            redis.hset(2, "C", "VM_2", "Task_1", "RUNNING");
+            redis.getClusterState().zone("D").heartbeat(2, 0);
+
+            // a TTL can be set on a key held by any zone
+            redis.expire("Session_1", 0, 5);
+            redis.expire("VM_2", 0, 10);
+            redis.del(2, "A", "Session_1");
+            redis.expire("Session_1", 0, 6);
+            assertEquals(6, redis.getExpiry("Session_1"));
+
+            redis.tick(6);
+            assertNull(redis.hget(2, "B", "Session_1", "owner"));
+            redis.expire("Session_1", 6, 1);
+            assertEquals(-1, redis.getExpiry("Session_1"));
+
+            redis.tick(10);
+            assertNull(redis.hget(2, "C", "VM_2", "Task_1"));
+            assertFalse(redis.getClusterState().zone("D").contains(2));
+            return null;
+        });
+    }
+
+    @Test
+    public void testRepeatedTtlRefresh() throws Exception {
+        new SimulationContext().execute(() -> {
+            RedisMock redis = RedisMock.getInstance();
+            List<String> expired = new ArrayList<>();
+            redis.subscribe("keyspace:expired", (channel, message) -> expired.add(message));
+
+            // a heartbeat key whose TTL is refreshed long before it expires
+            double now = 0;
+            for (int i = 0; i < 10_000; i++) {
+                redis.setEx(2, "A", "VM_7", "ALIVE", now, 10);
+                redis.tick(now);
+                now += 5;
+            }
+            assertTrue(expired.isEmpty());
+            redis.tick(now + 5);
+            assertEquals(List.of("VM_7"), expired);
+            return null;
+        });
+    }
+
+    @Test
+    public void testBufferedPubSub() throws Exception {
+        new SimulationContext().execute(() -> {
+            RedisMock redis = RedisMock.getInstance();
+            List<String> exact = new ArrayList<>();
+            List<String> patterned = new ArrayList<>();
+            RedisMock.Subscription slow = redis.subscribe("tasks:complete", (channel, message) -> exact.add(message), 2);
+            RedisMock.Subscription all = redis.psubscribe("tasks:*", (channel, message) -> patterned.add(channel + "/" + message));
+
+            assertEquals(2, redis.publish("tasks:complete", "t1"));
+            assertEquals(1, redis.publish("tasks:failed", "t2"));
+            assertEquals(2, redis.publish("tasks:complete", "t3"));
+            assertEquals(1, redis.publish("tasks:complete", "t4"));
+            assertEquals(0, redis.publish("vms:dead", () -> fail("built without subscribers")));
+
+            // nothing is delivered in the publisher's call stack
+            assertTrue(exact.isEmpty());
+            assertTrue(patterned.isEmpty());
+            assertEquals(2, slow.getPendingCount());
+            assertEquals(1, slow.getDroppedCount());
+
+            assertEquals(6, redis.dispatch());
+            assertEquals(List.of("t1", "t3"), exact);
+            assertEquals(List.of("tasks:complete/t1", "tasks:failed/t2", "tasks:complete/t3", "tasks:complete/t4"), patterned);
+            assertEquals(2, slow.getDeliveredCount());
+            assertEquals(4, all.getDeliveredCount());
+            assertEquals(3, redis.getPublishedCount("tasks:complete"));
+            assertEquals(1, redis.getPublishedCount("vms:dead"));
+
+            redis.unsubscribe(all);
+            assertFalse(redis.hasSubscribers("tasks:failed"));
+            assertTrue(redis.hasSubscribers("tasks:complete"));
+            return null;
+        });
+    }
+
+    @Test
+    public void testTypedFieldsKeepAnyString() throws Exception {
+        new SimulationContext().execute(() -> {
+            RedisMock redis = RedisMock.getInstance();
+            ClusterStateStore state = redis.getClusterState();
+
+            redis.hset(2, "A", "VM_4", "status", "ALIVE");
+            assertEquals(ClusterStateStore.NodeStatus.ALIVE, state.zone("A").getStatus(4));
+
+            // values the typed tables cannot hold are kept as strings, not rejected
+            redis.hset(2, "A", "VM_4", "status", "DRAINING");
+            redis.hset(2, "A", "VM_4", "Last_Heartbeat", "never");
+            redis.hset(1, "Global", "Task_9", "status", "PAUSED");
+            redis.hset(1, "Global", "Task_9", "assigned_lb", "primary");
+            redis.hset(1, "Global", "LB_Status", "LB_2_Status", "UNKNOWN");
+            assertEquals("DRAINING", redis.hget(2, "A", "VM_4", "status"));
+            assertEquals("never", redis.hget(2, "A", "VM_4", "Last_Heartbeat"));
+            assertEquals("PAUSED", redis.hget(1, "Global", "Task_9", "status"));
+            assertEquals("primary", redis.hget(1, "Global", "Task_9", "assigned_lb"));
+            assertEquals("UNKNOWN", redis.hget(1, "Global", "LB_Status", "LB_2_Status"));
+            assertNull(state.zone("A").getStatus(4));
+            assertEquals(0, state.tasks().getAssignedLb(9));
+
+            // and a valid value takes over again
+            redis.hset(2, "A", "VM_4", "status", "DEAD");
+            redis.hset(1, "Global", "Task_9", "assigned_lb", "LB1");
+            assertEquals("DEAD", redis.hget(2, "A", "VM_4", "status"));
+            assertEquals("DEAD", redis.hgetAll(2, "A", "VM_4").get("status"));
+            assertEquals(1, state.tasks().getAssignedLb(9));
+            assertEquals("LB1", redis.hgetAll(1, "Global", "Task_9").get("assigned_lb"));
+            return null;
+        });
+    }
+
+    @Test
+    public void testGlobMatches() {
+        assertTrue(RedisMock.globMatches("tasks:*", "tasks:"));
+        assertTrue(RedisMock.globMatches("*:complete", "tasks:complete"));
+        assertTrue(RedisMock.globMatches("VM_?", "VM_7"));
+        assertTrue(RedisMock.globMatches("a*b*c", "axxbyybc"));
+        assertFalse(RedisMock.globMatches("VM_?", "VM_17"));
+        assertFalse(RedisMock.globMatches("tasks:*", "task:complete"));
+    }
+}
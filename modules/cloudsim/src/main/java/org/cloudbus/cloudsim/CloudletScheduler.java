@@ -9,8 +9,13 @@
 package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
 
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.lists.CloudletList;
@@ -58,6 +63,30 @@ public abstract class CloudletScheduler {
 	/** Buffer list of the latest finished cloudlets. */
 	protected List<Cloudlet> cloudletJustFinishedList;
 
+	/** Whether the progress of the running cloudlets is tracked in virtual time.
+	 * @see #setVirtualTimeEnabled(boolean) */
+	private boolean virtualTimeEnabled = false;
+
+	/** The MI executed so far by each PE of a cloudlet running since the mode was enabled. */
+	private double virtualTime;
+
+	/** The running cloudlets, by the virtual time they are due to finish at. Entries of cloudlets
+	 * that left the exec list in the meantime are stale and skipped. */
+	private final PriorityQueue<VirtualTimeEntry> completions = new PriorityQueue<>();
+
+	/** The current entry of each running cloudlet. */
+	private final Map<Cloudlet, VirtualTimeEntry> runningEntries = new IdentityHashMap<>();
+
+	/** The number of PEs used by the running cloudlets. */
+	private int runningPes;
+
+	private long entrySequence;
+
+	/** The schedulers with finished cloudlets of the datacenter running the VM, which this
+	 * scheduler joins when a cloudlet finishes, or null.
+	 * @see Datacenter#setCompletionQueueEnabled(boolean) */
+	private Set<CloudletScheduler> completionQueue;
+
 	/**
 	 * Creates a new CloudletScheduler object. 
 	 * A CloudletScheduler must be created before starting the actual simulation.
@@ -87,6 +116,9 @@ public abstract class CloudletScheduler {
 	 * @post $none
 	 */
 	public double updateCloudletsProcessing(double currentTime, List<Double> mipsShare) {
+		if (virtualTimeEnabled) {
+			return updateCloudletsProcessingInVirtualTime(currentTime, mipsShare);
+		}
 		setCurrentMipsShare(mipsShare);
 
 		double timeSpan = currentTime - getPreviousTime(); // time since last update
@@ -134,6 +166,251 @@ public abstract class CloudletScheduler {
 		return nextEvent;
 	}
 
+	/**
+	 * Virtual time version of {@link #updateCloudletsProcessing(double, List)}: all running
+	 * cloudlets get the same MIPS per PE, so the update only advances the virtual time and
+	 * pops the cloudlets whose finish threshold was reached.
+	 */
+	private double updateCloudletsProcessingInVirtualTime(double currentTime, List<Double> mipsShare) {
+		setCurrentMipsShare(mipsShare);
+
+		double timeSpan = currentTime - getPreviousTime(); // time since last update
+		virtualTime += timeSpan * getCurrentCapacity();
+
+		// Remove finished cloudlets, in finishing order
+		while (!completions.isEmpty() && completions.peek().dueVirtualTime <= virtualTime) {
+			VirtualTimeEntry entry = completions.poll();
+			Cloudlet cl = entry.cloudlet;
+			if (runningEntries.get(cl) != entry) {
+				continue;
+			}
+			syncProgress(entry);
+			untrack(cl);
+			if (cl.isFinished()) {
+				cloudletJustFinishedList.add(cl);
+				cloudletFinish(cl);
+			} else {
+				track(cl); // rounding left a few instructions
+			}
+		}
+		if (!cloudletJustFinishedList.isEmpty()) {
+			Set<Cloudlet> finished = Collections.newSetFromMap(new IdentityHashMap<>());
+			finished.addAll(cloudletJustFinishedList);
+			getCloudletExecList().removeIf(finished::contains);
+			cloudletJustFinishedList.clear();
+		}
+
+		if (getCloudletExecList().isEmpty() && getCloudletWaitingList().isEmpty()) {
+			setPreviousTime(currentTime);
+			return 0.0;
+		}
+
+		// Update cloudlets in waiting list, if any
+		updateWaitingCloudlets(currentTime, null);
+		updateCurrentCapacity();
+
+		// estimate finish time of the earliest finishing cloudlet
+		double nextEvent = Double.MAX_VALUE;
+		VirtualTimeEntry first = peekCompletion();
+		if (first != null) {
+			nextEvent = currentTime + (first.finishVirtualTime - virtualTime) / getCurrentCapacity();
+			if (nextEvent - currentTime < CloudSim.getMinTimeBetweenEvents()) {
+				nextEvent = currentTime + CloudSim.getMinTimeBetweenEvents();
+			}
+		}
+
+		setPreviousTime(currentTime);
+		return nextEvent;
+	}
+
+	/**
+	 * Enables or disables virtual time tracking, a processor-sharing view of the exec list
+	 * for schedulers that give every running cloudlet the same MIPS per PE.
+	 * The scheduler accumulates the MI executed by one PE since the mode was enabled, and keeps
+	 * the running cloudlets in a min-heap by the value at which they finish, so an update costs
+	 * O(k log n) for k completions instead of several passes over the exec list.
+	 * <p>
+	 * The finished length of a running cloudlet is only brought up to date when it finishes,
+	 * leaves the exec list or on {@link #syncCloudletProgress()}; and {@link Cloudlet#updateCloudlet(Object)}
+	 * is not called on every update, so the mode does not suit cloudlets that rely on it
+	 * (e.g. network cloudlets). Completion times may differ from the default mode by rounding.
+	 *
+	 * @param enabled true to track progress in virtual time
+	 * @throws UnsupportedOperationException if the scheduler does not share MIPS evenly
+	 * @see #supportsVirtualTime()
+	 */
+	public void setVirtualTimeEnabled(boolean enabled) {
+		if (enabled == virtualTimeEnabled) {
+			return;
+		}
+		if (enabled) {
+			if (!supportsVirtualTime()) {
+				throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support virtual time");
+			}
+			virtualTimeEnabled = true;
+			virtualTime = 0;
+			for (Cloudlet cl : getCloudletExecList()) {
+				track(cl);
+			}
+		} else {
+			syncCloudletProgress();
+			virtualTimeEnabled = false;
+			completions.clear();
+			runningEntries.clear();
+			runningPes = 0;
+		}
+	}
+
+	/**
+	 * Checks whether the progress of the running cloudlets is tracked in virtual time.
+	 *
+	 * @return true if virtual time is enabled
+	 * @see #setVirtualTimeEnabled(boolean)
+	 */
+	public boolean isVirtualTimeEnabled() {
+		return virtualTimeEnabled;
+	}
+
+	/**
+	 * Sets the queue this scheduler is added to whenever a cloudlet finishes, so that the
+	 * datacenter only looks for finished cloudlets in the schedulers of the queue.
+	 *
+	 * @param completionQueue the queue of the datacenter running the VM, or null
+	 * @see Datacenter#setCompletionQueueEnabled(boolean)
+	 */
+	public void setCompletionQueue(Set<CloudletScheduler> completionQueue) {
+		this.completionQueue = completionQueue;
+		if (completionQueue != null && isFinishedCloudlets()) {
+			completionQueue.add(this);
+		}
+	}
+
+	/**
+	 * Gets the completion queue of the datacenter running the VM.
+	 *
+	 * @return the completion queue, or null if the datacenter does not use one
+	 * @see #setCompletionQueue(Set)
+	 */
+	public Set<CloudletScheduler> getCompletionQueue() {
+		return completionQueue;
+	}
+
+	/**
+	 * Checks whether the scheduler gives every running cloudlet the same MIPS per PE, as
+	 * required by {@link #setVirtualTimeEnabled(boolean)}.
+	 *
+	 * @return false by default
+	 */
+	protected boolean supportsVirtualTime() {
+		return false;
+	}
+
+	/**
+	 * Brings the finished length of all running cloudlets up to date, in virtual time mode.
+	 */
+	public void syncCloudletProgress() {
+		for (VirtualTimeEntry entry : runningEntries.values()) {
+			syncProgress(entry);
+		}
+	}
+
+	/**
+	 * Notifies that a cloudlet was added to the exec list (submitted, resumed or woken up).
+	 *
+	 * @param cl the cloudlet
+	 */
+	protected void cloudletStarted(Cloudlet cl) {
+		if (virtualTimeEnabled) {
+			track(cl);
+		}
+	}
+
+	/**
+	 * Notifies that a cloudlet left the exec list before finishing (canceled, paused or
+	 * migrated), bringing its finished length up to date.
+	 *
+	 * @param cl the cloudlet
+	 */
+	protected void cloudletStopped(Cloudlet cl) {
+		if (virtualTimeEnabled) {
+			VirtualTimeEntry entry = runningEntries.get(cl);
+			if (entry != null) {
+				syncProgress(entry);
+				untrack(cl);
+			}
+		}
+	}
+
+	private void track(Cloudlet cl) {
+		double pes = cl.getNumberOfPes();
+		long finishedSoFar = cl.getCloudletFinishedSoFar();
+		long remaining = cl.getCloudletTotalLength() * Consts.MILLION - finishedSoFar;
+		double finish = virtualTime + remaining / (pes * Consts.MILLION);
+		// a cloudlet is finished once less than 1 MI is left; allow for rounding up to half of it
+		double due = finish - 0.5 / pes;
+
+		VirtualTimeEntry entry = new VirtualTimeEntry(cl, virtualTime, finishedSoFar, due, finish, entrySequence++);
+		VirtualTimeEntry previous = runningEntries.put(cl, entry);
+		if (previous == null) {
+			runningPes += cl.getNumberOfPes();
+		}
+		completions.add(entry);
+
+		// drop stale entries once they outnumber the live ones
+		if (completions.size() > 2 * runningEntries.size() + 64) {
+			completions.clear();
+			completions.addAll(runningEntries.values());
+		}
+	}
+
+	private void untrack(Cloudlet cl) {
+		if (runningEntries.remove(cl) != null) {
+			runningPes -= cl.getNumberOfPes();
+		}
+	}
+
+	private void syncProgress(VirtualTimeEntry entry) {
+		Cloudlet cl = entry.cloudlet;
+		long executed = (long) ((virtualTime - entry.startVirtualTime) * cl.getNumberOfPes() * Consts.MILLION);
+		cl.setCloudletFinishedSoFar(Math.min(entry.startFinishedSoFar + executed,
+				cl.getCloudletTotalLength() * Consts.MILLION));
+	}
+
+	private VirtualTimeEntry peekCompletion() {
+		while (!completions.isEmpty() && runningEntries.get(completions.peek().cloudlet) != completions.peek()) {
+			completions.poll();
+		}
+		return completions.peek();
+	}
+
+	/**
+	 * A running cloudlet in virtual time mode.
+	 */
+	private static final class VirtualTimeEntry implements Comparable<VirtualTimeEntry> {
+		final Cloudlet cloudlet;
+		final double startVirtualTime;
+		final long startFinishedSoFar;
+		final double dueVirtualTime;
+		final double finishVirtualTime;
+		final long sequence;
+
+		VirtualTimeEntry(Cloudlet cloudlet, double startVirtualTime, long startFinishedSoFar,
+						 double dueVirtualTime, double finishVirtualTime, long sequence) {
+			this.cloudlet = cloudlet;
+			this.startVirtualTime = startVirtualTime;
+			this.startFinishedSoFar = startFinishedSoFar;
+			this.dueVirtualTime = dueVirtualTime;
+			this.finishVirtualTime = finishVirtualTime;
+			this.sequence = sequence;
+		}
+
+		@Override
+		public int compareTo(VirtualTimeEntry other) {
+			int byDue = Double.compare(dueVirtualTime, other.dueVirtualTime);
+			return byDue != 0 ? byDue : Long.compare(sequence, other.sequence);
+		}
+	}
+
 	@Deprecated
 	public double updateVmProcessing(double currentTime, List<Double> mipsShare) {
 		return updateCloudletsProcessing(currentTime, mipsShare);
@@ -188,6 +465,7 @@ public abstract class CloudletScheduler {
 		position = CloudletList.getPositionById(getCloudletExecList(), cloudletId);
 		if (position >= 0) {
 			Cloudlet cl = getCloudletExecList().remove(position);
+			cloudletStopped(cl);
 			if (cl.getRemainingCloudletLength() == 0) {
 				cloudletFinish(cl);
 			} else {
@@ -224,6 +502,7 @@ public abstract class CloudletScheduler {
 		if (position >= 0) {
 			// moves to the paused list
 			Cloudlet cl = getCloudletExecList().remove(position);
+			cloudletStopped(cl);
 			if (cl.getRemainingCloudletLength() == 0) {
 				cloudletFinish(cl);
 			} else {
@@ -270,6 +549,9 @@ public abstract class CloudletScheduler {
 		cl.updateStatus(Cloudlet.CloudletStatus.SUCCESS);
 		cl.finalizeCloudlet();
 		getCloudletFinishedList().add(cl);
+		if (completionQueue != null) {
+			completionQueue.add(this);
+		}
 	}
 
 	/**
@@ -346,6 +628,7 @@ public abstract class CloudletScheduler {
 	 */
 	public Cloudlet migrateCloudlet() {
 		Cloudlet cl = getCloudletExecList().removeFirst();
+		cloudletStopped(cl);
 		cl.finalizeCloudlet();
 		return cl;
 	}
@@ -358,6 +641,10 @@ public abstract class CloudletScheduler {
 	 * @return the estimated finish time
 	 */
 	public double getEstimatedFinishTime(Cloudlet cl, double time) {
+		VirtualTimeEntry entry = virtualTimeEnabled ? runningEntries.get(cl) : null;
+		if (entry != null) {
+			return time + (entry.finishVirtualTime - virtualTime) / getCurrentCapacity();
+		}
 		return time
 				+ ((cl.getRemainingCloudletLength()) / getTotalCurrentAllocatedMipsForCloudlet(cl, time));
 	}
@@ -521,9 +808,13 @@ public abstract class CloudletScheduler {
 		}
 
 		int pesInUse = 0;
-		for (Cloudlet cl : getCloudletExecList()) {
-			if (cl.getRemainingCloudletLength() > 0) {
-				pesInUse += cl.getNumberOfPes();
+		if (virtualTimeEnabled) {
+			pesInUse = runningPes;
+		} else {
+			for (Cloudlet cl : getCloudletExecList()) {
+				if (cl.getRemainingCloudletLength() > 0) {
+					pesInUse += cl.getNumberOfPes();
+				}
 			}
 		}
 
@@ -77,6 +77,14 @@ public class CloudletSchedulerDynamicWorkload extends CloudletSchedulerTimeShare
 		setCachePreviousTime(-1);
 	}
 
+	/**
+	 * The MIPS of each cloudlet follow its own utilization model.
+	 */
+	@Override
+	protected boolean supportsVirtualTime() {
+		return false;
+	}
+
 	@Override
 	public double updateCloudletsProcessing(double currentTime, List<Double> mipsShare) {
 		setCurrentMipsShare(mipsShare);
@@ -59,6 +59,7 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 				cl.updateStatus(Cloudlet.CloudletStatus.INEXEC);
 				getCloudletExecList().add(cl);
 				usedPes += cl.getNumberOfPes();
+				cloudletStarted(cl);
 				break;
 			}
 			i++;
@@ -82,6 +83,7 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 
 				getCloudletExecList().add(cl);
 				usedPes += cl.getNumberOfPes();
+				cloudletStarted(cl);
 
 				// calculate the expected time for cloudlet completion
 				return getEstimatedFinishTime(cl, CloudSim.clock());
@@ -120,6 +122,7 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 		double extraSize = capacity * fileTransferTime;
 		long length = (long) (cl.getCloudletLength() + extraSize);
 		cl.setCloudletLength(length);
+		cloudletStarted(cl);
 
 		return cl.getCloudletLength() / capacity;
 	}
@@ -146,6 +149,14 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 		return cl;
 	}
 
+	/**
+	 * Every running cloudlet gets the current capacity on each of its PEs.
+	 */
+	@Override
+	protected boolean supportsVirtualTime() {
+		return true;
+	}
+
 	// Simple policy, there is no real scheduling involved
 	@Override
 	public double getTotalCurrentAvailableMipsForCloudlet(Cloudlet cl, List<Double> mipsShare) {
@@ -43,6 +43,7 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 			Cloudlet cl = getCloudletPausedList().remove(position);
 			cl.updateStatus(Cloudlet.CloudletStatus.INEXEC);
 			getCloudletExecList().add(cl);
+			cloudletStarted(cl);
 
 			// calculate the expected time for cloudlet completion
 			// first: how many PEs do we have?
@@ -63,10 +64,19 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 		double extraSize = capacity * fileTransferTime;
 		long length = (long) (cl.getCloudletLength() + extraSize);
 		cl.setCloudletLength(length);
+		cloudletStarted(cl);
 
 		return cl.getCloudletLength() / capacity;
 	}
 
+	/**
+	 * Every running cloudlet gets the current capacity on each of its PEs.
+	 */
+	@Override
+	protected boolean supportsVirtualTime() {
+		return true;
+	}
+
 	// Simple policy, there is no real scheduling involved
 	@Override
 	public double getTotalCurrentAvailableMipsForCloudlet(Cloudlet cl, List<Double> mipsShare) {
@@ -8,8 +8,14 @@
 package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
 
 import org.cloudbus.cloudsim.VmAllocationPolicy.GuestMapping;
 import org.cloudbus.cloudsim.core.*;
@@ -61,6 +67,39 @@ public class Datacenter extends SimEntity {
 	/** The scheduling delay to process each datacenter received event. */
 	private double schedulingInterval;
 
+	/** Whether only the hosts with due or changed workload are updated.
+	 * @see #setDirtyHostTracking(boolean) */
+	private boolean dirtyHostTracking = false;
+
+	/** The hosts whose workload changed since they were last updated. */
+	private final Set<HostEntity> dirtyHosts = new LinkedHashSet<>();
+
+	/** The hosts by the time their next cloudlet is expected to finish. Entries
+	 * replaced by a later update of the host are stale and skipped. */
+	private final PriorityQueue<HostEvent> hostEvents = new PriorityQueue<>();
+
+	/** The current entry of each host with a pending cloudlet. */
+	private final Map<HostEntity, HostEvent> hostNextEvents = new IdentityHashMap<>();
+
+	private long hostEventSequence;
+
+	/** Whether the cloudlets of a batch are being submitted.
+	 * @see #processCloudletSubmitBatch(SimEvent) */
+	private boolean submittingBatch = false;
+
+	/** The distinct estimated finish times of the cloudlets of the batch being submitted. */
+	private final Set<Double> batchFinishTimes = new LinkedHashSet<>();
+
+	/** Whether finished cloudlets are looked for only in the schedulers that reported them.
+	 * @see #setCompletionQueueEnabled(boolean) */
+	private boolean completionQueueEnabled = false;
+
+	/** The schedulers with finished cloudlets, in the order of their first completion. */
+	private final Set<CloudletScheduler> completionQueue = new LinkedHashSet<>();
+
+	/** The finished cloudlets to be returned to each user. */
+	private final Map<Integer, List<Cloudlet>> cloudletReturns = new LinkedHashMap<>();
+
 	/**
 	 * Allocates a new Datacenter object.
 	 * 
@@ -166,6 +205,10 @@ public class Datacenter extends SimEntity {
 		} else if (tag == CloudActionTags.CLOUDLET_SUBMIT_ACK) {
 			processCloudletSubmit(ev, true);
 
+			// New Cloudlets arrive together
+		} else if (tag == CloudActionTags.CLOUDLET_SUBMIT_BATCH) {
+			processCloudletSubmitBatch(ev);
+
 			// Cancels a previously submitted Cloudlet
 		} else if (tag == CloudActionTags.CLOUDLET_CANCEL) {
 			processCloudlet(ev, CloudActionTags.CLOUDLET_CANCEL);
@@ -428,20 +471,21 @@ public class Datacenter extends SimEntity {
 			data[0] = getId();
 			data[1] = guest.getId();
 			data[2] = result ? CloudSimTags.TRUE : CloudSimTags.FALSE;
-			send(guest.getUserId(), CloudSim.getMinTimeBetweenEvents(), CloudActionTags.VM_CREATE_ACK, data);
+			send(guest.getUserId(), getSimulation().getMinTimeBetweenEvents(), CloudActionTags.VM_CREATE_ACK, data);
 		}
 
 		if (result) {
 			getVmList().add(guest);
+			markHostDirty(getVmAllocationPolicy().getHost(guest));
 
 			if (guest.isBeingInstantiated()) {
 				guest.setBeingInstantiated(false);
 			}
 
-			guest.updateCloudletsProcessing(CloudSim.clock(), getVmAllocationPolicy().getHost(guest).getGuestScheduler()
+			guest.updateCloudletsProcessing(getSimulation().clock(), getVmAllocationPolicy().getHost(guest).getGuestScheduler()
 					.getAllocatedMipsForGuest(guest));
 		} else {
-			Log.printlnConcat(CloudSim.clock(), ": Datacenter.guestAllocator: Couldn't find a host for ",
+			Log.printlnConcat(getSimulation().clock(), ": Datacenter.guestAllocator: Couldn't find a host for ",
 					guest.getClassName(), " #", guest.getId());
 		}
 	}
@@ -461,6 +505,7 @@ public class Datacenter extends SimEntity {
 	 */
 	protected void processVmDestroy(SimEvent ev, boolean ack) {
 		GuestEntity vm = (GuestEntity) ev.getData();
+		markHostDirty(getVmAllocationPolicy().getHost(vm));
 		getVmAllocationPolicy().deallocateHostForGuest(vm);
 
 		if (ack) {
@@ -497,6 +542,8 @@ public class Datacenter extends SimEntity {
 		HostEntity host = migrate.host();
 
 		// destroy VM in src host
+		markHostDirty(getVmAllocationPolicy().getHost(vm));
+		markHostDirty(host);
 		getVmAllocationPolicy().deallocateHostForGuest(vm);
 		host.removeMigratingInGuest(vm);
 
@@ -519,7 +566,7 @@ public class Datacenter extends SimEntity {
 
 		Log.formatLine(
 				"%.2f: Migration of VM #%d to Host #%d is completed",
-				CloudSim.clock(),
+				getSimulation().clock(),
 				vm.getId(),
 				host.getId());
 		vm.setInMigration(false);
@@ -596,8 +643,9 @@ public class Datacenter extends SimEntity {
 		int destId = receivedData[4];
 
 		// get the cloudlet
-		Cloudlet cl = getVmAllocationPolicy().getHost(vmId, userId).getGuest(vmId, userId)
-				.getCloudletScheduler().cloudletCancel(cloudletId);
+		HostEntity srcHost = getVmAllocationPolicy().getHost(vmId, userId);
+		updateHostBeforeChange(srcHost);
+		Cloudlet cl = srcHost.getGuest(vmId, userId).getCloudletScheduler().cloudletCancel(cloudletId);
 
 		boolean failed = false;
 		if (cl == null) {// cloudlet doesn't exist
@@ -619,10 +667,13 @@ public class Datacenter extends SimEntity {
 			// the cloudlet will migrate from one vm to another does the destination VM
 			// exist?
 			if (destId == getId()) {
-				GuestEntity vm = getVmAllocationPolicy().getHost(vmDestId, userId).getGuest(vmDestId, userId);
+				HostEntity destHost = getVmAllocationPolicy().getHost(vmDestId, userId);
+				GuestEntity vm = destHost.getGuest(vmDestId, userId);
 				if (vm == null) {
 					failed = true;
 				} else {
+					updateHostBeforeChange(destHost);
+					joinCompletionQueue(vm.getCloudletScheduler());
 					// time to transfer the files
 					double fileTransferTime = predictFileTransferTime(cl.getRequiredFiles());
 					vm.getCloudletScheduler().cloudletSubmit(cl, fileTransferTime);
@@ -659,7 +710,9 @@ public class Datacenter extends SimEntity {
 	 * @post $none
 	 */
 	protected void processCloudletSubmit(SimEvent ev, boolean ack) {
-		updateCloudletProcessing();
+		if (!submittingBatch) {
+			updateCloudletProcessing();
+		}
 
 		try {
 			// gets the Cloudlet object
@@ -667,7 +720,7 @@ public class Datacenter extends SimEntity {
 
 			// checks whether this Cloudlet has finished or not
 			if (cl.isFinished()) {
-				String name = CloudSim.getEntityName(cl.getUserId());
+				String name = getSimulation().getEntityName(cl.getUserId());
 				Log.printlnConcat(getName(), ": Warning - ", cl.getClass().getSimpleName(), " #", cl.getCloudletId(),
 						" owned by ", name,
 						" is already completed/finished.");
@@ -706,12 +759,18 @@ public class Datacenter extends SimEntity {
 			HostEntity host = getVmAllocationPolicy().getHost(vmId, userId);
 			GuestEntity vm = host.getGuest(vmId, userId);
 			CloudletScheduler scheduler = vm.getCloudletScheduler();
+			updateHostBeforeChange(host);
+			joinCompletionQueue(scheduler);
 			double estimatedFinishTime = scheduler.cloudletSubmit(cl, fileTransferTime);
 
 			// if this cloudlet is in the exec queue
 			if (estimatedFinishTime > 0.0 && !Double.isInfinite(estimatedFinishTime)) {
 				estimatedFinishTime += fileTransferTime;
-				send(getId(), estimatedFinishTime, CloudActionTags.VM_DATACENTER_EVENT);
+				if (submittingBatch) {
+					batchFinishTimes.add(estimatedFinishTime);
+				} else {
+					send(getId(), estimatedFinishTime, CloudActionTags.VM_DATACENTER_EVENT);
+				}
 			}
 			/*
 			 * else {
@@ -738,6 +797,40 @@ public class Datacenter extends SimEntity {
 			e.printStackTrace();
 		}
 
+		if (!submittingBatch) {
+			checkCloudletCompletion();
+		}
+	}
+
+	/**
+	 * Processes the submission of a list of cloudlets, as {@link #processCloudletSubmit(SimEvent, boolean)}
+	 * does for each of them, but with a single update of the cloudlets processing and a single completion
+	 * check. The events for the estimated finish times of the cloudlets are collapsed, so that cloudlets
+	 * expected to finish at the same time share one {@link CloudActionTags#VM_DATACENTER_EVENT}.
+	 * 
+	 * @param ev information about the event just happened, with the list of cloudlets as data
+	 * 
+	 * @pre ev != null
+	 * @post $none
+	 */
+	@SuppressWarnings("unchecked")
+	protected void processCloudletSubmitBatch(SimEvent ev) {
+		updateCloudletProcessing();
+
+		submittingBatch = true;
+		try {
+			for (Cloudlet cl : (List<? extends Cloudlet>) ev.getData()) {
+				processCloudletSubmit(ev.withData(cl), false);
+			}
+		} finally {
+			submittingBatch = false;
+		}
+
+		for (double finishTime : batchFinishTimes) {
+			send(getId(), finishTime, CloudActionTags.VM_DATACENTER_EVENT);
+		}
+		batchFinishTimes.clear();
+
 		checkCloudletCompletion();
 	}
 
@@ -777,13 +870,14 @@ public class Datacenter extends SimEntity {
 	 * @post $none
 	 */
 	protected void processCloudletResume(int cloudletId, int userId, int vmId, boolean ack) {
-		double eventTime = getVmAllocationPolicy().getHost(vmId, userId).getGuest(vmId, userId)
-				.getCloudletScheduler().cloudletResume(cloudletId);
+		HostEntity host = getVmAllocationPolicy().getHost(vmId, userId);
+		updateHostBeforeChange(host);
+		double eventTime = host.getGuest(vmId, userId).getCloudletScheduler().cloudletResume(cloudletId);
 
 		boolean status = false;
 		if (eventTime > 0.0) { // if this cloudlet is in the exec queue
 			status = true;
-			if (eventTime > CloudSim.clock()) {
+			if (eventTime > getSimulation().clock()) {
 				schedule(getId(), eventTime, CloudActionTags.VM_DATACENTER_EVENT);
 			}
 		}
@@ -811,8 +905,9 @@ public class Datacenter extends SimEntity {
 	 * @post $none
 	 */
 	protected void processCloudletPause(int cloudletId, int userId, int vmId, boolean ack) {
-		boolean status = getVmAllocationPolicy().getHost(vmId, userId).getGuest(vmId, userId)
-				.getCloudletScheduler().cloudletPause(cloudletId);
+		HostEntity host = getVmAllocationPolicy().getHost(vmId, userId);
+		updateHostBeforeChange(host);
+		boolean status = host.getGuest(vmId, userId).getCloudletScheduler().cloudletPause(cloudletId);
 
 		if (ack) {
 			int[] data = new int[3];
@@ -834,8 +929,9 @@ public class Datacenter extends SimEntity {
 	 * @post $none
 	 */
 	protected void processCloudletCancel(int cloudletId, int userId, int vmId) {
-		Cloudlet cl = getVmAllocationPolicy().getHost(vmId, userId).getGuest(vmId, userId)
-				.getCloudletScheduler().cloudletCancel(cloudletId);
+		HostEntity host = getVmAllocationPolicy().getHost(vmId, userId);
+		updateHostBeforeChange(host);
+		Cloudlet cl = host.getGuest(vmId, userId).getCloudletScheduler().cloudletCancel(cloudletId);
 		sendNow(userId, CloudActionTags.CLOUDLET_CANCEL, cl);
 	}
 
@@ -853,24 +949,150 @@ public class Datacenter extends SimEntity {
 		// if some time passed since last processing
 		// R: for term is to allow loop at simulation start. Otherwise, one initial
 		// simulation step is skipped and schedulers are not properly initialized
-		if (CloudSim.clock() < 0.111 || CloudSim.clock() >= getLastProcessTime() + CloudSim.getMinTimeBetweenEvents()) {
+		if (getSimulation().clock() < 0.111 || getSimulation().clock() >= getLastProcessTime() + getSimulation().getMinTimeBetweenEvents()) {
 			double smallerTime = Double.MAX_VALUE;
-			for (HostEntity host : getVmAllocationPolicy().getHostList()) {
-				// inform VMs to update processing
-				double time = host.updateCloudletsProcessing(CloudSim.clock());
-				// what time do we expect that the next cloudlet will finish?
-				if (time < smallerTime) {
-					smallerTime = time;
+			if (dirtyHostTracking) {
+				smallerTime = updateDueHostsProcessing();
+			} else {
+				for (HostEntity host : getVmAllocationPolicy().getHostList()) {
+					// inform VMs to update processing
+					double time = host.updateCloudletsProcessing(getSimulation().clock());
+					// what time do we expect that the next cloudlet will finish?
+					if (time < smallerTime) {
+						smallerTime = time;
+					}
 				}
 			}
 			// gurantees a minimal interval before scheduling the event
-			if (smallerTime < CloudSim.clock() + CloudSim.getMinTimeBetweenEvents() + 0.01) {
-				smallerTime = CloudSim.clock() + CloudSim.getMinTimeBetweenEvents() + 0.01;
+			if (smallerTime < getSimulation().clock() + getSimulation().getMinTimeBetweenEvents() + 0.01) {
+				smallerTime = getSimulation().clock() + getSimulation().getMinTimeBetweenEvents() + 0.01;
 			}
 			if (smallerTime != Double.MAX_VALUE) {
-				schedule(getId(), (smallerTime - CloudSim.clock()), CloudActionTags.VM_DATACENTER_EVENT);
+				schedule(getId(), (smallerTime - getSimulation().clock()), CloudActionTags.VM_DATACENTER_EVENT);
 			}
-			setLastProcessTime(CloudSim.clock());
+			setLastProcessTime(getSimulation().clock());
+		}
+	}
+
+	/**
+	 * Dirty-host version of the host sweep of {@link #updateCloudletProcessing()}: updates
+	 * only the hosts whose workload changed or whose next cloudlet is due.
+	 *
+	 * @return the earliest time a cloudlet is expected to finish on any host
+	 */
+	private double updateDueHostsProcessing() {
+		double now = getSimulation().clock();
+		if (now < 0.111) {
+			// schedulers are initialized by the first updates, as in the full sweep
+			dirtyHosts.addAll(getVmAllocationPolicy().getHostList());
+		}
+		while (!hostEvents.isEmpty() && hostEvents.peek().time <= now + getSimulation().getMinTimeBetweenEvents()) {
+			HostEvent event = hostEvents.poll();
+			if (hostNextEvents.get(event.host) == event) {
+				hostNextEvents.remove(event.host);
+				dirtyHosts.add(event.host);
+			}
+		}
+
+		for (HostEntity host : dirtyHosts) {
+			hostNextEvents.remove(host);
+			double time = host.updateCloudletsProcessing(now);
+			if (time < Double.MAX_VALUE) {
+				HostEvent event = new HostEvent(host, time, hostEventSequence++);
+				hostNextEvents.put(host, event);
+				hostEvents.add(event);
+			}
+		}
+		dirtyHosts.clear();
+
+		// drop stale entries once they outnumber the live ones
+		if (hostEvents.size() > 2 * hostNextEvents.size() + 64) {
+			hostEvents.clear();
+			hostEvents.addAll(hostNextEvents.values());
+		}
+		while (!hostEvents.isEmpty() && hostNextEvents.get(hostEvents.peek().host) != hostEvents.peek()) {
+			hostEvents.poll();
+		}
+		return hostEvents.isEmpty() ? Double.MAX_VALUE : hostEvents.peek().time;
+	}
+
+	/**
+	 * Enables or disables dirty-host tracking. By default every host is updated on each
+	 * {@link CloudActionTags#VM_DATACENTER_EVENT}; with tracking enabled the datacenter keeps the
+	 * time each host expects its next cloudlet to finish in a priority queue, plus the set of hosts
+	 * whose workload changed (cloudlet submission, cancellation, pause, resume or move, VM creation,
+	 * destruction or migration), and only updates those two groups.
+	 * <p>
+	 * A skipped host catches up on its next update over the whole elapsed time, which is exact as
+	 * long as the MIPS its VMs get do not change in between. So the mode does not suit hosts
+	 * whose updates have side effects or whose utilization varies over time by itself (e.g. network
+	 * or power-aware hosts, dynamic workloads). Subclasses that override
+	 * {@link #updateCloudletProcessing()} ignore it.
+	 * <p>
+	 * A host is next visited at the completion time its schedulers estimate. The default
+	 * estimate is computed before finished cloudlets release their share of the VM, and is only
+	 * corrected by later updates, so use schedulers in virtual time mode for exact results.
+	 *
+	 * @param enabled true to update only the hosts with due or changed workload
+	 * @see CloudletScheduler#setVirtualTimeEnabled(boolean)
+	 */
+	public void setDirtyHostTracking(boolean enabled) {
+		dirtyHostTracking = enabled;
+		hostEvents.clear();
+		hostNextEvents.clear();
+		dirtyHosts.clear();
+		if (enabled) {
+			dirtyHosts.addAll(getVmAllocationPolicy().getHostList());
+		}
+	}
+
+	public boolean isDirtyHostTracking() {
+		return dirtyHostTracking;
+	}
+
+	/**
+	 * Marks a host to be updated on the next datacenter event, in dirty-host tracking mode.
+	 *
+	 * @param host the host whose workload changed, may be null
+	 */
+	protected void markHostDirty(HostEntity host) {
+		if (dirtyHostTracking && host != null) {
+			dirtyHosts.add(host);
+		}
+	}
+
+	/**
+	 * Brings the cloudlets of a host up to date before its workload changes, and marks it
+	 * to be updated on the next datacenter event, in dirty-host tracking mode.
+	 * With tracking disabled, {@link #updateCloudletProcessing()} already updated every host.
+	 *
+	 * @param host the host whose workload is about to change, may be null
+	 */
+	protected void updateHostBeforeChange(HostEntity host) {
+		if (dirtyHostTracking && host != null) {
+			host.updateCloudletsProcessing(getSimulation().clock());
+			dirtyHosts.add(host);
+		}
+	}
+
+	/**
+	 * A host's expected next cloudlet completion, in dirty-host tracking mode.
+	 */
+	private static final class HostEvent implements Comparable<HostEvent> {
+		final HostEntity host;
+		final double time;
+		final long sequence;
+
+		HostEvent(HostEntity host, double time, long sequence) {
+			this.host = host;
+			this.time = time;
+			this.sequence = sequence;
+		}
+
+		@Override
+		public int compareTo(HostEvent other) {
+			int byTime = Double.compare(time, other.time);
+			return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
 		}
 	}
 
@@ -882,6 +1104,10 @@ public class Datacenter extends SimEntity {
 	 * @post $none
 	 */
 	protected void checkCloudletCompletion() {
+		if (completionQueueEnabled) {
+			returnQueuedCloudlets();
+			return;
+		}
 		for (HostEntity host : getVmAllocationPolicy().getHostList()) {
 			for (GuestEntity vm : host.getGuestList()) {
 				while (vm.getCloudletScheduler().isFinishedCloudlets()) {
@@ -894,6 +1120,72 @@ public class Datacenter extends SimEntity {
 		}
 	}
 
+	/**
+	 * Completion-queue version of {@link #checkCloudletCompletion()}: returns the finished cloudlets
+	 * of the schedulers in the queue only, with one {@link CloudActionTags#CLOUDLET_RETURN_BATCH}
+	 * per user that has more than one.
+	 */
+	private void returnQueuedCloudlets() {
+		for (CloudletScheduler scheduler : completionQueue) {
+			while (scheduler.isFinishedCloudlets()) {
+				Cloudlet cl = scheduler.getNextFinishedCloudlet();
+				if (cl != null) {
+					cloudletReturns.computeIfAbsent(cl.getUserId(), k -> new ArrayList<>()).add(cl);
+				}
+			}
+		}
+		completionQueue.clear();
+
+		for (Map.Entry<Integer, List<Cloudlet>> returns : cloudletReturns.entrySet()) {
+			List<Cloudlet> cloudlets = returns.getValue();
+			if (cloudlets.size() == 1) {
+				sendNow(returns.getKey(), CloudActionTags.CLOUDLET_RETURN, cloudlets.getFirst());
+			} else {
+				sendNow(returns.getKey(), CloudActionTags.CLOUDLET_RETURN_BATCH, cloudlets);
+			}
+		}
+		cloudletReturns.clear();
+	}
+
+	/**
+	 * Makes a scheduler report its finished cloudlets to the completion queue of this datacenter,
+	 * if it is enabled. Called before cloudlets are submitted to the scheduler.
+	 *
+	 * @param scheduler the scheduler of a guest of this datacenter
+	 */
+	protected void joinCompletionQueue(CloudletScheduler scheduler) {
+		if (completionQueueEnabled && scheduler.getCompletionQueue() != completionQueue) {
+			scheduler.setCompletionQueue(completionQueue);
+		}
+	}
+
+	/**
+	 * Enables or disables the completion queue. By default {@link #checkCloudletCompletion()} asks the
+	 * scheduler of every guest of every host for finished cloudlets, and returns each of them in its own
+	 * {@link CloudActionTags#CLOUDLET_RETURN}. With the queue enabled, the schedulers of the guests
+	 * that cloudlets are submitted to add themselves to a queue of this datacenter when a cloudlet
+	 * finishes, and only the schedulers in the queue are visited. The cloudlets finished at the same
+	 * time by a user are returned together in a {@link CloudActionTags#CLOUDLET_RETURN_BATCH}, which
+	 * {@link DatacenterBroker} processes as a sequence of returns; other receivers must handle it.
+	 * The cloudlets are returned in the order their schedulers reported a completion, rather than in
+	 * the order of the hosts, hence brokers reacting to the returns may take other decisions.
+	 *
+	 * @param enabled true to look for finished cloudlets in the completion queue only
+	 */
+	public void setCompletionQueueEnabled(boolean enabled) {
+		completionQueueEnabled = enabled;
+		completionQueue.clear();
+		for (HostEntity host : getVmAllocationPolicy().getHostList()) {
+			for (GuestEntity vm : host.getGuestList()) {
+				vm.getCloudletScheduler().setCompletionQueue(enabled ? completionQueue : null);
+			}
+		}
+	}
+
+	public boolean isCompletionQueueEnabled() {
+		return completionQueueEnabled;
+	}
+
 	/**
 	 * Adds a file into the resource's storage before the experiment starts.
 	 * If the file is a master file, then it will be registered to the RC
@@ -1000,9 +1292,9 @@ public class Datacenter extends SimEntity {
 		// this resource should register to regional CIS.
 		// However, if not specified, then register to system CIS (the
 		// default CloudInformationService) entity.
-		int gisID = CloudSim.getEntityId(regionalCisName);
+		int gisID = getSimulation().getEntityId(regionalCisName);
 		if (gisID == -1) {
-			gisID = CloudSim.getCloudInfoServiceEntityId();
+			gisID = getSimulation().getCloudInfoServiceEntityId();
 		}
 
 		// send the registration to CIS
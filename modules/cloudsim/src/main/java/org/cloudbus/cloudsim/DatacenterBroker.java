@@ -10,9 +10,12 @@ package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.cloudbus.cloudsim.core.*;
 import org.cloudbus.cloudsim.lists.CloudletList;
@@ -76,6 +79,13 @@ public class DatacenterBroker extends SimEntity {
 	/** Next guest to which send the cloudlet */
 	private int guestIndex = 0;
 
+	/** Whether the cloudlets sent in the same tick are sent as one batch per datacenter.
+	 * @see #setBatchCloudletSubmission(boolean) */
+	private boolean batchCloudletSubmission = false;
+
+	/** The cloudlets to be sent to each datacenter at the end of the current tick. */
+	private final Map<Integer, List<Cloudlet>> cloudletBatches = new LinkedHashMap<>();
+
 	/**
 	 * Created a new DatacenterBroker object.
 	 * 
@@ -87,8 +97,8 @@ public class DatacenterBroker extends SimEntity {
 	public DatacenterBroker(String name) throws Exception {
 		super(name);
 
-		setGuestList(new ArrayList<>());
-		setGuestsCreatedList(new ArrayList<>());
+		setGuestList(VmList.newIdIndexedList());
+		setGuestsCreatedList(VmList.newIdIndexedList());
 		setCloudletList(new ArrayList<>());
 		setCloudletSubmittedList(new ArrayList<>());
 		setCloudletReceivedList(new ArrayList<>());
@@ -147,6 +157,7 @@ public class DatacenterBroker extends SimEntity {
 	}
 
 	@Override
+	@SuppressWarnings("unchecked")
 	public void processEvent(SimEvent ev) {
 		CloudSimTags tag = ev.getTag();
         // Resource characteristics request
@@ -165,6 +176,16 @@ public class DatacenterBroker extends SimEntity {
         } else if (tag == CloudActionTags.CLOUDLET_RETURN) {
             processCloudletReturn(ev);
 
+            // Finished cloudlets returned together
+        } else if (tag == CloudActionTags.CLOUDLET_RETURN_BATCH) {
+            for (Cloudlet cloudlet : (List<? extends Cloudlet>) ev.getData()) {
+                processCloudletReturn(ev.withData(cloudlet));
+            }
+
+            // The cloudlets sent in this tick are due
+        } else if (tag == CloudActionTags.CLOUDLET_SUBMIT_BATCH) {
+            sendCloudletBatches();
+
             // if the simulation finishes
         } else if (tag == CloudActionTags.END_OF_SIMULATION) {
             shutdownEntity();
@@ -202,10 +223,10 @@ public class DatacenterBroker extends SimEntity {
 	 * @post $none
 	 */
 	protected void processResourceCharacteristicsRequest(SimEvent ev) {
-		setDatacenterIdsList(CloudSim.getCloudResourceList());
+		setDatacenterIdsList(getSimulation().getCloudResourceList());
 		setDatacenterCharacteristicsList(new HashMap<>());
 
-		Log.printlnConcat(CloudSim.clock(), ": ", getName(), ": Cloud Resource List received with ",
+		Log.printlnConcat(getSimulation().clock(), ": ", getName(), ": Cloud Resource List received with ",
 				getDatacenterIdsList().size(), " datacenter(s)");
 
 		for (Integer datacenterId : getDatacenterIdsList()) {
@@ -231,11 +252,11 @@ public class DatacenterBroker extends SimEntity {
 		if (result == CloudSimTags.TRUE) {
 			getVmsToDatacentersMap().put(vmId, datacenterId);
 			getGuestsCreatedList().add(guest);
-			Log.printlnConcat(CloudSim.clock(), ": ", getName(), ": ", guest.getClassName(), " #", vmId,
+			Log.printlnConcat(getSimulation().clock(), ": ", getName(), ": ", guest.getClassName(), " #", vmId,
 					" has been created in Datacenter #", datacenterId, ", ", guest.getHost().getClassName(), " #",
 					guest.getHost().getId());
 		} else {
-			Log.printlnConcat(CloudSim.clock(), ": ", getName(), ": Creation of ", guest.getClassName(), " #", vmId,
+			Log.printlnConcat(getSimulation().clock(), ": ", getName(), ": Creation of ", guest.getClassName(), " #", vmId,
 					" failed in Datacenter #", datacenterId);
 		}
 
@@ -259,7 +280,7 @@ public class DatacenterBroker extends SimEntity {
 				if (!getGuestsCreatedList().isEmpty()) { // if some vm were created
 					submitCloudlets();
 				} else { // no vms created. abort
-					Log.printlnConcat(CloudSim.clock(), ": ", getName(),
+					Log.printlnConcat(getSimulation().clock(), ": ", getName(),
 							": none of the required VMs could be created. Aborting");
 					finishExecution();
 				}
@@ -277,12 +298,12 @@ public class DatacenterBroker extends SimEntity {
 	protected void processCloudletReturn(SimEvent ev) {
 		Cloudlet cloudlet = (Cloudlet) ev.getData();
 		getCloudletReceivedList().add(cloudlet);
-		Log.printlnConcat(CloudSim.clock(), ": ", getName(), ": ", cloudlet.getClass().getSimpleName(), " #", cloudlet.getCloudletId(),
+		Log.printlnConcat(getSimulation().clock(), ": ", getName(), ": ", cloudlet.getClass().getSimpleName(), " #", cloudlet.getCloudletId(),
 				" return received");
-		Log.printlnConcat(CloudSim.clock(), ": ", getName(), ": The number of finished Cloudlets is:", getCloudletReceivedList().size());
+		Log.printlnConcat(getSimulation().clock(), ": ", getName(), ": The number of finished Cloudlets is:", getCloudletReceivedList().size());
 		cloudletsSubmitted--;
 		if (getCloudletList().isEmpty() && cloudletsSubmitted == 0) { // all cloudlets executed
-			Log.printlnConcat(CloudSim.clock(), ": ", getName(), ": All Cloudlets executed. Finishing...");
+			Log.printlnConcat(getSimulation().clock(), ": ", getName(), ": All Cloudlets executed. Finishing...");
 			clearDatacenters();
 			finishExecution();
 		} else { // some cloudlets haven't finished yet
@@ -328,10 +349,10 @@ public class DatacenterBroker extends SimEntity {
 	protected void createVmsInDatacenter(int datacenterId) {
 		// send as much vms as possible for this datacenter before trying the next one
 		int requestedVms = 0;
-		String datacenterName = CloudSim.getEntityName(datacenterId);
+		String datacenterName = getSimulation().getEntityName(datacenterId);
 		for (GuestEntity vm : getGuestList()) {
 			if (!getVmsToDatacentersMap().containsKey(vm.getId())) {
-				Log.printlnConcat(CloudSim.clock(), ": ", getName(), ": Trying to Create ", vm.getClassName(),
+				Log.printlnConcat(getSimulation().clock(), ": ", getName(), ": Trying to Create ", vm.getClassName(),
 						" #", vm.getId(), " in ", datacenterName);
 				sendNow(datacenterId, CloudActionTags.VM_CREATE_ACK, vm);
 				requestedVms++;
@@ -352,7 +373,7 @@ public class DatacenterBroker extends SimEntity {
          * @see #submitCloudletList(java.util.List) 
 	 */
 	protected void submitCloudlets() {
-		List<Cloudlet> successfullySubmitted = new ArrayList<>();
+		Set<Cloudlet> successfullySubmitted = new HashSet<>();
 		for (Cloudlet cloudlet : getCloudletList()) {
 			GuestEntity vm;
 			// if user didn't bind this cloudlet and it has not been executed yet
@@ -365,10 +386,10 @@ public class DatacenterBroker extends SimEntity {
 
 					if(!Log.isDisabled()) {
 						if (vm != null) {
-							Log.printlnConcat(CloudSim.clock(), ": ", getName(), ": Postponing execution of cloudlet ",
+							Log.printlnConcat(getSimulation().clock(), ": ", getName(), ": Postponing execution of cloudlet ",
 									cloudlet.getCloudletId(), ": bount ", vm.getClassName(), " #", vm.getId(), " not available");
 						} else {
-							Log.printlnConcat(CloudSim.clock(), ": ", getName(), ": Postponing execution of cloudlet ",
+							Log.printlnConcat(getSimulation().clock(), ": ", getName(), ": Postponing execution of cloudlet ",
 									cloudlet.getCloudletId(), ": bount guest entity of id ", cloudlet.getGuestId(), " doesn't exist");
 						}
 					}
@@ -377,12 +398,12 @@ public class DatacenterBroker extends SimEntity {
 			}
 
 			if (!Log.isDisabled()) {
-				Log.printlnConcat(CloudSim.clock(), ": ", getName(), ": Sending ", cloudlet.getClass().getSimpleName(),
+				Log.printlnConcat(getSimulation().clock(), ": ", getName(), ": Sending ", cloudlet.getClass().getSimpleName(),
 						" #", cloudlet.getCloudletId(), " to " + vm.getClassName() + " #", vm.getId());
 			}
 			
 			cloudlet.setGuestId(vm.getId());
-			sendNow(getVmsToDatacentersMap().get(vm.getId()), CloudActionTags.CLOUDLET_SUBMIT, cloudlet);
+			sendCloudlet(getVmsToDatacentersMap().get(vm.getId()), cloudlet);
 			cloudletsSubmitted++;
 			guestIndex = (guestIndex + 1) % getGuestsCreatedList().size();
 			getCloudletSubmittedList().add(cloudlet);
@@ -390,7 +411,57 @@ public class DatacenterBroker extends SimEntity {
 		}
 
 		// remove submitted cloudlets from waiting list
-		getCloudletList().removeAll(successfullySubmitted);
+		getCloudletList().removeIf(successfullySubmitted::contains);
+	}
+
+	/**
+	 * Sends a cloudlet to the datacenter of its guest. With batch submission enabled the cloudlet
+	 * is buffered, and the cloudlets sent to the same datacenter in the current tick are sent
+	 * together by {@link #sendCloudletBatches()}.
+	 * 
+	 * @param datacenterId the id of the datacenter
+	 * @param cloudlet the cloudlet, already bound to a guest of the datacenter
+	 * @see #setBatchCloudletSubmission(boolean)
+	 */
+	protected void sendCloudlet(int datacenterId, Cloudlet cloudlet) {
+		if (!batchCloudletSubmission) {
+			sendNow(datacenterId, CloudActionTags.CLOUDLET_SUBMIT, cloudlet);
+			return;
+		}
+		if (cloudletBatches.isEmpty()) {
+			// processed after the events already due in this tick
+			sendNow(getId(), CloudActionTags.CLOUDLET_SUBMIT_BATCH);
+		}
+		cloudletBatches.computeIfAbsent(datacenterId, k -> new ArrayList<>()).add(cloudlet);
+	}
+
+	/**
+	 * Sends the cloudlets buffered by {@link #sendCloudlet(int, Cloudlet)}, as one
+	 * {@link CloudActionTags#CLOUDLET_SUBMIT_BATCH} event per datacenter.
+	 */
+	protected void sendCloudletBatches() {
+		for (Map.Entry<Integer, List<Cloudlet>> batch : cloudletBatches.entrySet()) {
+			sendNow(batch.getKey(), CloudActionTags.CLOUDLET_SUBMIT_BATCH, batch.getValue());
+		}
+		cloudletBatches.clear();
+	}
+
+	/**
+	 * Enables or disables batch submission of cloudlets. By default each cloudlet is sent to its
+	 * datacenter in its own {@link CloudActionTags#CLOUDLET_SUBMIT} event, and the datacenter updates
+	 * the processing of all its hosts for each of them. With batch submission the cloudlets sent in
+	 * the same tick are sent as one {@link CloudActionTags#CLOUDLET_SUBMIT_BATCH} event per datacenter,
+	 * which is processed with a single update. The cloudlets arrive after the other events sent
+	 * by the broker in that tick.
+	 * 
+	 * @param enabled whether the cloudlets are submitted in batches
+	 */
+	public void setBatchCloudletSubmission(boolean enabled) {
+		batchCloudletSubmission = enabled;
+	}
+
+	public boolean isBatchCloudletSubmission() {
+		return batchCloudletSubmission;
 	}
 
 	/**
@@ -401,7 +472,7 @@ public class DatacenterBroker extends SimEntity {
 	 */
 	protected void clearDatacenters() {
 		for (GuestEntity vm : getGuestsCreatedList()) {
-			Log.printlnConcat(CloudSim.clock(), ": ", getName(), ": Destroying ", vm.getClassName(), " #", vm.getId());
+			Log.printlnConcat(getSimulation().clock(), ": ", getName(), ": Destroying ", vm.getClassName(), " #", vm.getId());
 			sendNow(getVmsToDatacentersMap().get(vm.getId()), CloudActionTags.VM_DESTROY, vm);
 		}
 
@@ -19,5 +19,7 @@ public enum CloudSimEXTags implements CloudSimTags {
     BROKER_RECORD_UTIL_NOW,
     BROKER_AUTOSCALE_NOW,
 
-    DATACENTER_BOOT_VM_TAG
+    DATACENTER_BOOT_VM_TAG,
+
+    WORKLOAD_FEED_NOW
 }
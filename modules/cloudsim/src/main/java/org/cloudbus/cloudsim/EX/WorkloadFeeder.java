@@ -0,0 +1,147 @@
+package org.cloudbus.cloudsim.EX;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.EX.util.CustomLog;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimEntity;
+import org.cloudbus.cloudsim.core.SimEvent;
+import org.cloudbus.cloudsim.util.WorkloadFileReader;
+
+/**
+ * Feeds the jobs of a workload trace to a broker as the simulation advances,
+ * instead of creating all cloudlets before the simulation starts. Only the jobs
+ * submitted within a look-ahead window from the current time are read from the
+ * trace, hence the memory used does not depend on the size of the trace.
+ *
+ * <br>
+ * <br>
+ * The jobs submitted at the same time are sent to the broker together, as a
+ * {@link CloudSimEXTags#BROKER_CLOUDLETS_NOW} event delayed until their submit
+ * time. The submit times of the trace are relative to the start of this
+ * entity. The user of the cloudlets is set to the broker.
+ *
+ * <br>
+ * <br>
+ * <strong>NOTE! </strong> - a broker without a positive life length finishes
+ * when its submitted cloudlets complete, possibly before the rest of the trace
+ * is fed to it.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class WorkloadFeeder extends SimEntity {
+
+    private final WorkloadFileReader workload;
+
+    private final DatacenterBrokerEX broker;
+
+    private final double window;
+
+    private WorkloadFileReader.JobReader reader;
+
+    /** If the reader holds a job, which has not been fed yet. */
+    private boolean pending;
+
+    /** The time this entity started, which the submit times are relative to. */
+    private double startTime;
+
+    /**
+     * Constr.
+     *
+     * @param name
+     *            - the name of the entity. Must be unique.
+     * @param workload
+     *            - the trace to read. Must not be null.
+     * @param broker
+     *            - the broker to feed the jobs to. Must not be null.
+     * @param window
+     *            - for how long ahead of the current time the jobs are read.
+     *            Must not be negative.
+     */
+    public WorkloadFeeder(final String name, final WorkloadFileReader workload, final DatacenterBrokerEX broker,
+            final double window) {
+        super(name);
+        if (window < 0) {
+            throw new IllegalArgumentException("The window must not be negative");
+        }
+        this.workload = workload;
+        this.broker = broker;
+        this.window = window;
+    }
+
+    @Override
+    public void startEntity() {
+        startTime = CloudSim.clock();
+        try {
+            reader = workload.readJobs();
+            pending = reader.next();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (pending) {
+            sendNow(getId(), CloudSimEXTags.WORKLOAD_FEED_NOW);
+        }
+    }
+
+    @Override
+    public void processEvent(final SimEvent ev) {
+        if (ev.getTag() == CloudSimEXTags.WORKLOAD_FEED_NOW) {
+            try {
+                feed();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Sends the jobs submitted within the window to the broker, and schedules
+     * the next feed for when the next job enters the window.
+     */
+    private void feed() throws IOException {
+        double now = CloudSim.clock();
+        while (pending && submitTime() <= now + window) {
+            double submitTime = submitTime();
+            List<Cloudlet> cloudlets = new ArrayList<>();
+            do {
+                Cloudlet cloudlet = reader.createCloudlet();
+                cloudlet.setUserId(broker.getId());
+                cloudlets.add(cloudlet);
+                pending = reader.next();
+            } while (pending && submitTime() == submitTime);
+            send(broker.getId(), Math.max(0, submitTime - now), CloudSimEXTags.BROKER_CLOUDLETS_NOW, cloudlets);
+        }
+
+        if (pending) {
+            send(getId(), submitTime() - window - now, CloudSimEXTags.WORKLOAD_FEED_NOW);
+        } else {
+            closeReader();
+        }
+    }
+
+    private double submitTime() {
+        return startTime + reader.getSubmitTime();
+    }
+
+    private void closeReader() {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                CustomLog.logError(Level.WARNING, "The workload trace could not be closed", e);
+            }
+            reader = null;
+            pending = false;
+        }
+    }
+
+    @Override
+    public void shutdownEntity() {
+        closeReader();
+    }
+}
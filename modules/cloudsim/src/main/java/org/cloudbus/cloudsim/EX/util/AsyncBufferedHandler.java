@@ -0,0 +1,204 @@
+package org.cloudbus.cloudsim.EX.util;
+
+import java.io.UnsupportedEncodingException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.logging.*;
+
+/**
+ * Writes log records to an aggregated handler from a background thread, so
+ * that the logging thread does not wait for the I/O of the output. The records
+ * are passed through a ring buffer of a predefined size; when it is full the
+ * logging thread waits for the writer to catch up, hence no records are lost.
+ *
+ * <br>
+ * <br>
+ * <strong>NOTE! </strong> - the records are formatted by the logging thread,
+ * with the formatter set to this handler, since formatters may read the state
+ * of the simulation (e.g. the CloudSim clock). The aggregated handler only
+ * writes the formatted text. The filtering and level are delegated to the
+ * aggregated handler.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class AsyncBufferedHandler extends Handler {
+
+    /** Writes the message of the already formatted records as it is. */
+    private static final Formatter MESSAGE_FORMATTER = new Formatter() {
+        @Override
+        public String format(final LogRecord record) {
+            return record.getMessage();
+        }
+    };
+
+    /** Signals the writer to stop. */
+    private static final LogRecord STOP = new LogRecord(Level.OFF, "");
+
+    private final Handler handler;
+
+    private final BlockingQueue<LogRecord> records;
+
+    private final Thread writer;
+
+    private volatile Formatter formatter;
+
+    /** The number of records put in, and taken out of the buffer and written. */
+    private long published = 0;
+    private long written = 0;
+
+    private volatile boolean closed = false;
+
+    /**
+     * Constr.
+     *
+     * @param handler
+     *            - the embedded/aggregated handler. Must not be null. Its
+     *            formatter becomes the formatter of this handler.
+     * @param bufferSize
+     *            - the size of the buffer. Must be positive.
+     */
+    public AsyncBufferedHandler(final Handler handler, final int bufferSize) {
+        super();
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("The size of the buffer must be positive");
+        }
+        this.handler = handler;
+        this.formatter = handler.getFormatter();
+        handler.setFormatter(MESSAGE_FORMATTER);
+
+        records = new ArrayBlockingQueue<>(bufferSize);
+        writer = new Thread(this::write, "CustomLog writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void publish(final LogRecord record) {
+        if (closed || !isLoggable(record)) {
+            return;
+        }
+
+        LogRecord formatted = new LogRecord(record.getLevel(), formatter.format(record));
+        formatted.setInstant(record.getInstant());
+        try {
+            records.put(formatted);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        synchronized (this) {
+            published++;
+        }
+    }
+
+    private void write() {
+        try {
+            while (true) {
+                LogRecord record = records.take();
+                if (record == STOP) {
+                    return;
+                }
+                handler.publish(record);
+                synchronized (this) {
+                    written++;
+                    notifyAll();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits until the records published so far are written, and flushes the
+     * aggregated handler.
+     */
+    @Override
+    public void flush() {
+        synchronized (this) {
+            while (written < published && writer.isAlive()) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+        handler.flush();
+    }
+
+    @Override
+    public void close() throws SecurityException {
+        if (closed) {
+            return;
+        }
+        try {
+            flush();
+            closed = true;
+            records.put(STOP);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            handler.close();
+        }
+    }
+
+    @Override
+    public boolean isLoggable(LogRecord record) {
+        return record != null && handler.isLoggable(record);
+    }
+
+    @Override
+    public void setFilter(Filter newFilter) throws SecurityException {
+        handler.setFilter(newFilter);
+    }
+
+    @Override
+    public Filter getFilter() {
+        return handler.getFilter();
+    }
+
+    @Override
+    public void setFormatter(Formatter newFormatter) throws SecurityException {
+        if (newFormatter == null) {
+            throw new NullPointerException();
+        }
+        formatter = newFormatter;
+    }
+
+    @Override
+    public Formatter getFormatter() {
+        return formatter;
+    }
+
+    @Override
+    public synchronized void setLevel(Level newLevel) throws SecurityException {
+        handler.setLevel(newLevel);
+    }
+
+    @Override
+    public synchronized Level getLevel() {
+        return handler.getLevel();
+    }
+
+    @Override
+    public void setEncoding(String encoding) throws SecurityException, UnsupportedEncodingException {
+        handler.setEncoding(encoding);
+    }
+
+    @Override
+    public String getEncoding() {
+        return handler.getEncoding();
+    }
+
+    @Override
+    public void setErrorManager(ErrorManager em) {
+        handler.setErrorManager(em);
+    }
+
+    public ErrorManager getErrorManager() {
+        return handler.getErrorManager();
+    }
+}
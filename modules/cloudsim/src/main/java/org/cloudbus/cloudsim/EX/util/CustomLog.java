@@ -8,10 +8,12 @@ import org.cloudbus.cloudsim.core.CloudSim;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.file.Path;
 import java.util.Date;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Properties;
+import java.util.function.Supplier;
 import java.util.logging.*;
 
 /**
@@ -91,6 +93,15 @@ public class CustomLog {
      */
     private static final String BUFFER_SIZE_PROP_KEY = "BufferSize";
 
+    /**
+     * A key for an integer property, specifying the capacity of the ring
+     * buffer of records written to the output by a background thread. If
+     * specified, the records are formatted by the logging thread and written
+     * asynchronously, instead of being buffered as per
+     * {@link #BUFFER_SIZE_PROP_KEY}.
+     */
+    public static final String ASYNC_BUFFER_SIZE_PROP_KEY = "AsyncBufferSize";
+
     /**
      * The default log level used by this log, if not specified.
      */
@@ -98,12 +109,15 @@ public class CustomLog {
 
     private static final Logger LOGGER = Logger.getLogger(CustomLog.class.getPackage().getName());
 
-    /** Buffer to avoid creating new string builder upon every print. */
-    private static final StringBuilder builder = new StringBuilder();
+    /** Per-thread buffer to avoid creating new string builder upon every print. */
+    private static final ThreadLocal<StringBuilder> builder = ThreadLocal.withInitial(StringBuilder::new);
 
     private static Level granularityLevel = DEFAULT_LEVEL;
+    /** The value of {@link #granularityLevel}, so that level checks are a single comparison. */
+    private static int granularity = DEFAULT_LEVEL.intValue();
     private static Formatter formatter;
     private static int bufferSize = -1;
+    private static int asyncBufferSize = -1;
 
     /**
      * Prints the message passed as an object. Simply uses toString
@@ -141,6 +155,7 @@ public class CustomLog {
      */
     public static void printConcat(final Level level, final Object... messages) {
         if (isLevelHighEnough(level)) {
+            StringBuilder builder = CustomLog.builder.get();
             builder.setLength(0); // Clear the buffer
             for (Object message : messages) {
                 builder.append(message);
@@ -169,6 +184,7 @@ public class CustomLog {
      */
     public static void printConcatLine(final Level level, final Object... messages) {
         if (isLevelHighEnough(level)) {
+            StringBuilder builder = CustomLog.builder.get();
             builder.setLength(0); // Clear the buffer
             for (Object message : messages) {
                 builder.append(message);
@@ -211,6 +227,34 @@ public class CustomLog {
         printLine(DEFAULT_LEVEL, msg);
     }
 
+    /**
+     * Prints a line with the message built by the supplier, which is only
+     * called if the level is high enough. Hot paths should prefer this, or a
+     * {@link #isLevelHighEnough(Level)} guard, to concatenating or formatting
+     * messages that may not be logged.
+     * 
+     * @param level
+     *            - the log level. If null, the default log level is used.
+     * @param msg
+     *            - the supplier of the message. Must not be null.
+     */
+    public static void printLine(final Level level, final Supplier<?> msg) {
+        if (isLevelHighEnough(level)) {
+            LOGGER.log(level == null ? DEFAULT_LEVEL : level, String.valueOf(msg.get()));
+        }
+    }
+
+    /**
+     * Prints a line with the message built by the supplier, which is only
+     * called if the default log level is high enough.
+     * 
+     * @param msg
+     *            - the supplier of the message. Must not be null.
+     */
+    public static void printLine(final Supplier<?> msg) {
+        printLine(DEFAULT_LEVEL, msg);
+    }
+
     /**
      * Prints the formatted string, resulting from applying the format string to
      * the arguements.
@@ -228,8 +272,7 @@ public class CustomLog {
     }
 
     public static boolean isLevelHighEnough(final Level level) {
-        return (level == null && DEFAULT_LEVEL.intValue() >= granularityLevel.intValue())
-                || (level != null && level.intValue() >= granularityLevel.intValue());
+        return (level == null ? DEFAULT_LEVEL : level).intValue() >= granularity;
     }
 
     /**
@@ -241,7 +284,7 @@ public class CustomLog {
      * @param args
      */
     public static void printf(final String format, final Object... args) {
-        printf(DEFAULT_LEVEL, String.format(format, args));
+        printf(DEFAULT_LEVEL, format, args);
     }
 
     /**
@@ -496,6 +539,34 @@ public class CustomLog {
         }
     }
 
+    /**
+     * Writes the objects' details with a header to a file, bypassing the log.
+     * Unlike the printResults methods, the properties are read by accessors
+     * compiled once per class and the rows are written through a buffered
+     * channel, which suits results with many rows.
+     * 
+     * @param file
+     *            - the file to write. It is replaced if it exists.
+     * @param format
+     *            - the format of the file, CSV as printed by
+     *            {@link #printResults(Class, String, String[], List...)} or
+     *            binary.
+     * @param klass
+     *            - the class of the objects. Must not be null.
+     * @param properties
+     *            - the properties to write. If null the default props are used.
+     * @param lines
+     *            - list of objects. All objects, must be of type klass.
+     * @throws IOException
+     *             - if the file cannot be written.
+     */
+    public static void exportResults(final Path file, final ResultWriter.Format format, final Class<?> klass,
+            final String[] properties, final List<?>... lines) throws IOException {
+        try (ResultWriter writer = new ResultWriter(file, format, klass, properties)) {
+            writer.writeAll(lines);
+        }
+    }
+
     /**
      * Logs the stacktrace of the exception.
      * 
@@ -569,7 +640,9 @@ public class CustomLog {
         final boolean shutStandardMessages = Boolean.parseBoolean(props
                 .getProperty(SHUT_STANDART_LOGGER_PROP_KEY, "false").trim());
         granularityLevel = Level.parse(props.getProperty(LOG_LEVEL_PROP_KEY, DEFAULT_LEVEL.getName()));
+        granularity = granularityLevel.intValue();
         bufferSize = Integer.parseInt(props.getProperty(BUFFER_SIZE_PROP_KEY, "-1").trim());
+        asyncBufferSize = Integer.parseInt(props.getProperty(ASYNC_BUFFER_SIZE_PROP_KEY, "-1").trim());
 
         if (shutStandardMessages) {
             Log.setOutput(NullOutputStream.NULL_OUTPUT_STREAM);
@@ -633,6 +706,9 @@ public class CustomLog {
     }
 
     private static Handler buffer(Handler handler) {
+        if (asyncBufferSize > 0) {
+            return new AsyncBufferedHandler(handler, asyncBufferSize);
+        }
         Handler wrapHandler = bufferSize > 0 ? new InMemoryBufferredHandler(handler, bufferSize) : handler;
         return wrapHandler;
     }
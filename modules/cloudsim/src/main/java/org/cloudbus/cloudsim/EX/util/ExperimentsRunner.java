@@ -1,23 +1,29 @@
 package org.cloudbus.cloudsim.EX.util;
 
 import org.apache.commons.lang3.SystemUtils;
+import org.cloudbus.cloudsim.core.SimulationContext;
 
 import java.io.File;
 import java.io.IOException;
 import java.lang.management.ManagementFactory;
 import java.lang.management.RuntimeMXBean;
+import java.lang.reflect.InvocationTargetException;
 import java.util.*;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 /**
  * 
- * A utility that runs a set of experiments in different JVM processes. Since
- * CloudSim makes heavy use of static data, experiments can not be run in
- * multiple threads within the same JVM. With this utility class one can spawn
- * multiple independent JVM process, redirect their standard outputs to a single
- * place and synchronize with their ends.
+ * A utility that runs a set of experiments in parallel. Experiments can either
+ * be spawned as independent JVM processes, whose standard outputs are
+ * redirected to a single place, or be run within the current JVM, each one in
+ * its own {@link SimulationContext} on a work-stealing pool. The latter avoids
+ * the process start-up cost and allows results to be collected directly.
  * 
  * <br>
  * <br>
@@ -66,10 +72,7 @@ public class ExperimentsRunner {
             addHookToKillProcesses();
 
             // If possible leave the requested processors free
-            int cores = Runtime.getRuntime().availableProcessors();
-            int coresToUse = cores <= numFreeCPUs ? 1 : cores - numFreeCPUs;
-
-            ExecutorService pool = Executors.newFixedThreadPool(coresToUse);
+            ExecutorService pool = Executors.newFixedThreadPool(coresToUse(numFreeCPUs));
             Collection<Future<?>> futures = new ArrayList<>();
 
             for (final ExperimentDefinition def : experimentsDefs) {
@@ -99,6 +102,99 @@ public class ExperimentsRunner {
         System.err.println("All experiments are finished");
     }
 
+    /**
+     * Runs a set of experiments in parallel within the current JVM. The main
+     * method of each experiment is invoked in its own
+     * {@link SimulationContext}, with the non-JVM arguments of its definition.
+     * JVM arguments and heap sizes are ignored, since all experiments share
+     * this process.
+     * 
+     * @param experimentsDefs
+     *            - the experiments' definitions.
+     * @param numFreeCPUs
+     *            - number of processors to leave unused.
+     * 
+     * @throws Exception
+     *             - if something goes wrong.
+     */
+    public static void runExperimentsInProcess(final List<ExperimentDefinition> experimentsDefs,
+            final int numFreeCPUs) throws Exception {
+        List<Callable<Boolean>> experiments = new ArrayList<>();
+        for (final ExperimentDefinition def : experimentsDefs) {
+            experiments.add(() -> {
+                List<String> appParams = new ArrayList<>();
+                for (String param : def.getArguements()) {
+                    if (!param.startsWith("-X") && !param.startsWith("-D")) {
+                        appParams.add(param);
+                    }
+                }
+                try {
+                    def.getMainClass().getMethod("main", String[].class).invoke(null,
+                            (Object) appParams.toArray(new String[0]));
+                    return true;
+                } catch (InvocationTargetException e) {
+                    e.getCause().printStackTrace();
+                    System.err.println("!!! Experiment " + def.getMainClass().getCanonicalName()
+                            + " has failed!!!");
+                    return false;
+                }
+            });
+        }
+        runInProcess(experiments, numFreeCPUs, null);
+
+        System.err.println();
+        System.err.println("All experiments are finished");
+    }
+
+    /**
+     * Runs a set of simulations in parallel within the current JVM, on a
+     * work-stealing {@link ForkJoinPool}. Each simulation runs in its own
+     * {@link SimulationContext}, hence the static <tt>CloudSim</tt> API can be
+     * used as usual inside it. Simulations must not share other mutable state.
+     * 
+     * @param experiments
+     *            - the simulations to run. Each one returns its result.
+     * @param numFreeCPUs
+     *            - number of processors to leave unused.
+     * @param onResult
+     *            - called with each result as soon as its simulation is
+     *            finished, possibly concurrently from several threads. May be
+     *            <tt>null</tt>.
+     * @return the results, in the order of the experiments.
+     * 
+     * @throws Exception
+     *             - if any of the simulations fails.
+     */
+    public static <T> List<T> runInProcess(final List<? extends Callable<T>> experiments, final int numFreeCPUs,
+            final Consumer<? super T> onResult) throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(coresToUse(numFreeCPUs));
+        try {
+            List<ForkJoinTask<T>> tasks = new ArrayList<>();
+            for (final Callable<T> experiment : experiments) {
+                tasks.add(pool.submit(() -> {
+                    T result = new SimulationContext().execute(experiment);
+                    if (onResult != null) {
+                        onResult.accept(result);
+                    }
+                    return result;
+                }));
+            }
+
+            List<T> results = new ArrayList<>();
+            for (ForkJoinTask<T> task : tasks) {
+                results.add(task.get());
+            }
+            return results;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static int coresToUse(final int numFreeCPUs) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        return cores <= numFreeCPUs ? 1 : cores - numFreeCPUs;
+    }
+
     private static int[] getHeapArgs() {
         RuntimeMXBean runtimeMxBean = ManagementFactory.getRuntimeMXBean();
         List<String> arguments = runtimeMxBean.getInputArguments();
@@ -0,0 +1,245 @@
+package org.cloudbus.cloudsim.EX.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Writes the details of objects, e.g. sessions or VMs at the end of a
+ * simulation, to a channel. The properties of each row are read by accessors
+ * compiled once per class, and encoded into a reusable buffer, which is
+ * written when full.
+ *
+ * <br/>
+ *
+ * Two formats are supported:
+ * <ul>
+ * <li>{@link Format#CSV} - the lines produced by
+ * {@link TextUtil#getCaptionLine(Class, String, String[])} and
+ * {@link TextUtil#getTxtLine(Object, String, String[])}, as printed by
+ * {@link CustomLog#printResults(Class, String, String[], List...)}.</li>
+ * <li>{@link Format#BINARY} - a big-endian header with the number of columns
+ * (int), and the name (short length, UTF-8 bytes) and type code (byte) of each
+ * column, followed by the rows. Each value is written as a double ('D'), long
+ * ('J'), int ('I') or byte ('Z'), depending on the primitive type of its
+ * getter. Other values ('S') are written as their UTF-8 string (int length,
+ * -1 for null, then the bytes). A property whose getter fails is written as
+ * in the CSV format for strings, and as NaN, the minimum long or int, or -1
+ * for a boolean otherwise.</li>
+ * </ul>
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class ResultWriter implements Closeable {
+
+    /** The output formats. */
+    public enum Format {
+        CSV, BINARY
+    }
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final WritableByteChannel channel;
+
+    private final Format format;
+
+    private final RowWriter rowWriter;
+
+    private final String delimeter;
+
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    private final StringBuilder line = new StringBuilder();
+
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+
+    /**
+     * Creates a writer of the rows of a class, and writes the header.
+     *
+     * @param channel
+     *            - the channel to write to. Must not be null.
+     * @param format
+     *            - the format. Must not be null.
+     * @param klass
+     *            - the class of the rows. Must not be null.
+     * @param delimeter
+     *            - the delimeter of the CSV format.
+     * @param properties
+     *            - the properties to write. If null the properties are
+     *            selected as in {@link TextUtil#getTxtLine(Object, String, String[])}.
+     * @throws IOException
+     *             - if the header cannot be written.
+     */
+    public ResultWriter(final WritableByteChannel channel, final Format format, final Class<?> klass,
+            final String delimeter, final String[] properties) throws IOException {
+        this.channel = channel;
+        this.format = format;
+        this.rowWriter = RowWriter.forClass(klass, properties);
+        this.delimeter = delimeter;
+        writeHeader();
+    }
+
+    /**
+     * Creates a writer of the rows of a class to a file, replacing the file if
+     * it exists, and writes the header.
+     *
+     * @param file
+     *            - the file. Must not be null.
+     * @param format
+     *            - the format. Must not be null.
+     * @param klass
+     *            - the class of the rows. Must not be null.
+     * @param properties
+     *            - the properties to write. If null the properties are
+     *            selected as in {@link TextUtil#getTxtLine(Object, String, String[])}.
+     * @throws IOException
+     *             - if the file cannot be created.
+     */
+    public ResultWriter(final Path file, final Format format, final Class<?> klass, final String[] properties)
+            throws IOException {
+        this(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE), format, klass, TextUtil.DEFAULT_DELIM, properties);
+    }
+
+    private void writeHeader() throws IOException {
+        if (format == Format.CSV) {
+            line.setLength(0);
+            rowWriter.appendCaptionLine(line, delimeter);
+            writeLine();
+        } else {
+            String[] names = rowWriter.getNames();
+            buffer.putInt(names.length);
+            for (int i = 0; i < names.length; i++) {
+                byte[] name = names[i].getBytes(StandardCharsets.UTF_8);
+                ensureRemaining(2 + name.length + 1);
+                buffer.putShort((short) name.length);
+                buffer.put(name);
+                buffer.put(rowWriter.getTypeCode(i));
+            }
+        }
+    }
+
+    /**
+     * Writes the row of an object.
+     *
+     * @param row
+     *            - the object. Must be of the class of this writer.
+     * @throws IOException
+     *             - if the output cannot be written.
+     */
+    public void write(final Object row) throws IOException {
+        if (format == Format.CSV) {
+            line.setLength(0);
+            rowWriter.appendTxtLine(line, row, delimeter, false);
+            writeLine();
+        } else {
+            for (int i = 0; i < rowWriter.getNames().length; i++) {
+                int size = rowWriter.getBinarySize(i);
+                Object value = rowWriter.getBinary(row, i);
+                if (size >= 0) {
+                    ensureRemaining(size);
+                    RowWriter.putBinary(buffer, rowWriter.getTypeCode(i), value);
+                } else {
+                    writeBytes((byte[]) value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the rows of the objects of lists.
+     *
+     * @param lines
+     *            - the lists of objects. All objects must be of the class of
+     *            this writer.
+     * @throws IOException
+     *             - if the output cannot be written.
+     */
+    public void writeAll(final List<?>... lines) throws IOException {
+        for (List<?> list : lines) {
+            for (Object o : list) {
+                write(o);
+            }
+        }
+    }
+
+    private void writeLine() throws IOException {
+        line.append(TextUtil.NEW_LINE);
+        CharBuffer chars = CharBuffer.wrap(line);
+        encoder.reset();
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isOverflow()) {
+                drain();
+            } else {
+                if (result.isError()) {
+                    result.throwException();
+                }
+                break;
+            }
+        }
+    }
+
+    private void writeBytes(final byte[] bytes) throws IOException {
+        ensureRemaining(4);
+        if (bytes == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(bytes.length);
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    private void ensureRemaining(final int size) throws IOException {
+        if (buffer.remaining() < size) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Writes the buffered rows to the channel.
+     *
+     * @throws IOException
+     *             - if the output cannot be written.
+     */
+    public void flush() throws IOException {
+        drain();
+    }
+
+    /**
+     * Writes the buffered rows and closes the channel.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
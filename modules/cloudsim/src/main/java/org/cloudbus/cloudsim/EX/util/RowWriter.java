@@ -0,0 +1,251 @@
+package org.cloudbus.cloudsim.EX.util;
+
+import com.google.common.primitives.Primitives;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Writes the properties of the objects of a class as a row of text or binary
+ * values. The getters of the properties are resolved once per class and set of
+ * properties, and compiled into accessors, so that writing a row does not go
+ * through reflection.
+ *
+ * @see TextUtil
+ * @see ResultWriter
+ * @since CloudSim Toolkit 7.0
+ */
+final class RowWriter {
+
+    /** Type codes of the binary columns. */
+    static final byte DOUBLE = 'D';
+    static final byte LONG = 'J';
+    static final byte INT = 'I';
+    static final byte BOOLEAN = 'Z';
+    static final byte STRING = 'S';
+
+    private record Key(Class<?> clazz, List<String> properties) {
+    }
+
+    private static final Map<Key, RowWriter> WRITERS = new ConcurrentHashMap<>();
+
+    private final String[] names;
+    private final Class<?>[] types;
+    private final Function<Object, Object>[] accessors;
+
+    @SuppressWarnings("unchecked")
+    private RowWriter(final List<Method> getters) {
+        names = new String[getters.size()];
+        types = new Class<?>[getters.size()];
+        accessors = (Function<Object, Object>[]) new Function<?, ?>[getters.size()];
+        for (int i = 0; i < names.length; i++) {
+            Method getter = getters.get(i);
+            names[i] = TextUtil.getPropName(getter);
+            types[i] = getter.getReturnType();
+            accessors[i] = compile(getter);
+        }
+    }
+
+    /**
+     * Returns the writer of the rows of a class.
+     *
+     * @param clazz
+     *            - the class. Must not be null.
+     * @param properties
+     *            - the properties of the rows, as in
+     *            {@link TextUtil#getTxtLine(Object, String, String[])}.
+     * @return the writer of the rows of the class.
+     */
+    static RowWriter forClass(final Class<?> clazz, final String[] properties) {
+        Key key = new Key(clazz, properties == null ? null : Arrays.asList(properties));
+        RowWriter writer = WRITERS.get(key);
+        if (writer == null) {
+            writer = WRITERS.computeIfAbsent(key,
+                    k -> new RowWriter(TextUtil.extractGetMethodsForClass(clazz, properties)));
+        }
+        return writer;
+    }
+
+    /**
+     * Compiles a getter into a function, or falls back to reflection if the
+     * getter cannot be linked from this class.
+     */
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> compile(final Method getter) {
+        Class<?> declaringClass = getter.getDeclaringClass();
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle handle = lookup.unreflect(getter);
+            // The generated class must be able to resolve the declaring class
+            if (Class.forName(declaringClass.getName(), false, RowWriter.class.getClassLoader()) == declaringClass) {
+                CallSite site = LambdaMetafactory.metafactory(lookup, "apply", MethodType.methodType(Function.class),
+                        MethodType.methodType(Object.class, Object.class), handle,
+                        MethodType.methodType(Primitives.wrap(getter.getReturnType()), declaringClass));
+                return (Function<Object, Object>) site.getTarget().invokeExact();
+            }
+            MethodHandle generic = handle.asType(MethodType.methodType(Object.class, Object.class));
+            return obj -> {
+                try {
+                    return generic.invokeExact(obj);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            };
+        } catch (Throwable e) {
+            return obj -> {
+                try {
+                    return getter.invoke(obj);
+                } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException ex) {
+                    return "ERR " + ex.getMessage();
+                }
+            };
+        }
+    }
+
+    /**
+     * Reads a property. Failures are reported in the value, as reflection
+     * reports them with an {@link InvocationTargetException} without a message.
+     */
+    private Object get(final Object obj, final int column) {
+        try {
+            return accessors[column].apply(obj);
+        } catch (RuntimeException e) {
+            return "ERR null";
+        }
+    }
+
+    String[] getNames() {
+        return names;
+    }
+
+    Class<?>[] getTypes() {
+        return types;
+    }
+
+    /**
+     * Appends the caption line of the rows.
+     *
+     * @see TextUtil#getCaptionLine(Class, String, String[])
+     */
+    void appendCaptionLine(final StringBuilder result, final String delimeter) {
+        for (int i = 0; i < names.length; i++) {
+            result.append(TextUtil.formatHeader(names[i], Primitives.wrap(types[i])));
+            if (i < names.length - 1) {
+                result.append(delimeter);
+            }
+        }
+    }
+
+    /**
+     * Appends the text line of an object.
+     *
+     * @see TextUtil#getTxtLine(Object, String, String[], boolean)
+     */
+    void appendTxtLine(final StringBuilder result, final Object obj, final String delimeter,
+            final boolean includeFieldNames) {
+        for (int i = 0; i < names.length; i++) {
+            String propName = names[i];
+            if (includeFieldNames) {
+                result.append(propName).append("=");
+                TextUtil.appendTo(result, get(obj, i));
+            } else {
+                int start = result.length();
+                TextUtil.appendTo(result, get(obj, i));
+                TextUtil.padLeft(result, start, propName.length());
+            }
+
+            if (i < names.length - 1) {
+                result.append(delimeter);
+            }
+        }
+    }
+
+    /**
+     * Returns the binary type code of a column.
+     */
+    byte getTypeCode(final int column) {
+        Class<?> type = types[column];
+        if (type == double.class || type == float.class) {
+            return DOUBLE;
+        } else if (type == long.class) {
+            return LONG;
+        } else if (type == int.class || type == short.class || type == byte.class) {
+            return INT;
+        } else if (type == boolean.class) {
+            return BOOLEAN;
+        }
+        return STRING;
+    }
+
+    /**
+     * Returns the size of the binary value of a column, or -1 if it is a
+     * string.
+     */
+    int getBinarySize(final int column) {
+        switch (getTypeCode(column)) {
+        case DOUBLE:
+        case LONG:
+            return 8;
+        case INT:
+            return 4;
+        case BOOLEAN:
+            return 1;
+        default:
+            return -1;
+        }
+    }
+
+    /**
+     * Returns the value of a column of an object in its binary form: a
+     * {@link Number}, a {@link Boolean}, or the UTF-8 bytes of a string (null
+     * if the value is null). As in the text lines, a failing getter is reported
+     * in the value: strings get its error text, and fixed size values are
+     * null, which {@link #putBinary(ByteBuffer, byte, Object)} writes as
+     * missing.
+     */
+    Object getBinary(final Object obj, final int column) {
+        Object value = get(obj, column);
+        if (getTypeCode(column) != STRING) {
+            return value instanceof String ? null : value;
+        }
+        return value == null ? null : String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Puts a fixed size value into a buffer with enough space for it. A null
+     * value is missing, and is written as NaN, the minimum long or int, or -1
+     * for a boolean.
+     */
+    static void putBinary(final ByteBuffer buffer, final byte typeCode, final Object value) {
+        switch (typeCode) {
+        case DOUBLE:
+            buffer.putDouble(value == null ? Double.NaN : ((Number) value).doubleValue());
+            break;
+        case LONG:
+            buffer.putLong(value == null ? Long.MIN_VALUE : ((Number) value).longValue());
+            break;
+        case INT:
+            buffer.putInt(value == null ? Integer.MIN_VALUE : ((Number) value).intValue());
+            break;
+        case BOOLEAN:
+            buffer.put((byte) (value == null ? -1 : (Boolean) value ? 1 : 0));
+            break;
+        default:
+            throw new IllegalArgumentException("Not a fixed size type " + (char) typeCode);
+        }
+    }
+}
@@ -4,7 +4,6 @@ import com.google.common.base.Function;
 import com.google.common.collect.Iterables;
 import com.google.common.primitives.Primitives;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.text.DateFormat;
@@ -44,7 +43,6 @@ public class TextUtil {
 
     private static final String STANDARD_GET_REGEX = "get.+";
     private static final String BOOLGET_REGEX = "is.+";
-    private static final Map<Class<?>, List<Method>> GET_METHODS = new HashMap<>();
 
     /**
      * Converts the specified class to a single line of text. Convenient for
@@ -280,31 +278,7 @@ public class TextUtil {
     public static String getTxtLine(final Object obj, final String delimeter, final String[] properties,
             final boolean includeFieldNames) {
         StringBuilder result = new StringBuilder();
-        List<Method> methods = extractGetMethodsForClass(obj.getClass(), properties);
-        int i = 0;
-        for (Method m : methods) {
-            Object methodRes = null;
-            try {
-                methodRes = m.invoke(obj);
-            } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-                methodRes = "ERR " + e.getMessage();
-            }
-
-            String propName = getPropName(m);
-            String mTxt = toString(methodRes);
-            if (includeFieldNames) {
-                result.append(propName).append("=").append(mTxt);
-            } else {
-                if (propName.length() > mTxt.length()) {
-                    mTxt = String.format("%" + propName.length() + "s", mTxt);
-                }
-                result.append(mTxt);
-            }
-
-            result.append(i < methods.size() - 1 ? delimeter : "");
-            i++;
-        }
-
+        RowWriter.forClass(obj.getClass(), properties).appendTxtLine(result, obj, delimeter, includeFieldNames);
         return result.toString();
     }
 
@@ -518,19 +492,7 @@ public class TextUtil {
      */
     public static String getCaptionLine(final Class<?> clazz, final String delimeter, final String[] properties) {
         StringBuilder result = new StringBuilder();
-        List<Method> methods = extractGetMethodsForClass(clazz, properties);
-        int i = 0;
-        for (Method m : methods) {
-            String propEntry = getPropName(m);
-            Class<?> returnType = Primitives.wrap(m.getReturnType());
-
-            propEntry = formatHeader(propEntry, returnType);
-
-            result.append(propEntry);
-            result.append(i < methods.size() - 1 ? delimeter : "");
-            i++;
-        }
-
+        RowWriter.forClass(clazz, properties).appendCaptionLine(result, delimeter);
         return result.toString();
     }
 
@@ -610,7 +572,7 @@ public class TextUtil {
     }
     
     @SuppressWarnings("unchecked")
-    private static String formatHeader(String header, final Class<?> entryType) {
+    static String formatHeader(String header, final Class<?> entryType) {
         if (Double.class.equals(entryType) || Float.class.equals(entryType) && header.length() < SIZE_OF_DBL_STRINGS) {
             header = String.format("%" + SIZE_OF_DBL_STRINGS + "s", header);
         } else if (Number.class.isAssignableFrom(entryType) && header.length() < SIZE_OF_INT_STRINGS) {
@@ -623,59 +585,58 @@ public class TextUtil {
         return header;
     }
 
-    private static List<Method> extractGetMethodsForClass(final Class<?> clazz1, final String[] properties) {
-        List<Method> methods = null;
+    /**
+     * Resolves the getters of the properties of a class. The result is cached
+     * by {@link RowWriter#forClass(Class, String[])}.
+     */
+    static List<Method> extractGetMethodsForClass(final Class<?> clazz1, final String[] properties) {
         Class<?> clazz = clazz1;
 
         Textualize classAnnotation = clazz1.getAnnotation(Textualize.class);
         String[] allowedProps = properties != null ? properties : classAnnotation != null ? classAnnotation
                 .properties() : null;
 
-        if (!GET_METHODS.containsKey(clazz)) {
-            methods = new ArrayList<>();
-            do {
-                // Defined in the class methods (not inherited)
-                List<Method> clazzMethods = new LinkedList<>(Arrays.asList(clazz.getDeclaredMethods()));
-
-                // Remove duplicated methods with super classes
-                List<Method> copyofMethods = new ArrayList<>(methods);
-                for (Method method : copyofMethods)
-                    for (Method clazzMethod : clazzMethods) {
-                        if (clazzMethod.getName().equals(method.getName()))
-                            methods.remove(method);
-                    }
-
-                // Sort them by name... since getDeclaredMethods does not
-                // guarantee order
-                clazzMethods.sort(MethodsAlphaComparator.METHOD_CMP);
-
-                methods.addAll(clazzMethods);
-                clazz = clazz.getSuperclass();
-            } while (clazz != null);
-
-            // Filter methods that are not getters and are not in the annotation
-            // (if annotation is specified)
-            for (ListIterator<Method> iter = methods.listIterator(); iter.hasNext();) {
-                Method m = iter.next();
-                if (allowedProps != null && !isAllowedGetter(m, allowedProps)) {
-                    iter.remove();
-                } else if (classAnnotation == null && !isGetter(m)) {
-                    iter.remove();
+        List<Method> methods = new ArrayList<>();
+        do {
+            // Defined in the class methods (not inherited)
+            List<Method> clazzMethods = new LinkedList<>(Arrays.asList(clazz.getDeclaredMethods()));
+
+            // Remove duplicated methods with super classes
+            List<Method> copyofMethods = new ArrayList<>(methods);
+            for (Method method : copyofMethods)
+                for (Method clazzMethod : clazzMethods) {
+                    if (clazzMethod.getName().equals(method.getName()))
+                        methods.remove(method);
                 }
-            }
 
-            // Sort by the order defined in the annotation
-            if (allowedProps != null) {
-                methods.sort(new MethodsListIndexComparator(Arrays.asList(allowedProps)));
+            // Sort them by name... since getDeclaredMethods does not
+            // guarantee order
+            clazzMethods.sort(MethodsAlphaComparator.METHOD_CMP);
+
+            methods.addAll(clazzMethods);
+            clazz = clazz.getSuperclass();
+        } while (clazz != null);
+
+        // Filter methods that are not getters and are not in the annotation
+        // (if annotation is specified)
+        for (ListIterator<Method> iter = methods.listIterator(); iter.hasNext();) {
+            Method m = iter.next();
+            if (allowedProps != null && !isAllowedGetter(m, allowedProps)) {
+                iter.remove();
+            } else if (classAnnotation == null && !isGetter(m)) {
+                iter.remove();
             }
+        }
 
-            methods = Collections.unmodifiableList(methods);
-            GET_METHODS.put(clazz, methods);
+        // Sort by the order defined in the annotation
+        if (allowedProps != null) {
+            methods.sort(new MethodsListIndexComparator(Arrays.asList(allowedProps)));
         }
-        return GET_METHODS.get(clazz);
+
+        return Collections.unmodifiableList(methods);
     }
 
-    private static String getPropName(final Method getter) {
+    static String getPropName(final Method getter) {
         return isBoolGetter(getter) ? getter.getName().substring(2) : isGetter(getter) ? getter.getName().substring(3)
                 : getter.getName();
     }
@@ -707,34 +668,74 @@ public class TextUtil {
      * @return - the textual representation of the specified object.
      */
     public static String toString(final Object obj) {
-        String result = "";
+        StringBuilder result = new StringBuilder();
+        appendTo(result, obj);
+        return result.toString();
+    }
+
+    /**
+     * Appends the textual representation of the specified object, as returned
+     * by {@link #toString(Object)}.
+     * 
+     * @param result
+     *            - the buffer to append to. Must not be null.
+     * @param obj
+     *            - the object.
+     */
+    static void appendTo(final StringBuilder result, final Object obj) {
+        int start = result.length();
         if (obj == null) {
-            result = "null";
+            result.append("null");
         } else {
             Class<?> clazz = Primitives.wrap(obj.getClass());
             if (clazz.equals(Double.class) || clazz.equals(Float.class)) {
-                result = String.format("%" + SIZE_OF_DBL_STRINGS + "s", TextUtil.DEC_FORMAT.format(obj));
+                result.append(TextUtil.DEC_FORMAT.format(obj));
+                padLeft(result, start, SIZE_OF_DBL_STRINGS);
             } else if (clazz.equals(Boolean.class)) {
-                result = String.valueOf(obj);
+                result.append(obj);
             } else if (Number.class.isAssignableFrom(clazz)) {
-                result = String.format("%" + SIZE_OF_INT_STRINGS + "s", obj);
+                appendPadded(result, start, obj, SIZE_OF_INT_STRINGS);
             } else if (obj instanceof Date) {
-                result = getDateFormat().format(obj);
+                result.append(getDateFormat().format(obj));
             } else if (obj instanceof Collection<?> || obj.getClass().isArray()) {
-                result = "[...]";
+                result.append("[...]");
             } else if (obj instanceof Enum<?>) {
-                result = String.format("%" + getEnumTxtSize(((Enum<?>) obj).getDeclaringClass()) + "s",
-                        obj);
+                appendPadded(result, start, obj, getEnumTxtSize(((Enum<?>) obj).getDeclaringClass()));
             } else if (obj instanceof Class) {
-                result = ((Class<?>) obj).getSimpleName();
-                // If toString is not predefined ...
-            } else if (String.valueOf(obj).startsWith(obj.getClass().getCanonicalName() + "@")) {
-                result = "ref<" + obj.hashCode() + ">";
+                result.append(((Class<?>) obj).getSimpleName());
             } else {
-                result = String.format("%" + SIZE_OF_STRINGS + "s", obj);
+                // If toString is not predefined ...
+                if (String.valueOf(obj).startsWith(obj.getClass().getCanonicalName() + "@")) {
+                    result.append("ref<").append(obj.hashCode()).append(">");
+                } else {
+                    appendPadded(result, start, obj, SIZE_OF_STRINGS);
+                }
             }
         }
-        return result;
+    }
+
+    /**
+     * Appends an object padded as with the "%[width]s" format, which lets
+     * {@link Formattable} objects format themselves.
+     */
+    private static void appendPadded(final StringBuilder result, final int start, final Object obj, final int width) {
+        if (obj instanceof Formattable) {
+            result.append(String.format("%" + width + "s", obj));
+        } else {
+            result.append(obj);
+            padLeft(result, start, width);
+        }
+    }
+
+    /**
+     * Pads the text appended to a buffer from a position with spaces on the
+     * left, up to a width - as the "%[width]s" format does.
+     */
+    static void padLeft(final StringBuilder result, final int start, final int width) {
+        int padding = width - (result.length() - start);
+        if (padding > 0) {
+            result.insert(start, " ".repeat(padding));
+        }
     }
 
     private static int getEnumTxtSize(final Class<? extends Enum<?>> enumClass) {
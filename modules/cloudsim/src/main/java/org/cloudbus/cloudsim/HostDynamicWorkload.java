@@ -9,7 +9,6 @@
 package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 import org.cloudbus.cloudsim.core.CloudSim;
@@ -35,7 +34,7 @@ public class HostDynamicWorkload extends Host {
 	private double previousUtilizationMips;
 
 	/** The host utilization state history. */
-	private final List<HostStateHistoryEntry> stateHistory = new LinkedList<>();
+	private final StateHistory<HostStateHistoryEntry> stateHistory = new StateHistory<>(StateHistory.HOST);
 
 	/**
 	 * Instantiates a new host.
@@ -282,7 +281,7 @@ public class HostDynamicWorkload extends Host {
 	 * 
 	 * @return the state history
 	 */
-	public List<HostStateHistoryEntry> getStateHistory() {
+	public StateHistory<HostStateHistoryEntry> getStateHistory() {
 		return stateHistory;
 	}
 
@@ -297,19 +296,6 @@ public class HostDynamicWorkload extends Host {
 	public
 			void
 			addStateHistoryEntry(double time, double allocatedMips, double requestedMips, boolean isActive) {
-
-		HostStateHistoryEntry newState = new HostStateHistoryEntry(
-				time,
-				allocatedMips,
-				requestedMips,
-				isActive);
-		if (!getStateHistory().isEmpty()) {
-			HostStateHistoryEntry previousState = getStateHistory().getLast();
-			if (previousState.getTime() == time) {
-				getStateHistory().set(getStateHistory().size() - 1, newState);
-				return;
-			}
-		}
-		getStateHistory().add(newState);
+		getStateHistory().record(time, allocatedMips, requestedMips, isActive);
 	}
 }
@@ -10,6 +10,10 @@ package org.cloudbus.cloudsim;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.function.Supplier;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimulationContext;
 
 /**
  * Logger used for performing logging of the simulation process. It provides the ability to
@@ -28,11 +32,14 @@ public class Log {
 	private static OutputStream output;
 
 	/** Indicates if the logger is disabled or not. If set to true,
-         the call for any print method has no effect. */
+         the call for any print method has no effect. The output can also be
+         disabled for a single simulation context, see
+         {@link SimulationContext#setLogDisabled(boolean)}. */
 	private static boolean disabled;
 	
-	/** Buffer to avoid creating new string builder upon every print. */
-	private static final StringBuilder buffer = new StringBuilder();
+	/** Per-thread buffer to avoid creating new string builder upon every print. Simulations
+	 * running in parallel contexts log from different threads. */
+	private static final ThreadLocal<StringBuilder> buffer = ThreadLocal.withInitial(StringBuilder::new);
 
 	/**
 	 * Prints a message.
@@ -94,11 +101,12 @@ public class Log {
 	 */
 	public static void printConcat(Object... messages) {
 		if (!isDisabled()) {
-			buffer.setLength(0); // Clear the buffer		    
+			StringBuilder sb = buffer.get();
+			sb.setLength(0); // Clear the buffer
             for (Object message : messages) {
-                buffer.append(message);
+                sb.append(message);
             }
-			print(buffer);
+			print(sb);
 		}
 	}
 	
@@ -109,11 +117,12 @@ public class Log {
 	 */
 	public static void printlnConcat(Object... messages) {
 		if (!isDisabled()) {
-			buffer.setLength(0); // Clear the buffer		    
+			StringBuilder sb = buffer.get();
+			sb.setLength(0); // Clear the buffer
             for (Object message : messages) {
-                buffer.append(message);
+                sb.append(message);
             }
-			println(buffer);
+			println(sb);
 		}
 	}
 
@@ -134,6 +143,29 @@ public class Log {
 
 	@Deprecated
 	public static void printLine(Object message) { println(message); }
+
+	/**
+	 * Prints a message built only if the output is enabled, so that disabled
+	 * logging does not pay for concatenating or formatting it.
+	 * 
+	 * @param message the supplier of the message
+	 */
+	public static void print(Supplier<?> message) {
+		if (!isDisabled()) {
+			print(String.valueOf(message.get()));
+		}
+	}
+
+	/**
+	 * Prints a message built only if the output is enabled, and a new line.
+	 * 
+	 * @param message the supplier of the message
+	 */
+	public static void println(Supplier<?> message) {
+		if (!isDisabled()) {
+			println(String.valueOf(message.get()));
+		}
+	}
 	
 	
 	/**
@@ -196,7 +228,7 @@ public class Log {
 	 * @return true, if is disable
 	 */
 	public static boolean isDisabled() {
-		return disabled;
+		return disabled || CloudSim.getContext().isLogDisabled();
 	}
 
 	/**
@@ -9,11 +9,17 @@
 package org.cloudbus.cloudsim;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.network.DelayMatrix_Float;
+import org.cloudbus.cloudsim.network.DelayRowCache;
 import org.cloudbus.cloudsim.network.GraphReaderBrite;
 import org.cloudbus.cloudsim.network.TopologicalGraph;
 import org.cloudbus.cloudsim.network.TopologicalLink;
@@ -31,43 +37,91 @@ import org.cloudbus.cloudsim.network.TopologicalNode;
  * proper work of the network simulation. Each BRITE node can be mapped to only one entity at a
  * time.
  * 
+ * <p/>
+ * Each simulation has its own topology: the static methods apply to the topology of the
+ * {@link CloudSim#getContext() current simulation context}, which is created on first use and
+ * dropped when the context is initialised for a new run. Hence the topology, and the settings of
+ * its matrices, must be set after {@link CloudSim#init(int, java.util.Calendar, boolean)}.
+ * 
  * @author Rodrigo N. Calheiros
  * @author Anton Beloglazov
  * @since CloudSim Toolkit 1.0
- * 
- * //@TODO The class only have static methods, that indicates it doesn't have to be instantiated.
- * In fact, it doesn't appear it is being instantiated anywhere.
- * A private default constructor would be created to avoid instantiation.
  */
 public class NetworkTopology {
         /**
          * The BRITE id to use for the next node to be created in the network.
          */
-	protected static int nextIdx = 0;
+	protected int nextIdx = 0;
 
-	private static boolean networkEnabled = false;
+	private boolean networkEnabled = false;
 
         /**
          * A matrix containing the delay between every pair of nodes in the network.
          */
-	protected static DelayMatrix_Float delayMatrix = null;
+	protected DelayMatrix_Float delayMatrix = null;
 
         /**
          * A matrix containing the bandwidth between every pair of nodes in the network.
+         * It is null when the matrices are stored compactly.
          */
-	protected static double[][] bwMatrix = null;
+	protected double[][] bwMatrix = null;
 
         /**
          * The Topological Graph of the network.
          */
-	protected static TopologicalGraph graph = null;
+	protected TopologicalGraph graph = null;
 
 	/**
          * The map between CloudSim entities and BRITE entities.
          * Each key is a CloudSim entity ID and each value the corresponding
          * BRITE entity ID.
          */
-        protected static Map<Integer, Integer> map = null;
+        protected Map<Integer, Integer> map = null;
+
+	/**
+	 * Whether links were added since the matrices were generated. The matrices are then
+	 * updated when a delay is requested, so that wiring a topology link by link does not
+	 * recompute the shortest paths for every link.
+	 */
+	private boolean matricesOutdated = false;
+
+	/**
+	 * The links added since the matrices were generated, if they can be applied incrementally.
+	 */
+	private final List<TopologicalLink> addedLinks = new ArrayList<>();
+
+	/**
+	 * Whether a link was added that cannot be applied incrementally.
+	 */
+	private boolean rebuildMatrices = false;
+
+	/**
+	 * The pairs of nodes linked in the graph, in either direction.
+	 */
+	private final Set<Long> linkedNodes = new HashSet<>();
+
+	private boolean incrementalUpdates = false;
+
+	private boolean sparseShortestPaths = false;
+
+	private int cachedDelayRows = 0;
+
+	private boolean halfPrecisionDelays = false;
+
+	/**
+	 * Creates an empty topology. The topology of a simulation is created by {@link #getInstance()}.
+	 */
+	protected NetworkTopology() {
+	}
+
+	/**
+	 * Gets the topology of the current simulation context, creating it if needed.
+	 *
+	 * @return the topology
+	 */
+	public static NetworkTopology getInstance() {
+		return CloudSim.getContext().getService(NetworkTopology.class, NetworkTopology::new);
+	}
 
 	/**
 	 * Creates the network topology if the file exists and can be successfully parsed. File is
@@ -82,11 +136,18 @@ public class NetworkTopology {
 
 		// try to find the file
 		GraphReaderBrite reader = new GraphReaderBrite();
+		NetworkTopology topology = getInstance();
 
 		try {
-			graph = reader.readGraphFile(fileName);
-			map = new HashMap<>();
-			generateMatrices();
+			topology.graph = reader.readGraphFile(fileName);
+			topology.map = new HashMap<>();
+			topology.linkedNodes.clear();
+			Iterator<TopologicalLink> iter = topology.graph.getLinkIterator();
+			while (iter.hasNext()) {
+				TopologicalLink link = iter.next();
+				topology.linkedNodes.add(nodePair(link.getSrcNodeID(), link.getDestNodeID()));
+			}
+			topology.generateMatrices();
 		} catch (IOException e) {
 			// problem with the file. Does not simulate network
 			Log.printlnConcat("Problem in processing BRITE file. Network simulation is disabled. Error: ",
@@ -98,14 +159,125 @@ public class NetworkTopology {
 	/**
 	 * Generates the matrices used internally to set latency and bandwidth between elements.
 	 */
-	private static void generateMatrices() {
-		// creates the delay matrix
-		delayMatrix = new DelayMatrix_Float(graph, false);
-
-		// creates the bw matrix
-		bwMatrix = createBwMatrix(graph, false);
+	private void generateMatrices() {
+		if (cachedDelayRows > 0) {
+			// only the links are stored, and the delays from the most recently used nodes
+			delayMatrix = new DelayRowCache(graph, false, cachedDelayRows, halfPrecisionDelays);
+			bwMatrix = null;
+		} else {
+			// creates the delay matrix
+			delayMatrix = new DelayMatrix_Float(graph, false, sparseShortestPaths);
+
+			// creates the bw matrix
+			bwMatrix = createBwMatrix(graph, false);
+		}
 
 		networkEnabled = true;
+		matricesOutdated = false;
+		rebuildMatrices = false;
+		addedLinks.clear();
+	}
+
+	/**
+	 * Updates the matrices with the links added since they were generated. With incremental
+	 * updates enabled, the links are applied to the matrices in O(n²) each if there are fewer
+	 * of them than half the nodes, which is cheaper than generating the matrices again.
+	 */
+	private void updateMatrices() {
+		if (!matricesOutdated) {
+			return;
+		}
+
+		if (rebuildMatrices || delayMatrix == null || bwMatrix == null
+				|| 2 * addedLinks.size() >= graph.getNumberOfNodes()) {
+			generateMatrices();
+			return;
+		}
+
+		int nodes = graph.getNumberOfNodes();
+		if (bwMatrix.length < nodes) {
+			double[][] mtx = new double[nodes][nodes];
+			for (int i = 0; i < bwMatrix.length; i++) {
+				System.arraycopy(bwMatrix[i], 0, mtx[i], 0, bwMatrix.length);
+			}
+			bwMatrix = mtx;
+		}
+
+		for (TopologicalLink link : addedLinks) {
+			delayMatrix.addLink(link.getSrcNodeID(), link.getDestNodeID(), link.getLinkDelay(), false);
+			bwMatrix[link.getSrcNodeID()][link.getDestNodeID()] = link.getLinkBw();
+			bwMatrix[link.getDestNodeID()][link.getSrcNodeID()] = link.getLinkBw();
+		}
+
+		matricesOutdated = false;
+		addedLinks.clear();
+	}
+
+	/**
+	 * Enables or disables incremental updates of the matrices. When enabled, links added after
+	 * the delays were computed lower the delays of the paths through them in O(n²) per link,
+	 * instead of the delays being computed again for all pairs of nodes. Delays may then differ
+	 * in the last bits from the ones computed for the whole topology. Links that replace a link
+	 * between the same nodes still cause the delays to be computed again.
+	 * 
+	 * @param enabled true to update the matrices incrementally, false to generate them again
+	 */
+	public static void setIncrementalUpdates(boolean enabled) {
+		getInstance().incrementalUpdates = enabled;
+	}
+
+	public static boolean isIncrementalUpdates() {
+		return getInstance().incrementalUpdates;
+	}
+
+	/**
+	 * Selects how the delays between all pairs of nodes are computed: by Dijkstra's algorithm
+	 * from every node, in O(n * l * log(n)) for l links, or by Floyd-Warshall in O(n³). The
+	 * former is faster for large sparse topologies, such as the ones generated by BRITE, but
+	 * the delays may differ in the last bits.
+	 * 
+	 * @param enabled true to use Dijkstra's algorithm, false to use Floyd-Warshall
+	 */
+	public static void setSparseShortestPaths(boolean enabled) {
+		getInstance().sparseShortestPaths = enabled;
+	}
+
+	public static boolean isSparseShortestPaths() {
+		return getInstance().sparseShortestPaths;
+	}
+
+	/**
+	 * Selects a compact storage of the matrices for large topologies. Instead of the delays
+	 * between all pairs of nodes, only the links are stored, and the delays from a node are
+	 * computed when first requested and kept in a cache of the most recently used nodes. As
+	 * entities are usually mapped to few nodes, the delays between them are then looked up in
+	 * O(1) with a footprint of O(l + rows * n) instead of O(n²). The bandwidth matrix is not
+	 * created in this mode. Takes effect when the matrices are next generated.
+	 * 
+	 * @param rows the number of nodes whose delays are cached, or 0 to store the full matrices
+	 * @see DelayRowCache
+	 */
+	public static void setCachedDelayRows(int rows) {
+		getInstance().cachedDelayRows = rows;
+	}
+
+	public static int getCachedDelayRows() {
+		return getInstance().cachedDelayRows;
+	}
+
+	/**
+	 * Enables or disables the storage of the cached delays in half precision, at about 3
+	 * significant digits, which halves their footprint. Only applies with a compact storage.
+	 * 
+	 * @param enabled true to store the cached delays in half precision
+	 * @see #setCachedDelayRows(int)
+	 */
+	public static void setHalfPrecisionDelays(boolean enabled) {
+		getInstance().halfPrecisionDelays = enabled;
+	}
+
+	public static boolean isHalfPrecisionDelays() {
+		return getInstance().halfPrecisionDelays;
 	}
 
 	/**
@@ -122,6 +294,10 @@ public class NetworkTopology {
 	 * @post $none
 	 */
 	public static void addLink(int srcId, int destId, double bw, double lat) {
+		getInstance().addLinkBetween(srcId, destId, bw, lat);
+	}
+
+	private void addLinkBetween(int srcId, int destId, double bw, double lat) {
 
 		if (graph == null) {
 			graph = new TopologicalGraph();
@@ -145,10 +321,27 @@ public class NetworkTopology {
 		}
 
 		// generate a new link
-		graph.addLink(new TopologicalLink(map.get(srcId), map.get(destId), (float) lat, (float) bw));
+		TopologicalLink link = new TopologicalLink(map.get(srcId), map.get(destId), (float) lat, (float) bw);
+		boolean newNodePair = linkedNodes.add(nodePair(link.getSrcNodeID(), link.getDestNodeID()));
+		if (incrementalUpdates && delayMatrix != null && !rebuildMatrices && newNodePair) {
+			addedLinks.add(link);
+		} else {
+			rebuildMatrices = true;
+			addedLinks.clear();
+		}
+		graph.addLink(link);
+
+		// the matrices are updated when a delay is requested
+		matricesOutdated = true;
+		networkEnabled = true;
 
-		generateMatrices();
+	}
 
+	/**
+	 * Gets the key of a pair of nodes, the same in either direction.
+	 */
+	private static long nodePair(int node1, int node2) {
+		return (long) Math.min(node1, node2) << 32 | (Math.max(node1, node2) & 0xffffffffL);
 	}
 
 	/**
@@ -194,7 +387,9 @@ public class NetworkTopology {
 	 * @post $none
 	 */
 	public static void mapNode(int cloudSimEntityID, int briteID) {
-		if (networkEnabled) {
+		NetworkTopology topology = getInstance();
+		Map<Integer, Integer> map = topology.map;
+		if (topology.networkEnabled) {
 			try {
 				// this CloudSim entity was already mapped?
 				if (!map.containsKey(cloudSimEntityID)) {
@@ -222,9 +417,10 @@ public class NetworkTopology {
 	 * @post $none
 	 */
 	public static void unmapNode(int cloudSimEntityID) {
-		if (networkEnabled) {
+		NetworkTopology topology = getInstance();
+		if (topology.networkEnabled) {
 			try {
-				map.remove(cloudSimEntityID);
+				topology.map.remove(cloudSimEntityID);
 			} catch (Exception e) {
 				Log.printlnConcat("Error in network unmapping. CloudSim node: ", cloudSimEntityID);
 			}
@@ -242,10 +438,13 @@ public class NetworkTopology {
 	 * @post $none
 	 */
 	public static double getDelay(int srcID, int destID) {
-		if (networkEnabled) {
+		NetworkTopology topology = getInstance();
+		if (topology.networkEnabled) {
 			try {
+				topology.updateMatrices();
+
 				// add the network latency
-				double delay = delayMatrix.getDelay(map.get(srcID), map.get(destID));
+				double delay = topology.delayMatrix.getDelay(topology.map.get(srcID), topology.map.get(destID));
 
 				return delay;
 			} catch (Exception e) {
@@ -265,7 +464,7 @@ public class NetworkTopology {
 	 * @post $none
 	 */
 	public static boolean isNetworkEnabled() {
-		return networkEnabled;
+		return getInstance().networkEnabled;
 	}
 
 }
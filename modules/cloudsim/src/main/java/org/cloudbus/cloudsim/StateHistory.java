@@ -0,0 +1,366 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimulationContext;
+
+/**
+ * A columnar state history of a host or guest: the time, allocated MIPS, requested MIPS and flag
+ * (active for hosts, in migration for guests) of each entry are stored in primitive arrays, and the
+ * {@link HostStateHistoryEntry} or {@link VmStateHistoryEntry} objects are only created when the
+ * history is read through the {@link java.util.List} interface.
+ * <p>
+ * The history keeps the entries of a {@link #setWindow(int) window} of the latest entries in memory,
+ * unbounded by default. Older entries are dropped, or appended to a {@link StateHistorySpill spill file}
+ * if one is set, in which case they remain part of the history. Only the in-memory entries can be
+ * replaced.
+ * <p>
+ * The window and spill file of the histories created by hosts and guests are set per simulation, by
+ * {@link SimulationContext#setStateHistoryWindow(int)} and
+ * {@link SimulationContext#setStateHistorySpill(StateHistorySpill)}.
+ *
+ * @param <E> the entry type
+ * @since CloudSim Toolkit 7.0
+ */
+public class StateHistory<E> extends AbstractList<E> implements RandomAccess {
+
+	/**
+	 * Converts the entries of a history from and to their columns.
+	 *
+	 * @param <E> the entry type
+	 */
+	public interface EntryType<E> {
+		E newEntry(double time, double allocatedMips, double requestedMips, boolean flag);
+
+		double getTime(E entry);
+
+		double getAllocatedMips(E entry);
+
+		double getRequestedMips(E entry);
+
+		boolean getFlag(E entry);
+	}
+
+	/** The entries of host histories, flagged when the host is active. */
+	public static final EntryType<HostStateHistoryEntry> HOST = new EntryType<>() {
+		@Override
+		public HostStateHistoryEntry newEntry(double time, double allocatedMips, double requestedMips, boolean flag) {
+			return new HostStateHistoryEntry(time, allocatedMips, requestedMips, flag);
+		}
+
+		@Override
+		public double getTime(HostStateHistoryEntry entry) {
+			return entry.getTime();
+		}
+
+		@Override
+		public double getAllocatedMips(HostStateHistoryEntry entry) {
+			return entry.getAllocatedMips();
+		}
+
+		@Override
+		public double getRequestedMips(HostStateHistoryEntry entry) {
+			return entry.getRequestedMips();
+		}
+
+		@Override
+		public boolean getFlag(HostStateHistoryEntry entry) {
+			return entry.isActive();
+		}
+	};
+
+	/** The entries of guest histories, flagged when the guest is in migration. */
+	public static final EntryType<VmStateHistoryEntry> GUEST = new EntryType<>() {
+		@Override
+		public VmStateHistoryEntry newEntry(double time, double allocatedMips, double requestedMips, boolean flag) {
+			return new VmStateHistoryEntry(time, allocatedMips, requestedMips, flag);
+		}
+
+		@Override
+		public double getTime(VmStateHistoryEntry entry) {
+			return entry.getTime();
+		}
+
+		@Override
+		public double getAllocatedMips(VmStateHistoryEntry entry) {
+			return entry.getAllocatedMips();
+		}
+
+		@Override
+		public double getRequestedMips(VmStateHistoryEntry entry) {
+			return entry.getRequestedMips();
+		}
+
+		@Override
+		public boolean getFlag(VmStateHistoryEntry entry) {
+			return entry.isInMigration();
+		}
+	};
+
+	private final EntryType<E> entryType;
+
+	private int window;
+
+	private StateHistorySpill spill;
+
+	/** The in-memory entries, a ring starting at {@link #head}. */
+	private double[] times = new double[8];
+	private double[] allocatedMips = new double[8];
+	private double[] requestedMips = new double[8];
+	private boolean[] flags = new boolean[8];
+
+	private int head = 0;
+
+	private int count = 0;
+
+	/** The number of entries that left the window, dropped or spilled. */
+	private int evicted = 0;
+
+	/** The number of entries dropped before the spill file was set. */
+	private int droppedBeforeSpill = 0;
+
+	/** The spill blocks of the spilled entries, in order. */
+	private int[] blocks = new int[0];
+
+	/**
+	 * Creates a history with the window and spill file of the current simulation context.
+	 *
+	 * @param entryType the entry type
+	 * @see CloudSim#getContext()
+	 */
+	public StateHistory(EntryType<E> entryType) {
+		this(entryType, CloudSim.getContext().getStateHistoryWindow(), CloudSim.getContext().getStateHistorySpill());
+	}
+
+	/**
+	 * Creates a history.
+	 *
+	 * @param entryType the entry type
+	 * @param window the window, at least 1; {@link Integer#MAX_VALUE} keeps all entries in memory
+	 * @param spill the spill file, or null to drop the entries that leave the window
+	 */
+	public StateHistory(EntryType<E> entryType, int window, StateHistorySpill spill) {
+		if (window < 1) {
+			throw new IllegalArgumentException("The window must be at least 1");
+		}
+		this.entryType = entryType;
+		this.window = window;
+		this.spill = spill;
+	}
+
+	/**
+	 * Appends an entry, or replaces the last one if it has the same time.
+	 *
+	 * @param time the time
+	 * @param allocatedMips the allocated mips
+	 * @param requestedMips the requested mips
+	 * @param flag the flag
+	 */
+	public void record(double time, double allocatedMips, double requestedMips, boolean flag) {
+		if (count > 0 && times[slot(count - 1)] == time) {
+			setColumns(slot(count - 1), time, allocatedMips, requestedMips, flag);
+			return;
+		}
+		append(time, allocatedMips, requestedMips, flag);
+	}
+
+	private void append(double time, double allocatedMips, double requestedMips, boolean flag) {
+		if (count == window) {
+			evictOldest();
+		}
+		if (count == times.length) {
+			grow();
+		}
+		setColumns(slot(count), time, allocatedMips, requestedMips, flag);
+		count++;
+		modCount++;
+	}
+
+	private void evictOldest() {
+		if (spill != null) {
+			int index = getSpilledCount() % StateHistorySpill.BLOCK_ENTRIES;
+			if (index == 0) {
+				blocks = Arrays.copyOf(blocks, blocks.length + 1);
+				blocks[blocks.length - 1] = spill.allocateBlock();
+			}
+			spill.write(blocks[blocks.length - 1], index, times[head], allocatedMips[head], requestedMips[head], flags[head]);
+		}
+		head = (head + 1) % times.length;
+		count--;
+		evicted++;
+	}
+
+	private void grow() {
+		int length = (int) Math.min((long) window, times.length * 2L);
+		boolean[] newFlags = new boolean[length];
+		for (int i = 0; i < count; i++) {
+			newFlags[i] = flags[slot(i)];
+		}
+		flags = newFlags;
+		times = unwrap(times, length);
+		allocatedMips = unwrap(allocatedMips, length);
+		requestedMips = unwrap(requestedMips, length);
+		head = 0;
+	}
+
+	private double[] unwrap(double[] column, int length) {
+		double[] newColumn = new double[length];
+		int first = Math.min(count, column.length - head);
+		System.arraycopy(column, head, newColumn, 0, first);
+		System.arraycopy(column, 0, newColumn, first, count - first);
+		return newColumn;
+	}
+
+	private void setColumns(int slot, double time, double allocated, double requested, boolean flag) {
+		times[slot] = time;
+		allocatedMips[slot] = allocated;
+		requestedMips[slot] = requested;
+		flags[slot] = flag;
+	}
+
+	/** Gets the ring slot of an in-memory entry. */
+	private int slot(int memoryIndex) {
+		int slot = head + memoryIndex;
+		return slot < times.length ? slot : slot - times.length;
+	}
+
+	private int getSpilledCount() {
+		return spill == null ? 0 : evicted - droppedBeforeSpill;
+	}
+
+	/**
+	 * Gets the in-memory index of an entry, or a negative value if it is spilled.
+	 */
+	private int memoryIndex(int index) {
+		if (index < 0 || index >= size()) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+		}
+		return index - getSpilledCount();
+	}
+
+	public double getTime(int index) {
+		int i = memoryIndex(index);
+		return i >= 0 ? times[slot(i)]
+				: spill.getTime(blocks[index / StateHistorySpill.BLOCK_ENTRIES], index % StateHistorySpill.BLOCK_ENTRIES);
+	}
+
+	public double getAllocatedMips(int index) {
+		int i = memoryIndex(index);
+		return i >= 0 ? allocatedMips[slot(i)]
+				: spill.getAllocatedMips(blocks[index / StateHistorySpill.BLOCK_ENTRIES], index % StateHistorySpill.BLOCK_ENTRIES);
+	}
+
+	public double getRequestedMips(int index) {
+		int i = memoryIndex(index);
+		return i >= 0 ? requestedMips[slot(i)]
+				: spill.getRequestedMips(blocks[index / StateHistorySpill.BLOCK_ENTRIES], index % StateHistorySpill.BLOCK_ENTRIES);
+	}
+
+	/**
+	 * Gets the flag of an entry: whether the host was active, or whether the guest was in migration.
+	 *
+	 * @param index the index of the entry
+	 * @return the flag
+	 */
+	public boolean getFlag(int index) {
+		int i = memoryIndex(index);
+		return i >= 0 ? flags[slot(i)]
+				: spill.getFlag(blocks[index / StateHistorySpill.BLOCK_ENTRIES], index % StateHistorySpill.BLOCK_ENTRIES);
+	}
+
+	@Override
+	public E get(int index) {
+		return entryType.newEntry(getTime(index), getAllocatedMips(index), getRequestedMips(index), getFlag(index));
+	}
+
+	@Override
+	public int size() {
+		return getSpilledCount() + count;
+	}
+
+	@Override
+	public boolean add(E entry) {
+		append(entryType.getTime(entry), entryType.getAllocatedMips(entry), entryType.getRequestedMips(entry),
+				entryType.getFlag(entry));
+		return true;
+	}
+
+	/**
+	 * @throws UnsupportedOperationException if the entry is spilled
+	 */
+	@Override
+	public E set(int index, E entry) {
+		int i = memoryIndex(index);
+		if (i < 0) {
+			throw new UnsupportedOperationException("Spilled entries cannot be replaced");
+		}
+		E previous = get(index);
+		setColumns(slot(i), entryType.getTime(entry), entryType.getAllocatedMips(entry),
+				entryType.getRequestedMips(entry), entryType.getFlag(entry));
+		return previous;
+	}
+
+	/**
+	 * Removes the in-memory entries. The spilled entries remain part of the history.
+	 */
+	@Override
+	public void clear() {
+		head = 0;
+		count = 0;
+		modCount++;
+	}
+
+	/**
+	 * Gets the number of latest entries kept in memory.
+	 *
+	 * @return the window
+	 */
+	public int getWindow() {
+		return window;
+	}
+
+	/**
+	 * Sets the number of latest entries kept in memory. Older entries are dropped, or spilled
+	 * if a spill file is set.
+	 *
+	 * @param window the window, at least 1
+	 */
+	public void setWindow(int window) {
+		if (window < 1) {
+			throw new IllegalArgumentException("The window must be at least 1");
+		}
+		this.window = window;
+		while (count > window) {
+			evictOldest();
+		}
+		modCount++;
+	}
+
+	public StateHistorySpill getSpill() {
+		return spill;
+	}
+
+	/**
+	 * Sets the file receiving the entries that leave the window. It can only be set once.
+	 *
+	 * @param spill the spill file
+	 */
+	public void setSpill(StateHistorySpill spill) {
+		if (this.spill != null) {
+			throw new IllegalStateException("The spill file is already set");
+		}
+		droppedBeforeSpill = evicted;
+		this.spill = spill;
+	}
+}
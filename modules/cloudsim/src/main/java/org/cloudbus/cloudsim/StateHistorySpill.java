@@ -0,0 +1,137 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An append-only memory-mapped file receiving the {@link StateHistory state history} entries that
+ * fall out of the in-memory window of their history, so that they are still available after the run.
+ * The file is shared by all the histories spilling to it: it is divided into blocks of
+ * {@link #BLOCK_ENTRIES} entries, each history appending to its own blocks.
+ * <p>
+ * Each entry takes 32 bytes: the time, allocated MIPS and requested MIPS as doubles, then the flag.
+ * The file is mapped in regions of {@link #REGION_SIZE} bytes as it grows.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class StateHistorySpill implements Closeable {
+
+	/** The number of entries of a block. */
+	public static final int BLOCK_ENTRIES = 128;
+
+	/** The size of an entry, in bytes. */
+	static final int ENTRY_SIZE = 32;
+
+	/** The size of a block, in bytes. */
+	private static final int BLOCK_SIZE = BLOCK_ENTRIES * ENTRY_SIZE;
+
+	/** The size of a mapped region, in bytes; a multiple of the block size. */
+	static final int REGION_SIZE = 1 << 24;
+
+	private static final int BLOCKS_PER_REGION = REGION_SIZE / BLOCK_SIZE;
+
+	private final FileChannel channel;
+
+	private final List<MappedByteBuffer> regions = new ArrayList<>();
+
+	private int blockCount = 0;
+
+	/**
+	 * Creates a spill file, replacing the file if it exists.
+	 *
+	 * @param file the file
+	 * @throws IOException if the file cannot be created
+	 */
+	public StateHistorySpill(Path file) throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+	}
+
+	/**
+	 * Allocates a new block at the end of the file.
+	 *
+	 * @return the block number
+	 */
+	synchronized int allocateBlock() {
+		int block = blockCount++;
+		if (block / BLOCKS_PER_REGION == regions.size()) {
+			try {
+				regions.add(channel.map(FileChannel.MapMode.READ_WRITE, (long) regions.size() * REGION_SIZE, REGION_SIZE));
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		return block;
+	}
+
+	/**
+	 * Writes an entry.
+	 *
+	 * @param block the block of the entry
+	 * @param index the index of the entry in its block
+	 */
+	void write(int block, int index, double time, double allocatedMips, double requestedMips, boolean flag) {
+		MappedByteBuffer region = region(block);
+		int position = position(block, index);
+		region.putDouble(position, time);
+		region.putDouble(position + 8, allocatedMips);
+		region.putDouble(position + 16, requestedMips);
+		region.put(position + 24, (byte) (flag ? 1 : 0));
+	}
+
+	double getTime(int block, int index) {
+		return region(block).getDouble(position(block, index));
+	}
+
+	double getAllocatedMips(int block, int index) {
+		return region(block).getDouble(position(block, index) + 8);
+	}
+
+	double getRequestedMips(int block, int index) {
+		return region(block).getDouble(position(block, index) + 16);
+	}
+
+	boolean getFlag(int block, int index) {
+		return region(block).get(position(block, index) + 24) != 0;
+	}
+
+	private synchronized MappedByteBuffer region(int block) {
+		return regions.get(block / BLOCKS_PER_REGION);
+	}
+
+	private static int position(int block, int index) {
+		return (block % BLOCKS_PER_REGION) * BLOCK_SIZE + index * ENTRY_SIZE;
+	}
+
+	/**
+	 * Gets the number of bytes used by the spilled blocks.
+	 *
+	 * @return the used size of the file
+	 */
+	public synchronized long getSize() {
+		return (long) blockCount * BLOCK_SIZE;
+	}
+
+	/**
+	 * Closes the file. The spilled entries stay readable as long as their mapping is referenced.
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
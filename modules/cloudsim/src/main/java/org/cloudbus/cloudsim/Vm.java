@@ -11,11 +11,11 @@ import org.cloudbus.cloudsim.core.GuestEntity;
 import org.cloudbus.cloudsim.core.HostEntity;
 import org.cloudbus.cloudsim.core.VirtualEntity;
 import org.cloudbus.cloudsim.lists.PeList;
+import org.cloudbus.cloudsim.lists.VmList;
 import org.cloudbus.cloudsim.provisioners.BwProvisioner;
 import org.cloudbus.cloudsim.provisioners.RamProvisioner;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 /**
@@ -102,7 +102,7 @@ public class Vm implements VirtualEntity {
 	private List<? extends Pe> peList;
 
 	/** The nested guest list. */
-	private final List<? extends GuestEntity> guestList = new ArrayList<>();
+	private final List<? extends GuestEntity> guestList = VmList.newIdIndexedList();
 
 	/** The nested guests migrating in. */
 	private final List<? extends GuestEntity> guestsMigratingIn = new ArrayList<>();
@@ -118,7 +118,7 @@ public class Vm implements VirtualEntity {
 	 * time, he/she doesn't have to iterate over the entire list
 	 * to find the desired entry.
 	 */
-	private final List<VmStateHistoryEntry> stateHistory = new LinkedList<>();
+	private final StateHistory<VmStateHistoryEntry> stateHistory = new StateHistory<>(StateHistory.GUEST);
 
 	private int virtualizationOverhead;
 
@@ -577,7 +577,7 @@ public class Vm implements VirtualEntity {
 
 	public HostEntity getHost() { return host; }
 
-	public List<VmStateHistoryEntry> getStateHistory() { return stateHistory; }
+	public StateHistory<VmStateHistoryEntry> getStateHistory() { return stateHistory; }
 
 	/**
 	 * DEPRECATED: USE GuestEntity.getUid(userId, vmId) instead!
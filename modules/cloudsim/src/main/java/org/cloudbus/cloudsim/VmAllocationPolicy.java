@@ -12,9 +12,9 @@ import org.cloudbus.cloudsim.container.core.Container;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.GuestEntity;
 import org.cloudbus.cloudsim.core.HostEntity;
+import org.cloudbus.cloudsim.util.GuestTable;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -56,7 +56,7 @@ public abstract class VmAllocationPolicy {
 	/** The map between each guest and its allocated host.
 	 * The map key is a guest UID and the value is the allocated host for that VM.
 	 */
-	private Map<String, HostEntity> guestTable;
+	private GuestTable<HostEntity> guestTable;
 
 	/**
 	 * Creates a new VmAllocationPolicy object.
@@ -67,7 +67,7 @@ public abstract class VmAllocationPolicy {
 	 */
 	public VmAllocationPolicy(List<? extends HostEntity> list) {
 		setHostList(list);
-		setGuestTable(new HashMap<>());
+		guestTable = new GuestTable<>();
 	}
 
 	/**
@@ -112,7 +112,7 @@ public abstract class VmAllocationPolicy {
 		}
 
 		if (host.guestCreate(guest)) { // if vm has been successfully created in the host
-			getGuestTable().put(guest.getUid(), host);
+			getGuestTable().put(guest, host);
 			Log.printlnConcat(CloudSim.clock(), ": ", datacenterName, ".guestAllocator: ", guest.getClassName(), " #", guest.getId(), " has been allocated to ", host.getClassName(), " #", host.getId());
 			return true;
 		}
@@ -145,7 +145,7 @@ public abstract class VmAllocationPolicy {
 	 * @post $none
 	 */
 	public void deallocateHostForGuest(GuestEntity guest) {
-		HostEntity host = getGuestTable().remove(guest.getUid());
+		HostEntity host = getGuestTable().remove(guest);
 		if (host != null) {
 			host.guestDestroy(guest);
 		}
@@ -166,8 +166,8 @@ public abstract class VmAllocationPolicy {
 	public Host findHostForVm(Vm vm) { return (Host) findHostForGuest(vm); }
 
 
-	public Map<String, HostEntity> getGuestTable() { return guestTable; }
-	protected void setGuestTable(Map<String, HostEntity> guestTable) { this.guestTable = guestTable; }
+	public GuestTable<HostEntity> getGuestTable() { return guestTable; }
+	protected void setGuestTable(Map<String, HostEntity> guestTable) { this.guestTable = new GuestTable<>(guestTable); }
 
 	/**
 	 * Get the host that is executing the given VM.
@@ -177,10 +177,10 @@ public abstract class VmAllocationPolicy {
 	 * @pre $none
 	 * @post $none
 	 */
-	public HostEntity getHost(GuestEntity guest) { return getGuestTable().get(guest.getUid()); }
+	public HostEntity getHost(GuestEntity guest) { return getGuestTable().get(guest); }
 
 	@Deprecated
-	public Host getHost(Vm vm) { return (Host) getGuestTable().get(vm.getUid()); }
+	public Host getHost(Vm vm) { return (Host) getGuestTable().get(vm); }
 
 	/**
 	 * Get the host that is executing the given VM belonging to the given user.
@@ -191,7 +191,7 @@ public abstract class VmAllocationPolicy {
 	 * @pre $none
 	 * @post $none
 	 */
-	public HostEntity getHost(int vmId, int userId) { return getGuestTable().get(GuestEntity.getUid(userId, vmId)); };
+	public HostEntity getHost(int vmId, int userId) { return getGuestTable().get(userId, vmId); };
 
 	/**
 	 * Sets the host list.
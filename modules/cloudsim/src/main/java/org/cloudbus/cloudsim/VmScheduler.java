@@ -8,12 +8,12 @@
 package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.cloudbus.cloudsim.core.GuestEntity;
 import org.cloudbus.cloudsim.lists.PeList;
+import org.cloudbus.cloudsim.util.GuestTable;
 
 /**
  * VmScheduler is an abstract class that represents the policy used by a Virtual Machine Monitor (VMM) 
@@ -34,14 +34,14 @@ public abstract class VmScheduler {
 
 	/** The map of VMs to PEs, where each key is a VM id and each value is
          * a list of PEs allocated to that VM. */
-	private Map<String, List<Pe>> peMap;
+	private GuestTable<List<Pe>> peMap;
 
 	/** The map of VMs to MIPS, were each key is a VM id and each value is
          * the currently allocated MIPS from the respective PE to that VM. 
          * The PEs where the MIPS capacity is get are defined
          * in the {@link #peMap}.
          */
-	private Map<String, List<Double>> mipsMapAllocated;
+	private GuestTable<List<Double>> mipsMapAllocated;
 
 	/** The total available MIPS that can be allocated on demand for VMs. */
     private double availableMips;
@@ -61,8 +61,8 @@ public abstract class VmScheduler {
 	 */
 	public VmScheduler(List<? extends Pe> pelist) {
 		setPeList(pelist);
-		setPeMap(new HashMap<>());
-		setMipsMapAllocated(new HashMap<>());
+		peMap = new GuestTable<>();
+		mipsMapAllocated = new GuestTable<>();
 		setAvailableMips(PeList.getTotalMips(getPeList()));
 		setGuestsMigratingIn(new ArrayList<>());
 		setGuestsMigratingOut(new ArrayList<>());
@@ -126,7 +126,7 @@ public abstract class VmScheduler {
 	 * @return the pes allocated for the given vm
 	 */
 	public List<Pe> getPesAllocatedForGuest(GuestEntity guest) {
-		return getPeMap().get(guest.getUid());
+		return getPeMap().get(guest);
 	}
 
 	@Deprecated
@@ -143,7 +143,7 @@ public abstract class VmScheduler {
 	 * @post $none
 	 */
 	public List<Double> getAllocatedMipsForGuest(GuestEntity guest) {
-		return getMipsMapAllocated().get(guest.getUid());
+		return getMipsMapAllocated().get(guest);
 	}
 
 	@Deprecated
@@ -214,11 +214,25 @@ public abstract class VmScheduler {
 	public List<? extends Pe> getPeList() { return peList; }
 	protected void setPeList(List<? extends Pe> peList) { this.peList = peList; }
 
-	public Map<String, List<Pe>> getPeMap() { return peMap; }
-	protected void setPeMap(Map<String, List<Pe>> peMap) { this.peMap = peMap; }
+	/**
+	 * Gets the map of guests to the PEs allocated to them. Since CloudSim Toolkit 7.0 this is
+	 * a {@link GuestTable} instead of a {@code HashMap}: it still implements
+	 * {@code Map<String, List<Pe>>} keyed by guest uid, but subclasses overriding this getter
+	 * must return a GuestTable as well.
+	 *
+	 * @return the PE map
+	 */
+	public GuestTable<List<Pe>> getPeMap() { return peMap; }
+	protected void setPeMap(Map<String, List<Pe>> peMap) { this.peMap = new GuestTable<>(peMap); }
 
-	public Map<String, List<Double>> getMipsMapAllocated() { return mipsMapAllocated; }
-	protected void setMipsMapAllocated(Map<String, List<Double>> mipsMapAllocated) { this.mipsMapAllocated = mipsMapAllocated; }
+	/**
+	 * Gets the map of guests to the MIPS allocated to them. As {@link #getPeMap()}, it is a
+	 * {@link GuestTable} since CloudSim Toolkit 7.0.
+	 *
+	 * @return the allocated MIPS map
+	 */
+	public GuestTable<List<Double>> getMipsMapAllocated() { return mipsMapAllocated; }
+	protected void setMipsMapAllocated(Map<String, List<Double>> mipsMapAllocated) { this.mipsMapAllocated = new GuestTable<>(mipsMapAllocated); }
 
 	public double getAvailableMips() { return availableMips; }
 	protected void setAvailableMips(double availableMips) { this.availableMips = availableMips; }
@@ -9,9 +9,9 @@
 package org.cloudbus.cloudsim;
 
 import org.cloudbus.cloudsim.core.GuestEntity;
+import org.cloudbus.cloudsim.util.GuestTable;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -32,7 +32,7 @@ public class VmSchedulerSpaceShared extends VmScheduler {
 
 	/** A map between each VM and its allocated PEs, where the key is a VM ID and
          * the value a list of PEs allocated to VM. */
-	private Map<String, List<Pe>> peAllocationMap;
+	private GuestTable<List<Pe>> peAllocationMap;
 
 	/** The list of free PEs yet available in the host. */
 	private List<Pe> freePes;
@@ -44,7 +44,7 @@ public class VmSchedulerSpaceShared extends VmScheduler {
 	 */
 	public VmSchedulerSpaceShared(List<? extends Pe> pelist) {
 		super(pelist);
-		setPeAllocationMap(new HashMap<>());
+		setPeAllocationMap(new GuestTable<>());
 		setFreePes(new ArrayList<>());
 		getFreePes().addAll(pelist);
 	}
@@ -77,8 +77,8 @@ public class VmSchedulerSpaceShared extends VmScheduler {
 
 		getFreePes().removeAll(selectedPes);
 
-		getPeAllocationMap().put(guest.getUid(), selectedPes);
-		getMipsMapAllocated().put(guest.getUid(), mipsShare);
+		getPeAllocationMap().put(guest, selectedPes);
+		getMipsMapAllocated().put(guest, mipsShare);
 		setAvailableMips(getAvailableMips() - totalMips);
 		guest.setCurrentAllocatedMips(mipsShare);
 
@@ -87,16 +87,16 @@ public class VmSchedulerSpaceShared extends VmScheduler {
 
 	@Override
 	public void deallocatePesForGuest(GuestEntity guest) {
-		getFreePes().addAll(getPeAllocationMap().get(guest.getUid()));
-		getPeAllocationMap().remove(guest.getUid());
+		getFreePes().addAll(getPeAllocationMap().get(guest));
+		getPeAllocationMap().remove(guest);
 
 		double totalMips = 0;
-		for (double mips : getMipsMapAllocated().get(guest.getUid())) {
+		for (double mips : getMipsMapAllocated().get(guest)) {
 			totalMips += mips;
 		}
 		setAvailableMips(getAvailableMips() + totalMips);
 
-		getMipsMapAllocated().remove(guest.getUid());
+		getMipsMapAllocated().remove(guest);
 	}
 
 	/**
@@ -105,15 +105,16 @@ public class VmSchedulerSpaceShared extends VmScheduler {
 	 * @param peAllocationMap the pe allocation map
 	 */
 	protected void setPeAllocationMap(Map<String, List<Pe>> peAllocationMap) {
-		this.peAllocationMap = peAllocationMap;
+		this.peAllocationMap = new GuestTable<>(peAllocationMap);
 	}
 
 	/**
-	 * Gets the pe allocation map.
+	 * Gets the pe allocation map. Since CloudSim Toolkit 7.0 it is a {@link GuestTable},
+	 * which can be looked up by guest as well as by uid.
 	 * 
 	 * @return the pe allocation map
 	 */
-	protected Map<String, List<Pe>> getPeAllocationMap() {
+	protected GuestTable<List<Pe>> getPeAllocationMap() {
 		return peAllocationMap;
 	}
 
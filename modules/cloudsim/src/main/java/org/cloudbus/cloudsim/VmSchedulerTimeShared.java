@@ -8,7 +8,6 @@
 package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -17,6 +16,7 @@ import java.util.Map;
 import org.cloudbus.cloudsim.core.GuestEntity;
 import org.cloudbus.cloudsim.lists.PeList;
 import org.cloudbus.cloudsim.provisioners.PeProvisioner;
+import org.cloudbus.cloudsim.util.GuestTable;
 
 /**
  * VmSchedulerTimeShared is a Virtual Machine Monitor (VMM) allocation policy that allocates one or more PEs 
@@ -36,7 +36,7 @@ public class VmSchedulerTimeShared extends VmScheduler {
 	/** The map of requested mips, where each key is a VM
          * and each value is a list of MIPS requested by that VM. 
          */
-	private Map<String, List<Double>> mipsMapRequested;
+	private GuestTable<List<Double>> mipsMapRequested;
 
 	/** The number of host's PEs in use. */
 	private int pesInUse;
@@ -48,7 +48,7 @@ public class VmSchedulerTimeShared extends VmScheduler {
 	 */
 	public VmSchedulerTimeShared(List<? extends Pe> pelist) {
 		super(pelist);
-		setMipsMapRequested(new HashMap<>());
+		mipsMapRequested = new GuestTable<>();
 	}
 
 	@Override
@@ -63,60 +63,105 @@ public class VmSchedulerTimeShared extends VmScheduler {
 		} else {
 			getGuestsMigratingOut().remove(guest.getUid());
 		}
-		boolean result = allocatePesForGuest(guest.getUid(), mipsShareRequested);
+		boolean result = allocatePesForGuest(guest.getUserId(), guest.getId(), mipsShareRequested);
 		updatePeProvisioning();
 		return result;
 	}
 
 	/**
-	 * Allocate PEs for a vm.
+	 * Allocate PEs for a vm. Since CloudSim Toolkit 7.0 the vm is identified by its ids
+	 * rather than by its uid, so that the allocation tables are not looked up by string.
 	 * 
-	 * @param vmUid the vm uid
+	 * @param userId the id of the vm's owner
+	 * @param guestId the vm id
 	 * @param mipsShareRequested the list of mips share requested by the vm
 	 * @return true, if successful
 	 */
-	protected boolean allocatePesForGuest(String vmUid, List<Double> mipsShareRequested) {
+	protected boolean allocatePesForGuest(int userId, int guestId, List<Double> mipsShareRequested) {
+		// This scheduler does not allow over-subscription
+		if (!canAllocatePes(mipsShareRequested)) {
+			return false;
+		}
+
 		double totalRequestedMips = 0;
-		double peMips = getPeCapacity();
 		for (Double mips : mipsShareRequested) {
-			// each virtual PE of a VM must require not more than the capacity of a physical PE
-			if (mips > peMips) {
-				return false;
-			}
 			totalRequestedMips += mips;
 		}
 
-		// This scheduler does not allow over-subscription
-		if (getAvailableMips() < totalRequestedMips) {
-			return false;
-		}
-
-		getMipsMapRequested().put(vmUid, mipsShareRequested);
+		getMipsMapRequested().put(userId, guestId, mipsShareRequested);
 		setPesInUse(getPesInUse() + mipsShareRequested.size());
 
-		if (getGuestsMigratingIn().contains(vmUid)) {
+		boolean migratingIn = isMigratingIn(userId, guestId);
+		boolean migratingOut = isMigratingOut(userId, guestId);
+		if (migratingIn) {
 			// the destination host only experience 10% of the migrating VM's MIPS
 			totalRequestedMips *= 0.1;
 		}
 
 		List<Double> mipsShareAllocated = new ArrayList<>();
 		for (Double mipsRequested : mipsShareRequested) {
-			if (getGuestsMigratingOut().contains(vmUid)) {
+			if (migratingOut) {
 				// performance degradation due to migration = 10% MIPS
 				mipsRequested *= 0.9;
-			} else if (getGuestsMigratingIn().contains(vmUid)) {
+			} else if (migratingIn) {
 				// the destination host only experience 10% of the migrating VM's MIPS
 				mipsRequested *= 0.1;
 			}
 			mipsShareAllocated.add(mipsRequested);
 		}
 
-		getMipsMapAllocated().put(vmUid, mipsShareAllocated);
+		getMipsMapAllocated().put(userId, guestId, mipsShareAllocated);
 		setAvailableMips(getAvailableMips() - totalRequestedMips);
 
 		return true;
 	}
 
+	/**
+	 * Checks if the mips share requested by a vm can be allocated without over-subscribing the PEs.
+	 * 
+	 * @param mipsShareRequested the list of mips share requested by the vm
+	 * @return true, if each virtual PE requires not more than the capacity of a physical PE and the
+	 *         available mips cover the total
+	 */
+	public boolean canAllocatePes(List<Double> mipsShareRequested) {
+		double totalRequestedMips = 0;
+		double peMips = getPeCapacity();
+		for (Double mips : mipsShareRequested) {
+			// each virtual PE of a VM must require not more than the capacity of a physical PE
+			if (mips > peMips) {
+				return false;
+			}
+			totalRequestedMips += mips;
+		}
+		return getAvailableMips() >= totalRequestedMips;
+	}
+
+	/**
+	 * Checks if a vm is migrating into the host. The uid of the vm is only built while
+	 * some vm is migrating in.
+	 * 
+	 * @param userId the id of the vm's owner
+	 * @param guestId the vm id
+	 * @return true, if the vm is migrating in
+	 */
+	protected boolean isMigratingIn(int userId, int guestId) {
+		return !getGuestsMigratingIn().isEmpty()
+				&& getGuestsMigratingIn().contains(GuestEntity.getUid(userId, guestId));
+	}
+
+	/**
+	 * Checks if a vm is migrating out of the host. The uid of the vm is only built while
+	 * some vm is migrating out.
+	 * 
+	 * @param userId the id of the vm's owner
+	 * @param guestId the vm id
+	 * @return true, if the vm is migrating out
+	 */
+	protected boolean isMigratingOut(int userId, int guestId) {
+		return !getGuestsMigratingOut().isEmpty()
+				&& getGuestsMigratingOut().contains(GuestEntity.getUid(userId, guestId));
+	}
+
 	/**
 	 * Update allocation of VMs on PEs.
          * @todo The method is too long and may be refactored to make clearer its
@@ -133,21 +178,22 @@ public class VmSchedulerTimeShared extends VmScheduler {
 		PeProvisioner peProvisioner = pe.getPeProvisioner();
 		double availableMips = peProvisioner.getAvailableMips();
 
-		for (Map.Entry<String, List<Double>> entry : getMipsMapAllocated().entrySet()) {
-			String vmUid = entry.getKey();
-			getPeMap().put(vmUid, new LinkedList<>());
+		for (GuestTable.GuestEntry<List<Double>> entry : getMipsMapAllocated().guestEntries()) {
+			String vmUid = entry.getUid();
+			List<Pe> pes = new LinkedList<>();
+			getPeMap().put(entry.getUserId(), entry.getGuestId(), pes);
 
 			// Spread mips share among the Pes
 			for (double mips : entry.getValue()) {
 				while (mips >= 0.1) { // rounding error
 					if (availableMips >= mips) {
 						peProvisioner.allocateMipsForGuest(vmUid, mips);
-						getPeMap().get(vmUid).add(pe);
+						pes.add(pe);
 						availableMips -= mips;
 						break;
 					} else { // next pe needed, no more space
 						peProvisioner.allocateMipsForGuest(vmUid, availableMips);
-						getPeMap().get(vmUid).add(pe);
+						pes.add(pe);
 						mips -= availableMips;
 						if (mips <= 0.1) {
 							break;
@@ -167,7 +213,7 @@ public class VmSchedulerTimeShared extends VmScheduler {
 
 	@Override
 	public void deallocatePesForGuest(GuestEntity guest) {
-		getMipsMapRequested().remove(guest.getUid());
+		getMipsMapRequested().remove(guest);
 		setPesInUse(0);
 		getMipsMapAllocated().clear();
 		setAvailableMips(PeList.getTotalMips(getPeList()));
@@ -177,8 +223,8 @@ public class VmSchedulerTimeShared extends VmScheduler {
 		}
 
 		// Re-allocate to remaining guests
-		for (Map.Entry<String, List<Double>> entry : getMipsMapRequested().entrySet()) {
-			allocatePesForGuest(entry.getKey(), entry.getValue());
+		for (GuestTable.GuestEntry<List<Double>> entry : getMipsMapRequested().guestEntries()) {
+			allocatePesForGuest(entry.getUserId(), entry.getGuestId(), entry.getValue());
 		}
 		updatePeProvisioning();
 	}
@@ -230,16 +276,16 @@ public class VmSchedulerTimeShared extends VmScheduler {
 	 * 
 	 * @return the mips map requested
 	 */
-	protected Map<String, List<Double>> getMipsMapRequested() {
+	protected GuestTable<List<Double>> getMipsMapRequested() {
 		return mipsMapRequested;
 	}
 
 	/**
 	 * Sets the mips map requested.
 	 * 
-	 * @param mipsMapRequested the mips map requested
+	 * @param mipsMapRequested the mips map requested, whose entries are copied
 	 */
 	protected void setMipsMapRequested(Map<String, List<Double>> mipsMapRequested) {
-		this.mipsMapRequested = mipsMapRequested;
+		this.mipsMapRequested = new GuestTable<>(mipsMapRequested);
 	}
 }
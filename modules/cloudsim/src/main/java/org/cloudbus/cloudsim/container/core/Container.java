@@ -12,7 +12,6 @@ import org.cloudbus.cloudsim.core.GuestEntity;
 import org.cloudbus.cloudsim.core.HostEntity;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 /**
@@ -74,7 +73,7 @@ public class Container implements GuestEntity {
     private boolean beingInstantiated;
 
     /** The mips allocation history. */
-    private final List<VmStateHistoryEntry> stateHistory = new LinkedList<>();
+    private final StateHistory<VmStateHistoryEntry> stateHistory = new StateHistory<>(StateHistory.GUEST);
 
     /** The previous time. */
     private double previousTime;
@@ -309,5 +308,5 @@ public class Container implements GuestEntity {
 
     public boolean isBeingInstantiated() { return beingInstantiated; }
 
-    public List<VmStateHistoryEntry> getStateHistory() { return stateHistory; }
+    public StateHistory<VmStateHistoryEntry> getStateHistory() { return stateHistory; }
 }
@@ -13,6 +13,7 @@ import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.GuestEntity;
 import org.cloudbus.cloudsim.core.HostEntity;
 import org.cloudbus.cloudsim.lists.VmList;
+import org.cloudbus.cloudsim.power.AllocationPlanningView;
 import org.cloudbus.cloudsim.power.PowerHost;
 import org.cloudbus.cloudsim.selectionPolicies.SelectionPolicy;
 import org.cloudbus.cloudsim.util.ExecutionTimeMeasurer;
@@ -35,6 +36,11 @@ public abstract class PowerContainerVmAllocationPolicyMigrationAbstract extends
      */
     private final List<GuestMapping> savedAllocation = new ArrayList<>();
 
+    /**
+     * The view on which placements are tried while planning migrations.
+     */
+    private final AllocationPlanningView planningView = new AllocationPlanningView();
+
     /**
      * The utilization history.
      */
@@ -249,13 +255,7 @@ public abstract class PowerContainerVmAllocationPolicyMigrationAbstract extends
      * @return true, if is host over utilized after allocation
      */
     protected boolean isHostOverUtilizedAfterAllocation(PowerHost host, GuestEntity vm) {
-        boolean isHostOverUtilizedAfterAllocation = true;
-        if (host.guestCreate(vm)) {
-            isHostOverUtilizedAfterAllocation = isHostOverUtilized(host);
-            host.guestDestroy(vm);
-        }
-
-        return isHostOverUtilizedAfterAllocation;
+        return getPlanningView().isTrueAfterPlacement(host, vm, () -> isHostOverUtilized(host));
     }
 
     /**
@@ -532,6 +532,7 @@ public abstract class PowerContainerVmAllocationPolicyMigrationAbstract extends
      * Save allocation.
      */
     protected void saveAllocation() {
+        getPlanningView().startPlan();
         getSavedAllocation().clear();
         for (Host host : this.<Host>getHostList()) {
             for (ContainerVm vm : host.<ContainerVm>getGuestList()) {
@@ -544,17 +545,24 @@ public abstract class PowerContainerVmAllocationPolicyMigrationAbstract extends
     }
 
     /**
-     * Restore allocation.
+     * Restore allocation. Only the hosts whose VMs were changed since it was saved are recreated.
      */
     protected void restoreAllocation() {
+        Set<HostEntity> changedHosts = getPlanningView().getChangedHosts(getHostList(), getSavedAllocation());
         for (Host host : this.<Host>getHostList()) {
-            host.guestDestroyAll();
-            host.reallocateMigratingInGuests();
+            if (changedHosts.contains(host)) {
+                host.guestDestroyAll();
+                host.reallocateMigratingInGuests();
+            } else {
+                getPlanningView().reallocatePes(host);
+            }
         }
         for (GuestMapping map : getSavedAllocation()) {
             ContainerVm vm = (ContainerVm) map.vm();
             PowerHost host = (PowerHost) map.host();
-            if (!host.guestCreate(vm)) {
+            if (!changedHosts.contains(host)) {
+                getPlanningView().resetGuest(host, vm);
+            } else if (!host.guestCreate(vm)) {
                 Log.printlnConcat("Couldn't restore VM #", vm.getId(), " on host #", host.getId());
                 System.exit(0);
             }
@@ -623,6 +631,16 @@ public abstract class PowerContainerVmAllocationPolicyMigrationAbstract extends
         return savedAllocation;
     }
 
+    /**
+     * Gets the view on which placements are tried while planning migrations. It is disabled by
+     * default, in which case the placements are created and destroyed for real.
+     *
+     * @return the planning view
+     */
+    public AllocationPlanningView getPlanningView() {
+        return planningView;
+    }
+
     /**
      * Sets the vm selection policy.
      *
@@ -611,12 +611,7 @@ public abstract class PowerContainerVmAllocationPolicyMigrationAbstractContainer
      * @return true, if is host over utilized after allocation
      */
     protected boolean isHostOverUtilizedAfterContainerAllocation(PowerHost host, ContainerVm vm, Container container) {
-        boolean isHostOverUtilizedAfterAllocation = true;
-        if (vm.guestCreate(container)) {
-            isHostOverUtilizedAfterAllocation = isHostOverUtilized(host);
-            vm.guestDestroy(container);
-        }
-        return isHostOverUtilizedAfterAllocation;
+        return getPlanningView().isTrueAfterPlacement(vm, container, () -> isHostOverUtilized(host));
     }
 
 
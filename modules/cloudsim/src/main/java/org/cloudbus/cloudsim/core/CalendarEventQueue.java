@@ -0,0 +1,384 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An {@link EventQueue} implemented as a calendar queue (R. Brown, "Calendar queues: a fast O(1) priority
+ * queue implementation for the simulation event set problem", CACM 31(10), 1988).
+ * <p>
+ * Time is divided into buckets ("days") of a fixed width; the bucket array is one "year" long and is reused
+ * cyclically, so an event goes to bucket <tt>floor(time / width) mod nbuckets</tt>. Each bucket keeps its
+ * events sorted by {@link SimEvent#compareTo(SimEvent)}, hence the (time, serial) order of the heap-based
+ * queue is preserved. The number of buckets doubles (halves) when the queue holds more than twice (less than
+ * half) as many events as buckets, and the bucket width is re-estimated from the gaps between the earliest
+ * pending events at every resize. Insertion and removal are amortised O(1) as long as event times are
+ * reasonably spread; events that share a timestamp are appended in O(1) since their serials are increasing.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class CalendarEventQueue extends EventQueue {
+	/** The minimal (and initial) number of buckets. */
+	private static final int MIN_BUCKETS = 16;
+
+	/** How many of the earliest events are sampled to estimate the bucket width. */
+	private static final int WIDTH_SAMPLE = 32;
+
+	/** The buckets; their number is always a power of two. */
+	private Bucket[] buckets;
+
+	/** Maps a virtual bucket number to an index in {@link #buckets}. */
+	private int mask;
+
+	/** The time span covered by one bucket. */
+	private double width;
+
+	/** The virtual bucket (i.e. <tt>floor(time / width)</tt>) where the search for the next event resumes. */
+	private long currentBucket;
+
+	/** The number of stored events, cancelled ones included. */
+	private int size;
+
+	/** Structural modification counter, used to make iterators fail fast. */
+	private int modCount;
+
+	/**
+	 * Creates a calendar queue with an initial bucket width of one time unit.
+	 */
+	public CalendarEventQueue() {
+		this(1.0);
+	}
+
+	/**
+	 * Creates a calendar queue.
+	 *
+	 * @param bucketWidth the initial bucket width, ideally close to the average gap between events. It is
+	 *            re-estimated whenever the queue resizes.
+	 */
+	public CalendarEventQueue(double bucketWidth) {
+		if (!(bucketWidth > 0) || Double.isInfinite(bucketWidth)) {
+			throw new IllegalArgumentException("The bucket width should be positive and finite, but is:" + bucketWidth);
+		}
+		width = bucketWidth;
+		allocate(MIN_BUCKETS);
+	}
+
+	@Override
+	protected void store(SimEvent event) {
+		insert(event);
+		modCount++;
+		if (size > 2 * buckets.length) {
+			resize(buckets.length * 2);
+		}
+	}
+
+	@Override
+	protected SimEvent pollStored() {
+		SimEvent event = removeFirst();
+		if (event != null) {
+			modCount++;
+			if (size < buckets.length / 2 && buckets.length > MIN_BUCKETS) {
+				resize(buckets.length / 2);
+			}
+		}
+		return event;
+	}
+
+	@Override
+	protected SimEvent peekStored() {
+		Bucket bucket = locateFirst();
+		return bucket == null ? null : bucket.peek();
+	}
+
+	@Override
+	protected void clearStored() {
+		allocate(buckets.length);
+		size = 0;
+		currentBucket = 0;
+		modCount++;
+	}
+
+	@Override
+	protected Iterator<SimEvent> storedIterator() {
+		return new Itr();
+	}
+
+	/**
+	 * Gets the current bucket width.
+	 *
+	 * @return the time span covered by one bucket
+	 */
+	public double getBucketWidth() {
+		return width;
+	}
+
+	/**
+	 * Gets the current number of buckets.
+	 *
+	 * @return the number of buckets
+	 */
+	public int getBucketCount() {
+		return buckets.length;
+	}
+
+	private long virtualBucket(double time) {
+		// the cast saturates, so events far in the future all share the last virtual bucket
+		return (long) Math.floor(time / width);
+	}
+
+	private void allocate(int bucketCount) {
+		buckets = new Bucket[bucketCount];
+		for (int i = 0; i < bucketCount; i++) {
+			buckets[i] = new Bucket();
+		}
+		mask = bucketCount - 1;
+	}
+
+	private void insert(SimEvent event) {
+		long bucket = virtualBucket(event.eventTime());
+		if (size == 0 || bucket < currentBucket) {
+			currentBucket = bucket;
+		}
+		buckets[(int) bucket & mask].insert(event);
+		size++;
+	}
+
+	private SimEvent removeFirst() {
+		Bucket bucket = locateFirst();
+		if (bucket == null) {
+			return null;
+		}
+		size--;
+		return bucket.poll();
+	}
+
+	/**
+	 * Finds the bucket whose head is the earliest event, moving {@link #currentBucket} up to it.
+	 * No queued event belongs to a virtual bucket before {@link #currentBucket}.
+	 *
+	 * @return the bucket holding the earliest event, or <tt>null</tt> if the queue is empty
+	 */
+	private Bucket locateFirst() {
+		if (size == 0) {
+			return null;
+		}
+
+		// scan one year from the current day
+		for (int i = 0; i < buckets.length; i++) {
+			Bucket bucket = buckets[(int) currentBucket & mask];
+			SimEvent head = bucket.peek();
+			if (head != null && virtualBucket(head.eventTime()) == currentBucket) {
+				return bucket;
+			}
+			if (currentBucket == Long.MAX_VALUE) {
+				break;
+			}
+			currentBucket++;
+		}
+
+		// the next event is more than a year away: search the heads directly
+		Bucket first = null;
+		for (Bucket bucket : buckets) {
+			SimEvent head = bucket.peek();
+			if (head != null && (first == null || head.compareTo(first.peek()) < 0)) {
+				first = bucket;
+			}
+		}
+		currentBucket = virtualBucket(first.peek().eventTime());
+		return first;
+	}
+
+	/**
+	 * Redistributes the events over a new number of buckets, re-estimating the bucket width from the
+	 * earliest pending events.
+	 */
+	private void resize(int bucketCount) {
+		SimEvent[] events = new SimEvent[size];
+		int sampleSize = Math.min(size, WIDTH_SAMPLE);
+		int n = 0;
+		while (n < sampleSize) {
+			events[n++] = removeFirst();
+		}
+		double estimate = estimateWidth(events, sampleSize);
+
+		for (Bucket bucket : buckets) {
+			for (int i = bucket.start; i < bucket.end; i++) {
+				events[n++] = bucket.events[i];
+			}
+		}
+
+		if (estimate > 0 && Double.isFinite(estimate)) {
+			width = estimate;
+		}
+		allocate(bucketCount);
+		size = 0;
+		for (SimEvent event : events) {
+			insert(event);
+		}
+	}
+
+	/**
+	 * Estimates the bucket width as three times the average gap between consecutive sampled events,
+	 * ignoring gaps larger than twice the overall average (as suggested by Brown).
+	 *
+	 * @return the estimated width, or 0 if the sample does not allow an estimate
+	 */
+	private static double estimateWidth(SimEvent[] sample, int sampleSize) {
+		double total = 0;
+		int gaps = 0;
+		for (int i = 1; i < sampleSize; i++) {
+			double gap = sample[i].eventTime() - sample[i - 1].eventTime();
+			if (Double.isFinite(gap)) {
+				total += gap;
+				gaps++;
+			}
+		}
+		if (gaps == 0 || total <= 0) {
+			return 0;
+		}
+
+		double average = total / gaps;
+		double trimmedTotal = 0;
+		int trimmedGaps = 0;
+		for (int i = 1; i < sampleSize; i++) {
+			double gap = sample[i].eventTime() - sample[i - 1].eventTime();
+			if (gap <= 2 * average) {
+				trimmedTotal += gap;
+				trimmedGaps++;
+			}
+		}
+		if (trimmedTotal > 0) {
+			average = trimmedTotal / trimmedGaps;
+		}
+		return 3 * average;
+	}
+
+	/**
+	 * The events of one bucket, sorted, stored in <tt>events[start, end)</tt>.
+	 */
+	private static final class Bucket {
+		private SimEvent[] events = new SimEvent[4];
+		private int start;
+		private int end;
+
+		SimEvent peek() {
+			return start == end ? null : events[start];
+		}
+
+		SimEvent poll() {
+			SimEvent event = events[start];
+			events[start++] = null;
+			if (start == end) {
+				start = end = 0;
+			}
+			return event;
+		}
+
+		void insert(SimEvent event) {
+			int pos;
+			if (start == end || events[end - 1].compareTo(event) <= 0) {
+				pos = end;
+			} else {
+				// first position holding a later event
+				int lo = start;
+				int hi = end - 1;
+				while (lo < hi) {
+					int mid = (lo + hi) >>> 1;
+					if (events[mid].compareTo(event) > 0) {
+						hi = mid;
+					} else {
+						lo = mid + 1;
+					}
+				}
+				pos = lo;
+			}
+
+			if (end == events.length) {
+				int count = end - start;
+				SimEvent[] target = count < events.length / 2 ? events : new SimEvent[events.length * 2];
+				System.arraycopy(events, start, target, 0, count);
+				if (target == events) {
+					Arrays.fill(events, count, end, null);
+				}
+				events = target;
+				pos -= start;
+				start = 0;
+				end = count;
+			}
+
+			System.arraycopy(events, pos, events, pos + 1, end - pos);
+			events[pos] = event;
+			end++;
+		}
+
+		void removeAt(int index) {
+			System.arraycopy(events, index + 1, events, index, end - index - 1);
+			events[--end] = null;
+			if (start == end) {
+				start = end = 0;
+			}
+		}
+	}
+
+	/**
+	 * Iterates over the buckets in index order; the order of the events is therefore unspecified.
+	 */
+	private final class Itr implements Iterator<SimEvent> {
+		private int bucket = 0;
+		private int pos = buckets[0].start;
+		private int lastBucket = -1;
+		private int lastPos = -1;
+		private int expectedModCount = modCount;
+
+		@Override
+		public boolean hasNext() {
+			while (bucket < buckets.length) {
+				Bucket b = buckets[bucket];
+				if (pos >= b.start && pos < b.end) {
+					return true;
+				}
+				bucket++;
+				pos = bucket < buckets.length ? buckets[bucket].start : 0;
+			}
+			return false;
+		}
+
+		@Override
+		public SimEvent next() {
+			if (expectedModCount != modCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			lastBucket = bucket;
+			lastPos = pos;
+			return buckets[bucket].events[pos++];
+		}
+
+		@Override
+		public void remove() {
+			if (lastPos < 0) {
+				throw new IllegalStateException();
+			}
+			if (expectedModCount != modCount) {
+				throw new ConcurrentModificationException();
+			}
+			buckets[lastBucket].removeAt(lastPos);
+			pos = lastPos;
+			lastPos = -1;
+			size--;
+			expectedModCount = ++modCount;
+		}
+	}
+}
@@ -136,6 +136,12 @@ public enum CloudActionTags implements CloudSimTags {
 	 */
 	CLOUDLET_RETURN,
 
+	/**
+	 * Denotes the return of a list of Cloudlets of the same user back to sender.
+	 * @see org.cloudbus.cloudsim.Datacenter#setCompletionQueueEnabled(boolean)
+	 */
+	CLOUDLET_RETURN_BATCH,
+
 	/**
 	 * Denotes the submission of a Cloudlet. 
          * This tag is normally used between CloudSim User and CloudResource entity.
@@ -148,6 +154,14 @@ public enum CloudActionTags implements CloudSimTags {
 	 */
 	CLOUDLET_SUBMIT_ACK,
 
+	/**
+	 * Denotes the submission of a list of Cloudlets to a datacenter, which
+	 * processes them with a single update of its hosts. Sent by a broker to
+	 * itself, without data, it sends the submissions buffered in the current
+	 * tick.
+	 */
+	CLOUDLET_SUBMIT_BATCH,
+
 	/** Cancels a Cloudlet submitted in the CloudResource entity. */
 	CLOUDLET_CANCEL,
 
@@ -232,7 +232,7 @@ public class CloudInformationService extends SimEntity {
 		}
 
 		Log.println("CloudInformationSevice.processOtherEvent(): " + "Unable to handle a request from "
-				+ CloudSim.getEntityName(ev.getSourceId()) + " with event tag = " + ev.getTag());
+				+ getSimulation().getEntityName(ev.getSourceId()) + " with event tag = " + ev.getTag());
 	}
 
 	/**
@@ -282,7 +282,7 @@ public class CloudInformationService extends SimEntity {
 	 * @post $none
 	 */
 	private void notifyAllEntity() {
-		Log.printlnConcat(CloudSim.clock(), ": ", super.getName(), ": Notify all CloudSim entities for shutting down.");
+		Log.printlnConcat(getSimulation().clock(), ": ", super.getName(), ": Notify all CloudSim entities for shutting down.");
 
 		signalShutdown(resList);
 		signalShutdown(gisList);
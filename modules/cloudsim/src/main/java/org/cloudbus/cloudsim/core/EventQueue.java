@@ -9,25 +9,79 @@
 package org.cloudbus.cloudsim.core;
 
 import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+import org.cloudbus.cloudsim.core.predicates.PredicateFrom;
+import org.cloudbus.cloudsim.core.predicates.PredicateType;
 
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.PriorityQueue;
 
 /**
- * This class implements the event queue used by {@link CloudSim}.
+ * This class is the base of the event queues used by {@link CloudSim}.
+ * <p>
+ * Events are kept in the order defined by {@link SimEvent#compareTo(SimEvent)}, i.e. by time and then by
+ * serial number. This class stores them in a binary heap, with O(log n) insertion and removal; subclasses
+ * may provide another storage, such as {@link CalendarEventQueue}, a calendar queue with amortised O(1)
+ * insertion and removal.
+ * Iteration order is unspecified, as for {@link java.util.PriorityQueue}.
+ * <p>
+ * The live events are also indexed by source entity and tag, so that the lookups and cancellations by
+ * predicate ({@link #findFirst}, {@link #removeFirst}, {@link #removeMatching}, {@link #count}) only visit
+ * the events of the given source or, for {@link PredicateType} and {@link PredicateFrom}, of the given tags
+ * or sources. Removed events are not taken out of the storage: they are flagged as tombstones, skipped when
+ * they reach the head of the queue, and purged once they outnumber the live events.
+ * <p>
+ * The index lives in the events themselves, hence an event can only wait in one queue at a time: it
+ * belongs to the queue from the moment it is offered until it leaves the storage, either polled or, once
+ * cancelled, purged. Offering an event that still belongs to a queue, e.g. a removed event whose tombstone
+ * has not been purged yet, throws an {@link IllegalStateException}; a copy of it can be offered instead.
  *
  * @author Remo Andreoli
  * @since CloudSim Toolkit 7.0
  *
+ * @see CloudSim#init(int, java.util.Calendar, boolean, java.util.function.Supplier)
  */
-public class EventQueue extends PriorityQueue<SimEvent> {
+public class EventQueue extends AbstractQueue<SimEvent> {
+	/** Matches any source or destination entity in the lookup methods. */
+	public static final int ANY_ENTITY = -1;
+
+	/** The number of tombstones tolerated before the storage gets purged, whatever the queue size. */
+	private static final int MIN_TOMBSTONES_TO_PURGE = 64;
+
 	/** A incremental number used for event attribute */
 	private long serial = 0;
 
+	/** The live events by tag, for each source entity id (entity ids are dense and start at 0). */
+	private final List<Map<CloudSimTags, IndexList>> index = new ArrayList<>();
+
+	/** The live events by tag, for events with a negative source id. */
+	private final Map<Integer, Map<CloudSimTags, IndexList>> otherIndex = new HashMap<>();
+
+	/** The last index list used by {@link #offer}, since events often come in runs of the same kind. */
+	private IndexList lastList;
+	private int lastSource;
+	private CloudSimTags lastTag;
+
+	/** The number of live events. */
+	private int liveCount = 0;
+
+	/** The number of cancelled events still held by the storage. */
+	private int tombstones = 0;
+
+	/** The heap holding the events, unless a subclass provides another storage. */
+	private final PriorityQueue<SimEvent> heap = new PriorityQueue<>();
+
 	/**
 	 * Adds a new event to the queue. Adding a new event to the queue preserves the temporal order of
 	 * the events in the queue.
-	 * 
+	 *
 	 * @param newEvent The event to be put in the queue.
 	 */
 	public void addEvent(SimEvent newEvent) {
@@ -37,7 +91,7 @@ public class EventQueue extends PriorityQueue<SimEvent> {
 
 	/**
 	 * Adds a new event to the head of the queue.
-	 * 
+	 *
 	 * @param newEvent The event to be put in the queue.
 	 */
 	public void addEventFirst(SimEvent newEvent) {
@@ -45,12 +99,221 @@ public class EventQueue extends PriorityQueue<SimEvent> {
 		this.add(newEvent);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws IllegalStateException if the event still belongs to a queue
+	 */
+	@Override
+	public final boolean offer(SimEvent event) {
+		Objects.requireNonNull(event);
+		if (event.queue != null) {
+			throw new IllegalStateException("The event is already in an event queue");
+		}
+		event.queue = this;
+		event.setCancelled(false);
+		store(event);
+
+		IndexList list = lastList;
+		if (list == null || lastSource != event.getSourceId() || lastTag != event.getTag()) {
+			list = indexList(event.getSourceId(), event.getTag());
+			lastList = list;
+			lastSource = event.getSourceId();
+			lastTag = event.getTag();
+		}
+		event.indexList = list;
+		event.indexPrev = null;
+		event.indexNext = list.head;
+		if (list.head != null) {
+			list.head.indexPrev = event;
+		}
+		list.head = event;
+		liveCount++;
+		return true;
+	}
+
 	@Override
 	public SimEvent poll() {
 		if (!CloudSim.running()) {
 			return null;
 		}
-		return super.poll();
+		return pollFirst();
+	}
+
+	/**
+	 * Removes and returns the earliest event, regardless of the simulation state.
+	 *
+	 * @return the earliest event, or <tt>null</tt> if the queue is empty
+	 */
+	protected final SimEvent pollFirst() {
+		SimEvent event;
+		while ((event = pollStored()) != null) {
+			event.queue = null;
+			if (event.isCancelled()) {
+				tombstones--;
+				continue;
+			}
+			unindex(event);
+			liveCount--;
+			return event;
+		}
+		return null;
+	}
+
+	@Override
+	public final SimEvent peek() {
+		SimEvent event;
+		while ((event = peekStored()) != null && event.isCancelled()) {
+			pollStored().queue = null;
+			tombstones--;
+		}
+		return event;
+	}
+
+	@Override
+	public final int size() {
+		return liveCount;
+	}
+
+	@Override
+	public final void clear() {
+		Iterator<SimEvent> stored = storedIterator();
+		while (stored.hasNext()) {
+			SimEvent event = stored.next();
+			event.queue = null;
+			event.indexList = null;
+			event.indexPrev = null;
+			event.indexNext = null;
+		}
+		clearStored();
+		index.clear();
+		otherIndex.clear();
+		lastList = null;
+		liveCount = 0;
+		tombstones = 0;
+	}
+
+	@Override
+	public final Iterator<SimEvent> iterator() {
+		Iterator<SimEvent> stored = storedIterator();
+		return new Iterator<>() {
+			private SimEvent next;
+			private SimEvent last;
+
+			@Override
+			public boolean hasNext() {
+				while (next == null && stored.hasNext()) {
+					SimEvent event = stored.next();
+					if (!event.isCancelled()) {
+						next = event;
+					}
+				}
+				return next != null;
+			}
+
+			@Override
+			public SimEvent next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				last = next;
+				next = null;
+				return last;
+			}
+
+			@Override
+			public void remove() {
+				if (last == null) {
+					throw new IllegalStateException();
+				}
+				if (!last.isCancelled()) {
+					tombstone(last);
+				}
+				last = null;
+			}
+		};
+	}
+
+	/**
+	 * Gets the earliest live event matching the given source, destination and predicate.
+	 *
+	 * @param srcId the source entity id, or {@link #ANY_ENTITY}
+	 * @param destId the destination entity id, or {@link #ANY_ENTITY}
+	 * @param p the predicate the event has to match
+	 * @return the earliest matching event, or <tt>null</tt> if there is none
+	 */
+	public SimEvent findFirst(int srcId, int destId, Predicate p) {
+		SimEvent first = null;
+		for (IndexList events : candidates(srcId, p)) {
+			for (SimEvent event = events.head; event != null; event = event.indexNext) {
+				if (matches(event, destId, p) && (first == null || event.compareTo(first) < 0)) {
+					first = event;
+				}
+			}
+		}
+		return first;
+	}
+
+	/**
+	 * Removes the earliest live event matching the given source, destination and predicate.
+	 *
+	 * @param srcId the source entity id, or {@link #ANY_ENTITY}
+	 * @param destId the destination entity id, or {@link #ANY_ENTITY}
+	 * @param p the predicate the event has to match
+	 * @return the removed event, or <tt>null</tt> if there is none
+	 */
+	public SimEvent removeFirst(int srcId, int destId, Predicate p) {
+		SimEvent first = findFirst(srcId, destId, p);
+		if (first != null) {
+			tombstone(first);
+			purgeIfNeeded();
+		}
+		return first;
+	}
+
+	/**
+	 * Removes all the live events matching the given source, destination and predicate.
+	 *
+	 * @param srcId the source entity id, or {@link #ANY_ENTITY}
+	 * @param destId the destination entity id, or {@link #ANY_ENTITY}
+	 * @param p the predicate the events have to match
+	 * @return the number of removed events
+	 */
+	public int removeMatching(int srcId, int destId, Predicate p) {
+		List<SimEvent> matching = new ArrayList<>();
+		for (IndexList events : candidates(srcId, p)) {
+			for (SimEvent event = events.head; event != null; event = event.indexNext) {
+				if (matches(event, destId, p)) {
+					matching.add(event);
+				}
+			}
+		}
+
+		for (SimEvent event : matching) {
+			tombstone(event);
+		}
+		purgeIfNeeded();
+		return matching.size();
+	}
+
+	/**
+	 * Counts the live events matching the given source, destination and predicate.
+	 *
+	 * @param srcId the source entity id, or {@link #ANY_ENTITY}
+	 * @param destId the destination entity id, or {@link #ANY_ENTITY}
+	 * @param p the predicate the events have to match
+	 * @return the number of matching events
+	 */
+	public int count(int srcId, int destId, Predicate p) {
+		int count = 0;
+		for (IndexList events : candidates(srcId, p)) {
+			for (SimEvent event = events.head; event != null; event = event.indexNext) {
+				if (matches(event, destId, p)) {
+					count++;
+				}
+			}
+		}
+		return count;
 	}
 
 	public void print() {
@@ -61,4 +324,177 @@ public class EventQueue extends PriorityQueue<SimEvent> {
 			i++;
 		}
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Adds an event to the storage.
+	 *
+	 * @param event the event to store
+	 */
+	protected void store(SimEvent event) {
+		heap.offer(event);
+	}
+
+	/**
+	 * Gets the earliest stored event, which may be cancelled.
+	 *
+	 * @return the earliest stored event, or <tt>null</tt> if the storage is empty
+	 */
+	protected SimEvent peekStored() {
+		return heap.peek();
+	}
+
+	/**
+	 * Removes and returns the earliest stored event, which may be cancelled.
+	 *
+	 * @return the earliest stored event, or <tt>null</tt> if the storage is empty
+	 */
+	protected SimEvent pollStored() {
+		return heap.poll();
+	}
+
+	/**
+	 * Gets an iterator, in any order and supporting removal, over the stored events.
+	 *
+	 * @return the iterator
+	 */
+	protected Iterator<SimEvent> storedIterator() {
+		return heap.iterator();
+	}
+
+	/**
+	 * Removes all the stored events.
+	 */
+	protected void clearStored() {
+		heap.clear();
+	}
+
+	/**
+	 * Physically removes the cancelled events from the storage.
+	 */
+	protected void purgeCancelled() {
+		Iterator<SimEvent> iter = storedIterator();
+		while (iter.hasNext()) {
+			if (iter.next().isCancelled()) {
+				iter.remove();
+			}
+		}
+	}
+
+	/**
+	 * Gets the index lists that may contain events matching the source and predicate.
+	 */
+	private List<IndexList> candidates(int srcId, Predicate p) {
+		List<IndexList> candidates = new ArrayList<>();
+		if (srcId != ANY_ENTITY) {
+			addCandidates(candidates, byTag(srcId), p);
+		} else if (p instanceof PredicateFrom from) {
+			for (int id : from.getIds()) {
+				addCandidates(candidates, byTag(id), p);
+			}
+		} else {
+			for (Map<CloudSimTags, IndexList> byTag : index) {
+				addCandidates(candidates, byTag, p);
+			}
+			for (Map<CloudSimTags, IndexList> byTag : otherIndex.values()) {
+				addCandidates(candidates, byTag, p);
+			}
+		}
+		return candidates;
+	}
+
+	private static void addCandidates(List<IndexList> candidates, Map<CloudSimTags, IndexList> byTag, Predicate p) {
+		if (byTag == null) {
+			return;
+		}
+		if (p instanceof PredicateType type) {
+			for (CloudSimTags tag : type.getTags()) {
+				IndexList events = byTag.get(tag);
+				if (events != null && events.head != null) {
+					candidates.add(events);
+				}
+			}
+		} else {
+			for (IndexList events : byTag.values()) {
+				if (events.head != null) {
+					candidates.add(events);
+				}
+			}
+		}
+	}
+
+	private Map<CloudSimTags, IndexList> byTag(int srcId) {
+		if (srcId < 0) {
+			return otherIndex.get(srcId);
+		}
+		return srcId < index.size() ? index.get(srcId) : null;
+	}
+
+	private IndexList indexList(int srcId, CloudSimTags tag) {
+		Map<CloudSimTags, IndexList> byTag;
+		if (srcId < 0) {
+			byTag = otherIndex.computeIfAbsent(srcId, k -> new HashMap<>());
+		} else {
+			while (index.size() <= srcId) {
+				index.add(null);
+			}
+			byTag = index.get(srcId);
+			if (byTag == null) {
+				byTag = new HashMap<>();
+				index.set(srcId, byTag);
+			}
+		}
+		return byTag.computeIfAbsent(tag, k -> new IndexList());
+	}
+
+	private static boolean matches(SimEvent event, int destId, Predicate p) {
+		return (destId == ANY_ENTITY || event.getDestinationId() == destId) && p.match(event);
+	}
+
+	/**
+	 * Flags a live event as cancelled and drops it from the index.
+	 */
+	private void tombstone(SimEvent event) {
+		event.setCancelled(true);
+		unindex(event);
+		liveCount--;
+		tombstones++;
+	}
+
+	private static void unindex(SimEvent event) {
+		IndexList list = event.indexList;
+		if (list == null) {
+			return;
+		}
+		if (event.indexPrev == null) {
+			list.head = event.indexNext;
+		} else {
+			event.indexPrev.indexNext = event.indexNext;
+		}
+		if (event.indexNext != null) {
+			event.indexNext.indexPrev = event.indexPrev;
+		}
+		event.indexList = null;
+		event.indexPrev = null;
+		event.indexNext = null;
+	}
+
+	private void purgeIfNeeded() {
+		if (tombstones > MIN_TOMBSTONES_TO_PURGE && tombstones > liveCount) {
+			// the tombstones are released before the storage, which may drop them in bulk
+			Iterator<SimEvent> stored = storedIterator();
+			while (stored.hasNext()) {
+				SimEvent event = stored.next();
+				if (event.isCancelled()) {
+					event.queue = null;
+				}
+			}
+			purgeCancelled();
+			tombstones = 0;
+		}
+	}
+
+	/** The live events of one source entity with one tag, linked through the events themselves. */
+	static final class IndexList {
+		SimEvent head;
+	}
+}
@@ -1,6 +1,7 @@
 package org.cloudbus.cloudsim.core;
 
 import org.cloudbus.cloudsim.CloudletScheduler;
+import org.cloudbus.cloudsim.StateHistory;
 import org.cloudbus.cloudsim.VmStateHistoryEntry;
 
 import java.util.List;
@@ -93,6 +94,10 @@ public interface GuestEntity extends CoreAttributes {
      * @param isInMigration the is in migration
      */
     default void addStateHistoryEntry(double time, double allocatedMips, double requestedMips, boolean isInMigration) {
+        if (getStateHistory() instanceof StateHistory<VmStateHistoryEntry> stateHistory) {
+            stateHistory.record(time, allocatedMips, requestedMips, isInMigration);
+            return;
+        }
         VmStateHistoryEntry newState = new VmStateHistoryEntry(
                 time,
                 allocatedMips,
@@ -12,7 +12,6 @@ import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.NetworkTopology;
 import org.cloudbus.cloudsim.core.predicates.Predicate;
 
-import java.util.Iterator;
 
 /**
  * This class represents a simulation entity. An entity handles events and can send events to other
@@ -45,6 +44,9 @@ public abstract class SimEntity implements Cloneable {
 	private EntityStatus state;
 	protected EventQueue incomingEvents;
 
+	/** The simulation this entity belongs to. */
+	private final SimulationContext simulation;
+
 	/**
 	 * Creates a new entity.
 	 * 
@@ -59,7 +61,8 @@ public abstract class SimEntity implements Cloneable {
 		state = EntityStatus.RUNNABLE;
 		incomingEvents = new EventQueue();
 
-		CloudSim.addEntity(this);
+		simulation = CloudSim.getContext();
+		simulation.addEntity(this);
 	}
 
 	/**
@@ -80,6 +83,15 @@ public abstract class SimEntity implements Cloneable {
 		return id;
 	}
 
+	/**
+	 * Gets the simulation context this entity was created in.
+	 *
+	 * @return the simulation context
+	 */
+	public SimulationContext getSimulation() {
+		return simulation;
+	}
+
 	public EventQueue getIncomingEvents() {
 		return incomingEvents;
 	}
@@ -92,13 +104,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @return the int
 	 */
 	public int waiting(Predicate p) {
-		int count = 0;
-		for (SimEvent event : incomingEvents) {
-			if ((event.getDestinationId() == id) && (p.match(event))) {
-				count++;
-			}
-		}
-		return count;
+		return incomingEvents.count(EventQueue.ANY_ENTITY, id, p);
 	}
 
 	/**
@@ -108,20 +114,11 @@ public abstract class SimEntity implements Cloneable {
 	 * @return the sim event
 	 */
 	public SimEvent selectEvent(Predicate p) {
-		if (!CloudSim.running()) {
+		if (!simulation.running()) {
 			return null;
 		}
 
-		SimEvent ev;
-		Iterator<SimEvent> iterator = incomingEvents.iterator();
-		while (iterator.hasNext()) {
-			ev = iterator.next();
-			if (ev.getDestinationId() == id && p.match(ev)) {
-				iterator.remove();
-				return ev;
-			}
-		}
-		return null;
+		return incomingEvents.removeFirst(EventQueue.ANY_ENTITY, id, p);
 	}
 
 	/**
@@ -131,14 +128,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @return the sim event
 	 */
 	public SimEvent findFirstDeferred(Predicate p) {
-		SimEvent ev;
-		for (SimEvent simEvent : incomingEvents) {
-			ev = simEvent;
-			if (ev.getDestinationId() == id && p.match(ev)) {
-				return ev;
-			}
-		}
-		return null;
+		return incomingEvents.findFirst(EventQueue.ANY_ENTITY, id, p);
 	}
 
 	/** Schedule event functions */
@@ -151,10 +141,10 @@ public abstract class SimEntity implements Cloneable {
 	 * @param data The data to be sent with the event.
 	 */
 	public void schedule(int dstId, double delay, CloudSimTags tag, Object data) {
-		if (!CloudSim.running()) {
+		if (!simulation.running()) {
 			return;
 		}
-		CloudSim.send(id, dstId, delay, tag, data);
+		simulation.send(id, dstId, delay, tag, data);
 	}
 
 	/**
@@ -177,7 +167,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @param data The data to be sent with the event.
 	 */
 	public void schedule(String dstName, double delay, CloudSimTags tag, Object data) {
-		schedule(CloudSim.getEntityId(dstName), delay, tag, data);
+		schedule(simulation.getEntityId(dstName), delay, tag, data);
 	}
 
 	/**
@@ -222,7 +212,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @param data The data to be sent with the event.
 	 */
 	public void scheduleNow(String dstName, CloudSimTags tag, Object data) {
-		schedule(CloudSim.getEntityId(dstName), 0, tag, data);
+		schedule(simulation.getEntityId(dstName), 0, tag, data);
 	}
 
 	/**
@@ -245,10 +235,10 @@ public abstract class SimEntity implements Cloneable {
 	 * @param data The data to be sent with the event.
 	 */
 	public void scheduleFirst(int dstId, double delay, CloudSimTags tag, Object data) {
-		if (!CloudSim.running()) {
+		if (!simulation.running()) {
 			return;
 		}
-		CloudSim.sendFirst(id, dstId, delay, tag, data);
+		simulation.sendFirst(id, dstId, delay, tag, data);
 	}
 
 	/**
@@ -271,7 +261,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @param data The data to be sent with the event.
 	 */
 	public void scheduleFirst(String dstName, double delay, CloudSimTags tag, Object data) {
-		scheduleFirst(CloudSim.getEntityId(dstName), delay, tag, data);
+		scheduleFirst(simulation.getEntityId(dstName), delay, tag, data);
 	}
 
 	/**
@@ -318,7 +308,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @param data The data to be sent with the event.
 	 */
 	public void scheduleFirstNow(String dstName, CloudSimTags tag, Object data) {
-		scheduleFirst(CloudSim.getEntityId(dstName), 0, tag, data);
+		scheduleFirst(simulation.getEntityId(dstName), 0, tag, data);
 	}
 
 	/**
@@ -341,10 +331,10 @@ public abstract class SimEntity implements Cloneable {
 		if (delay < 0) {
 			throw new IllegalArgumentException("Negative delay supplied.");
 		}
-		if (!CloudSim.running()) {
+		if (!simulation.running()) {
 			return;
 		}
-		CloudSim.pause(id, delay);
+		simulation.pause(id, delay);
 	}
 
 	/**
@@ -375,11 +365,11 @@ public abstract class SimEntity implements Cloneable {
 	 * @return The number of events cancelled (0 or 1)
 	 */
 	public SimEvent cancelEvent(Predicate p) {
-		if (!CloudSim.running()) {
+		if (!simulation.running()) {
 			return null;
 		}
 
-		return CloudSim.cancel(id, p);
+		return simulation.cancel(id, p);
 	}
 
 	/**
@@ -390,7 +380,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @return the simulation event
 	 */
 	public SimEvent getNextEvent(Predicate p) {
-		if (!CloudSim.running()) {
+		if (!simulation.running()) {
 			return null;
 		}
 		return selectEvent(p);
@@ -403,11 +393,11 @@ public abstract class SimEntity implements Cloneable {
 	 * @param p The predicate to match
 	 */
 	public void waitForEvent(Predicate p) {
-		if (!CloudSim.running()) {
+		if (!simulation.running()) {
 			return;
 		}
 
-		CloudSim.wait(id, p);
+		simulation.wait(id, p);
 		state = EntityStatus.WAITING;
 	}
 
@@ -416,7 +406,7 @@ public abstract class SimEntity implements Cloneable {
 	 * It should be responsible for starting the entity up.
 	 */
 	public void startEntity() {
-		Log.printlnConcat(CloudSim.clock(), ": ", getName(), " is starting...");
+		Log.printlnConcat(simulation.clock(), ": ", getName(), " is starting...");
 	}
 
 	/**
@@ -434,7 +424,7 @@ public abstract class SimEntity implements Cloneable {
 	 * to save data in log files this is the method in which the corresponding code would be placed.
 	 */
 	public void shutdownEntity() {
-		Log.printlnConcat(CloudSim.clock(), ": ", getName(), " is shutting down...");
+		Log.printlnConcat(simulation.clock(), ": ", getName(), " is shutting down...");
 		incomingEvents = null;
 		state = EntityStatus.FINISHED;
 	}
@@ -447,17 +437,27 @@ public abstract class SimEntity implements Cloneable {
 	 * @see #processEvent(org.cloudbus.cloudsim.core.SimEvent)
 	 */
 	public void run() {
-		SimEvent ev =  incomingEvents.poll();
+		SimEvent ev = nextIncomingEvent();
 
 		while (ev != null) {
 			processEvent(ev);
 			if (state != EntityStatus.RUNNABLE) {
 				break;
 			}
-			ev = incomingEvents.poll();
+			ev = nextIncomingEvent();
 		}
 	}
 
+	/**
+	 * Gets the next deferred event, using the context the entity belongs to instead of
+	 * looking up the bound one for every event.
+	 *
+	 * @return the next event, or null if there is none or the simulation is not running
+	 */
+	private SimEvent nextIncomingEvent() {
+		return simulation.running() ? incomingEvents.pollFirst() : null;
+	}
+
 	/**
 	 * Gets a clone of the entity. This is used when independent replications have been specified as
 	 * an output analysis method. Clones or backups of the entities are made in the beginning of the
@@ -587,7 +587,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @post $none
 	 */
 	protected void send(String dstName, double delay, CloudSimTags tag, Object data) {
-		send(CloudSim.getEntityId(dstName), delay, tag, data);
+		send(simulation.getEntityId(dstName), delay, tag, data);
 	}
 
 	/**
@@ -646,7 +646,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @post $none
 	 */
 	protected void sendNow(String dstId, CloudSimTags tag, Object data) {
-		send(CloudSim.getEntityId(dstId), 0, tag, data);
+		send(simulation.getEntityId(dstId), 0, tag, data);
 	}
 
 	/**
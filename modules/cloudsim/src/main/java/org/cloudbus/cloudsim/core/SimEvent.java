@@ -52,6 +52,26 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
          */
 	private long serial = -1;
 
+	/**
+	 * Whether the event has been cancelled while waiting in an {@link EventQueue}. Cancelled events
+	 * stay in the queue's storage as tombstones and are dropped when they reach its head.
+	 */
+	private boolean cancelled = false;
+
+	/**
+	 * The index list of the {@link EventQueue} the event waits in, and the event's neighbours in
+	 * that list. The index is intrusive so that (un)indexing an event allocates nothing.
+	 */
+	EventQueue.IndexList indexList;
+	SimEvent indexPrev;
+	SimEvent indexNext;
+
+	/**
+	 * The {@link EventQueue} whose storage holds the event, live or cancelled, or null. An event
+	 * belongs to at most one queue at a time.
+	 */
+	EventQueue queue;
+
 	// Internal event types
 
 	public static final int ENULL = 0;
@@ -81,6 +101,14 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
 		this.serial = serial;
 	}
 
+	boolean isCancelled() {
+		return cancelled;
+	}
+
+	void setCancelled(boolean cancelled) {
+		this.cancelled = cancelled;
+	}
+
 	/**
 	 * Sets the time that the event was removed from the queue to start service. 
 	 * 
@@ -200,6 +228,17 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
 		return data;
 	}
 
+	/**
+	 * Creates a copy of this event that carries other data, e.g. one of the
+	 * cloudlets of a {@link CloudActionTags#CLOUDLET_SUBMIT_BATCH} event.
+	 * 
+	 * @param edata the data of the copy
+	 * @return the copy
+	 */
+	public SimEvent withData(Object edata) {
+		return new SimEvent(etype, time, entSrc, entDst, tag, edata);
+	}
+
 	@Override
 	public Object clone() {
 		return new SimEvent(etype, time, entSrc, entDst, tag, data);
@@ -0,0 +1,907 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.StateHistory;
+import org.cloudbus.cloudsim.StateHistorySpill;
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+
+/**
+ * An independent simulation engine. A context owns everything a single simulation run needs:
+ * the clock, the future event queue, the registered entities and the predicates they wait on.
+ * Several contexts can run concurrently in the same JVM, each one on its own thread.
+ * <p>
+ * The static methods of {@link CloudSim} delegate to the context bound to the calling thread
+ * (see {@link CloudSim#getContext()}), or to a process-wide default context when none is bound,
+ * so existing simulations keep working unchanged. Entities capture the context that is current
+ * when they are created, and {@link #run()} binds the context to the thread driving it.
+ * <p>
+ * A typical isolated run looks like:
+ * <pre>
+ * double clock = new SimulationContext().execute(() -&gt; {
+ *     CloudSim.init(1, Calendar.getInstance(), false);
+ *     // create datacenters, brokers, VMs and cloudlets
+ *     return CloudSim.startSimulation();
+ * });
+ * </pre>
+ *
+ * @author Rodrigo N. Calheiros
+ * @author Anton Beloglazov
+ * @author Remo Andreoli
+ * @since CloudSim Toolkit 7.0
+ */
+public class SimulationContext {
+
+	/** The Constant CLOUDSIM_VERSION_STRING. */
+	private static final String CLOUDSIM_VERSION_STRING = "7.0";
+
+	/** The Constant NOT_FOUND. */
+	private static final int NOT_FOUND = -1;
+
+	/** The id of CIS entity. */
+	private int cisId = -1;
+
+	/** The id of CloudSimShutdown entity. */
+	private int shutdownId = -1;
+
+	/** The CIS object. */
+	private CloudInformationService cis = null;
+
+	/** The trace flag. */
+	private boolean traceFlag = false;
+
+	/** The calendar. */
+	private Calendar calendar = null;
+
+	/** The termination time. */
+	private double terminateAt = -1;
+
+	/** The minimal time between events. Events within shorter periods after the last event are discarded. */
+	private double minTimeBetweenEvents = 0.01;
+
+	/** The entities. */
+	private List<SimEntity> entities = new ArrayList<>();
+
+	/** Creates the future event queue of every run. */
+	private Supplier<? extends EventQueue> eventQueueFactory = EventQueue::new;
+
+	/** The future event queue. */
+	private EventQueue future = eventQueueFactory.get();
+
+	/** The current simulation clock. */
+	private double clock;
+
+	/** Flag for checking if the simulation is running. */
+	private boolean running;
+
+	/** The entities by name. */
+	private Map<String, SimEntity> entitiesByName = new LinkedHashMap<>();
+
+	/** The predicates used in entity wait methods. */
+	private Map<Integer, Predicate> waitPredicates = new HashMap<>();
+
+	/** The paused. */
+	private boolean paused = false;
+
+	/** The pause at. */
+	private long pauseAt = -1;
+
+	/** The abrupt terminate. */
+	private boolean abruptTerminate = false;
+
+	/** Indicates if the log output of the simulation run in this context is disabled. */
+	private boolean logDisabled = false;
+
+	/** The window of the state histories of the hosts and guests created in this context. */
+	private int stateHistoryWindow = Integer.MAX_VALUE;
+
+	/** The spill file of the state histories of the hosts and guests created in this context. */
+	private StateHistorySpill stateHistorySpill;
+
+	/**
+	 * Per-simulation services (e.g. shared caches used by brokers), keyed by their type.
+	 * They are dropped whenever the context is initialised for a new run.
+	 */
+	private final Map<Class<?>, Object> services = new HashMap<>();
+
+	/**
+	 * Runs a task with this context bound to the calling thread, so that every static
+	 * {@link CloudSim} call made by the task (and every entity it creates) refers to this context.
+	 * The previously bound context is restored afterwards.
+	 *
+	 * @param task the task to run
+	 * @param <T> the result type
+	 * @return the result of the task
+	 * @throws Exception if the task throws
+	 */
+	public <T> T execute(Callable<T> task) throws Exception {
+		SimulationContext previous = CloudSim.bindContext(this);
+		try {
+			return task.call();
+		} finally {
+			CloudSim.bindContext(previous);
+		}
+	}
+
+	/**
+	 * Gets the service of the given type registered in this context, creating it on first use.
+	 *
+	 * @param type the service type
+	 * @param factory creates the service if it is not registered yet
+	 * @param <T> the service type
+	 * @return the service bound to this context
+	 */
+	public <T> T getService(Class<T> type, Supplier<? extends T> factory) {
+		Object service = services.get(type);
+		if (service == null) {
+			service = factory.get();
+			services.put(type, service);
+		}
+		return type.cast(service);
+	}
+
+	/**
+	 * Registers (or replaces) the service of the given type in this context.
+	 *
+	 * @param type the service type
+	 * @param service the service instance
+	 * @param <T> the service type
+	 */
+	public <T> void putService(Class<T> type, T service) {
+		services.put(type, service);
+	}
+
+	/**
+	 * Initialises all the common attributes.
+	 *
+	 * @param _calendar the _calendar
+	 * @param _traceFlag the _trace flag
+	 * @param numUser number of users
+	 * @throws Exception This happens when creating this entity before initialising CloudSim package
+	 *             or this entity name is <tt>null</tt> or empty
+	 */
+	private void initCommonVariable(Calendar _calendar, boolean _traceFlag, int numUser) throws Exception {
+		initialize();
+		// NOTE: the order for the below 3 lines are important
+		traceFlag = _traceFlag;
+
+		// Set the current Wall clock time as the starting time of
+		// simulation
+		if (_calendar == null) {
+			calendar = Calendar.getInstance();
+		} else {
+			calendar = _calendar;
+		}
+
+		// creates a CloudSimShutdown object
+		CloudSimShutdown shutdown = new CloudSimShutdown("CloudSimShutdown", numUser);
+		shutdownId = shutdown.getId();
+	}
+
+	/**
+	 * Initialises the simulation parameters. This method should be called before creating any entities.
+	 *
+	 * @param numUser the number of User Entities created
+	 * @param cal starting time for this simulation. If it is <tt>null</tt>, then the time will be
+	 *            taken from <tt>Calendar.getInstance()</tt>
+	 * @param traceFlag <tt>true</tt> if CloudSim trace need to be written
+	 * @see CloudSim#init(int, Calendar, boolean)
+	 */
+	public void init(int numUser, Calendar cal, boolean traceFlag) {
+		init(numUser, cal, traceFlag, EventQueue::new);
+	}
+
+	/**
+	 * Initialises the simulation parameters, using the given kind of future event queue.
+	 *
+	 * @param numUser the number of User Entities created
+	 * @param cal starting time for this simulation
+	 * @param traceFlag <tt>true</tt> if CloudSim trace need to be written
+	 * @param eventQueueFactory creates the future event queue, e.g. <tt>CalendarEventQueue::new</tt>
+	 * @see CloudSim#init(int, Calendar, boolean, Supplier)
+	 */
+	public void init(int numUser, Calendar cal, boolean traceFlag, Supplier<? extends EventQueue> eventQueueFactory) {
+		if (eventQueueFactory == null) {
+			throw new IllegalArgumentException("The event queue factory should not be null");
+		}
+		this.eventQueueFactory = eventQueueFactory;
+
+		try {
+			execute(() -> {
+				initCommonVariable(cal, traceFlag, numUser);
+
+				// create a GIS object
+				cis = new CloudInformationService("CloudInformationService");
+
+				// set all the above entity IDs
+				cisId = cis.getId();
+				return null;
+			});
+		} catch (Exception s) {
+			Log.println("CloudSim.init(): The simulation has been terminated due to an unexpected error");
+			Log.println(s.getMessage());
+		}
+	}
+
+	/**
+	 * Initialises the simulation parameters. This method should be called before creating any entities.
+	 *
+	 * @param numUser the number of User Entities created
+	 * @param cal starting time for this simulation
+	 * @param traceFlag <tt>true</tt> if CloudSim trace need to be written
+	 * @param minTimeBetweenEvents the minimal period between events
+	 * @see CloudSim#init(int, Calendar, boolean, double)
+	 */
+	public void init(int numUser, Calendar cal, boolean traceFlag, double minTimeBetweenEvents) {
+		init(numUser, cal, traceFlag, minTimeBetweenEvents, EventQueue::new);
+	}
+
+	/**
+	 * Initialises the simulation parameters, using the given kind of future event queue.
+	 *
+	 * @param numUser the number of User Entities created
+	 * @param cal starting time for this simulation
+	 * @param traceFlag <tt>true</tt> if CloudSim trace need to be written
+	 * @param minTimeBetweenEvents the minimal period between events
+	 * @param eventQueueFactory creates the future event queue, e.g. <tt>CalendarEventQueue::new</tt>
+	 * @see CloudSim#init(int, Calendar, boolean, double, Supplier)
+	 */
+	public void init(int numUser, Calendar cal, boolean traceFlag, double minTimeBetweenEvents,
+					 Supplier<? extends EventQueue> eventQueueFactory) {
+		if (minTimeBetweenEvents <= 0) {
+			throw new IllegalArgumentException("The minimal time between events should be positive, but is:" + minTimeBetweenEvents);
+		}
+
+		init(numUser, cal, traceFlag, eventQueueFactory);
+		this.minTimeBetweenEvents = minTimeBetweenEvents;
+	}
+
+	/**
+	 * Starts the execution of the simulation and resets the context once it is over.
+	 *
+	 * @return the last clock time
+	 * @throws NullPointerException if the context has not been initialised
+	 * @see CloudSim#startSimulation()
+	 */
+	public double startSimulation() throws NullPointerException {
+		Log.printlnConcat("Starting CloudSim version ", CLOUDSIM_VERSION_STRING);
+		try {
+			double clock = run();
+
+			// reset the per-run attributes
+			cisId = -1;
+			shutdownId = -1;
+			cis = null;
+			calendar = null;
+			traceFlag = false;
+
+			return clock;
+		} catch (IllegalArgumentException e) {
+			e.printStackTrace();
+			throw new NullPointerException("CloudSim.startCloudSimulation() :"
+					+ " Error - you haven't initialized CloudSim.");
+		}
+	}
+
+	/**
+	 * Stops the simulation.
+	 *
+	 * @throws NullPointerException if the simulation can't be stopped
+	 * @see CloudSim#stopSimulation()
+	 */
+	public void stopSimulation() throws NullPointerException {
+		try {
+			runStop();
+		} catch (IllegalArgumentException e) {
+			throw new NullPointerException("CloudSim.stopCloudSimulation() : "
+					+ "Error - can't stop Cloud Simulation.");
+		}
+	}
+
+	/**
+	 * This method is called if one wants to terminate the simulation.
+	 */
+	public void terminateSimulation() {
+		running = false;
+		printMessage("Simulation: Reached termination time.");
+	}
+
+	/**
+	 * This method is called if one wants to terminate the simulation at a given time.
+	 *
+	 * @param time the time at which the simulation has to be terminated
+	 * @return true, if successful otherwise.
+	 */
+	public boolean terminateSimulation(double time) {
+		if (time <= clock) {
+			return false;
+		} else {
+			terminateAt = time;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the minimum time between events. Events within shorter periods after the last event are discarded.
+	 *
+	 * @return the minimum time between events.
+	 */
+	public double getMinTimeBetweenEvents() {
+		return minTimeBetweenEvents;
+	}
+
+	/**
+	 * Gets a new copy of initial simulation Calendar.
+	 *
+	 * @return a new copy of Calendar object or if the context hasn't been initialized
+	 */
+	public Calendar getSimulationCalendar() {
+		// make a new copy
+		Calendar clone = calendar;
+		if (calendar != null) {
+			clone = (Calendar) calendar.clone();
+		}
+
+		return clone;
+	}
+
+	/**
+	 * Gets the entity ID of <tt>CloudInformationService</tt>.
+	 *
+	 * @return the Entity ID or if it is not found
+	 */
+	public int getCloudInfoServiceEntityId() {
+		return cisId;
+	}
+
+	/**
+	 * Gets the list of all Cloud resource IDs registered at the CIS of this context.
+	 *
+	 * @return A List containing CloudResource ID or <tt>null</tt> if a CIS entity hasn't been created
+	 */
+	public List<Integer> getCloudResourceList() {
+		if (cis == null) {
+			return null;
+		}
+
+		return cis.getList();
+	}
+
+	// ======== SIMULATION METHODS ===============//
+
+	/**
+	 * Resets the context for a new simulation run.
+	 */
+	protected void initialize() {
+		Log.println("Initialising...");
+		entities = new ArrayList<>();
+		entitiesByName = new LinkedHashMap<>();
+		future = eventQueueFactory.get();
+		waitPredicates = new HashMap<>();
+		services.clear();
+		clock = 0;
+		running = false;
+	}
+
+	/**
+	 * Get the current simulation time.
+	 *
+	 * @return the simulation time
+	 */
+	public double clock() {
+		return clock;
+	}
+
+	/**
+	 * Get the current number of entities in the simulation.
+	 *
+	 * @return The number of entities
+	 */
+	public int getNumEntities() {
+		return entities.size();
+	}
+
+	/**
+	 * Get the entity with a given id.
+	 *
+	 * @param id the entity's unique id number
+	 * @return The entity, or if it could not be found
+	 */
+	public SimEntity getEntity(int id) {
+		return entities.get(id);
+	}
+
+	/**
+	 * Get the entity with a given name.
+	 *
+	 * @param name The entity's name
+	 * @return The entity
+	 */
+	public SimEntity getEntity(String name) {
+		return entitiesByName.get(name);
+	}
+
+	/**
+	 * Get the id of an entity with a given name.
+	 *
+	 * @param name The entity's name
+	 * @return The entity's unique id number
+	 */
+	public int getEntityId(String name) {
+		SimEntity obj = entitiesByName.get(name);
+		if (obj == null) {
+			return NOT_FOUND;
+		} else {
+			return obj.getId();
+		}
+	}
+
+	/**
+	 * Gets name of the entity given its entity ID.
+	 *
+	 * @param entityID the entity ID
+	 * @return the Entity name or if this object does not have one
+	 */
+	public String getEntityName(int entityID) {
+		try {
+			return getEntity(entityID).getName();
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns a list of entities created for the simulation.
+	 *
+	 * @return the entity iterator
+	 */
+	public List<SimEntity> getEntityList() {
+		// create a new list to prevent the user from changing
+		// the list of entities used by Simulation
+		return new LinkedList<>(entities);
+	}
+
+	// Public update methods
+
+	/**
+	 * Add a new entity to the simulation.
+	 *
+	 * @param e The new entity
+	 */
+	public void addEntity(SimEntity e) {
+		SimEvent evt;
+		if (running) {
+			// Post an event to make this entity
+			evt = new SimEvent(SimEvent.CREATE, clock, 1, 0, CloudActionTags.BLANK, e);
+			future.addEvent(evt);
+		}
+		if (e.getId() == -1) { // Only add once!
+			int id = entities.size();
+			e.setId(id);
+			entities.add(e);
+			entitiesByName.put(e.getName(), e);
+		}
+	}
+
+	/**
+	 * Internal method used to add a new entity to the simulation when the simulation is running.
+	 *
+	 * @param e The new entity
+	 */
+	protected void addEntityDynamically(SimEntity e) {
+		if (e == null) {
+			throw new IllegalArgumentException("Adding null entity.");
+		} else {
+			printMessage("Adding: " + e.getName());
+		}
+		e.startEntity();
+	}
+
+	/**
+	 * Internal method used to run one tick of the simulation.
+	 *
+	 * @return true if there are events to be processed, false if event queue is empty
+	 */
+	private boolean runClockTick() {
+		SimEntity ent;
+		for (int i = 0; i < entities.size(); i++) {
+			ent = entities.get(i);
+			if (ent.getState() == SimEntity.EntityStatus.RUNNABLE) {
+				ent.run();
+			}
+		}
+
+		if (future.isEmpty()) {
+			running = false;
+			printMessage(clock + ": Simulation: No more future events");
+			return false;
+		}
+
+		double clk = future.peek().eventTime();
+		while (!future.isEmpty() && future.peek().eventTime() == clk) {
+			dispatchEvent(future.poll());
+		}
+
+		return true;
+	}
+
+	/**
+	 * Internal method used to stop the simulation.
+	 */
+	public void runStop() {
+		printMessage("Simulation completed.");
+	}
+
+	/**
+	 * Used to pause an entity for some time.
+	 *
+	 * @param srcId the entity source id
+	 * @param delay the delay
+	 */
+	public void pause(int srcId, double delay) {
+		SimEvent e = new SimEvent(SimEvent.HOLD_DONE, clock + delay, srcId);
+		future.addEvent(e);
+		entities.get(srcId).setState(SimEntity.EntityStatus.HOLDING);
+	}
+
+	/**
+	 * Used to send an event from one entity to another.
+	 *
+	 * @param srcId the src
+	 * @param dstId the dest
+	 * @param delay the delay
+	 * @param tag the tag
+	 * @param data the data
+	 */
+	public void send(int srcId, int dstId, double delay, CloudSimTags tag, Object data) {
+		if (delay < 0) {
+			throw new IllegalArgumentException("Send delay can't be negative.");
+		}
+		if (delay >= Double.MAX_VALUE) {
+			throw new RuntimeException("Send delay can't be infinite.");
+		}
+
+		SimEvent e = new SimEvent(SimEvent.SEND, clock + delay, srcId, dstId, tag, data);
+		future.addEvent(e);
+	}
+
+	/**
+	 * Used to send an event from one entity to another, with priority in the queue.
+	 *
+	 * @param srcId the src
+	 * @param dstId the dest
+	 * @param delay the delay
+	 * @param tag the tag
+	 * @param data the data
+	 */
+	public void sendFirst(int srcId, int dstId, double delay, CloudSimTags tag, Object data) {
+		if (delay < 0) {
+			throw new IllegalArgumentException("Send delay can't be negative.");
+		}
+
+		SimEvent e = new SimEvent(SimEvent.SEND, clock + delay, srcId, dstId, tag, data);
+		future.addEventFirst(e);
+	}
+
+	/**
+	 * Sets an entity's state to be waiting. Only events that satisfy the predicate will be
+	 * passed to the entity.
+	 *
+	 * @param srcId the src
+	 * @param p the p
+	 */
+	public void wait(int srcId, Predicate p) {
+		entities.get(srcId).setState(SimEntity.EntityStatus.WAITING);
+		if (p != CloudSim.SIM_ANY) {
+			// If a predicate has been used store it in order to check it
+			waitPredicates.put(srcId, p);
+		}
+	}
+
+	/**
+	 * Removes an event from the event queue.
+	 *
+	 * @param srcId the entity source id
+	 * @param p the p
+	 * @return the sim event
+	 */
+	public SimEvent cancel(int srcId, Predicate p) {
+		return future.removeFirst(srcId, EventQueue.ANY_ENTITY, p);
+	}
+
+	/**
+	 * Removes all events that match a given predicate from the future event queue.
+	 *
+	 * @param srcId the entity source id
+	 * @param p the p
+	 * @return true, if successful
+	 */
+	public boolean cancelAll(int srcId, Predicate p) {
+		return future.removeMatching(srcId, EventQueue.ANY_ENTITY, p) > 0;
+	}
+
+	//
+	// Private internal methods
+	//
+
+	/**
+	 * Dispatch event to destination entity
+	 *
+	 * @param e the e
+	 */
+	private void dispatchEvent(SimEvent e) {
+		int dstId = e.getDestinationId();
+		int srcId = e.getSourceId();
+		SimEntity destEnt = entities.get(dstId);
+
+		// Update the system's clock
+		if (e.eventTime() < clock) {
+			throw new IllegalArgumentException("Past event detected.");
+		}
+		clock = e.eventTime();
+
+		// Ok now process it
+		switch (e.getType()) {
+			case SimEvent.ENULL -> throw new IllegalArgumentException("Event has a null type.");
+			case SimEvent.CREATE -> {
+				addEntityDynamically((SimEntity) e.getData());
+			}
+			case SimEvent.SEND -> {
+				if (destEnt.getState() == SimEntity.EntityStatus.WAITING) { // NOTE: this branch is never used
+					Predicate p = waitPredicates.get(dstId);
+
+					if ((p == null) || (p.match(e))) {
+						destEnt.setState(SimEntity.EntityStatus.RUNNABLE);
+						waitPredicates.remove(dstId);
+					}
+				}
+				destEnt.getIncomingEvents().add(e);
+			}
+			case SimEvent.HOLD_DONE -> entities.get(srcId).setState(SimEntity.EntityStatus.RUNNABLE);
+			default -> {
+			}
+		}
+	}
+
+	/**
+	 * Internal method used to start the simulation.
+	 */
+	public void runStart() {
+		running = true;
+		// Start all the entities
+		for (SimEntity ent : entities) {
+			ent.startEntity();
+		}
+
+		printMessage("Entities started.");
+	}
+
+	/**
+	 * Check if the simulation is still running.
+	 *
+	 * @return if the simulation is still running, otherwise
+	 */
+	public boolean running() {
+		return running;
+	}
+
+	/**
+	 * This method is called if one wants to pause the simulation.
+	 *
+	 * @return true, if successful otherwise.
+	 */
+	public boolean pauseSimulation() {
+		paused = true;
+		return paused;
+	}
+
+	/**
+	 * This method is called if one wants to pause the simulation at a given time.
+	 *
+	 * @param time the time at which the simulation has to be paused
+	 * @return true, if successful otherwise.
+	 */
+	public boolean pauseSimulation(long time) {
+		if (time <= clock) {
+			return false;
+		} else {
+			pauseAt = time;
+		}
+		return true;
+	}
+
+	/**
+	 * This method is called if one wants to resume the simulation that has previously been paused.
+	 *
+	 * @return if the simulation has been restarted or or otherwise.
+	 */
+	public boolean resumeSimulation() {
+		paused = false;
+
+		if (pauseAt <= clock) {
+			pauseAt = -1;
+		}
+
+		return !paused;
+	}
+
+	/**
+	 * Start the simulation running. The context is bound to the calling thread while it runs.
+	 *
+	 * @return the last clock value
+	 */
+	public double run() {
+		SimulationContext previous = CloudSim.bindContext(this);
+		try {
+			return runBound();
+		} finally {
+			CloudSim.bindContext(previous);
+		}
+	}
+
+	/**
+	 * The simulation loop, executed with this context bound to the current thread.
+	 *
+	 * @return the last clock value
+	 */
+	private double runBound() {
+		if (!running) {
+			runStart();
+		}
+		while (true) {
+			if (!runClockTick() || abruptTerminate) {
+				break;
+			}
+
+			// this block allows termination of simulation at a specific time
+			if (terminateAt > 0.0 && clock >= terminateAt) {
+				terminateSimulation();
+				clock = terminateAt;
+				break;
+			}
+
+			if (pauseAt != -1
+					&& ((!future.isEmpty() && clock <= pauseAt && pauseAt <= future.peek()
+							.eventTime()) || future.isEmpty() && pauseAt <= clock)) {
+				pauseSimulation();
+				clock = pauseAt;
+			}
+
+			while (paused) {
+				try {
+					Thread.sleep(100);
+				} catch (InterruptedException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+
+		double clock = clock();
+
+		finishSimulation();
+		runStop();
+
+		return clock;
+	}
+
+	/**
+	 * Internal method that allows the entities to terminate.
+	 */
+	private void finishSimulation() {
+		// Allow all entities to exit their body method
+		if (!abruptTerminate) {
+			for (SimEntity ent : entities) {
+				if (ent.getState() != SimEntity.EntityStatus.FINISHED) {
+					ent.run();
+				}
+			}
+		}
+
+		for (SimEntity ent : entities) {
+			ent.shutdownEntity();
+		}
+
+		// reset the per-run state
+		entities = new ArrayList<>();
+		entitiesByName = new LinkedHashMap<>();
+		future = eventQueueFactory.get();
+		clock = 0L;
+		running = false;
+
+		waitPredicates = new HashMap<>();
+		paused = false;
+		pauseAt = -1;
+		abruptTerminate = false;
+	}
+
+	/**
+	 * Abruptally terminate.
+	 */
+	public void abruptallyTerminate() {
+		abruptTerminate = true;
+	}
+
+	/**
+	 * Prints a message about the progress of the simulation.
+	 *
+	 * @param message the message
+	 */
+	private void printMessage(String message) {
+		Log.println(message);
+	}
+
+	/**
+	 * Checks if is paused.
+	 *
+	 * @return true, if is paused
+	 */
+	public boolean isPaused() {
+		return paused;
+	}
+
+	/**
+	 * Disables or enables the log output of the simulation run in this context only, unlike
+	 * {@link Log#setDisabled(boolean)}, which applies to all the simulations of the process.
+	 * The setting is kept when the context is initialised for a new run.
+	 *
+	 * @param disabled true to disable the output of this context
+	 */
+	public void setLogDisabled(boolean disabled) {
+		logDisabled = disabled;
+	}
+
+	public boolean isLogDisabled() {
+		return logDisabled;
+	}
+
+	public int getStateHistoryWindow() {
+		return stateHistoryWindow;
+	}
+
+	/**
+	 * Sets the window of the state histories of the hosts and guests created afterwards in this
+	 * context. The setting is kept when the context is initialised for a new run.
+	 *
+	 * @param window the window, at least 1; {@link Integer#MAX_VALUE} keeps all entries in memory
+	 * @see StateHistory#setWindow(int)
+	 */
+	public void setStateHistoryWindow(int window) {
+		if (window < 1) {
+			throw new IllegalArgumentException("The window must be at least 1");
+		}
+		stateHistoryWindow = window;
+	}
+
+	public StateHistorySpill getStateHistorySpill() {
+		return stateHistorySpill;
+	}
+
+	/**
+	 * Sets the spill file of the state histories of the hosts and guests created afterwards in
+	 * this context. The setting is kept when the context is initialised for a new run.
+	 *
+	 * @param spill the spill file, or null to drop the entries that leave the window
+	 * @see StateHistory#setSpill(StateHistorySpill)
+	 */
+	public void setStateHistorySpill(StateHistorySpill spill) {
+		stateHistorySpill = spill;
+	}
+
+}
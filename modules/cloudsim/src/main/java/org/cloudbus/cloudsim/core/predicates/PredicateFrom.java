@@ -42,6 +42,15 @@ public class PredicateFrom extends Predicate {
 		ids = sourceIds.clone();
 	}
 
+	/**
+	 * Gets the ids of the source entities this predicate selects.
+	 *
+	 * @return a copy of the ids
+	 */
+	public int[] getIds() {
+		return ids.clone();
+	}
+
 	/**
 	 * Matches any event received from the registered sources.
 	 * 
@@ -0,0 +1,315 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.lists;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * A list that indexes its elements by an int key, e.g. the id of a guest or the id of the guest a
+ * cloudlet runs on, so that the elements with a key are found without scanning the list. The index
+ * maps each key to its elements in list order, hence {@link #getByKey(int)} returns the same element
+ * as a scan from the start of the list would.
+ * <br/>
+ * Appending and looking up are O(1). Inserting, replacing or removing an element is O(n), as for an
+ * {@link ArrayList}; bulk operations such as {@link #removeIf(Predicate)} and {@link #sort(Comparator)}
+ * rebuild the index once.
+ * <br/>
+ * <b>NOTE:</b> the key of an element must not change while the element is in the list.
+ *
+ * @param <E> the type of the elements
+ * @since CloudSim Toolkit 7.0
+ */
+public class IdIndexedList<E> extends AbstractList<E> implements RandomAccess {
+
+	private final ToIntFunction<? super E> key;
+
+	private final ArrayList<E> elements = new ArrayList<>();
+
+	/** Open addressing table of the keys, and the elements of each key in list order. */
+	private int[] keys = new int[16];
+	private Object[] buckets = new Object[16];
+	private int used = 0;
+
+	/**
+	 * Creates an empty list.
+	 *
+	 * @param key the function giving the key of an element
+	 */
+	public IdIndexedList(ToIntFunction<? super E> key) {
+		this.key = key;
+	}
+
+	public ToIntFunction<? super E> getKey() {
+		return key;
+	}
+
+	/**
+	 * Gets the first element with a key.
+	 *
+	 * @param k the key
+	 * @return the first element with the key in list order, or null if there is none
+	 */
+	public E getByKey(int k) {
+		List<E> bucket = bucket(k);
+		return bucket == null || bucket.isEmpty() ? null : bucket.getFirst();
+	}
+
+	/**
+	 * Gets the elements with a key.
+	 *
+	 * @param k the key
+	 * @return an unmodifiable view of the elements with the key, in list order
+	 */
+	public List<E> getAllByKey(int k) {
+		List<E> bucket = bucket(k);
+		return bucket == null ? Collections.emptyList() : Collections.unmodifiableList(bucket);
+	}
+
+	/**
+	 * Gets the number of slots of the key table.
+	 */
+	int getTableLength() {
+		return keys.length;
+	}
+
+	@Override
+	public E get(int index) {
+		return elements.get(index);
+	}
+
+	@Override
+	public int size() {
+		return elements.size();
+	}
+
+	@Override
+	public boolean add(E e) {
+		elements.add(e);
+		modCount++;
+		bucketForAdd(key.applyAsInt(e)).add(e);
+		return true;
+	}
+
+	@Override
+	public void add(int index, E e) {
+		elements.add(index, e);
+		modCount++;
+		if (index == elements.size() - 1) {
+			bucketForAdd(key.applyAsInt(e)).add(e);
+		} else {
+			reindex(key.applyAsInt(e));
+		}
+	}
+
+	@Override
+	public E set(int index, E e) {
+		E old = elements.set(index, e);
+		int oldKey = key.applyAsInt(old);
+		int newKey = key.applyAsInt(e);
+		if (oldKey == newKey) {
+			List<E> bucket = bucket(oldKey);
+			bucket.set(indexOfIdentity(bucket, old), e);
+		} else {
+			removeFromIndex(oldKey, old);
+			reindex(newKey);
+		}
+		return old;
+	}
+
+	@Override
+	public E remove(int index) {
+		E old = elements.remove(index);
+		modCount++;
+		removeFromIndex(key.applyAsInt(old), old);
+		return old;
+	}
+
+	@Override
+	public void clear() {
+		elements.clear();
+		modCount++;
+		clearIndex();
+	}
+
+	@Override
+	public boolean removeIf(Predicate<? super E> filter) {
+		boolean removed = elements.removeIf(filter);
+		if (removed) {
+			modCount++;
+			rebuildIndex();
+		}
+		return removed;
+	}
+
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		return removeIf(c::contains);
+	}
+
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		return removeIf(e -> !c.contains(e));
+	}
+
+	@Override
+	public void sort(Comparator<? super E> c) {
+		elements.sort(c);
+		modCount++;
+		rebuildIndex();
+	}
+
+	@Override
+	public void replaceAll(UnaryOperator<E> operator) {
+		elements.replaceAll(operator);
+		modCount++;
+		rebuildIndex();
+	}
+
+	@Override
+	protected void removeRange(int fromIndex, int toIndex) {
+		elements.subList(fromIndex, toIndex).clear();
+		modCount++;
+		rebuildIndex();
+	}
+
+	/**
+	 * Rebuilds the elements of a key from the list, to keep them in list order.
+	 */
+	private void reindex(int k) {
+		List<E> bucket = bucketForAdd(k);
+		bucket.clear();
+		for (E e : elements) {
+			if (key.applyAsInt(e) == k) {
+				bucket.add(e);
+			}
+		}
+	}
+
+	private void rebuildIndex() {
+		clearIndex();
+		for (E e : elements) {
+			bucketForAdd(key.applyAsInt(e)).add(e);
+		}
+	}
+
+	private void clearIndex() {
+		Arrays.fill(buckets, null);
+		used = 0;
+	}
+
+	/**
+	 * Removes an element from the elements of its key, and the key from the table if it has
+	 * no element left.
+	 */
+	private void removeFromIndex(int k, E e) {
+		int slot = slot(k);
+		@SuppressWarnings("unchecked")
+		List<E> bucket = (List<E>) buckets[slot];
+		if (bucket == null) {
+			throw new IllegalStateException("The key of an element changed while it was in the list");
+		}
+		bucket.remove(indexOfIdentity(bucket, e));
+		if (bucket.isEmpty()) {
+			removeSlot(slot);
+		}
+	}
+
+	/**
+	 * Frees a slot of the table, shifting back the following keys of its probe sequence so
+	 * that they stay reachable from their home slot.
+	 */
+	private void removeSlot(int slot) {
+		int mask = keys.length - 1;
+		int hole = slot;
+		buckets[hole] = null;
+		used--;
+		for (int i = (hole + 1) & mask; buckets[i] != null; i = (i + 1) & mask) {
+			if (((i - home(keys[i])) & mask) >= ((i - hole) & mask)) {
+				keys[hole] = keys[i];
+				buckets[hole] = buckets[i];
+				buckets[i] = null;
+				hole = i;
+			}
+		}
+	}
+
+	private static int indexOfIdentity(List<?> bucket, Object o) {
+		for (int i = 0; i < bucket.size(); i++) {
+			if (bucket.get(i) == o) {
+				return i;
+			}
+		}
+		throw new IllegalStateException("The key of an element changed while it was in the list");
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<E> bucket(int k) {
+		int slot = slot(k);
+		return buckets[slot] == null ? null : (List<E>) buckets[slot];
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<E> bucketForAdd(int k) {
+		int slot = slot(k);
+		if (buckets[slot] == null) {
+			if (2 * (used + 1) > keys.length) {
+				grow();
+				slot = slot(k);
+			}
+			keys[slot] = k;
+			buckets[slot] = new ArrayList<E>(1);
+			used++;
+		}
+		return (List<E>) buckets[slot];
+	}
+
+	/**
+	 * Finds the slot of a key, or the free slot it would take.
+	 */
+	private int slot(int k) {
+		int mask = keys.length - 1;
+		int slot = home(k);
+		while (buckets[slot] != null && keys[slot] != k) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	/**
+	 * Gets the slot where the probe sequence of a key starts.
+	 */
+	private int home(int k) {
+		int hash = k * 0x9E3779B9;
+		return (hash ^ (hash >>> 16)) & (keys.length - 1);
+	}
+
+	private void grow() {
+		int[] oldKeys = keys;
+		Object[] oldBuckets = buckets;
+		keys = new int[oldKeys.length * 2];
+		buckets = new Object[oldBuckets.length * 2];
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldBuckets[i] != null) {
+				int slot = slot(oldKeys[i]);
+				keys[slot] = oldKeys[i];
+				buckets[slot] = oldBuckets[i];
+			}
+		}
+	}
+}
@@ -9,6 +9,7 @@
 package org.cloudbus.cloudsim.lists;
 
 import java.util.List;
+import java.util.function.ToIntFunction;
 
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.core.CloudSim;
@@ -23,6 +24,20 @@ import org.cloudbus.cloudsim.core.GuestEntity;
  */
 public class VmList {
 
+	/** The key of the lists of guests indexed by id. */
+	public static final ToIntFunction<GuestEntity> ID = GuestEntity::getId;
+
+	/**
+	 * Creates a list of guests indexed by id, on which {@link #getById(List, int)} does not scan the
+	 * list. VM ids are not required to be unique, the index keeps the guests with the same id in list
+	 * order.
+	 *
+	 * @return an empty list of guests indexed by id
+	 */
+	public static <T extends GuestEntity> IdIndexedList<T> newIdIndexedList() {
+		return new IdIndexedList<>(ID);
+	}
+
 	/**
 	 * Gets a {@link Vm} with a given id.
 	 * 
@@ -31,25 +46,12 @@ public class VmList {
 	 * @return a Vm with the given ID or $null if not found
 	 * @pre $none
 	 * @post $none
-         * 
-         * //@TODO It may be considered the use of a HashMap in order to improve
-         * VM search, instead of a List. The map key can be the vm id
-         * and the value the VM itself. However, it has to be assessed
-         * the feasibility to have VMs with the same ID and the need
-         * to find VMs by its id and user id, as in the method
-         * {@link #getByIdAndUserId(java.util.List, int, int)}.
-         * The first concern could be dealt by ensuring that all
-         * VMs have different ID (in fact, I don't know if 
-         * VM id uniqueness is a CloudSim requirement)
-         * and creating a map by VM id.
-         * The second concern could be dealt by creating 
-         * a HashMap<UserID, List<VmIDs>>.
-         * The third concern is, that changing 
-         * the class of these lists may have a potential
-         * effect on the entire project and in the creation of simulations
-         * that has to be priorly assessed.
+	 * @see #newIdIndexedList()
 	 */
 	public static <T extends GuestEntity> T getById(List<T> vmList, int id) {
+		if (vmList instanceof IdIndexedList<T> indexed && indexed.getKey() == ID) {
+			return indexed.getByKey(id);
+		}
 		for (T vm : vmList) {
 			if (vm.getId() == id) {
 				return vm;
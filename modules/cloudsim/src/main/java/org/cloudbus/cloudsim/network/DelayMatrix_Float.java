@@ -8,6 +8,7 @@
 
 package org.cloudbus.cloudsim.network;
 
+import java.util.Arrays;
 import java.util.Iterator;
 
 /**
@@ -20,9 +21,10 @@ import java.util.Iterator;
 public class DelayMatrix_Float {
 
 	/**
-	 * Matrix holding delay information between any two nodes.
+	 * Matrix holding delay information between any two nodes, stored row by row:
+	 * the delay from node i to node j is at index i * {@link #mTotalNodeNum} + j.
 	 */
-	protected float[][] mDelayMatrix = null;
+	protected float[] mDelayMatrix = null;
 
 	/**
 	 * Number of nodes in the distance-aware-topology.
@@ -30,9 +32,10 @@ public class DelayMatrix_Float {
 	protected int mTotalNodeNum = 0;
 
 	/**
-	 * Private constructor to ensure that only an correct initialized delay-matrix could be created.
+	 * Constructor for subclasses that store the delays in another way, to ensure that no other
+	 * uninitialized delay-matrix could be created.
 	 */
-	private DelayMatrix_Float() {
+	protected DelayMatrix_Float() {
 	}
 
 	/**
@@ -42,12 +45,30 @@ public class DelayMatrix_Float {
 	 * @param directed indicates if an directed matrix should be computed (true) or not (false)
 	 */
 	public DelayMatrix_Float(TopologicalGraph graph, boolean directed) {
+		this(graph, directed, false);
+	}
+
+	/**
+	 * Creates an correctly initialized Float-Delay-Matrix.
+	 * 
+	 * @param graph the network topological graph
+	 * @param directed indicates if an directed matrix should be computed (true) or not (false)
+	 * @param sparse indicates if the delays should be computed by running Dijkstra's algorithm from
+	 *            every node, in O(n * l * log(n)), which is faster than Floyd-Warshall for graphs with
+	 *            much fewer links l than n² (true), or by Floyd-Warshall in O(n³) (false). The
+	 *            delays may differ in the last bits, as the additions are done in another order.
+	 */
+	public DelayMatrix_Float(TopologicalGraph graph, boolean directed, boolean sparse) {
 
 		// lets preinitialize the Delay-Matrix
 		createDelayMatrix(graph, directed);
 
 		// now its time to calculate all possible connection-delays
-		calculateShortestPath();
+		if (sparse) {
+			calculateShortestPathSparse();
+		} else {
+			calculateShortestPath();
+		}
 	}
 
 	/**
@@ -59,11 +80,97 @@ public class DelayMatrix_Float {
 	 */
 	public float getDelay(int srcID, int destID) {
 		// check the nodeIDs against internal array-boundarys
-		if (srcID > mTotalNodeNum || destID > mTotalNodeNum) {
+		if (srcID < 0 || srcID >= mTotalNodeNum || destID < 0 || destID >= mTotalNodeNum) {
 			throw new ArrayIndexOutOfBoundsException("srcID or destID is higher than highest stored node-ID!");
 		}
 
-		return mDelayMatrix[srcID][destID];
+		return mDelayMatrix[srcID * mTotalNodeNum + destID];
+	}
+
+	/**
+	 * Gets the number of nodes of the matrix.
+	 * 
+	 * @return the number of nodes
+	 */
+	public int getNumberOfNodes() {
+		return mTotalNodeNum;
+	}
+
+	/**
+	 * Updates the delays for a link added to the topology, without recomputing the shortest paths
+	 * between all pairs of nodes: the delay of every pair that gets shorter through the new link is
+	 * lowered, in O(n²). The matrix grows if the link has new nodes.
+	 * <br/>
+	 * The link must not replace a link between the same nodes, as that may make some paths longer.
+	 * The delays may differ in the last bits from the ones of a new matrix, as the additions are
+	 * done in another order.
+	 * 
+	 * @param srcID the id of the source node of the link
+	 * @param destID the id of the destination node of the link
+	 * @param delay the delay of the link
+	 * @param directed indicates if the matrix is directed (true) or not (false)
+	 */
+	public void addLink(int srcID, int destID, float delay, boolean directed) {
+		int nodes = Math.max(mTotalNodeNum, Math.max(srcID, destID) + 1);
+		if (nodes > mTotalNodeNum) {
+			resize(nodes);
+		}
+
+		// a link without delay is ignored, as when the matrix is created
+		if (delay == 0) {
+			return;
+		}
+
+		int n = mTotalNodeNum;
+		float[] d = mDelayMatrix;
+
+		// the delays to and from the ends of the link before it was added
+		float[] toSrc = new float[n];
+		float[] toDest = new float[n];
+		for (int i = 0; i < n; i++) {
+			toSrc[i] = d[i * n + srcID];
+			toDest[i] = d[i * n + destID];
+		}
+		float[] fromSrc = Arrays.copyOfRange(d, srcID * n, srcID * n + n);
+		float[] fromDest = Arrays.copyOfRange(d, destID * n, destID * n + n);
+
+		for (int i = 0; i < n; i++) {
+			boolean forward = toSrc[i] != Float.MAX_VALUE;
+			boolean backward = !directed && toDest[i] != Float.MAX_VALUE;
+			if (!forward && !backward) {
+				continue;
+			}
+			float viaForward = toSrc[i] + delay;
+			float viaBackward = toDest[i] + delay;
+			int row = i * n;
+			for (int j = 0; j < n; j++) {
+				if (i == j) {
+					continue;
+				}
+				if (forward && fromDest[j] != Float.MAX_VALUE && viaForward + fromDest[j] < d[row + j]) {
+					d[row + j] = viaForward + fromDest[j];
+				}
+				if (backward && fromSrc[j] != Float.MAX_VALUE && viaBackward + fromSrc[j] < d[row + j]) {
+					d[row + j] = viaBackward + fromSrc[j];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Grows the matrix, the new nodes being unreachable from and to the other nodes.
+	 */
+	private void resize(int nodes) {
+		float[] resized = new float[nodes * nodes];
+		Arrays.fill(resized, Float.MAX_VALUE);
+		for (int row = 0; row < mTotalNodeNum; ++row) {
+			System.arraycopy(mDelayMatrix, row * mTotalNodeNum, resized, row * nodes, mTotalNodeNum);
+		}
+		for (int row = mTotalNodeNum; row < nodes; ++row) {
+			resized[row * nodes + row] = 0;
+		}
+		mDelayMatrix = resized;
+		mTotalNodeNum = nodes;
 	}
 
 	/**
@@ -79,14 +186,10 @@ public class DelayMatrix_Float {
 		// number of nodes inside the network
 		mTotalNodeNum = graph.getNumberOfNodes();
 
-		mDelayMatrix = new float[mTotalNodeNum][mTotalNodeNum];
+		mDelayMatrix = new float[mTotalNodeNum * mTotalNodeNum];
 
 		// cleanup the complete distance-matrix with "0"s
-		for (int row = 0; row < mTotalNodeNum; ++row) {
-			for (int col = 0; col < mTotalNodeNum; ++col) {
-				mDelayMatrix[row][col] = Float.MAX_VALUE;
-			}
-		}
+		Arrays.fill(mDelayMatrix, Float.MAX_VALUE);
 
 		Iterator<TopologicalLink> itr = graph.getLinkIterator();
 
@@ -94,24 +197,167 @@ public class DelayMatrix_Float {
 		while (itr.hasNext()) {
 			edge = itr.next();
 
-			mDelayMatrix[edge.getSrcNodeID()][edge.getDestNodeID()] = edge.getLinkDelay();
+			mDelayMatrix[edge.getSrcNodeID() * mTotalNodeNum + edge.getDestNodeID()] = edge.getLinkDelay();
 
 			if (!directed) {
 				// according to aproximity of symmetry to all communication-paths
-				mDelayMatrix[edge.getDestNodeID()][edge.getSrcNodeID()] = edge.getLinkDelay();
+				mDelayMatrix[edge.getDestNodeID() * mTotalNodeNum + edge.getSrcNodeID()] = edge.getLinkDelay();
 			}
 
 		}
+
+		// as in FloydWarshall_Float, a link without delay is not a link
+		for (int i = 0; i < mDelayMatrix.length; i++) {
+			if (mDelayMatrix[i] == 0) {
+				mDelayMatrix[i] = Float.MAX_VALUE;
+			}
+		}
 	}
 
 	/**
-	 * Calculates the shortest path between all pairs of nodes.
+	 * Calculates the shortest path between all pairs of nodes, by the Floyd-Warshall algorithm of
+	 * {@link FloydWarshall_Float} applied in place. Row and column k do not change while the paths
+	 * through node k are computed, hence the delays are the same as the ones computed with a copy
+	 * of the matrix per step.
 	 */
 	private void calculateShortestPath() {
-		FloydWarshall_Float floyd = new FloydWarshall_Float();
+		int n = mTotalNodeNum;
+		float[] d = mDelayMatrix;
+
+		for (int i = 0; i < n; i++) {
+			d[i * n + i] = 0;
+		}
+
+		for (int k = 0; k < n; k++) {
+			int kRow = k * n;
+			for (int i = 0; i < n; i++) {
+				int iRow = i * n;
+				float toK = d[iRow + k];
+				// no path through k is shorter than an unreachable one
+				if (toK == Float.MAX_VALUE) {
+					continue;
+				}
+				for (int j = 0; j < n; j++) {
+					float viaK = toK + d[kRow + j];
+					if (viaK < d[iRow + j]) {
+						d[iRow + j] = viaK;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Calculates the shortest path between all pairs of nodes, by Dijkstra's algorithm from every
+	 * node over the links of the matrix.
+	 */
+	private void calculateShortestPathSparse() {
+		int n = mTotalNodeNum;
+		float[] d = mDelayMatrix;
+
+		// the links of each node, in compressed rows
+		int[] first = new int[n + 1];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				if (i != j && d[i * n + j] != Float.MAX_VALUE) {
+					first[i + 1]++;
+				}
+			}
+			first[i + 1] += first[i];
+		}
+		int[] dest = new int[first[n]];
+		float[] delay = new float[first[n]];
+		for (int i = 0, link = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				if (i != j && d[i * n + j] != Float.MAX_VALUE) {
+					dest[link] = j;
+					delay[link++] = d[i * n + j];
+				}
+			}
+		}
+
+		int[] heap = new int[n];
+		int[] position = new int[n];
+		float[] dist = new float[n];
+		for (int src = 0; src < n; src++) {
+			shortestPaths(first, dest, delay, src, dist, heap, position);
+			System.arraycopy(dist, 0, d, src * n, n);
+		}
+	}
 
-		floyd.initialize(mTotalNodeNum);
-		mDelayMatrix = floyd.allPairsShortestPaths(mDelayMatrix);
+	/**
+	 * Computes the delays from a node to all nodes by Dijkstra's algorithm. The links are stored
+	 * in compressed rows: the links of node i are at the indexes first[i] to first[i + 1] - 1 of
+	 * dest and delay.
+	 * 
+	 * @param first the index of the first link of each node, and the number of links at the end
+	 * @param dest the destination node of each link
+	 * @param delay the delay of each link
+	 * @param src the source node
+	 * @param dist the delays from the source to fill, Float.MAX_VALUE for unreachable nodes
+	 * @param heap working array with an element per node
+	 * @param position working array with an element per node
+	 */
+	static void shortestPaths(int[] first, int[] dest, float[] delay, int src, float[] dist, int[] heap, int[] position) {
+		// binary heap of the nodes by delay, with the position of each node in it
+		Arrays.fill(dist, Float.MAX_VALUE);
+		Arrays.fill(position, -1);
+		dist[src] = 0;
+		heap[0] = src;
+		position[src] = 0;
+		int size = 1;
+		while (size > 0) {
+			int node = heap[0];
+			position[node] = -2;
+			if (--size > 0) {
+				siftDown(heap, position, dist, heap[size], 0, size);
+			}
+			for (int link = first[node]; link < first[node + 1]; link++) {
+				int next = dest[link];
+				float viaNode = dist[node] + delay[link];
+				if (position[next] != -2 && viaNode < dist[next]) {
+					dist[next] = viaNode;
+					if (position[next] == -1) {
+						position[next] = size++;
+					}
+					siftUp(heap, position, dist, next, position[next]);
+				}
+			}
+		}
+	}
+
+	private static void siftUp(int[] heap, int[] position, float[] dist, int node, int index) {
+		while (index > 0) {
+			int parent = (index - 1) >>> 1;
+			if (dist[heap[parent]] <= dist[node]) {
+				break;
+			}
+			heap[index] = heap[parent];
+			position[heap[index]] = index;
+			index = parent;
+		}
+		heap[index] = node;
+		position[node] = index;
+	}
+
+	private static void siftDown(int[] heap, int[] position, float[] dist, int node, int index, int size) {
+		while (true) {
+			int child = 2 * index + 1;
+			if (child >= size) {
+				break;
+			}
+			if (child + 1 < size && dist[heap[child + 1]] < dist[heap[child]]) {
+				child++;
+			}
+			if (dist[node] <= dist[heap[child]]) {
+				break;
+			}
+			heap[index] = heap[child];
+			position[heap[index]] = index;
+			index = child;
+		}
+		heap[index] = node;
+		position[node] = index;
 	}
 
 	@Override
@@ -129,10 +375,11 @@ public class DelayMatrix_Float {
 			buffer.append("\n").append(row);
 
 			for (int col = 0; col < mTotalNodeNum; ++col) {
-				if (mDelayMatrix[row][col] == Float.MAX_VALUE) {
+				float delay = getDelay(row, col);
+				if (delay == Float.MAX_VALUE) {
 					buffer.append("\t" + "-");
 				} else {
-					buffer.append("\t").append(mDelayMatrix[row][col]);
+					buffer.append("\t").append(delay);
 				}
 			}
 		}
@@ -0,0 +1,243 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A delay matrix that does not store the delays between all pairs of nodes. It keeps the links of
+ * the topology, and computes the delays from a node to all nodes by Dijkstra's algorithm when one of
+ * them is requested. The rows of the most recently used nodes are cached, hence looking up the
+ * delays between the few nodes that entities are mapped to stays O(1), with a memory footprint of
+ * O(l + rows * n) instead of O(n²).
+ * <br/>
+ * In an undirected topology the delays are symmetric, so the delay between two nodes is read from
+ * the row of either of them. The rows may also be stored in half precision, at about 3 significant
+ * digits: each row is scaled by a power of two so that its largest delay fits a float16.
+ * <br/>
+ * As reading a delay may compute and cache a row, the methods are synchronized, so that a matrix
+ * can be shared by several threads.
+ *
+ * @see DelayMatrix_Float
+ * @since CloudSim Toolkit 7.0
+ */
+public class DelayRowCache extends DelayMatrix_Float {
+
+	/** The float16 stored for unreachable nodes. */
+	private static final short UNREACHABLE = Float.floatToFloat16(Float.POSITIVE_INFINITY);
+
+	/** The largest exponent of a delay stored in half precision. */
+	private static final int MAX_HALF_EXPONENT = 14;
+
+	private final boolean directed;
+
+	private final boolean halfPrecision;
+
+	/** The links, the last link between two nodes replacing the previous ones. */
+	private final Map<Long, Integer> linkIndex = new HashMap<>();
+	private int[] linkSrc = new int[16];
+	private int[] linkDest = new int[16];
+	private float[] linkDelay = new float[16];
+	private int links = 0;
+
+	/** The links of each node in compressed rows, null if outdated. */
+	private int[] first;
+	private int[] dest;
+	private float[] delay;
+
+	/** Working arrays of Dijkstra's algorithm. */
+	private float[] dist;
+	private int[] heap;
+	private int[] position;
+
+	/** The cached rows, in access order. */
+	private final LinkedHashMap<Integer, Row> rows;
+
+	/**
+	 * The delays from a node, in single or half precision.
+	 */
+	private static final class Row {
+		private final float[] delays;
+		private final short[] halfDelays;
+		private final int exponent;
+
+		private Row(float[] delays, boolean halfPrecision) {
+			if (!halfPrecision) {
+				this.delays = delays.clone();
+				this.halfDelays = null;
+				this.exponent = 0;
+				return;
+			}
+
+			float max = 0;
+			for (float d : delays) {
+				if (d != Float.MAX_VALUE) {
+					max = Math.max(max, d);
+				}
+			}
+			this.delays = null;
+			this.exponent = max == 0 ? 0 : Math.getExponent(max) - MAX_HALF_EXPONENT;
+			this.halfDelays = new short[delays.length];
+			for (int i = 0; i < delays.length; i++) {
+				halfDelays[i] = delays[i] == Float.MAX_VALUE ? UNREACHABLE
+						: Float.floatToFloat16(Math.scalb(delays[i], -exponent));
+			}
+		}
+
+		private float get(int node) {
+			if (delays != null) {
+				return delays[node];
+			}
+			short half = halfDelays[node];
+			return half == UNREACHABLE ? Float.MAX_VALUE : Math.scalb(Float.float16ToFloat(half), exponent);
+		}
+	}
+
+	/**
+	 * Creates a delay matrix of the links of a graph.
+	 *
+	 * @param graph the network topological graph
+	 * @param directed indicates if the delays are directed (true) or not (false)
+	 * @param cachedRows the maximum number of rows of delays to keep
+	 * @param halfPrecision indicates if the rows are stored in half precision (true) or not (false)
+	 */
+	public DelayRowCache(TopologicalGraph graph, boolean directed, final int cachedRows, boolean halfPrecision) {
+		if (cachedRows < 1) {
+			throw new IllegalArgumentException("At least one row must be cached");
+		}
+		this.directed = directed;
+		this.halfPrecision = halfPrecision;
+		this.rows = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, Row> eldest) {
+				return size() > cachedRows;
+			}
+		};
+
+		mTotalNodeNum = graph.getNumberOfNodes();
+		Iterator<TopologicalLink> itr = graph.getLinkIterator();
+		while (itr.hasNext()) {
+			TopologicalLink edge = itr.next();
+			putLink(edge.getSrcNodeID(), edge.getDestNodeID(), edge.getLinkDelay());
+		}
+	}
+
+	@Override
+	public synchronized float getDelay(int srcID, int destID) {
+		if (srcID < 0 || srcID >= mTotalNodeNum || destID < 0 || destID >= mTotalNodeNum) {
+			throw new ArrayIndexOutOfBoundsException("srcID or destID is higher than highest stored node-ID!");
+		}
+
+		Row row = rows.get(srcID);
+		if (row == null && !directed) {
+			row = rows.get(destID);
+			if (row != null) {
+				return row.get(srcID);
+			}
+		}
+		if (row == null) {
+			row = computeRow(srcID);
+		}
+		return row.get(destID);
+	}
+
+	/**
+	 * Adds a link to the topology, which may replace a link between the same nodes. The cached
+	 * rows are discarded. The link is directed if the matrix was created directed.
+	 */
+	@Override
+	public synchronized void addLink(int srcID, int destID, float delay, boolean directed) {
+		mTotalNodeNum = Math.max(mTotalNodeNum, Math.max(srcID, destID) + 1);
+		putLink(srcID, destID, delay);
+	}
+
+	/**
+	 * Gets the number of rows currently cached.
+	 *
+	 * @return the number of cached rows
+	 */
+	public synchronized int getCachedRows() {
+		return rows.size();
+	}
+
+	private void putLink(int src, int dst, float value) {
+		long key = directed || src <= dst
+				? (long) src << 32 | (dst & 0xffffffffL)
+				: (long) dst << 32 | (src & 0xffffffffL);
+		Integer index = linkIndex.get(key);
+		if (index == null) {
+			if (links == linkSrc.length) {
+				linkSrc = Arrays.copyOf(linkSrc, links * 2);
+				linkDest = Arrays.copyOf(linkDest, links * 2);
+				linkDelay = Arrays.copyOf(linkDelay, links * 2);
+			}
+			index = links++;
+			linkIndex.put(key, index);
+		}
+		linkSrc[index] = src;
+		linkDest[index] = dst;
+		linkDelay[index] = value;
+
+		first = null;
+		rows.clear();
+	}
+
+	/**
+	 * Builds the compressed rows of the links. As in {@link DelayMatrix_Float}, a link without
+	 * delay is not a link.
+	 */
+	private void buildLinks() {
+		int n = mTotalNodeNum;
+		first = new int[n + 1];
+		for (int i = 0; i < links; i++) {
+			if (linkDelay[i] != 0 && linkSrc[i] != linkDest[i]) {
+				first[linkSrc[i] + 1]++;
+				if (!directed) {
+					first[linkDest[i] + 1]++;
+				}
+			}
+		}
+		for (int i = 0; i < n; i++) {
+			first[i + 1] += first[i];
+		}
+
+		dest = new int[first[n]];
+		delay = new float[first[n]];
+		int[] next = Arrays.copyOf(first, n);
+		for (int i = 0; i < links; i++) {
+			if (linkDelay[i] != 0 && linkSrc[i] != linkDest[i]) {
+				dest[next[linkSrc[i]]] = linkDest[i];
+				delay[next[linkSrc[i]]++] = linkDelay[i];
+				if (!directed) {
+					dest[next[linkDest[i]]] = linkSrc[i];
+					delay[next[linkDest[i]]++] = linkDelay[i];
+				}
+			}
+		}
+
+		dist = new float[n];
+		heap = new int[n];
+		position = new int[n];
+	}
+
+	private Row computeRow(int src) {
+		if (first == null) {
+			buildLinks();
+		}
+		shortestPaths(first, dest, delay, src, dist, heap, position);
+		Row row = new Row(dist, halfPrecision);
+		rows.put(src, row);
+		return row;
+	}
+
+}
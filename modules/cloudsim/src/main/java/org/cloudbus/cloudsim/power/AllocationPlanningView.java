@@ -0,0 +1,225 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import org.cloudbus.cloudsim.VmAllocationPolicy.GuestMapping;
+import org.cloudbus.cloudsim.VmScheduler;
+import org.cloudbus.cloudsim.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.core.GuestEntity;
+import org.cloudbus.cloudsim.core.HostEntity;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+
+/**
+ * A planning view of the guest placement, on which the migration policies try placements
+ * without allocating resources for them. The view is disabled by default.
+ *
+ * <p>A placement is tried by appending the guest to the guest list of the candidate host while a
+ * condition is checked, so that what the over-utilization checks derive from the guest list
+ * (requested MIPS, utilization history, RAM of the guests) reflects the placement; it is discarded by
+ * removing the guest again. While the condition is checked the guest holds no MIPS, RAM or BW of the
+ * host, so the view must only be enabled for policies whose condition does not depend on the
+ * resources allocated to the guests. This needs to know beforehand whether the host can create the
+ * guest, which is the case for hosts with a time-shared scheduler that can allocate the PEs of the guest
+ * without over-subscription and enough free resources. Otherwise the guest is created and destroyed for
+ * real, as the policies used to do, and the host is recorded as changed.
+ *
+ * <p>The view also makes restoring a saved allocation copy-on-write: only the hosts whose guests were
+ * changed by the plan need to be torn down and recreated.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class AllocationPlanningView {
+
+	private boolean enabled;
+
+	/** The hosts whose allocation was changed by trying a placement for real. */
+	private final Set<HostEntity> changedHosts = Collections.newSetFromMap(new IdentityHashMap<>());
+
+	/**
+	 * Checks a condition as if a guest was placed on a host.
+	 *
+	 * @param host the candidate host
+	 * @param guest the guest
+	 * @param condition the condition, usually whether the host is over-utilized
+	 * @return the condition after the placement, or true if the host cannot create the guest
+	 */
+	public boolean isTrueAfterPlacement(HostEntity host, GuestEntity guest, BooleanSupplier condition) {
+		if (!enabled || !canCreate(host, guest)) {
+			changedHosts.add(host);
+			boolean result = true;
+			if (host.guestCreate(guest)) {
+				result = condition.getAsBoolean();
+				host.guestDestroy(guest);
+			}
+			return result;
+		}
+
+		List<GuestEntity> guests = host.getGuestList();
+		guests.add(guest);
+		try {
+			return condition.getAsBoolean();
+		} finally {
+			if (guests.getLast() == guest) {
+				guests.removeLast();
+			} else {
+				guests.remove(guest);
+			}
+		}
+	}
+
+	/**
+	 * Checks whether trying a placement only changes the guest list of the host, so that
+	 * placements on different hosts can be tried concurrently.
+	 *
+	 * @param host the candidate host
+	 * @param guest the guest
+	 * @return true if the placement is tried on the view
+	 */
+	public boolean canPlan(HostEntity host, GuestEntity guest) {
+		return enabled && canCreate(host, guest);
+	}
+
+	/**
+	 * Checks whether {@link HostEntity#guestCreate(GuestEntity)} would succeed, when that
+	 * is known without trying it.
+	 */
+	private static boolean canCreate(HostEntity host, GuestEntity guest) {
+		return host.getGuestScheduler() instanceof VmSchedulerTimeShared scheduler
+				&& host.getStorage() >= guest.getSize()
+				&& scheduler.canAllocatePes(guest.getCurrentRequestedMips())
+				&& host.getGuestRamProvisioner().isSuitableForGuest(guest, guest.getCurrentRequestedRam())
+				&& host.getGuestBwProvisioner().isSuitableForGuest(guest, guest.getCurrentRequestedBw());
+	}
+
+	/**
+	 * Starts a new plan, forgetting the changed hosts of the previous one.
+	 */
+	public void startPlan() {
+		changedHosts.clear();
+	}
+
+	/**
+	 * Gets the hosts that restoring a saved allocation would change. Restoring it recreates the
+	 * guests migrating in first, then the saved ones in their saved order, allocating them the RAM and
+	 * BW they currently request; a host is unchanged only if its guests are already in that order and
+	 * have those allocations. The MIPS are not checked, as {@link #reallocatePes(HostEntity)} redoes
+	 * them cheaply on unchanged hosts.
+	 *
+	 * @param hostList the hosts
+	 * @param savedAllocation the saved allocation
+	 * @return the changed hosts
+	 */
+	public Set<HostEntity> getChangedHosts(List<? extends HostEntity> hostList, List<GuestMapping> savedAllocation) {
+		Set<HostEntity> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+		if (!enabled) {
+			changed.addAll(hostList);
+			return changed;
+		}
+		changed.addAll(changedHosts);
+
+		Map<HostEntity, List<GuestEntity>> savedGuests = new IdentityHashMap<>();
+		for (GuestMapping map : savedAllocation) {
+			savedGuests.computeIfAbsent(map.host(), host -> new ArrayList<>()).add(map.vm());
+		}
+		for (HostEntity host : hostList) {
+			if (!changed.contains(host)
+					&& !isRestored(host, savedGuests.getOrDefault(host, Collections.emptyList()))) {
+				changed.add(host);
+			}
+		}
+		return changed;
+	}
+
+	private static boolean isRestored(HostEntity host, List<GuestEntity> savedGuests) {
+		if (!(host.getGuestScheduler() instanceof VmSchedulerTimeShared)
+				|| !(host.getGuestRamProvisioner() instanceof RamProvisionerSimple)
+				|| !(host.getGuestBwProvisioner() instanceof BwProvisionerSimple)) {
+			return false;
+		}
+		List<GuestEntity> guests = host.getGuestList();
+		List<GuestEntity> migratingIn = host.getGuestsMigratingIn();
+		if (guests.size() != migratingIn.size() + savedGuests.size()) {
+			return false;
+		}
+		int i = 0;
+		for (GuestEntity guest : migratingIn) {
+			if (guests.get(i++) != guest || !isAllocatedAsRequested(host, guest)) {
+				return false;
+			}
+		}
+		for (GuestEntity guest : savedGuests) {
+			if (guests.get(i++) != guest || !isAllocatedAsRequested(host, guest)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isAllocatedAsRequested(HostEntity host, GuestEntity guest) {
+		return host.getGuestRamProvisioner().getAllocatedRamForGuest(guest)
+				== Math.min(guest.getCurrentRequestedRam(), guest.getRam())
+				&& host.getGuestBwProvisioner().getAllocatedBwForGuest(guest) == guest.getCurrentRequestedBw();
+	}
+
+	/**
+	 * Reallocates the PEs of an unchanged host to its guests in their order, as recreating them would:
+	 * trying a placement for real on another host may have left the MIPS of this one allocated in a
+	 * different order, e.g. when the guest was created and destroyed on it.
+	 *
+	 * @param host the host
+	 */
+	public void reallocatePes(HostEntity host) {
+		VmScheduler scheduler = host.getGuestScheduler();
+		scheduler.deallocatePesForAllGuests();
+		for (GuestEntity guest : host.getGuestList()) {
+			scheduler.allocatePesForGuest(guest, guest.getCurrentRequestedMips());
+		}
+	}
+
+	/**
+	 * Restores the state a guest of an unchanged host would get from being recreated on it.
+	 *
+	 * @param host the host
+	 * @param guest the guest
+	 */
+	public void resetGuest(HostEntity host, GuestEntity guest) {
+		guest.setHost(host);
+		guest.setCurrentAllocatedRam(host.getGuestRamProvisioner().getAllocatedRamForGuest(guest));
+		guest.setCurrentAllocatedBw(host.getGuestBwProvisioner().getAllocatedBwForGuest(guest));
+	}
+
+	/**
+	 * Checks whether placements are tried on the view. If not, they are created and destroyed for real,
+	 * and restoring an allocation recreates the guests of all hosts.
+	 *
+	 * @return true if the view is enabled
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Sets whether placements are tried on the view. It should only be enabled for policies whose
+	 * over-utilization check does not depend on the resources allocated to the guests.
+	 *
+	 * @param enabled whether the view is enabled
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+}
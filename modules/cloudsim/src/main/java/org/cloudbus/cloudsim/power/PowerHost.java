@@ -8,7 +8,6 @@
 
 package org.cloudbus.cloudsim.power;
 
-import java.util.Arrays;
 import java.util.List;
 
 import org.cloudbus.cloudsim.HostDynamicWorkload;
@@ -117,18 +116,20 @@ public class PowerHost extends HostDynamicWorkload implements PowerHostEntity {
 	 * @return the host CPU utilization percentage history
 	 */
 	public double[] getUtilizationHistory() {
-		double[] utilizationHistory = new double[PowerHostEntity.HISTORY_LENGTH];
-		double hostMips = getTotalMips();
+		// sized by the longest VM history up front, so the array needs no trimming copy
 		int maxlen = 0;
+		for (PowerVm vm : this.<PowerVm>getGuestList()) {
+			maxlen = Math.max(maxlen, vm.getUtilizationHistory().size());
+		}
+		double[] utilizationHistory = new double[maxlen];
+		double hostMips = getTotalMips();
 		for (PowerVm vm : this.<PowerVm>getGuestList()) {
 			double guestMips = vm.getMips();
 			int i = 0;
 			for (double u : vm.getUtilizationHistory()) {
 				utilizationHistory[i++] += u * guestMips / hostMips;
 			}
-			if (i > maxlen)
-				maxlen = i;
 		}
-		return Arrays.copyOf(utilizationHistory, maxlen);
+		return utilizationHistory;
 	}
 }
@@ -15,13 +15,17 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.cloudbus.cloudsim.*;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.GuestEntity;
 import org.cloudbus.cloudsim.core.HostEntity;
+import org.cloudbus.cloudsim.core.SimulationContext;
 import org.cloudbus.cloudsim.lists.VmList;
 import org.cloudbus.cloudsim.selectionPolicies.SelectionPolicy;
+import org.cloudbus.cloudsim.util.DoubleList;
 import org.cloudbus.cloudsim.util.ExecutionTimeMeasurer;
 
 /**
@@ -49,14 +53,23 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 	/** A list of maps between a VM and the host where it is place. */
 	private final List<GuestMapping> savedAllocation = new ArrayList<>();
 
-	private void growIfNeeded(List<List<Double>> l, int idx) {
+	/** The view on which placements are tried while planning migrations. */
+	private final AllocationPlanningView planningView = new AllocationPlanningView();
+
+	/** Marks the hosts left to score sequentially, as the planning view cannot try the placement on them. */
+	private static final double DEFERRED = Double.NEGATIVE_INFINITY;
+
+	/** The pool scoring the candidate hosts of a VM in parallel, or null to score them sequentially. */
+	private ForkJoinPool placementPool;
+
+	private void growIfNeeded(List<DoubleList> l, int idx) {
 		for (int i = l.size(); i <= idx; i++)
 			l.add(null);
 	}
 
 	/** A map of CPU utilization history (in percentage) for each host,
          where each key is a host id and each value is the CPU utilization percentage history.*/
-    private final List<List<Double>> utilizationHistory = new ArrayList<>();
+    private final List<DoubleList> utilizationHistory = new ArrayList<>();
 
 	/** 
          * The metric history. 
@@ -64,12 +77,12 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
          * other it stores utilization threshold or predicted utilization, that
          * is very confusing.
          */
-	private final List<List<Double>> metricHistory = new ArrayList<>();
+	private final List<DoubleList> metricHistory = new ArrayList<>();
 
 	/** The time when entries in each history list was added. 
          * All history lists are updated at the same time.
          */
-	private final List<List<Double>> timeHistory = new ArrayList<>();
+	private final List<DoubleList> timeHistory = new ArrayList<>();
 
 	/** The history of time spent in VM selection 
          * every time the optimization of VM allocation method is called. 
@@ -235,38 +248,136 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
          * and that will not be overloaded after placing the VM on it.
          * The selected host will be that one with most efficient
          * power usage for the given VM.
+         * The hosts are scored in parallel if a {@link #setPlacementPool(ForkJoinPool) placement pool} is set.
 	 * 
 	 * @param vm the VM
 	 * @param excludedHosts the excluded hosts
 	 * @return the host found to host the VM
 	 */
 	public PowerHost findHostForGuest(GuestEntity vm, Set<? extends HostEntity> excludedHosts) {
+		List<PowerHost> hostList = getHostList();
+		double[] powerDiffs = null;
+		if (getPlacementPool() != null && getPlanningView().isEnabled() && hostList.size() > 1) {
+			powerDiffs = new double[hostList.size()];
+			// warm the caches of the requested MIPS before the VM is shared by the scoring threads
+			vm.getCurrentRequestedMips();
+			getPlacementPool().invoke(new HostScoring(this, hostList, vm, excludedHosts, powerDiffs, 0, powerDiffs.length));
+		}
+
 		double minPower = Double.MAX_VALUE;
 		PowerHost allocatedHost = null;
 
-		for (PowerHost host : this.<PowerHost> getHostList()) {
-			if (excludedHosts.contains(host)) {
-				continue;
+		for (int i = 0; i < hostList.size(); i++) {
+			PowerHost host = hostList.get(i);
+			double powerDiff = powerDiffs == null || powerDiffs[i] == DEFERRED
+					? getPowerDiffAfterAllocation(host, vm, excludedHosts)
+					: powerDiffs[i];
+			if (powerDiff < minPower) {
+				minPower = powerDiff;
+				allocatedHost = host;
 			}
-			if (host.isSuitableForGuest(vm)) {
-				if (getUtilizationOfCpuMips(host) != 0 && isHostOverUtilizedAfterAllocation(host, vm)) {
-					continue;
-				}
+		}
+		return allocatedHost;
+	}
+
+	/**
+	 * Gets the increase of the power consumption of a host after placing a VM on it,
+	 * if the host has enough resources for the VM and will not be overloaded after placing it.
+	 *
+	 * @param host the candidate host
+	 * @param vm the VM
+	 * @param excludedHosts the excluded hosts
+	 * @return the power difference, or NaN if the host is not a candidate for the VM
+	 */
+	protected double getPowerDiffAfterAllocation(PowerHost host, GuestEntity vm, Set<? extends HostEntity> excludedHosts) {
+		if (excludedHosts.contains(host) || !host.isSuitableForGuest(vm)) {
+			return Double.NaN;
+		}
+		if (getUtilizationOfCpuMips(host) != 0 && isHostOverUtilizedAfterAllocation(host, vm)) {
+			return Double.NaN;
+		}
+
+		try {
+			double powerAfterAllocation = getPowerAfterAllocation(host, vm);
+			if (powerAfterAllocation != -1) {
+				return powerAfterAllocation - host.getPower();
+			}
+		} catch (Exception e) {
+		}
+		return Double.NaN;
+	}
+
+	/**
+	 * Scores a range of candidate hosts for a VM, splitting it across the placement pool.
+	 * Each task only tries the placement on its own hosts, through the planning view; the
+	 * host is then picked sequentially in host list order, so ties are broken as in the sequential
+	 * algorithm and the migration map is the same. The tasks are never serialized.
+	 */
+	private static final class HostScoring extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		/** The number of hosts below which a range is scored by a single task. */
+		private static final int THRESHOLD = 8;
+
+		private final transient PowerVmAllocationPolicyMigrationAbstract policy;
 
-				try {
-					double powerAfterAllocation = getPowerAfterAllocation(host, vm);
-					if (powerAfterAllocation != -1) {
-						double powerDiff = powerAfterAllocation - host.getPower();
-						if (powerDiff < minPower) {
-							minPower = powerDiff;
-							allocatedHost = host;
-						}
+		private final transient List<PowerHost> hostList;
+
+		private final transient GuestEntity vm;
+
+		private final transient Set<? extends HostEntity> excludedHosts;
+
+		private final double[] powerDiffs;
+
+		private final int from;
+
+		private final int to;
+
+		private final transient SimulationContext context;
+
+		HostScoring(PowerVmAllocationPolicyMigrationAbstract policy, List<PowerHost> hostList, GuestEntity vm,
+				Set<? extends HostEntity> excludedHosts, double[] powerDiffs, int from, int to) {
+			this(policy, hostList, vm, excludedHosts, powerDiffs, from, to, CloudSim.getContext());
+		}
+
+		private HostScoring(PowerVmAllocationPolicyMigrationAbstract policy, List<PowerHost> hostList, GuestEntity vm,
+				Set<? extends HostEntity> excludedHosts, double[] powerDiffs, int from, int to, SimulationContext context) {
+			this.policy = policy;
+			this.hostList = hostList;
+			this.vm = vm;
+			this.excludedHosts = excludedHosts;
+			this.powerDiffs = powerDiffs;
+			this.from = from;
+			this.to = to;
+			this.context = context;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > THRESHOLD) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new HostScoring(policy, hostList, vm, excludedHosts, powerDiffs, from, middle, context),
+						new HostScoring(policy, hostList, vm, excludedHosts, powerDiffs, middle, to, context));
+				return;
+			}
+
+			SimulationContext previous = CloudSim.bindContext(context);
+			try {
+				for (int i = from; i < to; i++) {
+					PowerHost host = hostList.get(i);
+					if (excludedHosts.contains(host)) {
+						powerDiffs[i] = Double.NaN;
+					} else if (policy.getPlanningView().canPlan(host, vm)) {
+						powerDiffs[i] = policy.getPowerDiffAfterAllocation(host, vm, excludedHosts);
+					} else {
+						powerDiffs[i] = DEFERRED;
 					}
-				} catch (Exception e) {
 				}
+			} finally {
+				CloudSim.bindContext(previous);
 			}
 		}
-		return allocatedHost;
 	}
 
 	/**
@@ -277,12 +388,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 	 * @return true, if the host will be over utilized after VM placement; false otherwise
 	 */
 	protected boolean isHostOverUtilizedAfterAllocation(PowerHost host, GuestEntity vm) {
-		boolean isHostOverUtilizedAfterAllocation = true;
-		if (host.guestCreate(vm)) {
-			isHostOverUtilizedAfterAllocation = isHostOverUtilized(host);
-			host.guestDestroy(vm);
-		}
-		return isHostOverUtilizedAfterAllocation;
+		return getPlanningView().isTrueAfterPlacement(host, vm, () -> isHostOverUtilized(host));
 	}
 
 	@Override
@@ -487,24 +593,25 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 	 * @param host the host to add metric history entries
 	 * @param metric the metric to be added to the metric history map
 	 */
-	protected void addHistoryEntry(HostDynamicWorkload host, double metric) {
+	protected synchronized void addHistoryEntry(HostDynamicWorkload host, double metric) {
 		int hostId = host.getId();
 		growIfNeeded(timeHistory, hostId);
 		if (timeHistory.get(hostId) == null) {
-			timeHistory.set(hostId, new ArrayList<Double>());
+			timeHistory.set(hostId, new DoubleList());
 		}
 		growIfNeeded(utilizationHistory, hostId);
 		if (utilizationHistory.get(hostId) == null) {
-			utilizationHistory.set(hostId, new ArrayList<Double>());
+			utilizationHistory.set(hostId, new DoubleList());
 		}
 		growIfNeeded(metricHistory, hostId);
 		if (metricHistory.get(hostId) == null) {
-			metricHistory.set(hostId, new ArrayList<Double>());
+			metricHistory.set(hostId, new DoubleList());
 		}
-		if (timeHistory.get(hostId).isEmpty() || timeHistory.get(hostId).getLast() < CloudSim.clock()) {
-			timeHistory.get(hostId).add(CloudSim.clock());
-			utilizationHistory.get(hostId).add(host.getUtilizationOfCpu());
-			metricHistory.get(hostId).add(metric);
+		DoubleList times = timeHistory.get(hostId);
+		if (times.isEmpty() || times.getDouble(times.size() - 1) < CloudSim.clock()) {
+			times.addDouble(CloudSim.clock());
+			utilizationHistory.get(hostId).addDouble(host.getUtilizationOfCpu());
+			metricHistory.get(hostId).addDouble(metric);
 		}
 	}
 
@@ -513,6 +620,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
          * @see #savedAllocation
 	 */
 	protected void saveAllocation() {
+		getPlanningView().startPlan();
 		getSavedAllocation().clear();
 		for (HostEntity host : getHostList()) {
 			for (GuestEntity vm : host.getGuestList()) {
@@ -526,17 +634,25 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 
 	/**
 	 * Restore VM allocation from the allocation history.
+	 * Only the hosts whose VMs were changed since the allocation was saved are recreated.
          * @see #savedAllocation
 	 */
 	protected void restoreAllocation() {
+		Set<HostEntity> changedHosts = getPlanningView().getChangedHosts(getHostList(), getSavedAllocation());
 		for (HostEntity host : getHostList()) {
-			host.guestDestroyAll();
-			host.reallocateMigratingInGuests();
+			if (changedHosts.contains(host)) {
+				host.guestDestroyAll();
+				host.reallocateMigratingInGuests();
+			} else {
+				getPlanningView().reallocatePes(host);
+			}
 		}
 		for (GuestMapping map : getSavedAllocation()) {
 			Vm vm = (Vm) map.vm();
 			PowerHost host = (PowerHost) map.host();
-			if (!host.guestCreate(vm)) {
+			if (!changedHosts.contains(host)) {
+				getPlanningView().resetGuest(host, vm);
+			} else if (!host.guestCreate(vm)) {
 				Log.printlnConcat("Couldn't restore VM #", vm.getId(), " on host #", host.getId());
 				System.exit(0);
 			}
@@ -610,6 +726,40 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 		return savedAllocation;
 	}
 
+	/**
+	 * Gets the view on which placements are tried while planning migrations. It is disabled by
+	 * default, in which case the placements are created and destroyed for real.
+	 *
+	 * @return the planning view
+	 */
+	public AllocationPlanningView getPlanningView() {
+		return planningView;
+	}
+
+	/**
+	 * Gets the pool scoring the candidate hosts of a VM in parallel.
+	 *
+	 * @return the placement pool, or null if the hosts are scored sequentially
+	 */
+	public ForkJoinPool getPlacementPool() {
+		return placementPool;
+	}
+
+	/**
+	 * Sets the pool scoring the candidate hosts of a VM in parallel. The placements are still
+	 * committed sequentially, so the migration map is the same as with sequential scoring, provided
+	 * that {@link #isHostOverUtilized(PowerHost)} only reads the host it is given and its VMs.
+	 * A scoring task only tries placements on the {@link #getPlanningView() planning view}, which
+	 * changes nothing but the guest list of its own hosts; hence the hosts are only scored in parallel
+	 * while the view is enabled, and the hosts on which it cannot try a placement are scored
+	 * sequentially. No pool is set by default.
+	 *
+	 * @param placementPool the placement pool, or null to score the hosts sequentially
+	 */
+	public void setPlacementPool(ForkJoinPool placementPool) {
+		this.placementPool = placementPool;
+	}
+
 	/**
 	 * Sets the vm selection policy.
 	 * 
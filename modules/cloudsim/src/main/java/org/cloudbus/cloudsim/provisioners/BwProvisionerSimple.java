@@ -8,10 +8,11 @@
 
 package org.cloudbus.cloudsim.provisioners;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Map;
 
 import org.cloudbus.cloudsim.core.GuestEntity;
+import org.cloudbus.cloudsim.util.GuestIndex;
 
 /**
  * BwProvisionerSimple is an extension of {@link BwProvisioner} which uses a best-effort policy to
@@ -25,9 +26,11 @@ import org.cloudbus.cloudsim.core.GuestEntity;
  */
 public class BwProvisionerSimple extends BwProvisioner {
 
-	/** The BW map, where each key is a VM id and each value
-         * is the amount of BW allocated to that VM. */
-	private Map<String, Long> bwTable;
+	/** The slot of each VM with allocated BW. */
+	private final GuestIndex guestIndex = new GuestIndex();
+
+	/** The amount of BW allocated to each VM, by slot. */
+	private long[] allocatedBw = new long[8];
 
 	/**
 	 * Instantiates a new bw provisioner simple.
@@ -36,7 +39,6 @@ public class BwProvisionerSimple extends BwProvisioner {
 	 */
 	public BwProvisionerSimple(long bw) {
 		super(bw);
-		setBwTable(new HashMap<>());
 	}
 
 	@Override
@@ -45,7 +47,7 @@ public class BwProvisionerSimple extends BwProvisioner {
 
 		if (getAvailableBw() + old_bw >= bw) {
 			setAvailableBw(getAvailableBw() + old_bw - bw);
-			bwTable.put(guest.getUid(), bw);
+			setAllocatedBw(guestIndex.add(guest), bw);
 			guest.setCurrentAllocatedBw(bw);
 			return true;
 		}
@@ -55,25 +57,22 @@ public class BwProvisionerSimple extends BwProvisioner {
 
 	@Override
 	public long getAllocatedBwForGuest(GuestEntity guest) {
-		Long bw = bwTable.get(guest.getUid());
-		if (bw != null)
-			return bw;
-		else
-			return 0;
+		int slot = guestIndex.slot(guest);
+		return slot < 0 ? 0 : allocatedBw[slot];
 	}
 
 	@Override
 	public void deallocateBwForGuest(GuestEntity guest) {
-		Long allocatedBw = bwTable.remove(guest.getUid());
-		if (allocatedBw != null)
-			setAvailableBw(getAvailableBw() + allocatedBw);
+		int slot = guestIndex.remove(guest);
+		if (slot >= 0)
+			setAvailableBw(getAvailableBw() + allocatedBw[slot]);
 		guest.setCurrentAllocatedBw(0);
 	}
 
 	@Override
 	public void deallocateBwForAllGuests() {
 		super.deallocateBwForAllGuests();
-		getBwTable().clear();
+		guestIndex.clear();
 	}
 
 	@Override
@@ -90,19 +89,29 @@ public class BwProvisionerSimple extends BwProvisioner {
 	/**
 	 * Gets the map between VMs and allocated bw.
 	 * 
-	 * @return the bw map
+	 * @return a read-only view of the bw allocations, keyed by VM uid
 	 */
 	protected Map<String, Long> getBwTable() {
-		return bwTable;
+		return guestIndex.view(slot -> allocatedBw[slot]);
 	}
 
 	/**
 	 * Sets the map between VMs and allocated bw.
 	 * 
-	 * @param bwTable the bw map
+	 * @param bwTable the bw map, whose entries are copied
 	 */
 	protected void setBwTable(Map<String, Long> bwTable) {
-		this.bwTable = bwTable;
+		guestIndex.clear();
+		for (Map.Entry<String, Long> entry : bwTable.entrySet()) {
+			setAllocatedBw(guestIndex.add(entry.getKey()), entry.getValue());
+		}
+	}
+
+	private void setAllocatedBw(int slot, long bw) {
+		if (slot >= allocatedBw.length) {
+			allocatedBw = Arrays.copyOf(allocatedBw, Math.max(slot + 1, allocatedBw.length * 2));
+		}
+		allocatedBw[slot] = bw;
 	}
 
 }
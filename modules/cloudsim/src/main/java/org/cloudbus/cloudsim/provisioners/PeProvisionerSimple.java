@@ -9,11 +9,11 @@
 package org.cloudbus.cloudsim.provisioners;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.cloudbus.cloudsim.core.GuestEntity;
+import org.cloudbus.cloudsim.util.GuestTable;
 
 /**
  * PeProvisionerSimple is an extension of {@link PeProvisioner} which uses a best-effort policy to
@@ -28,7 +28,7 @@ public class PeProvisionerSimple extends PeProvisioner {
 
 	/** The PE map, where each key is a VM id and each value
          * is the list of in terms of their allocated amount of MIPS to that VM. */
-	private Map<String, List<Double>> peTable;
+	private GuestTable<List<Double>> peTable;
 
 	/**
 	 * Instantiates a new pe provisioner simple.
@@ -40,12 +40,25 @@ public class PeProvisionerSimple extends PeProvisioner {
 	 */
 	public PeProvisionerSimple(double availableMips) {
 		super(availableMips);
-		setPeTable(new HashMap<String, ArrayList<Double>>());
+		peTable = new GuestTable<>();
 	}
 
 	@Override
 	public boolean allocateMipsForGuest(GuestEntity guest, double mips) {
-		return allocateMipsForGuest(guest.getUid(), mips);
+		if (getAvailableMips() < mips) {
+			return false;
+		}
+
+		List<Double> allocatedMips = peTable.get(guest);
+		if (allocatedMips == null) {
+			allocatedMips = new ArrayList<>();
+			peTable.put(guest, allocatedMips);
+		}
+
+		allocatedMips.add(mips);
+		setAvailableMips(getAvailableMips() - mips);
+
+		return true;
 	}
 
 	@Override
@@ -66,7 +79,7 @@ public class PeProvisionerSimple extends PeProvisioner {
 	public boolean allocateMipsForGuest(GuestEntity guest, List<Double> mips) {
 		deallocateMipsForGuest(guest);
 		for (double _mips : mips) {
-			if (!allocateMipsForGuest(guest.getUid(), _mips)) {
+			if (!allocateMipsForGuest(guest, _mips)) {
 				return false;
 			}
 		}
@@ -91,10 +104,7 @@ public class PeProvisionerSimple extends PeProvisioner {
 
 	@Override
 	public List<Double> getAllocatedMipsForGuest(GuestEntity guest) {
-		if (getPeTable().containsKey(guest.getUid())) {
-			return getPeTable().get(guest.getUid());
-		}
-		return null;
+		return peTable.get(guest);
 	}
 
 	@Override
@@ -119,7 +129,7 @@ public class PeProvisionerSimple extends PeProvisioner {
 			for (double mips : allocatedMips) {
 				setAvailableMips(getAvailableMips() + mips);
 			}
-			getPeTable().remove(guest.getUid());
+			peTable.remove(guest);
 		}
 	}
 
@@ -135,10 +145,9 @@ public class PeProvisionerSimple extends PeProvisioner {
 	/**
 	 * Sets the pe map.
 	 * 
-	 * @param peTable the peTable to set
+	 * @param peTable the peTable to set, whose entries are copied
 	 */
-	@SuppressWarnings("unchecked")
 	protected void setPeTable(Map<String, ? extends List<Double>> peTable) {
-		this.peTable = (Map<String, List<Double>>) peTable;
+		this.peTable = new GuestTable<>(peTable);
 	}
 }
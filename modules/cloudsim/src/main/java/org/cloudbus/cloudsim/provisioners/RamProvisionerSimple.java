@@ -8,11 +8,12 @@
 
 package org.cloudbus.cloudsim.provisioners;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
 import org.cloudbus.cloudsim.core.GuestEntity;
+import org.cloudbus.cloudsim.util.GuestIndex;
 
 /**
  * RamProvisionerSimple is an extension of {@link RamProvisioner} which uses a best-effort policy to
@@ -25,9 +26,11 @@ import org.cloudbus.cloudsim.core.GuestEntity;
  */
 public class RamProvisionerSimple extends RamProvisioner {
 
-	/** The RAM map, where each key is a VM id and each value
-         * is the amount of RAM allocated to that VM. */
-	private Map<String, Integer> ramTable;
+	/** The slot of each VM with allocated RAM. */
+	private final GuestIndex guestIndex = new GuestIndex();
+
+	/** The amount of RAM allocated to each VM, by slot. */
+	private int[] allocatedRam = new int[8];
 
 	/**
 	 * Instantiates a new ram provisioner simple.
@@ -36,7 +39,6 @@ public class RamProvisionerSimple extends RamProvisioner {
 	 */
 	public RamProvisionerSimple(int availableRam) {
 		super(availableRam);
-		setRamTable(new HashMap<>());
 	}
 
 	@Override
@@ -53,7 +55,7 @@ public class RamProvisionerSimple extends RamProvisioner {
 
 		if (getAvailableRam() >= ram) {
 			setAvailableRam(getAvailableRam() - ram);
-			getRamTable().put(guest.getUid(), ram);
+			setAllocatedRam(guestIndex.add(guest), ram);
 			guest.setCurrentAllocatedRam(getAllocatedRamForGuest(guest));
 			return true;
 		}
@@ -65,18 +67,16 @@ public class RamProvisionerSimple extends RamProvisioner {
 
 	@Override
 	public int getAllocatedRamForGuest(GuestEntity guest) {
-		if (getRamTable().containsKey(guest.getUid())) {
-			return getRamTable().get(guest.getUid());
-		}
-		return 0;
+		int slot = guestIndex.slot(guest);
+		return slot < 0 ? 0 : allocatedRam[slot];
 	}
 
 	@Override
 	public void deallocateRamForGuest(GuestEntity guest) {
 		int allocatedRam = getAllocatedRamForGuest(guest);
 		if (allocatedRam > 0) {
-			int amountFreed = getRamTable().remove(guest.getUid());
-			setAvailableRam(getAvailableRam() + amountFreed);
+			guestIndex.remove(guest);
+			setAvailableRam(getAvailableRam() + allocatedRam);
 			guest.setCurrentAllocatedRam(0);
 		}
 	}
@@ -84,7 +84,7 @@ public class RamProvisionerSimple extends RamProvisioner {
 	@Override
 	public void deallocateRamForAllGuests() {
 		super.deallocateRamForAllGuests();
-		getRamTable().clear();
+		guestIndex.clear();
 	}
 
 	@Override
@@ -101,19 +101,29 @@ public class RamProvisionerSimple extends RamProvisioner {
 	/**
 	 * Gets the map between VMs and allocated ram.
 	 * 
-	 * @return the ram map
+	 * @return a read-only view of the ram allocations, keyed by VM uid
 	 */
 	protected Map<String, Integer> getRamTable() {
-		return ramTable;
+		return guestIndex.view(slot -> allocatedRam[slot]);
 	}
 
 	/**
 	 * Sets the map between VMs and allocated ram.
 	 * 
-	 * @param ramTable the ram map
+	 * @param ramTable the ram map, whose entries are copied
 	 */
 	protected void setRamTable(Map<String, Integer> ramTable) {
-		this.ramTable = ramTable;
+		guestIndex.clear();
+		for (Map.Entry<String, Integer> entry : ramTable.entrySet()) {
+			setAllocatedRam(guestIndex.add(entry.getKey()), entry.getValue());
+		}
+	}
+
+	private void setAllocatedRam(int slot, int ram) {
+		if (slot >= allocatedRam.length) {
+			allocatedRam = Arrays.copyOf(allocatedRam, Math.max(slot + 1, allocatedRam.length * 2));
+		}
+		allocatedRam[slot] = ram;
 	}
 
 }
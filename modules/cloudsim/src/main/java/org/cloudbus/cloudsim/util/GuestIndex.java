@@ -0,0 +1,414 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+import org.cloudbus.cloudsim.core.GuestEntity;
+
+/**
+ * Assigns dense slot numbers to guest entities, so that allocation tables can store
+ * their values in primitive arrays indexed by slot instead of maps keyed by the guest uid.
+ * Guests are identified by their (user id, guest id) pair, which is hashed as a single long:
+ * a lookup neither builds the uid string nor boxes anything.
+ * The slots of removed guests are reused by the next added ones.
+ *
+ * @since CloudSim Toolkit 7.0
+ * @see GuestEntity#getUid(int, int)
+ */
+public class GuestIndex {
+
+	private static final int EMPTY = -1;
+
+	/** Open-addressing table of slots, probed linearly from the hash of the key. */
+	private int[] buckets;
+
+	/** The key of each slot. */
+	private long[] keys = new long[8];
+
+	/** Whether each slot is in use. */
+	private boolean[] used = new boolean[8];
+
+	/** The slots freed by removals, reused first. */
+	private int[] freeSlots = new int[8];
+
+	private int freeCount = 0;
+
+	/** The number of slots handed out so far, i.e. an upper bound of the used slots. */
+	private int slotCount = 0;
+
+	private int size = 0;
+
+	public GuestIndex() {
+		buckets = new int[16];
+		Arrays.fill(buckets, EMPTY);
+	}
+
+	/**
+	 * Gets the slot of a guest.
+	 *
+	 * @param guest the guest
+	 * @return the slot, or -1 if the guest has none
+	 */
+	public int slot(GuestEntity guest) {
+		return slot(guest.getUserId(), guest.getId());
+	}
+
+	/**
+	 * Gets the slot of a guest.
+	 *
+	 * @param userId  the id of the guest's owner
+	 * @param guestId the guest id
+	 * @return the slot, or -1 if the guest has none
+	 */
+	public int slot(int userId, int guestId) {
+		int bucket = find(key(userId, guestId));
+		return bucket < 0 ? -1 : buckets[bucket];
+	}
+
+	/**
+	 * Gets the slot of a guest by its uid.
+	 *
+	 * @param uid the guest uid
+	 * @return the slot, or -1 if the guest has none or the string is not a uid
+	 */
+	public int slot(String uid) {
+		int bucket;
+		try {
+			bucket = find(parseUid(uid));
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+		return bucket < 0 ? -1 : buckets[bucket];
+	}
+
+	/**
+	 * Gets the slot of a guest, assigning one if needed.
+	 *
+	 * @param guest the guest
+	 * @return the slot
+	 */
+	public int add(GuestEntity guest) {
+		return add(guest.getUserId(), guest.getId());
+	}
+
+	/**
+	 * Gets the slot of a guest, assigning one if needed.
+	 *
+	 * @param userId  the id of the guest's owner
+	 * @param guestId the guest id
+	 * @return the slot
+	 */
+	public int add(int userId, int guestId) {
+		return add(key(userId, guestId));
+	}
+
+	/**
+	 * Gets the slot of a guest by its uid, assigning one if needed.
+	 *
+	 * @param uid the guest uid
+	 * @return the slot
+	 * @throws IllegalArgumentException if the string is not a uid
+	 */
+	public int add(String uid) {
+		try {
+			return add(parseUid(uid));
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Not a guest uid: " + uid, e);
+		}
+	}
+
+	private int add(long key) {
+		int bucket = find(key);
+		if (bucket >= 0) {
+			return buckets[bucket];
+		}
+		if ((size + 1) * 2 > buckets.length) {
+			rehash(buckets.length * 2);
+		}
+
+		int slot;
+		if (freeCount > 0) {
+			slot = freeSlots[--freeCount];
+		} else {
+			slot = slotCount++;
+			if (slot == keys.length) {
+				keys = Arrays.copyOf(keys, slot * 2);
+				used = Arrays.copyOf(used, slot * 2);
+			}
+		}
+		keys[slot] = key;
+		used[slot] = true;
+		size++;
+		insert(slot);
+		return slot;
+	}
+
+	/**
+	 * Frees the slot of a guest.
+	 *
+	 * @param guest the guest
+	 * @return the freed slot, or -1 if the guest had none
+	 */
+	public int remove(GuestEntity guest) {
+		return remove(guest.getUserId(), guest.getId());
+	}
+
+	/**
+	 * Frees the slot of a guest.
+	 *
+	 * @param userId  the id of the guest's owner
+	 * @param guestId the guest id
+	 * @return the freed slot, or -1 if the guest had none
+	 */
+	public int remove(int userId, int guestId) {
+		int bucket = find(key(userId, guestId));
+		return bucket < 0 ? -1 : removeBucket(bucket);
+	}
+
+	/**
+	 * Frees a slot.
+	 *
+	 * @param slot the slot
+	 */
+	public void removeSlot(int slot) {
+		if (isUsed(slot)) {
+			removeBucket(find(keys[slot]));
+		}
+	}
+
+	/**
+	 * Frees all slots.
+	 */
+	public void clear() {
+		Arrays.fill(buckets, EMPTY);
+		Arrays.fill(used, false);
+		freeCount = 0;
+		slotCount = 0;
+		size = 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets an upper bound of the used slots, to walk them with {@link #isUsed(int)}.
+	 *
+	 * @return the number of slots handed out so far
+	 */
+	public int getSlotCount() {
+		return slotCount;
+	}
+
+	public boolean isUsed(int slot) {
+		return slot >= 0 && slot < slotCount && used[slot];
+	}
+
+	/**
+	 * Gets the id of the owner of the guest of a used slot.
+	 *
+	 * @param slot the slot
+	 * @return the user id
+	 */
+	public int getUserId(int slot) {
+		return (int) (keys[slot] >> 32);
+	}
+
+	/**
+	 * Gets the id of the guest of a used slot.
+	 *
+	 * @param slot the slot
+	 * @return the guest id
+	 */
+	public int getGuestId(int slot) {
+		return (int) keys[slot];
+	}
+
+	/**
+	 * Gets the uid of the guest of a used slot.
+	 *
+	 * @param slot the slot
+	 * @return the guest uid
+	 */
+	public String getUid(int slot) {
+		return GuestEntity.getUid(getUserId(slot), getGuestId(slot));
+	}
+
+	/**
+	 * Gets a read-only map view of a table indexed by the slots of this index.
+	 *
+	 * @param value gets the value of a used slot
+	 * @param <V>   the value type
+	 * @return the map view, keyed by guest uid
+	 */
+	public <V> Map<String, V> view(IntFunction<V> value) {
+		return new AbstractMap<>() {
+			@Override
+			public V get(Object key) {
+				int slot = key instanceof String uid ? slot(uid) : -1;
+				return slot < 0 ? null : value.apply(slot);
+			}
+
+			@Override
+			public boolean containsKey(Object key) {
+				return key instanceof String uid && slot(uid) >= 0;
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+
+			@Override
+			public Set<Entry<String, V>> entrySet() {
+				return new AbstractSet<>() {
+					@Override
+					public Iterator<Entry<String, V>> iterator() {
+						SlotIterator slots = new SlotIterator();
+						return new Iterator<>() {
+							@Override
+							public boolean hasNext() {
+								return slots.hasNext();
+							}
+
+							@Override
+							public Entry<String, V> next() {
+								int slot = slots.nextSlot();
+								return new SimpleImmutableEntry<>(getUid(slot), value.apply(slot));
+							}
+						};
+					}
+
+					@Override
+					public int size() {
+						return size;
+					}
+				};
+			}
+		};
+	}
+
+	/**
+	 * Walks the used slots in increasing order. Removing the current slot meanwhile is allowed.
+	 */
+	public class SlotIterator {
+		private int next = advance(0);
+
+		private int advance(int from) {
+			while (from < slotCount && !used[from]) {
+				from++;
+			}
+			return from;
+		}
+
+		public boolean hasNext() {
+			return next < slotCount;
+		}
+
+		public int nextSlot() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			int slot = next;
+			next = advance(slot + 1);
+			return slot;
+		}
+	}
+
+	/**
+	 * Parses a guest uid into its key.
+	 *
+	 * @throws NumberFormatException if the string is not a uid
+	 */
+	private static long parseUid(String uid) {
+		int separator = uid.indexOf('-', 1);
+		if (separator < 0) {
+			throw new NumberFormatException(uid);
+		}
+		return key(Integer.parseInt(uid, 0, separator, 10),
+				Integer.parseInt(uid, separator + 1, uid.length(), 10));
+	}
+
+	private static long key(int userId, int guestId) {
+		return ((long) userId << 32) | (guestId & 0xFFFFFFFFL);
+	}
+
+	private static int hash(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	/**
+	 * @return the bucket holding the slot of the key, or -1 if there is none
+	 */
+	private int find(long key) {
+		int mask = buckets.length - 1;
+		for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+			int slot = buckets[i];
+			if (slot == EMPTY) {
+				return -1;
+			}
+			if (keys[slot] == key) {
+				return i;
+			}
+		}
+	}
+
+	private void insert(int slot) {
+		int mask = buckets.length - 1;
+		int i = hash(keys[slot]) & mask;
+		while (buckets[i] != EMPTY) {
+			i = (i + 1) & mask;
+		}
+		buckets[i] = slot;
+	}
+
+	private void rehash(int length) {
+		buckets = new int[length];
+		Arrays.fill(buckets, EMPTY);
+		for (int slot = 0; slot < slotCount; slot++) {
+			if (used[slot]) {
+				insert(slot);
+			}
+		}
+	}
+
+	private int removeBucket(int bucket) {
+		int slot = buckets[bucket];
+		used[slot] = false;
+		size--;
+		if (freeCount == freeSlots.length) {
+			freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+		}
+		freeSlots[freeCount++] = slot;
+
+		// shift back the following entries of the probe sequence into the hole
+		int mask = buckets.length - 1;
+		int hole = bucket;
+		buckets[hole] = EMPTY;
+		for (int i = (hole + 1) & mask; buckets[i] != EMPTY; i = (i + 1) & mask) {
+			int home = hash(keys[buckets[i]]) & mask;
+			boolean reachable = hole <= i ? (home <= hole || home > i) : (home <= hole && home > i);
+			if (reachable) {
+				buckets[hole] = buckets[i];
+				buckets[i] = EMPTY;
+				hole = i;
+			}
+		}
+		return slot;
+	}
+}
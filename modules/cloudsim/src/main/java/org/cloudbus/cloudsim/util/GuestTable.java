@@ -0,0 +1,254 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import org.cloudbus.cloudsim.core.GuestEntity;
+
+/**
+ * A map keyed by guest uid whose values are stored in an array indexed by {@link GuestIndex} slot.
+ * The guest-keyed methods look entries up without building the uid string; the {@link Map}
+ * methods parse the uid instead, so the table can replace a {@code Map<String, V>} keyed by
+ * {@link GuestEntity#getUid()} without changing its callers. Entries are iterated in slot order.
+ *
+ * @param <V> the value type
+ * @since CloudSim Toolkit 7.0
+ */
+public class GuestTable<V> extends AbstractMap<String, V> {
+
+	private final GuestIndex index = new GuestIndex();
+
+	private Object[] values = new Object[8];
+
+	public GuestTable() {
+	}
+
+	/**
+	 * Creates a table with the entries of a map keyed by guest uid.
+	 *
+	 * @param map the map to copy
+	 * @throws IllegalArgumentException if a key is not a guest uid
+	 */
+	public GuestTable(Map<String, ? extends V> map) {
+		for (Entry<String, ? extends V> entry : map.entrySet()) {
+			putSlot(index.add(entry.getKey()), entry.getValue());
+		}
+	}
+
+	public V get(GuestEntity guest) {
+		return get(guest.getUserId(), guest.getId());
+	}
+
+	@SuppressWarnings("unchecked")
+	public V get(int userId, int guestId) {
+		int slot = index.slot(userId, guestId);
+		return slot < 0 ? null : (V) values[slot];
+	}
+
+	public boolean containsGuest(GuestEntity guest) {
+		return index.slot(guest) >= 0;
+	}
+
+	public V put(GuestEntity guest, V value) {
+		return putSlot(index.add(guest), value);
+	}
+
+	public V put(int userId, int guestId, V value) {
+		return putSlot(index.add(userId, guestId), value);
+	}
+
+	public V remove(GuestEntity guest) {
+		return removeSlot(index.slot(guest));
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V get(Object key) {
+		int slot = key instanceof String uid ? index.slot(uid) : -1;
+		return slot < 0 ? null : (V) values[slot];
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return key instanceof String uid && index.slot(uid) >= 0;
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the key is not a guest uid
+	 */
+	@Override
+	public V put(String uid, V value) {
+		return putSlot(index.add(uid), value);
+	}
+
+	@Override
+	public V remove(Object key) {
+		return removeSlot(key instanceof String uid ? index.slot(uid) : -1);
+	}
+
+	@Override
+	public int size() {
+		return index.size();
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(values, 0, index.getSlotCount(), null);
+		index.clear();
+	}
+
+	@Override
+	public Set<Entry<String, V>> entrySet() {
+		return new AbstractSet<>() {
+			@Override
+			public Iterator<Entry<String, V>> iterator() {
+				GuestIndex.SlotIterator slots = index.new SlotIterator();
+				return new Iterator<>() {
+					private int current = -1;
+
+					@Override
+					public boolean hasNext() {
+						return slots.hasNext();
+					}
+
+					@Override
+					public Entry<String, V> next() {
+						current = slots.nextSlot();
+						return new SlotEntry(current);
+					}
+
+					@Override
+					public void remove() {
+						if (current < 0) {
+							throw new IllegalStateException();
+						}
+						removeSlot(current);
+						current = -1;
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return index.size();
+			}
+
+			@Override
+			public void clear() {
+				GuestTable.this.clear();
+			}
+		};
+	}
+
+	/**
+	 * Gets the entries of the table, which identify their guest by ids instead of by uid.
+	 * They are iterated in slot order, as {@link #entrySet()}.
+	 *
+	 * @return the entries
+	 */
+	public Iterable<GuestEntry<V>> guestEntries() {
+		return () -> {
+			GuestIndex.SlotIterator slots = index.new SlotIterator();
+			return new Iterator<>() {
+				@Override
+				public boolean hasNext() {
+					return slots.hasNext();
+				}
+
+				@Override
+				@SuppressWarnings("unchecked")
+				public GuestEntry<V> next() {
+					int slot = slots.nextSlot();
+					return new GuestEntry<>(index.getUserId(slot), index.getGuestId(slot), (V) values[slot]);
+				}
+			};
+		};
+	}
+
+	@SuppressWarnings("unchecked")
+	private V putSlot(int slot, V value) {
+		if (slot >= values.length) {
+			values = Arrays.copyOf(values, Math.max(slot + 1, values.length * 2));
+		}
+		V previous = (V) values[slot];
+		values[slot] = value;
+		return previous;
+	}
+
+	@SuppressWarnings("unchecked")
+	private V removeSlot(int slot) {
+		if (slot < 0) {
+			return null;
+		}
+		V previous = (V) values[slot];
+		values[slot] = null;
+		index.removeSlot(slot);
+		return previous;
+	}
+
+	/**
+	 * An entry of the table, whose guest uid is only built on request.
+	 *
+	 * @param <V> the value type
+	 */
+	public static final class GuestEntry<V> {
+		private final int userId;
+		private final int guestId;
+		private final V value;
+
+		GuestEntry(int userId, int guestId, V value) {
+			this.userId = userId;
+			this.guestId = guestId;
+			this.value = value;
+		}
+
+		public int getUserId() {
+			return userId;
+		}
+
+		public int getGuestId() {
+			return guestId;
+		}
+
+		public String getUid() {
+			return GuestEntity.getUid(userId, guestId);
+		}
+
+		public V getValue() {
+			return value;
+		}
+	}
+
+	/**
+	 * An entry writing through to its slot.
+	 */
+	private final class SlotEntry extends SimpleEntry<String, V> {
+		private static final long serialVersionUID = 1L;
+
+		private final int slot;
+
+		@SuppressWarnings("unchecked")
+		SlotEntry(int slot) {
+			super(index.getUid(slot), (V) values[slot]);
+			this.slot = slot;
+		}
+
+		@Override
+		public V setValue(V value) {
+			values[slot] = value;
+			return super.setValue(value);
+		}
+	}
+}
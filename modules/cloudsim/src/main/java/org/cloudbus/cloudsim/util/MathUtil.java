@@ -10,10 +10,15 @@ package org.cloudbus.cloudsim.util;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.apache.commons.math3.exception.NoDataException;
+import org.apache.commons.math3.exception.util.LocalizedFormats;
 import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 import org.apache.commons.math3.stat.regression.OLSMultipleLinearRegression;
 import org.apache.commons.math3.stat.regression.SimpleRegression;
+import org.apache.commons.math3.util.Precision;
 
 /**
  * A class containing multiple convenient math functions.
@@ -61,7 +66,7 @@ public class MathUtil {
 	 * @return the median
 	 */
 	public static double median(final List<Double> list) {
-		return getStatistics(list).getPercentile(50);
+		return median(listToArray(list));
 	}
 
 	/**
@@ -72,7 +77,31 @@ public class MathUtil {
 	 * @return the median
 	 */
 	public static double median(final double[] list) {
-		return getStatistics(list).getPercentile(50);
+		double[] sorted = list.clone();
+		Arrays.sort(sorted);
+		return medianOfSorted(sorted);
+	}
+
+	/**
+	 * Gets the median from a sorted array of numbers, estimated as the 50th percentile of
+	 * {@link DescriptiveStatistics#getPercentile(double)} is, without copying the array again.
+	 * 
+	 * @param sorted the array of numbers, in ascending order
+	 * @return the median, or NaN if the array is empty
+	 */
+	private static double medianOfSorted(final double[] sorted) {
+		int n = sorted.length;
+		if (n == 0) {
+			return Double.NaN;
+		}
+		double pos = 0.5 * (n + 1);
+		if (pos >= n) {
+			return sorted[n - 1];
+		}
+		int intPos = (int) Math.floor(pos);
+		double lower = sorted[intPos - 1];
+		double upper = sorted[intPos];
+		return lower + (pos - intPos) * (upper - lower);
 	}
 
 	/**
@@ -170,7 +199,8 @@ public class MathUtil {
 			for (int i = 0; i < data.length; i++) {
 				deviationSum[i] = Math.abs(median - data[i]);
 			}
-			mad = median(deviationSum);
+			Arrays.sort(deviationSum);
+			mad = medianOfSorted(deviationSum);
 		}
 		return mad;
 	}
@@ -238,13 +268,7 @@ public class MathUtil {
 	 * @return the Loess parameter estimates
 	 */
 	public static double[] getLoessParameterEstimates(final double[] y) {
-		int n = y.length;
-		double[] x = new double[n];
-		for (int i = 0; i < n; i++) {
-			x[i] = i + 1;
-		}
-		return createWeigthedLinearRegression(x, y, getTricubeWeigts(n))
-				.regress().getParameterEstimates();
+		return getWeightedLinearRegressionEstimates(y, getTricubeWeights(y.length, true));
 	}
 
 	public static SimpleRegression createLinearRegression(final double[] x,
@@ -297,27 +321,86 @@ public class MathUtil {
 	 */
 	public static double[] getRobustLoessParameterEstimates(final double[] y) {
 		int n = y.length;
-		double[] x = new double[n];
-		for (int i = 0; i < n; i++) {
-			x[i] = i + 1;
-		}
-		SimpleRegression tricubeRegression = createWeigthedLinearRegression(x,
-				y, getTricubeWeigts(n));
+		double[] tricubeEstimates = getWeightedLinearRegressionEstimates(y, getTricubeWeights(n, true));
 		double[] residuals = new double[n];
 		for (int i = 0; i < n; i++) {
-			residuals[i] = y[i] - tricubeRegression.predict(x[i]);
+			residuals[i] = y[i] - predict(tricubeEstimates, i + 1);
 		}
-		SimpleRegression tricubeBySquareRegression = createWeigthedLinearRegression(
-				x, y, getTricubeBisquareWeigts(residuals));
-
-		double[] estimates = tricubeBySquareRegression.regress()
-				.getParameterEstimates();
+		double[] estimates = getWeightedLinearRegressionEstimates(y, getTricubeBisquareWeigts(residuals));
 		if (Double.isNaN(estimates[0]) || Double.isNaN(estimates[1])) {
-			return tricubeRegression.regress().getParameterEstimates();
+			return tricubeEstimates;
 		}
 		return estimates;
 	}
 
+	/**
+	 * Gets the intercept and slope of the linear regression of y over x = 1, 2, ..., n, weighted as
+	 * {@link #createWeigthedLinearRegression(double[], double[], double[])} does. The data are accumulated
+	 * in the same order and with the same arithmetic as {@link SimpleRegression}, so the estimates are
+	 * identical to those of {@link SimpleRegression#regress()}, without allocating the regression objects.
+	 * 
+	 * @param y the y array
+	 * @param weigths the weights
+	 * @return the intercept and the slope
+	 * @throws IllegalArgumentException if there are less than 3 values
+	 */
+	private static double[] getWeightedLinearRegressionEstimates(final double[] y, final double[] weigths) {
+		int n = y.length;
+		if (n < 3) {
+			// the exception SimpleRegression#regress() throws
+			throw new NoDataException(LocalizedFormats.NOT_ENOUGH_DATA_REGRESSION);
+		}
+		int numZeroWeigths = 0;
+		for (double weigth : weigths) {
+			if (weigth <= 0) {
+				numZeroWeigths++;
+			}
+		}
+		boolean weighted = numZeroWeigths >= 0.4 * weigths.length;
+
+		double sumX = 0, sumY = 0, sumXX = 0, sumXY = 0, xbar = 0, ybar = 0;
+		for (int i = 0; i < n; i++) {
+			double x = i + 1;
+			double yi = y[i];
+			if (weighted) {
+				x = Math.sqrt(weigths[i]) * x;
+				yi = Math.sqrt(weigths[i]) * yi;
+			}
+			if (i == 0) {
+				xbar = x;
+				ybar = yi;
+			} else {
+				double fact1 = 1.0 + i;
+				double fact2 = i / (1.0 + i);
+				double dx = x - xbar;
+				double dy = yi - ybar;
+				sumXX += dx * dx * fact2;
+				sumXY += dx * dy * fact2;
+				xbar += dx / fact1;
+				ybar += dy / fact1;
+			}
+			sumX += x;
+			sumY += yi;
+		}
+
+		if (!(Math.abs(sumXX) > Precision.SAFE_MIN)) {
+			return new double[] { sumY / n, Double.NaN };
+		}
+		double slope = Math.abs(sumXX) < 10 * Double.MIN_VALUE ? Double.NaN : sumXY / sumXX;
+		return new double[] { (sumY - slope * sumX) / n, slope };
+	}
+
+	/**
+	 * Predicts y for a given x from regression estimates.
+	 * 
+	 * @param estimates the intercept and the slope
+	 * @param x the x value
+	 * @return the predicted y
+	 */
+	private static double predict(final double[] estimates, final double x) {
+		return estimates[0] + estimates[1] * x;
+	}
+
 	/**
 	 * Gets the tricube weigths.
 	 * 
@@ -326,6 +409,28 @@ public class MathUtil {
          * //@TODO The word "weight" is misspelled in the method name.
 	 */
 	public static double[] getTricubeWeigts(final int n) {
+		return getTricubeWeights(n, false);
+	}
+
+	/**
+	 * The tricube weights computed so far, per number of weights. They only depend on that
+	 * number, and the regressions use a few window lengths.
+	 */
+	private static final Map<Integer, double[]> tricubeWeights = new ConcurrentHashMap<>();
+
+	/**
+	 * Gets the tricube weigths.
+	 * 
+	 * @param n the number of weights
+	 * @param shared whether the caller only reads the weights, so that they need not be copied
+	 * @return an array of tricube weigths with n elements
+	 */
+	private static double[] getTricubeWeights(final int n, final boolean shared) {
+		double[] weights = tricubeWeights.computeIfAbsent(n, MathUtil::computeTricubeWeights);
+		return shared ? weights : weights.clone();
+	}
+
+	private static double[] computeTricubeWeights(final int n) {
 		double[] weights = new double[n];
 		double top = n - 1;
 		double spread = top;
@@ -350,7 +455,7 @@ public class MathUtil {
 	 */
 	public static double[] getTricubeBisquareWeigts(final double[] residuals) {
 		int n = residuals.length;
-		double[] weights = getTricubeWeigts(n);
+		double[] weights = getTricubeWeights(n, true);
 		double[] weights2 = new double[n];
 		double s6 = median(abs(residuals)) * 6;
 		for (int i = 2; i < n; i++) {
@@ -8,13 +8,19 @@
 
 package org.cloudbus.cloudsim.util;
 
-import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipEntry;
@@ -35,7 +41,8 @@ import org.cloudbus.cloudsim.UtilizationModelFull;
  * <li>If you need to load multiple trace files, then you need to create multiple instances of this
  * class <tt>each with a unique entity name</tt>.
  * <li>If size of the trace file is huge or contains lots of traces, please increase the JVM heap
- * size accordingly by using <tt>java -Xmx</tt> option when running the simulation.
+ * size accordingly by using <tt>java -Xmx</tt> option when running the simulation, or read the
+ * jobs incrementally with {@link #readJobs()}, which keeps only the current job in memory.
  * <li>The default job file size for sending to and receiving from a resource is
  * {@link gridsim.net.Link#DEFAULT_MTU}. However, you can specify the file size by using
  * {@link #setCloudletFileSize(int)}.
@@ -145,9 +152,14 @@ public class WorkloadFileReader implements WorkloadModel {
     private static final int IRRELEVANT = -1; 
 
     /**
-     * A temp array storing all the fields read from a line of the trace file.
+     * Whitespace bytes separating the fields of a line, as matched by the <tt>\\s</tt> regex.
      */
-    private String[] fieldArray = null; 
+    private static final int TAB = '\t', VERTICAL_TAB = 0x0B, FORM_FEED = '\f', SPACE = ' ';
+
+    /**
+     * The size of the buffer the trace file is read through.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
 
     /**
      * Create a new WorkloadFileReader object.
@@ -192,20 +204,9 @@ public class WorkloadFileReader implements WorkloadModel {
             if (jobs == null) {
                     jobs = new ArrayList<>();
 
-                    // create a temp array
-                    fieldArray = new String[MAX_FIELD];
-
-                    try {
-                            /*//@TODO It would be implemented
-                            using specific classes to avoid using ifs.
-                            If a new format is included, the code has to be
-                            changed to include another if*/
-                            if (file.getName().endsWith(".gz")) {
-                                    readGZIPFile(file);
-                            } else if (file.getName().endsWith(".zip")) {
-                                    readZipFile(file);
-                            } else {
-                                    readFile(file);
+                    try (JobReader reader = readJobs()) {
+                            while (reader.next()) {
+                                    jobs.add(reader.createCloudlet());
                             }
                     } catch (final IOException e) {
                     }
@@ -214,6 +215,19 @@ public class WorkloadFileReader implements WorkloadModel {
             return jobs;
     }
 
+    /**
+     * Opens the trace file for reading its jobs one at a time, without keeping the
+     * jobs read before in memory. The lines are split into fields in place, in the
+     * buffer the file is read through, and the {@link Cloudlet} of a job is only
+     * created when {@link JobReader#createCloudlet()} is called.
+     * 
+     * @return the reader of the jobs, which must be closed
+     * @throws IOException if the trace file cannot be opened
+     */
+    public JobReader readJobs() throws IOException {
+            return new JobReader();
+    }
+
     /**
      * Sets the string that identifies the start of a comment line.
      * 
@@ -303,248 +317,333 @@ public class WorkloadFileReader implements WorkloadModel {
             return true;
     }
 
-    // ------------------- PRIVATE METHODS -------------------
-
-    /**
-     * Creates a Cloudlet with the given information and adds to the list of {@link #jobs}.
-     * 
-     * @param id a Cloudlet ID
-     * @param submitTime Cloudlet's submit time
-     * @param runTime The number of seconds the Cloudlet has to run. Considering that 
-     * and the {@link #rating}, the {@link Cloudlet#cloudletLength} is computed.
-     * @param numProc number of Cloudlet's PEs
-     * @param reqRunTime user estimated run time 
-     * (//@TODO the parameter is not being used and it is not clear what it is)
-     * @param userID user id
-     * @param groupID user's group id
-     * @pre id >= 0
-     * @pre submitTime >= 0
-     * @pre runTime >= 0
-     * @pre numProc > 0
-     * @post $none
-     * @see #rating
-     */
-    private void createJob(
-                    final int id,
-                    final long submitTime,
-                    final int runTime,
-                    final int numProc,
-                    final int reqRunTime,
-                    final int userID,
-                    final int groupID) {
-            // create the cloudlet
-            final int len = runTime * rating;
-            UtilizationModel utilizationModel = new UtilizationModelFull();
-            final Cloudlet wgl = new Cloudlet(
-                            id,
-                            len,
-                            numProc,
-                            0,
-                            0,
-                            utilizationModel,
-                            utilizationModel,
-                            utilizationModel);
-            jobs.add(wgl);
-    }
-
     /**
-     * Extracts relevant information from a given array of fields,
-     * representing a line from the trace file, and create a cloudlet 
-     * using this information.
+     * Reads the jobs of the trace file one at a time, in the order of the file.
+     * Lines that are comments, do not have {@link #MAX_FIELD} fields, or whose
+     * fields are not valid numbers are skipped.
      * 
-     * @param array the array of fields generated from a line of the trace file.
-     * @param line the line number
-     * @pre array != null
-     * @pre line > 0
-     * //@TODO The name of the method doesn't describe what it in fact does.
+     * @see #readJobs()
+     * @since CloudSim Toolkit 7.0
      */
-    private void extractField(final String[] array, final int line) {
-            try {
-                    Integer obj = null;
-
-                    // get the job number
-                    int id = 0;
-                    if (JOB_NUM == IRRELEVANT) {
-                            id = jobs.size() + 1;
-                    } else {
-                            obj = Integer.valueOf(array[JOB_NUM].trim());
-                            id = obj;
-                    }
-
-                    // get the submit time
-                    final long l = Long.parseLong(array[SUBMIT_TIME].trim());
-                    final long submitTime = (int) l;
-
-                    // get the user estimated run time
-                    obj = Integer.valueOf(array[REQ_RUN_TIME].trim());
-                    final int reqRunTime = obj;
-
-                    // if the required run time field is ignored, then use
-                    // the actual run time
-                    obj = Integer.valueOf(array[RUN_TIME].trim());
-                    int runTime = obj;
+    public class JobReader implements Closeable {
+
+        /** The entries of a zip file, or null. */
+        private final ZipFile zipFile;
+        private final Enumeration<? extends ZipEntry> zipEntries;
+
+        /** The channel of the text being read, null at the end of the file. */
+        private ReadableByteChannel channel;
+
+        private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        private final byte[] comment = COMMENT.getBytes(StandardCharsets.UTF_8);
+
+        /** The start and end offsets in the buffer of the fields of the current line. */
+        private final int[] fieldStart = new int[MAX_FIELD];
+        private final int[] fieldEnd = new int[MAX_FIELD];
+
+        /** The number of jobs read. */
+        private int count = 0;
+
+        private int id;
+        private long submitTime;
+        private int runTime;
+        private int numProc;
+        private int reqRunTime;
+        private int userID;
+        private int groupID;
+
+        private JobReader() throws IOException {
+            buffer.flip();
+            /*//@TODO It would be implemented
+            using specific classes to avoid using ifs.
+            If a new format is included, the code has to be
+            changed to include another if*/
+            if (file.getName().endsWith(".zip")) {
+                zipFile = new ZipFile(file);
+                zipEntries = zipFile.entries();
+                channel = nextZipEntry();
+            } else {
+                zipFile = null;
+                zipEntries = null;
+                if (file.getName().endsWith(".gz")) {
+                    channel = Channels.newChannel(new GZIPInputStream(new FileInputStream(file), BUFFER_SIZE));
+                } else {
+                    channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+                }
+            }
+        }
 
-                    final int userID = Integer.parseInt(array[USER_ID].trim());
-                    final int groupID = Integer.parseInt(array[GROUP_ID].trim());
+        private ReadableByteChannel nextZipEntry() throws IOException {
+            return zipEntries.hasMoreElements()
+                    ? Channels.newChannel(zipFile.getInputStream(zipEntries.nextElement()))
+                    : null;
+        }
 
-                    // according to the SWF manual, runtime of 0 is possible due
-                    // to rounding down. E.g. runtime is 0.4 seconds -> runtime = 0
-                    if (runTime <= 0) {
-                            runTime = 1; // change to 1 second
+        /**
+         * Reads the next job.
+         * 
+         * @return <code>true</code> if a job was read, <code>false</code> at the end of the file
+         * @throws IOException if the there was any error reading the file
+         */
+        public boolean next() throws IOException {
+            while (true) {
+                int end = findLineEnd();
+                if (end < 0) {
+                    if (channel == null) {
+                        return false;
                     }
+                    fill();
+                    continue;
+                }
+                int start = buffer.position();
+                // skip the line and its terminator, which is \n, \r or \r\n
+                buffer.position(end < buffer.limit() ? end + 1 : end);
+                if (parseLine(start, end)) {
+                    count++;
+                    return true;
+                }
+            }
+        }
 
-                    // get the number of allocated processors
-                    obj = Integer.valueOf(array[REQ_NUM_PROC].trim());
-                    int numProc = obj;
+        /**
+         * Gets the end of the current line in the buffer, or -1 if the line may not
+         * be complete yet.
+         */
+        private int findLineEnd() {
+            byte[] bytes = buffer.array();
+            for (int i = buffer.position(); i < buffer.limit(); i++) {
+                if (bytes[i] == '\n' || bytes[i] == '\r') {
+                    return i;
+                }
+            }
+            // the last line of the file may have no terminator
+            return channel == null && buffer.hasRemaining() ? buffer.limit() : -1;
+        }
 
-                    // if the required num of allocated processors field is ignored
-                    // or zero, then use the actual field
-                    if (numProc == IRRELEVANT || numProc == 0) {
-                            obj = Integer.valueOf(array[NUM_PROC].trim());
-                            numProc = obj;
+        /**
+         * Reads more of the file after the unread bytes of the buffer, growing it if
+         * a line does not fit.
+         */
+        private void fill() throws IOException {
+            buffer.compact();
+            if (!buffer.hasRemaining()) {
+                ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                buffer.flip();
+                larger.put(buffer);
+                buffer = larger;
+            }
+            while (channel != null && channel.read(buffer) < 0) {
+                channel.close();
+                if (zipFile == null) {
+                    channel = null;
+                } else {
+                    // a line does not continue into the next entry
+                    if (buffer.position() > 0 && zipEntries.hasMoreElements()) {
+                        buffer.put((byte) '\n');
                     }
-
-                    // finally, check if the num of PEs required is valid or not
-                    if (numProc <= 0) {
-                            numProc = 1;
+                    channel = nextZipEntry();
+                    if (buffer.position() > 0) {
+                        break;
                     }
-                    createJob(id, submitTime, runTime, numProc, reqRunTime, userID, groupID);
-            } catch (final Exception e) {
-
+                }
             }
-    }
+            buffer.flip();
+        }
+
+        /**
+         * Splits a line into its fields and extracts the job from them.
+         * 
+         * @return <code>true</code> if the line is a valid job
+         */
+        private boolean parseLine(final int start, final int end) {
+            byte[] bytes = buffer.array();
 
-    /**
-     * Breaks a line from the trace file into many fields into the
-     * {@link #fieldArray}.
-     * 
-     * @param line a line from the trace file
-     * @param lineNum the line number
-     * @pre line != null
-     * @pre lineNum > 0
-     * @post $none
-     */
-    private void parseValue(final String line, final int lineNum) {
             // skip a comment line
-            if (line.startsWith(COMMENT)) {
-                    return;
+            if (end - start >= comment.length
+                    && Arrays.equals(bytes, start, start + comment.length, comment, 0, comment.length)) {
+                return false;
             }
 
-            final String[] sp = line.split("\\s+"); // split the fields based on a
-            // space
-            int len = 0; // length of a string
-            int index = 0; // the index of an array
-
-            // check for each field in the array
-            for (final String elem : sp) {
-                    len = elem.length(); // get the length of a string
+            int fields = 0;
+            int i = start;
+            while (i < end) {
+                if (isSpace(bytes[i])) {
+                    i++;
+                    continue;
+                }
+                if (fields == MAX_FIELD) {
+                    return false;
+                }
+                fieldStart[fields] = i;
+                while (i < end && !isSpace(bytes[i])) {
+                    i++;
+                }
+                fieldEnd[fields++] = i;
+            }
+            return fields == MAX_FIELD && extractJob();
+        }
 
-                    // if it is empty then ignore
-                    if (len == 0) {
-                            continue;
-                    }
-                    fieldArray[index] = elem;
-                    index++;
+        /**
+         * Extracts the job from the fields of the current line.
+         * 
+         * @return <code>true</code> if the fields are valid
+         */
+        private boolean extractJob() {
+            try {
+                // get the job number
+                id = JOB_NUM == IRRELEVANT ? count + 1 : parseInt(JOB_NUM);
+
+                // get the submit time
+                submitTime = parseLong(SUBMIT_TIME);
+
+                // get the user estimated run time
+                reqRunTime = parseInt(REQ_RUN_TIME);
+
+                // if the required run time field is ignored, then use
+                // the actual run time
+                runTime = parseInt(RUN_TIME);
+
+                userID = parseInt(USER_ID);
+                groupID = parseInt(GROUP_ID);
+
+                // according to the SWF manual, runtime of 0 is possible due
+                // to rounding down. E.g. runtime is 0.4 seconds -> runtime = 0
+                if (runTime <= 0) {
+                    runTime = 1; // change to 1 second
+                }
+
+                // get the number of allocated processors
+                numProc = parseInt(REQ_NUM_PROC);
+
+                // if the required num of allocated processors field is ignored
+                // or zero, then use the actual field
+                if (numProc == IRRELEVANT || numProc == 0) {
+                    numProc = parseInt(NUM_PROC);
+                }
+
+                // finally, check if the num of PEs required is valid or not
+                if (numProc <= 0) {
+                    numProc = 1;
+                }
+                return true;
+            } catch (final NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                return false;
             }
+        }
 
-            if (index == MAX_FIELD) {
-                    extractField(fieldArray, lineNum);
+        private int parseInt(final int field) {
+            long value = parseLong(field);
+            if (value != (int) value) {
+                throw new NumberFormatException("Value out of int range");
             }
-    }
+            return (int) value;
+        }
 
-    /**
-     * Reads traces from a text file, one line at a time.
-     * 
-     * @param fl a file name
-     * @return <code>true</code> if successful, <code>false</code> otherwise.
-     * @throws IOException if the there was any error reading the file
-     * @throws FileNotFoundException if the file was not found
-     */
-    private boolean readFile(final File fl) throws IOException, FileNotFoundException {
-            boolean success = false;
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(fl)))) {
-
-            // read one line at the time
-            int line = 1;
-            String readLine = null;
-            while (reader.ready() && (readLine = reader.readLine()) != null) {
-                parseValue(readLine, line);
-                line++;
+        /**
+         * Parses a field as a decimal integer, with an optional sign, as {@link Long#parseLong(String)}.
+         */
+        private long parseLong(final int field) {
+            byte[] bytes = buffer.array();
+            int i = fieldStart[field];
+            int end = fieldEnd[field];
+            boolean negative = bytes[i] == '-';
+            if (negative || bytes[i] == '+') {
+                i++;
+            }
+            if (i == end) {
+                throw new NumberFormatException("No digits");
             }
+            // accumulate negatively, as Long.MIN_VALUE has no positive counterpart
+            long value = 0;
+            for (; i < end; i++) {
+                int digit = bytes[i] - '0';
+                if (digit < 0 || digit > 9 || value < (Long.MIN_VALUE + digit) / 10) {
+                    throw new NumberFormatException("Invalid number");
+                }
+                value = value * 10 - digit;
+            }
+            if (!negative) {
+                if (value == Long.MIN_VALUE) {
+                    throw new NumberFormatException("Value out of long range");
+                }
+                value = -value;
+            }
+            return value;
+        }
 
-            reader.close();
-            success = true;
+        private boolean isSpace(final byte b) {
+            return b == SPACE || b == TAB || b == VERTICAL_TAB || b == FORM_FEED;
         }
 
-            return success;
-    }
+        /**
+         * Creates a Cloudlet for the current job.
+         * The {@link Cloudlet#cloudletLength} is computed from the run time and the {@link #rating}.
+         * 
+         * @return the cloudlet of the job
+         */
+        public Cloudlet createCloudlet() {
+            // create the cloudlet
+            final int len = runTime * rating;
+            UtilizationModel utilizationModel = new UtilizationModelFull();
+            return new Cloudlet(
+                    id,
+                    len,
+                    numProc,
+                    0,
+                    0,
+                    utilizationModel,
+                    utilizationModel,
+                    utilizationModel);
+        }
 
-    /**
-     * Reads traces from a gzip file, one line at a time.
-     * 
-     * @param fl a gzip file name
-     * @return <code>true</code> if successful; <code>false</code> otherwise.
-     * @throws IOException if the there was any error reading the file
-     * @throws FileNotFoundException if the file was not found
-     */
-    private boolean readGZIPFile(final File fl) throws IOException, FileNotFoundException {
-            boolean success = false;
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(fl))))) {
-
-            // read one line at the time
-            int line = 1;
-            String readLine = null;
-            while (reader.ready() && (readLine = reader.readLine()) != null) {
-                parseValue(readLine, line);
-                line++;
-            }
+        /** @return the id of the current job */
+        public int getId() {
+            return id;
+        }
 
-            reader.close();
-            success = true;
+        /** @return the submit time of the current job, in seconds from the start of the trace */
+        public long getSubmitTime() {
+            return submitTime;
         }
 
-            return success;
-    }
+        /** @return the run time of the current job, in seconds */
+        public int getRunTime() {
+            return runTime;
+        }
 
-    /**
-     * Reads traces from a Zip file, one line at a time.
-     * 
-     * @param fl a zip file name
-     * @return <code>true</code> if reading a file is successful; <code>false</code> otherwise.
-     * @throws IOException if the there was any error reading the file
-     */
-    private boolean readZipFile(final File fl) throws IOException {
-            boolean success = false;
-            ZipFile zipFile = null;
-            try {
-                    BufferedReader reader = null;
-
-                    // ZipFile offers an Enumeration of all the files in the file
-                    zipFile = new ZipFile(fl);
-                    final Enumeration<? extends ZipEntry> e = zipFile.entries();
-                    while (e.hasMoreElements()) {
-                            success = false; // reset the value again
-                            final ZipEntry zipEntry = e.nextElement();
-
-                            reader = new BufferedReader(new InputStreamReader(zipFile.getInputStream(zipEntry)));
-
-                            // read one line at the time
-                            int line = 1;                       
-                            String readLine = null;
-                            while (reader.ready() && (readLine = reader.readLine()) != null)  {
-                                    parseValue(readLine, line);
-                                    line++;
-                            }
+        /** @return the number of PEs of the current job */
+        public int getNumProc() {
+            return numProc;
+        }
 
-                            reader.close();
-                            success = true;
-                    }
+        /** @return the user estimated run time of the current job */
+        public int getReqRunTime() {
+            return reqRunTime;
+        }
+
+        /** @return the id of the user of the current job */
+        public int getUserID() {
+            return userID;
+        }
+
+        /** @return the id of the group of the user of the current job */
+        public int getGroupID() {
+            return groupID;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (channel != null) {
+                    channel.close();
+                    channel = null;
+                }
             } finally {
-                    if (zipFile != null) {
-                            zipFile.close();
-                    }
+                if (zipFile != null) {
+                    zipFile.close();
+                }
             }
-
-            return success;
+        }
     }
 }
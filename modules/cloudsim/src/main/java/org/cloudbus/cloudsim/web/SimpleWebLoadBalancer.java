@@ -73,6 +73,9 @@ public class SimpleWebLoadBalancer extends BaseWebLoadBalancer implements ILoadB
             Map<Integer, Integer> usedASServers = broker != null ? this.broker.getASServersToNumSessions()
                     : Collections.EMPTY_MAP;
 
+            // The candidates are only described if they are logged
+            boolean debug = CustomLog.isLevelHighEnough(CustomLog.DEFAULT_LEVEL);
+
             // Get the VMs which are utilized the least
             debugSB.setLength(0);
             List<HddVm> bestVms = new ArrayList<>();
@@ -89,9 +92,12 @@ public class SimpleWebLoadBalancer extends BaseWebLoadBalancer implements ILoadB
                     }
                 }
 
-                debugSB.append(String.format("%s[%s] cpu(%.2f), ram(%.2f), cdlts(%d), sess(%d); ", vm, vm.getStatus(),
-                        vm.getCPUUtil(), vm.getRAMUtil(), vm.getCloudletScheduler().getCloudletExecList().size(),
-                        usedASServers.getOrDefault(vm.getId(), 0)));
+                if (debug) {
+                    debugSB.append(String.format("%s[%s] cpu(%.2f), ram(%.2f), cdlts(%d), sess(%d); ", vm,
+                            vm.getStatus(), vm.getCPUUtil(), vm.getRAMUtil(),
+                            vm.getCloudletScheduler().getCloudletExecList().size(),
+                            usedASServers.getOrDefault(vm.getId(), 0)));
+                }
             }
 
             // Distribute the sessions among the best VMs
@@ -102,15 +108,16 @@ public class SimpleWebLoadBalancer extends BaseWebLoadBalancer implements ILoadB
                     HddVm hostVM = bestVms.get((int) index);
                     session.setAppVmId(hostVM.getId());
 
-                    CustomLog
-                            .printf("[Simple Load Balancer(%s): Assigning sesssion %d to %s[%s] cpu(%.2f), ram(%.2f), cdlts(%d), sess(%d);",
-                                    broker == null ? "N/A" : broker, session.getSessionId(), hostVM,
-                                    hostVM.getStatus(), hostVM.getCPUUtil(), hostVM.getRAMUtil(), hostVM
-                                            .getCloudletScheduler().getCloudletExecList().size(),
-                                    usedASServers.getOrDefault(hostVM.getId(), 0));
-                    CustomLog.printf("[Simple Load Balancer(%s), Candidate VMs: %s", broker == null ? "N/A" : broker,
-                            debugSB);
-
+                    if (debug) {
+                        CustomLog
+                                .printf("[Simple Load Balancer(%s): Assigning sesssion %d to %s[%s] cpu(%.2f), ram(%.2f), cdlts(%d), sess(%d);",
+                                        broker == null ? "N/A" : broker, session.getSessionId(), hostVM,
+                                        hostVM.getStatus(), hostVM.getCPUUtil(), hostVM.getRAMUtil(), hostVM
+                                                .getCloudletScheduler().getCloudletExecList().size(),
+                                        usedASServers.getOrDefault(hostVM.getId(), 0));
+                        CustomLog.printf("[Simple Load Balancer(%s), Candidate VMs: %s", broker == null ? "N/A" : broker,
+                                debugSB);
+                    }
                 }
             }
 
@@ -124,12 +131,15 @@ public class SimpleWebLoadBalancer extends BaseWebLoadBalancer implements ILoadB
         }
 
         // Log the state of the DB servers
-        debugSB.setLength(0);
-        for (HddVm dbVm : getDbBalancer().getVMs()) {
-            debugSB.append(String.format("%s cpu(%.2f), ram(%.2f), disk(%.2f), cdlts(%d);", dbVm, dbVm.getCPUUtil(),
-                    dbVm.getRAMUtil(), dbVm.getDiskUtil(), dbVm.getCloudletScheduler().getCloudletExecList().size()));
+        if (CustomLog.isLevelHighEnough(CustomLog.DEFAULT_LEVEL)) {
+            debugSB.setLength(0);
+            for (HddVm dbVm : getDbBalancer().getVMs()) {
+                debugSB.append(String.format("%s cpu(%.2f), ram(%.2f), disk(%.2f), cdlts(%d);", dbVm,
+                        dbVm.getCPUUtil(), dbVm.getRAMUtil(), dbVm.getDiskUtil(),
+                        dbVm.getCloudletScheduler().getCloudletExecList().size()));
+            }
+            CustomLog.printf("[Simple Load Balancer], DB VMs: %s", debugSB);
         }
-        CustomLog.printf("[Simple Load Balancer], DB VMs: %s", debugSB);
 
     }
 
@@ -0,0 +1,124 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class CloudletSchedulerVirtualTimeTest {
+
+	private static final double MIPS = 1000;
+	private static final int PES_NUMBER = 2;
+	private static final double DELTA = 1e-6;
+
+	private static List<Cloudlet> cloudlets(long... lengths) {
+		UtilizationModelFull full = new UtilizationModelFull();
+		List<Cloudlet> list = new ArrayList<>();
+		for (int i = 0; i < lengths.length; i++) {
+			Cloudlet cl = new Cloudlet(i, lengths[i], 1, 300, 300, full, full, full);
+			cl.setResourceParameter(0, 0, 0);
+			list.add(cl);
+		}
+		return list;
+	}
+
+	/**
+	 * Submits the cloudlets at time 0 and drives the scheduler from one estimated
+	 * completion to the next, as a datacenter would.
+	 *
+	 * @return the time each cloudlet was reported as finished, by cloudlet id
+	 */
+	private static Map<Integer, Double> run(CloudletScheduler scheduler, List<Cloudlet> cloudlets) {
+		List<Double> mipsShare = new ArrayList<>();
+		for (int i = 0; i < PES_NUMBER; i++) {
+			mipsShare.add(MIPS);
+		}
+		scheduler.setCurrentMipsShare(mipsShare);
+		for (Cloudlet cl : cloudlets) {
+			scheduler.cloudletSubmit(cl);
+		}
+
+		Map<Integer, Double> finishTimes = new HashMap<>();
+		double time = 0;
+		double next = scheduler.updateCloudletsProcessing(time, mipsShare);
+		while (next > 0 && next < Double.MAX_VALUE) {
+			time = next;
+			next = scheduler.updateCloudletsProcessing(time, mipsShare);
+			while (scheduler.isFinishedCloudlets()) {
+				finishTimes.put(scheduler.getNextFinishedCloudlet().getCloudletId(), time);
+			}
+		}
+		return finishTimes;
+	}
+
+	@Test
+	public void testTimeSharedFinishTimes() {
+		CloudletScheduler scheduler = new CloudletSchedulerTimeShared();
+		scheduler.setVirtualTimeEnabled(true);
+		List<Cloudlet> cloudlets = cloudlets(1000, 2000, 3000);
+		Map<Integer, Double> finishTimes = run(scheduler, cloudlets);
+
+		// 3 cloudlets share 2 PEs until the first one finishes, then each one gets a whole PE
+		assertEquals(1.5, finishTimes.get(0), DELTA);
+		assertEquals(2.5, finishTimes.get(1), DELTA);
+		assertEquals(3.5, finishTimes.get(2), DELTA);
+		for (Cloudlet cl : cloudlets) {
+			assertEquals(Cloudlet.CloudletStatus.SUCCESS, cl.getStatus());
+		}
+	}
+
+	@Test
+	public void testSpaceSharedMatchesDefaultMode() {
+		long[] lengths = { 3000, 1000, 2000, 1500, 500 };
+		Map<Integer, Double> expected = run(new CloudletSchedulerSpaceShared(), cloudlets(lengths));
+
+		CloudletScheduler scheduler = new CloudletSchedulerSpaceShared();
+		scheduler.setVirtualTimeEnabled(true);
+		Map<Integer, Double> actual = run(scheduler, cloudlets(lengths));
+
+		assertEquals(lengths.length, expected.size());
+		assertEquals(expected.keySet(), actual.keySet());
+		for (int id : expected.keySet()) {
+			assertEquals(expected.get(id), actual.get(id), DELTA);
+		}
+	}
+
+	@Test
+	public void testPauseMaterializesProgress() {
+		CloudletScheduler scheduler = new CloudletSchedulerTimeShared();
+		scheduler.setVirtualTimeEnabled(true);
+		List<Double> mipsShare = new ArrayList<>(List.of(MIPS, MIPS));
+		scheduler.setCurrentMipsShare(mipsShare);
+		Cloudlet cl = cloudlets(2000).get(0);
+		scheduler.cloudletSubmit(cl);
+		scheduler.updateCloudletsProcessing(0, mipsShare);
+
+		scheduler.updateCloudletsProcessing(0.5, mipsShare);
+		assertEquals(2.0, scheduler.getEstimatedFinishTime(cl, 0.5), DELTA);
+		assertTrue(scheduler.cloudletPause(cl.getCloudletId()));
+		assertEquals(1500, cl.getRemainingCloudletLength());
+		assertEquals(0.0, scheduler.updateCloudletsProcessing(1.0, mipsShare));
+
+		scheduler.cloudletResume(cl.getCloudletId());
+		scheduler.setVirtualTimeEnabled(false);
+		assertEquals(1500, cl.getRemainingCloudletLength());
+	}
+
+	@Test
+	public void testUnsupportedScheduler() {
+		assertThrows(UnsupportedOperationException.class,
+				() -> new CloudletSchedulerDynamicWorkload(MIPS, PES_NUMBER).setVirtualTimeEnabled(true));
+	}
+}
@@ -0,0 +1,198 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import org.cloudbus.cloudsim.core.CloudActionTags;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimulationContext;
+import org.cloudbus.cloudsim.core.SimEvent;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+public class DatacenterTest {
+
+	private static final int HOSTS = 20;
+	private static final int VMS = 4;
+	private static final int CLOUDLETS = 12;
+
+	/** Counts its updates. */
+	private static final class CountingHost extends Host {
+		private int updates;
+
+		CountingHost(int id, List<Pe> peList) {
+			super(id, new RamProvisionerSimple(2048), new BwProvisionerSimple(10000), 1000000, peList,
+					new VmSchedulerTimeShared(peList));
+		}
+
+		@Override
+		public double updateCloudletsProcessing(double currentTime) {
+			updates++;
+			return super.updateCloudletsProcessing(currentTime);
+		}
+	}
+
+	/** Records the number of cloudlets of each return it gets. */
+	private static final class RecordingBroker extends DatacenterBroker {
+		private final List<Integer> returns = new ArrayList<>();
+
+		RecordingBroker(String name) throws Exception {
+			super(name);
+		}
+
+		@Override
+		public void processEvent(SimEvent ev) {
+			if (ev.getTag() == CloudActionTags.CLOUDLET_RETURN) {
+				returns.add(1);
+			} else if (ev.getTag() == CloudActionTags.CLOUDLET_RETURN_BATCH) {
+				returns.add(((List<?>) ev.getData()).size());
+			}
+			super.processEvent(ev);
+		}
+	}
+
+	private record Result(Map<Integer, Double> finishTimes, int hostUpdates, List<Integer> returns) {}
+
+	private static Result run(boolean dirtyHostTracking) throws Exception {
+		return run(dirtyHostTracking, false, false, false);
+	}
+
+	/**
+	 * Runs the cloudlets on the VMs, each VM getting cloudlets of different lengths. With same
+	 * lengths on all VMs, the i-th cloudlets of all VMs finish at the same time.
+	 */
+	private static Result run(boolean dirtyHostTracking, boolean batchCloudletSubmission,
+			boolean completionQueue, boolean sameLengths) throws Exception {
+		return new SimulationContext().execute(() -> {
+			CloudSim.init(1, Calendar.getInstance(), false);
+
+			List<CountingHost> hostList = new ArrayList<>();
+			for (int i = 0; i < HOSTS; i++) {
+				List<Pe> peList = new ArrayList<>();
+				peList.add(new Pe(0, new PeProvisionerSimple(1000)));
+				peList.add(new Pe(1, new PeProvisionerSimple(1000)));
+				hostList.add(new CountingHost(i, peList));
+			}
+			DatacenterCharacteristics characteristics = new DatacenterCharacteristics(
+					"x86", "Linux", "Xen", hostList, 10.0, 3.0, 0.05, 0.001, 0.0);
+			Datacenter datacenter = new Datacenter("Datacenter_0", characteristics,
+					new VmAllocationPolicySimple(hostList), new LinkedList<>(), 0);
+			datacenter.setDirtyHostTracking(dirtyHostTracking);
+			datacenter.setCompletionQueueEnabled(completionQueue);
+
+			RecordingBroker broker = new RecordingBroker("Broker");
+			broker.setBatchCloudletSubmission(batchCloudletSubmission);
+			List<Vm> vmList = new ArrayList<>();
+			for (int i = 0; i < VMS; i++) {
+				CloudletScheduler scheduler = new CloudletSchedulerTimeShared();
+				scheduler.setVirtualTimeEnabled(true);
+				vmList.add(new Vm(i, broker.getId(), 1000, 2, 512, 1000, 10000, "Xen", scheduler));
+			}
+			broker.submitGuestList(vmList);
+
+			UtilizationModel full = new UtilizationModelFull();
+			List<Cloudlet> cloudletList = new ArrayList<>();
+			for (int i = 0; i < CLOUDLETS; i++) {
+				long length = 10000 + 7500L * (sameLengths ? i / VMS : i);
+				Cloudlet cloudlet = new Cloudlet(i, length, 1, 300, 300, full, full, full);
+				cloudlet.setUserId(broker.getId());
+				cloudlet.setGuestId(i % VMS);
+				cloudletList.add(cloudlet);
+			}
+			broker.submitCloudletList(cloudletList);
+
+			CloudSim.startSimulation();
+			CloudSim.stopSimulation();
+
+			Map<Integer, Double> finishTimes = new HashMap<>();
+			for (Cloudlet cloudlet : broker.<Cloudlet>getCloudletReceivedList()) {
+				finishTimes.put(cloudlet.getCloudletId(), cloudlet.getExecFinishTime());
+			}
+			int hostUpdates = 0;
+			for (CountingHost host : hostList) {
+				hostUpdates += host.updates;
+			}
+			return new Result(finishTimes, hostUpdates, broker.returns);
+		});
+	}
+
+	@Test
+	public void testDirtyHostTrackingMatchesFullSweep() throws Exception {
+		Result fullSweep = run(false);
+		Result tracked = run(true);
+
+		assertEquals(CLOUDLETS, fullSweep.finishTimes().size());
+		assertEquals(fullSweep.finishTimes().keySet(), tracked.finishTimes().keySet());
+		for (int id : fullSweep.finishTimes().keySet()) {
+			assertEquals(fullSweep.finishTimes().get(id), tracked.finishTimes().get(id), 1e-9);
+		}
+
+		// most hosts are idle and only the busy ones are visited once the cloudlets are running
+		assertTrue(tracked.hostUpdates() < fullSweep.hostUpdates() / 2,
+				tracked.hostUpdates() + " vs " + fullSweep.hostUpdates());
+	}
+
+	@Test
+	public void testBatchSubmissionMatchesSingleSubmissions() throws Exception {
+		Result single = run(false, false, false, false);
+		Result batch = run(false, true, false, false);
+
+		assertEquals(CLOUDLETS, single.finishTimes().size());
+		assertEquals(single.finishTimes().keySet(), batch.finishTimes().keySet());
+		for (int id : single.finishTimes().keySet()) {
+			assertEquals(single.finishTimes().get(id), batch.finishTimes().get(id), 1e-9);
+		}
+
+		// the hosts are updated once for all cloudlets instead of once per cloudlet
+		assertTrue(batch.hostUpdates() < single.hostUpdates(),
+				batch.hostUpdates() + " vs " + single.hostUpdates());
+	}
+
+	@Test
+	public void testCompletionQueueReturnsAllCloudlets() throws Exception {
+		Result polled = run(false, false, false, true);
+		Result queued = run(false, false, true, true);
+
+		assertEquals(CLOUDLETS, queued.finishTimes().size());
+		assertEquals(polled.finishTimes().keySet(), queued.finishTimes().keySet());
+		for (int id : polled.finishTimes().keySet()) {
+			assertEquals(polled.finishTimes().get(id), queued.finishTimes().get(id), 1e-9);
+		}
+
+		// each cloudlet is returned on its own by the full sweep
+		assertEquals(CLOUDLETS, polled.returns().size());
+		// the cloudlets finished at the same time are returned in a single batch
+		assertEquals(new HashSet<>(queued.finishTimes().values()).size(), queued.returns().size());
+		for (int cloudlets : queued.returns()) {
+			assertEquals(VMS, cloudlets);
+		}
+	}
+
+	@Test
+	public void testCompletionQueueWithBatchSubmission() throws Exception {
+		Result polled = run(false, false, false, false);
+		Result queued = run(false, true, true, false);
+
+		assertEquals(CLOUDLETS, queued.finishTimes().size());
+		for (int id : polled.finishTimes().keySet()) {
+			assertEquals(polled.finishTimes().get(id), queued.finishTimes().get(id), 1e-9);
+		}
+	}
+}
@@ -0,0 +1,62 @@
+package org.cloudbus.cloudsim.EX;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimEvent;
+import org.cloudbus.cloudsim.util.WorkloadFileReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WorkloadFeederTest {
+
+    /** Records the cloudlets it receives, instead of submitting them. */
+    private static class RecordingBroker extends DatacenterBrokerEX {
+        private final List<String> received = new ArrayList<>();
+
+        public RecordingBroker(final String name, final double lifeLength) throws Exception {
+            super(name, lifeLength);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected void processOtherEvent(final SimEvent ev) {
+            if (ev.getTag() == CloudSimEXTags.BROKER_CLOUDLETS_NOW) {
+                StringBuilder ids = new StringBuilder().append(CloudSim.clock()).append(":");
+                for (Cloudlet cloudlet : (List<Cloudlet>) ev.getData()) {
+                    assertEquals(getId(), cloudlet.getUserId());
+                    ids.append(" ").append(cloudlet.getCloudletId());
+                }
+                received.add(ids.toString());
+            } else {
+                super.processOtherEvent(ev);
+            }
+        }
+    }
+
+    private static String job(final int id, final int submitTime) {
+        return id + " " + submitTime + " 0 5 1 0 0 1 5 0 0 1 1 0 0 0 0 0\n";
+    }
+
+    @Test
+    public void testJobsAreFedAtTheirSubmitTime(@TempDir Path dir) throws Exception {
+        Path trace = dir.resolve("trace.swf");
+        Files.writeString(trace, job(1, 0) + job(2, 0) + job(3, 5) + job(4, 20) + job(5, 100) + job(6, 100));
+
+        CloudSim.init(1, Calendar.getInstance(), false);
+        RecordingBroker broker = new RecordingBroker("Broker", 200);
+        new WorkloadFeeder("Feeder", new WorkloadFileReader(trace.toString(), 1), broker, 10);
+        CloudSim.startSimulation();
+        CloudSim.stopSimulation();
+
+        assertEquals(List.of("0.0: 1 2", "5.0: 3", "20.0: 4", "100.0: 5 6"), broker.received);
+    }
+
+}
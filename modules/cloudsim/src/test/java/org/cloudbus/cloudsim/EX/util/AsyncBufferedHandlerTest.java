@@ -0,0 +1,45 @@
+package org.cloudbus.cloudsim.EX.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.StreamHandler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncBufferedHandlerTest {
+
+    /** Formats the records with the name of the formatting thread. */
+    private static final Formatter THREAD_FORMATTER = new Formatter() {
+        @Override
+        public String format(final LogRecord record) {
+            return Thread.currentThread().getName() + " " + record.getMessage() + "\n";
+        }
+    };
+
+    @Test
+    public void testRecordsAreWrittenInOrder() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        StreamHandler stream = new StreamHandler(output, THREAD_FORMATTER);
+        stream.setLevel(Level.INFO);
+        AsyncBufferedHandler handler = new AsyncBufferedHandler(stream, 4);
+
+        StringBuilder expected = new StringBuilder();
+        String thread = Thread.currentThread().getName();
+        for (int i = 0; i < 100; i++) {
+            handler.publish(new LogRecord(Level.INFO, "record " + i));
+            handler.publish(new LogRecord(Level.FINE, "filtered " + i));
+            expected.append(thread).append(" record ").append(i).append('\n');
+        }
+        handler.flush();
+        assertEquals(expected.toString(), output.toString());
+
+        handler.close();
+        handler.publish(new LogRecord(Level.INFO, "after close"));
+        assertEquals(expected.toString(), output.toString());
+    }
+
+}
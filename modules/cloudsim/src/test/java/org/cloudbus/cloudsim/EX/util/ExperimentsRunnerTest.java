@@ -0,0 +1,101 @@
+package org.cloudbus.cloudsim.EX.util;
+
+import org.cloudbus.cloudsim.*;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimulationContext;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.*;
+import java.util.concurrent.Callable;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExperimentsRunnerTest {
+
+    /** The finish times of the cloudlets of a run. */
+    private record Result(Map<Integer, Double> finishTimes, double clock) {
+    }
+
+    /**
+     * Runs a datacenter with a broker named after the run, whose cloudlets are
+     * longer the larger the scale is.
+     */
+    private static Callable<Result> experiment(final String name, final int scale, final boolean quiet) {
+        return () -> {
+            CloudSim.getContext().setLogDisabled(quiet);
+            CloudSim.init(1, Calendar.getInstance(), false);
+
+            List<Host> hostList = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                List<Pe> peList = new ArrayList<>();
+                peList.add(new Pe(0, new PeProvisionerSimple(1000)));
+                hostList.add(new Host(i, new RamProvisionerSimple(2048), new BwProvisionerSimple(10000), 1000000,
+                        peList, new VmSchedulerTimeShared(peList)));
+            }
+            DatacenterCharacteristics characteristics = new DatacenterCharacteristics("x86", "Linux", "Xen",
+                    hostList, 10.0, 3.0, 0.05, 0.001, 0.0);
+            new Datacenter(name + "_Datacenter", characteristics, new VmAllocationPolicySimple(hostList),
+                    new LinkedList<>(), 0);
+
+            DatacenterBroker broker = new DatacenterBroker(name);
+            List<Vm> vmList = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                vmList.add(new Vm(i, broker.getId(), 1000, 1, 512, 1000, 10000, "Xen",
+                        new CloudletSchedulerTimeShared()));
+            }
+            broker.submitGuestList(vmList);
+
+            UtilizationModel full = new UtilizationModelFull();
+            List<Cloudlet> cloudletList = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                Cloudlet cloudlet = new Cloudlet(i, 1000L * scale * (1 + i % 7), 1, 300, 300, full, full, full);
+                cloudlet.setUserId(broker.getId());
+                cloudletList.add(cloudlet);
+            }
+            broker.submitCloudletList(cloudletList);
+
+            double clock = CloudSim.startSimulation();
+            CloudSim.stopSimulation();
+
+            Map<Integer, Double> finishTimes = new HashMap<>();
+            for (Cloudlet cloudlet : broker.<Cloudlet>getCloudletReceivedList()) {
+                finishTimes.put(cloudlet.getCloudletId(), cloudlet.getExecFinishTime());
+            }
+            return new Result(finishTimes, clock);
+        };
+    }
+
+    @Test
+    public void testParallelRunsDoNotInterfere() throws Exception {
+        Result loudAlone = new SimulationContext().execute(experiment("Loud", 1, true));
+        Result quietAlone = new SimulationContext().execute(experiment("Quiet", 3, true));
+
+        OutputStream previous = Log.getOutput();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Log.setOutput(output);
+        List<Result> results;
+        try {
+            results = ExperimentsRunner.runInProcess(
+                    List.of(experiment("Loud", 1, false), experiment("Quiet", 3, true)), 0, null);
+        } finally {
+            Log.setOutput(previous);
+        }
+
+        assertEquals(200, loudAlone.finishTimes().size());
+        assertEquals(loudAlone, results.get(0));
+        assertEquals(quietAlone, results.get(1));
+        assertNotEquals(loudAlone.clock(), quietAlone.clock());
+
+        // disabling the output of one run leaves the other one logging
+        String log = output.toString();
+        assertTrue(log.contains("Loud: Sending"));
+        assertFalse(log.contains("Quiet"));
+        assertFalse(Log.isDisabled());
+    }
+
+}
@@ -0,0 +1,148 @@
+package org.cloudbus.cloudsim.EX.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResultWriterTest {
+
+    @Textualize(properties = { "Id", "Load", "Active", "Name" })
+    public static class Row {
+        private final int id;
+
+        public Row(final int id) {
+            this.id = id;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public double getLoad() {
+            return id / 3.0;
+        }
+
+        public boolean isActive() {
+            return id % 2 == 0;
+        }
+
+        public String getName() {
+            return id % 5 == 0 ? null : "row " + id;
+        }
+
+        public long getIgnored() {
+            return id;
+        }
+    }
+
+    @Textualize(properties = { "Id", "Load", "Active", "Name" })
+    public static class FailingRow extends Row {
+        public FailingRow(final int id) {
+            super(id);
+        }
+
+        @Override
+        public double getLoad() {
+            throw new IllegalStateException();
+        }
+
+        @Override
+        public boolean isActive() {
+            throw new IllegalStateException();
+        }
+
+        @Override
+        public String getName() {
+            throw new IllegalStateException();
+        }
+    }
+
+    private static List<Row> rows() {
+        List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            rows.add(new Row(i));
+        }
+        return rows;
+    }
+
+    @Test
+    public void testCsvMatchesTextLines(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("rows.csv");
+        List<Row> rows = rows();
+        CustomLog.exportResults(file, ResultWriter.Format.CSV, Row.class, null, rows);
+
+        StringBuilder expected = new StringBuilder(TextUtil.getCaptionLine(Row.class)).append(TextUtil.NEW_LINE);
+        for (Row row : rows) {
+            expected.append(TextUtil.getTxtLine(row)).append(TextUtil.NEW_LINE);
+        }
+        assertEquals(expected.toString(), Files.readString(file));
+    }
+
+    @Test
+    public void testBinary(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("rows.bin");
+        List<Row> rows = rows();
+        CustomLog.exportResults(file, ResultWriter.Format.BINARY, Row.class, null, rows);
+
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            assertEquals(4, in.readInt());
+            String[] names = { "Id", "Load", "Active", "Name" };
+            byte[] types = { 'I', 'D', 'Z', 'S' };
+            for (int i = 0; i < names.length; i++) {
+                byte[] name = new byte[in.readShort()];
+                in.readFully(name);
+                assertEquals(names[i], new String(name, StandardCharsets.UTF_8));
+                assertEquals(types[i], in.readByte());
+            }
+            for (Row row : rows) {
+                assertEquals(row.getId(), in.readInt());
+                assertEquals(row.getLoad(), in.readDouble());
+                assertEquals(row.isActive(), in.readByte() == 1);
+                int length = in.readInt();
+                if (row.getName() == null) {
+                    assertEquals(-1, length);
+                } else {
+                    byte[] name = new byte[length];
+                    in.readFully(name);
+                    assertEquals(row.getName(), new String(name, StandardCharsets.UTF_8));
+                }
+            }
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    public void testFailingGetters(@TempDir Path dir) throws IOException {
+        List<FailingRow> rows = List.of(new FailingRow(1));
+        Path csv = dir.resolve("rows.csv");
+        CustomLog.exportResults(csv, ResultWriter.Format.CSV, FailingRow.class, null, rows);
+        assertEquals(TextUtil.getTxtLine(rows.get(0)), Files.readAllLines(csv).get(1));
+        assertTrue(Files.readAllLines(csv).get(1).contains("ERR null"));
+
+        Path bin = dir.resolve("rows.bin");
+        CustomLog.exportResults(bin, ResultWriter.Format.BINARY, FailingRow.class, null, rows);
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(bin))) {
+            int columns = in.readInt();
+            for (int i = 0; i < columns; i++) {
+                in.skipNBytes(in.readShort() + 1);
+            }
+            assertEquals(1, in.readInt());
+            assertTrue(Double.isNaN(in.readDouble()));
+            assertEquals(-1, in.readByte());
+            byte[] name = new byte[in.readInt()];
+            in.readFully(name);
+            assertEquals("ERR null", new String(name, StandardCharsets.UTF_8));
+            assertEquals(-1, in.read());
+        }
+    }
+
+}
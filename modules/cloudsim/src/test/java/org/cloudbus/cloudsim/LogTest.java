@@ -174,4 +174,24 @@ public class LogTest {
 		OUTPUT.reset();
 	}
 
+	@Test
+	public void testLazyMessages() throws IOException {
+		OUTPUT.reset();
+		Log.print(() -> "test " + 123);
+		assertEquals("test 123", OUTPUT.toString());
+		OUTPUT.reset();
+
+		Log.println(() -> "test " + 123);
+		assertEquals("test 123" + LINE_SEPARATOR, OUTPUT.toString());
+		OUTPUT.reset();
+
+		Log.disable();
+		try {
+			Log.println(() -> fail("the message of a disabled log must not be built"));
+			assertEquals("", OUTPUT.toString());
+		} finally {
+			Log.enable();
+		}
+	}
+
 }
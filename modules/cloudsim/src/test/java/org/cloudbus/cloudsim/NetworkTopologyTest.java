@@ -0,0 +1,90 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimulationContext;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * @since		CloudSim Toolkit 7.0
+ */
+public class NetworkTopologyTest {
+
+	/**
+	 * Wires a chain of entities whose links have the given latency, and gets the delay
+	 * between its ends.
+	 */
+	private static double chainDelay(int entities, double latency) throws Exception {
+		return new SimulationContext().execute(() -> {
+			CloudSim.getContext().setLogDisabled(true);
+			CloudSim.init(1, Calendar.getInstance(), false);
+			NetworkTopology.setIncrementalUpdates(true);
+			for (int i = 1; i < entities; i++) {
+				NetworkTopology.addLink(i - 1, i, 10, latency);
+				// the delays are updated while the chain is wired
+				NetworkTopology.getDelay(0, i);
+			}
+			return NetworkTopology.getDelay(0, entities - 1);
+		});
+	}
+
+	@Test
+	public void testTopologyOfEachContext() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Double>> delays = new ArrayList<>();
+			for (int run = 1; run <= 8; run++) {
+				double latency = run;
+				delays.add(executor.submit(() -> chainDelay(200, latency)));
+			}
+			for (int run = 1; run <= 8; run++) {
+				assertEquals(199.0 * run, delays.get(run - 1).get(), 1e-3);
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		new SimulationContext().execute(() -> {
+			CloudSim.getContext().setLogDisabled(true);
+			CloudSim.init(1, Calendar.getInstance(), false);
+			assertFalse(NetworkTopology.isNetworkEnabled());
+			return null;
+		});
+	}
+
+	@Test
+	public void testLinkBetweenLinkedNodesInEitherDirection() throws Exception {
+		new SimulationContext().execute(() -> {
+			CloudSim.getContext().setLogDisabled(true);
+			CloudSim.init(1, Calendar.getInstance(), false);
+			NetworkTopology.setIncrementalUpdates(true);
+			NetworkTopology.addLink(1, 2, 10, 5);
+			NetworkTopology.addLink(2, 3, 10, 1);
+			assertEquals(5, NetworkTopology.getDelay(1, 2));
+
+			// replaces the link between the same nodes, so the delays are computed again
+			NetworkTopology.addLink(2, 1, 10, 8);
+			assertEquals(8, NetworkTopology.getDelay(1, 2));
+			assertEquals(9, NetworkTopology.getDelay(1, 3));
+			return null;
+		});
+	}
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimulationContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StateHistoryTest {
+
+	/** Records the entries of a host at times 0, 1, 1, 2, 3, 3, ..., replacing the entries with repeated times. */
+	private static List<double[]> record(StateHistory<HostStateHistoryEntry> history, int entries) {
+		List<double[]> expected = new ArrayList<>();
+		for (int i = 0; expected.size() < entries; i++) {
+			double time = i - i / 3;
+			double[] entry = { time, i * 10, i * 11, i % 5 == 0 ? 1 : 0 };
+			history.record(entry[0], entry[1], entry[2], entry[3] == 1);
+			if (!expected.isEmpty() && expected.getLast()[0] == time) {
+				expected.set(expected.size() - 1, entry);
+			} else {
+				expected.add(entry);
+			}
+		}
+		return expected;
+	}
+
+	private static void assertEntries(List<double[]> expected, StateHistory<HostStateHistoryEntry> history) {
+		assertEquals(expected.size(), history.size());
+		int i = 0;
+		for (HostStateHistoryEntry entry : history) {
+			double[] values = expected.get(i);
+			assertEquals(values[0], entry.getTime());
+			assertEquals(values[1], entry.getAllocatedMips());
+			assertEquals(values[2], history.getRequestedMips(i));
+			assertEquals(values[3] == 1, entry.isActive());
+			i++;
+		}
+	}
+
+	@Test
+	public void testUnbounded() {
+		StateHistory<HostStateHistoryEntry> history = new StateHistory<>(StateHistory.HOST);
+		List<double[]> expected = record(history, 1000);
+		assertEntries(expected, history);
+
+		history.set(999, new HostStateHistoryEntry(5000, 1, 2, true));
+		assertEquals(5000, history.getLast().getTime());
+	}
+
+	@Test
+	public void testWindowDropsOldestEntries() {
+		StateHistory<HostStateHistoryEntry> history = new StateHistory<>(StateHistory.HOST);
+		history.setWindow(100);
+		List<double[]> expected = record(history, 1000);
+		assertEntries(expected.subList(900, 1000), history);
+
+		history.setWindow(10);
+		assertEntries(expected.subList(990, 1000), history);
+	}
+
+	@Test
+	public void testWindowSpillsOldestEntries(@TempDir Path dir) throws Exception {
+		try (StateHistorySpill spill = new StateHistorySpill(dir.resolve("history.bin"))) {
+			StateHistory<HostStateHistoryEntry> first = new StateHistory<>(StateHistory.HOST);
+			StateHistory<HostStateHistoryEntry> second = new StateHistory<>(StateHistory.HOST);
+			for (StateHistory<HostStateHistoryEntry> history : List.of(first, second)) {
+				history.setWindow(50);
+				history.setSpill(spill);
+			}
+			// interleaved, so that the blocks of both histories alternate in the file
+			List<double[]> expectedFirst = new ArrayList<>();
+			List<double[]> expectedSecond = new ArrayList<>();
+			for (int i = 0; i < 700; i++) {
+				double[] entry = { i, i * 10, i * 11, i % 5 == 0 ? 1 : 0 };
+				first.record(entry[0], entry[1], entry[2], entry[3] == 1);
+				expectedFirst.add(entry);
+				if (i % 2 == 0) {
+					second.record(entry[0], entry[2], entry[1], entry[3] == 0);
+					expectedSecond.add(new double[] { entry[0], entry[2], entry[1], 1 - entry[3] });
+				}
+			}
+			assertEntries(expectedFirst, first);
+			assertEntries(expectedSecond, second);
+			assertTrue(spill.getSize() >= (650 + 300) * 32L);
+
+			assertThrows(UnsupportedOperationException.class,
+					() -> first.set(0, new HostStateHistoryEntry(0, 0, 0, true)));
+		}
+	}
+
+	@Test
+	public void testWindowOfContext() throws Exception {
+		StateHistory<HostStateHistoryEntry> windowed = new SimulationContext().execute(() -> {
+			CloudSim.getContext().setStateHistoryWindow(10);
+			return new StateHistory<>(StateHistory.HOST);
+		});
+		assertEquals(10, windowed.getWindow());
+		assertEquals(Integer.MAX_VALUE, new StateHistory<>(StateHistory.HOST).getWindow());
+		assertThrows(IllegalArgumentException.class, () -> new StateHistory<>(StateHistory.HOST, 0, null));
+	}
+}
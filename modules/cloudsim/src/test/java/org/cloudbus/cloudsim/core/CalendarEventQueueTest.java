@@ -0,0 +1,126 @@
+package org.cloudbus.cloudsim.core;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @since		CloudSim Toolkit 7.0
+ */
+public class CalendarEventQueueTest {
+
+	private enum QueueTags implements CloudSimTags { ANY }
+
+	private static SimEvent event(double time, int src) {
+		return new SimEvent(SimEvent.SEND, time, src, 0, QueueTags.ANY, null);
+	}
+
+	private static List<SimEvent> drain(EventQueue queue) {
+		List<SimEvent> order = new ArrayList<>();
+		SimEvent ev;
+		while ((ev = queue.pollFirst()) != null) {
+			order.add(ev);
+		}
+		return order;
+	}
+
+	@Test
+	public void testSameOrderAsHeap() {
+		Random random = new Random(42);
+		EventQueue heap = new EventQueue();
+		EventQueue calendar = new CalendarEventQueue();
+		// an event waits in one queue only, the calendar gets a copy of each event
+		Map<SimEvent, SimEvent> copies = new IdentityHashMap<>();
+
+		double now = 0;
+		for (int round = 0; round < 50; round++) {
+			// a burst of inserts, with many ties and a few far-future events
+			for (int i = 0; i < 200; i++) {
+				double time = switch (random.nextInt(4)) {
+					case 0 -> now;
+					case 1 -> now + random.nextInt(5);
+					case 2 -> now + random.nextDouble() * 100;
+					default -> now + random.nextDouble() * 1e6;
+				};
+				SimEvent ev = event(time, i);
+				SimEvent copy = (SimEvent) ev.clone();
+				copies.put(ev, copy);
+				heap.addEvent(ev);
+				calendar.addEvent(copy);
+			}
+			// then pop part of the queue, advancing the clock
+			for (int i = 0; i < 150; i++) {
+				SimEvent expected = copies.get(heap.pollFirst());
+				assertSame(expected, calendar.peek());
+				assertSame(expected, calendar.pollFirst());
+				now = expected.eventTime();
+			}
+			assertEquals(heap.size(), calendar.size());
+		}
+
+		assertEquals(drain(heap).stream().map(copies::get).toList(), drain(calendar));
+		assertTrue(calendar.isEmpty());
+		assertNull(calendar.peek());
+	}
+
+	@Test
+	public void testIteratorRemove() {
+		EventQueue calendar = new CalendarEventQueue();
+		for (int i = 0; i < 1000; i++) {
+			calendar.addEvent(event(i % 97, i));
+		}
+
+		Iterator<SimEvent> iter = calendar.iterator();
+		int seen = 0;
+		while (iter.hasNext()) {
+			if (iter.next().getSourceId() % 2 == 0) {
+				iter.remove();
+			}
+			seen++;
+		}
+		assertEquals(1000, seen);
+		assertEquals(500, calendar.size());
+
+		List<SimEvent> order = drain(calendar);
+		assertEquals(500, order.size());
+		for (int i = 1; i < order.size(); i++) {
+			assertTrue(order.get(i - 1).compareTo(order.get(i)) < 0);
+			assertEquals(1, order.get(i).getSourceId() % 2);
+		}
+	}
+
+	@Test
+	public void testAddEventFirst() {
+		EventQueue calendar = new CalendarEventQueue();
+		SimEvent later = event(5, 1);
+		SimEvent first = event(5, 2);
+		calendar.addEvent(event(3, 0));
+		calendar.addEvent(later);
+		calendar.addEventFirst(first);
+
+		assertEquals(3, calendar.pollFirst().eventTime());
+		assertSame(first, calendar.pollFirst());
+		assertSame(later, calendar.pollFirst());
+	}
+
+	@Test
+	public void testSimulationWithCalendarQueue() throws Exception {
+		SimulationContext context = new SimulationContext();
+		double clock = context.execute(() -> {
+			CloudSim.init(0, Calendar.getInstance(), false, CalendarEventQueue::new);
+			for (int i = 1; i <= 20; i++) {
+				new SimulationContextTest.Ticker("Ticker" + i, i * 5);
+			}
+			return CloudSim.startSimulation();
+		});
+		assertEquals(100, clock, 0);
+	}
+}
@@ -0,0 +1,120 @@
+package org.cloudbus.cloudsim.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.cloudbus.cloudsim.core.predicates.PredicateFrom;
+import org.cloudbus.cloudsim.core.predicates.PredicateType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @since		CloudSim Toolkit 7.0
+ */
+public class EventQueueTest {
+
+	private enum QueueTags implements CloudSimTags { HEARTBEAT, MONITOR, DATA }
+
+	private static SimEvent event(double time, int src, int dst, CloudSimTags tag) {
+		return new SimEvent(SimEvent.SEND, time, src, dst, tag, null);
+	}
+
+	private static List<SimEvent> drain(EventQueue queue) {
+		List<SimEvent> order = new ArrayList<>();
+		SimEvent ev;
+		while ((ev = queue.pollFirst()) != null) {
+			order.add(ev);
+		}
+		return order;
+	}
+
+	@Test
+	public void testCancelBySourceAndTag() {
+		checkCancelBySourceAndTag(new EventQueue());
+		checkCancelBySourceAndTag(new CalendarEventQueue());
+	}
+
+	@Test
+	public void testRepeatedRescheduling() {
+		checkRepeatedRescheduling(new EventQueue());
+		checkRepeatedRescheduling(new CalendarEventQueue());
+	}
+
+	@Test
+	public void testEventInOneQueueOnly() {
+		checkEventInOneQueueOnly(new EventQueue(), new CalendarEventQueue());
+		checkEventInOneQueueOnly(new CalendarEventQueue(), new EventQueue());
+	}
+
+	private static void checkCancelBySourceAndTag(EventQueue queue) {
+		for (int i = 0; i < 300; i++) {
+			queue.addEvent(event(i, i % 3, 9, QueueTags.values()[i % 3 == 0 ? i % 2 : 2]));
+		}
+
+		// source 0 sends HEARTBEAT (even i) and MONITOR (odd i) events
+		SimEvent first = queue.removeFirst(0, EventQueue.ANY_ENTITY, new PredicateType(QueueTags.MONITOR));
+		assertEquals(3, first.eventTime());
+		assertEquals(49, queue.removeMatching(0, EventQueue.ANY_ENTITY, new PredicateType(QueueTags.MONITOR)));
+		assertEquals(0, queue.removeMatching(1, EventQueue.ANY_ENTITY, new PredicateType(QueueTags.MONITOR)));
+		assertEquals(250, queue.size());
+
+		assertEquals(100, queue.count(EventQueue.ANY_ENTITY, 9, new PredicateFrom(1)));
+		assertEquals(0, queue.count(EventQueue.ANY_ENTITY, 8, new PredicateFrom(1)));
+		assertEquals(50, queue.count(EventQueue.ANY_ENTITY, EventQueue.ANY_ENTITY, new PredicateType(QueueTags.HEARTBEAT)));
+		assertEquals(250, queue.count(EventQueue.ANY_ENTITY, EventQueue.ANY_ENTITY, CloudSim.SIM_ANY));
+
+		List<SimEvent> order = drain(queue);
+		assertEquals(250, order.size());
+		for (int i = 1; i < order.size(); i++) {
+			assertTrue(order.get(i - 1).compareTo(order.get(i)) < 0);
+			assertNotEquals(QueueTags.MONITOR, order.get(i).getTag());
+		}
+		assertTrue(queue.isEmpty());
+	}
+
+	private static void checkEventInOneQueueOnly(EventQueue queue, EventQueue other) {
+		SimEvent ev = event(1, 2, 3, QueueTags.DATA);
+		queue.addEvent(ev);
+		assertThrows(IllegalStateException.class, () -> other.addEvent(ev));
+		assertThrows(IllegalStateException.class, () -> queue.addEvent(ev));
+		assertEquals(1, queue.size());
+		assertEquals(0, other.size());
+
+		// a removed event stays a tombstone of its queue, hence cannot be resurrected
+		assertSame(ev, queue.removeFirst(2, EventQueue.ANY_ENTITY, CloudSim.SIM_ANY));
+		assertThrows(IllegalStateException.class, () -> other.addEvent(ev));
+		assertTrue(queue.isEmpty());
+		assertNull(queue.peek());
+
+		// once out of the storage, the event can go to another queue
+		other.addEvent(ev);
+		assertSame(ev, other.pollFirst());
+		queue.addEvent(ev);
+		queue.clear();
+		other.addEvent(ev);
+		assertSame(ev, other.findFirst(2, 3, CloudSim.SIM_ANY));
+		assertEquals(1, other.size());
+	}
+
+	private static void checkRepeatedRescheduling(EventQueue queue) {
+		queue.addEvent(event(1000, 5, 5, QueueTags.DATA));
+
+		// a timer that is cancelled and rescheduled many times leaves a single live event
+		double now = 0;
+		for (int i = 0; i < 10_000; i++) {
+			queue.removeMatching(1, EventQueue.ANY_ENTITY, new PredicateType(QueueTags.HEARTBEAT));
+			queue.addEvent(event(now + 10, 1, 1, QueueTags.HEARTBEAT));
+			now += 0.05;
+		}
+		assertEquals(2, queue.size());
+		assertEquals(1, queue.count(1, EventQueue.ANY_ENTITY, CloudSim.SIM_ANY));
+
+		SimEvent heartbeat = queue.peek();
+		assertEquals(QueueTags.HEARTBEAT, heartbeat.getTag());
+		assertEquals(now - 0.05 + 10, heartbeat.eventTime(), 1e-9);
+		assertSame(heartbeat, queue.pollFirst());
+		assertEquals(QueueTags.DATA, queue.pollFirst().getTag());
+		assertNull(queue.pollFirst());
+	}
+}
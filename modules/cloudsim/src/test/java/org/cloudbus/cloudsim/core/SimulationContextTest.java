@@ -0,0 +1,94 @@
+package org.cloudbus.cloudsim.core;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @since		CloudSim Toolkit 7.0
+ */
+public class SimulationContextTest {
+
+	private enum TickTags implements CloudSimTags { TICK }
+
+	/** Reschedules itself until it has seen the requested number of ticks. */
+	static class Ticker extends SimEntity {
+		private final int ticks;
+		private int seen = 0;
+
+		Ticker(String name, int ticks) {
+			super(name);
+			this.ticks = ticks;
+		}
+
+		@Override
+		public void startEntity() {
+			schedule(getId(), 1.0, TickTags.TICK);
+		}
+
+		@Override
+		public void processEvent(SimEvent ev) {
+			if (++seen < ticks) {
+				schedule(getId(), 1.0, TickTags.TICK);
+			}
+		}
+
+		@Override
+		public void shutdownEntity() {
+		}
+	}
+
+	private static double runTicker(int ticks) {
+		CloudSim.init(0, Calendar.getInstance(), false);
+		new Ticker("Ticker", ticks);
+		return CloudSim.startSimulation();
+	}
+
+	@Test
+	public void testEntityIsBoundToCurrentContext() throws Exception {
+		SimulationContext context = new SimulationContext();
+		Ticker ticker = context.execute(() -> {
+			CloudSim.init(0, Calendar.getInstance(), false);
+			return new Ticker("Ticker", 1);
+		});
+
+		assertSame(context, ticker.getSimulation());
+		assertSame(ticker, context.getEntity("Ticker"));
+		assertNotSame(context, CloudSim.getContext());
+	}
+
+	@Test
+	public void testContextsRunIndependentlyInParallel() throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Double>> results = new ArrayList<>();
+			for (int i = 1; i <= 8; i++) {
+				final int ticks = i * 10;
+				results.add(pool.submit(() -> new SimulationContext().execute(() -> runTicker(ticks))));
+			}
+
+			for (int i = 1; i <= 8; i++) {
+				assertEquals(i * 10, results.get(i - 1).get(), 0);
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testServicesAreDroppedOnInit() throws Exception {
+		SimulationContext context = new SimulationContext();
+		Object first = context.getService(Object.class, Object::new);
+		assertSame(first, context.getService(Object.class, Object::new));
+
+		context.init(0, Calendar.getInstance(), false);
+		assertNotSame(first, context.getService(Object.class, Object::new));
+	}
+}
@@ -0,0 +1,138 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.lists;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.cloudbus.cloudsim.Vm;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @since		CloudSim Toolkit 7.0
+ */
+public class IdIndexedListTest {
+
+	private IdIndexedList<Vm> vmList;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		vmList = VmList.newIdIndexedList();
+	}
+
+	private static Vm vm(int id, int userId) {
+		return new Vm(id, userId, 0, 1, 0, 0, 0, "", null);
+	}
+
+	@Test
+	public void testGetVMbyID() {
+		assertNull(VmList.getById(vmList, 0));
+
+		Vm vm1 = vm(0, 0);
+		Vm vm2 = vm(1, 0);
+		Vm vm3 = vm(0, 1);
+
+		vmList.add(vm1);
+		vmList.add(vm2);
+		vmList.add(vm3);
+
+		assertSame(vm1, VmList.getById(vmList, 0));
+		assertSame(vm2, VmList.getById(vmList, 1));
+		assertNull(VmList.getById(vmList, 2));
+		assertEquals(List.of(vm1, vm3), vmList.getAllByKey(0));
+		assertTrue(vmList.getAllByKey(2).isEmpty());
+
+		vmList.remove(vm1);
+		assertSame(vm3, VmList.getById(vmList, 0));
+
+		vmList.add(0, vm1);
+		assertEquals(List.of(vm1, vm3), vmList.getAllByKey(0));
+
+		vmList.set(2, vm(1, 1));
+		assertSame(vm2, VmList.getById(vmList, 1));
+		assertSame(vm1, VmList.getById(vmList, 0));
+		assertEquals(List.of(vm1), vmList.getAllByKey(0));
+
+		vmList.clear();
+		assertNull(VmList.getById(vmList, 0));
+	}
+
+	@Test
+	public void testIndexMatchesScan() {
+		Random random = new Random(7);
+		List<Vm> expected = new ArrayList<>();
+		for (int i = 0; i < 2000; i++) {
+			int op = random.nextInt(10);
+			if (op < 5 || expected.isEmpty()) {
+				Vm vm = vm(random.nextInt(100), i);
+				expected.add(vm);
+				vmList.add(vm);
+			} else if (op < 7) {
+				int index = random.nextInt(expected.size());
+				expected.remove(index);
+				vmList.remove(index);
+			} else if (op < 8) {
+				int index = random.nextInt(expected.size());
+				Vm vm = vm(random.nextInt(100), i);
+				expected.set(index, vm);
+				vmList.set(index, vm);
+			} else if (op < 9) {
+				int id = random.nextInt(100);
+				expected.removeIf(vm -> vm.getId() == id);
+				vmList.removeIf(vm -> vm.getId() == id);
+			} else {
+				expected.sort(Comparator.comparingInt(Vm::getUserId).reversed());
+				vmList.sort(Comparator.comparingInt(Vm::getUserId).reversed());
+			}
+
+			assertEquals(expected, vmList);
+			int id = random.nextInt(100);
+			Vm first = null;
+			List<Vm> all = new ArrayList<>();
+			for (Vm vm : expected) {
+				if (vm.getId() == id) {
+					first = first == null ? vm : first;
+					all.add(vm);
+				}
+			}
+			assertSame(first, VmList.getById(vmList, id));
+			assertEquals(all, vmList.getAllByKey(id));
+		}
+	}
+
+	@Test
+	public void testRemovedKeysFreeTheirSlots() {
+		// a sliding window of keys, as guests are created and destroyed during a simulation
+		for (int i = 0; i < 100_000; i++) {
+			vmList.add(vm(i, 0));
+			if (i >= 50) {
+				Vm removed = vmList.remove(i % 2 == 0 ? 0 : vmList.size() / 2);
+				assertNull(VmList.getById(vmList, removed.getId()));
+			}
+		}
+		assertEquals(50, vmList.size());
+		assertTrue(vmList.getTableLength() <= 256);
+		for (Vm vm : vmList) {
+			assertSame(vm, VmList.getById(vmList, vm.getId()));
+		}
+
+		Vm replaced = vmList.set(0, vm(-1, 0));
+		assertNull(VmList.getById(vmList, replaced.getId()));
+		assertSame(vmList.getFirst(), VmList.getById(vmList, -1));
+	}
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @since		CloudSim Toolkit 7.0
+ */
+public class DelayMatrix_FloatTest {
+
+	private static final int NODES = 60;
+
+	/**
+	 * Creates a random sparse graph, with some links without delay and some links replacing a
+	 * link between the same nodes.
+	 */
+	private static TopologicalGraph randomGraph(long seed, int links) {
+		Random random = new Random(seed);
+		TopologicalGraph graph = new TopologicalGraph();
+		for (int i = 0; i < NODES; i++) {
+			graph.addNode(new TopologicalNode(i));
+		}
+		for (int i = 0; i < links; i++) {
+			int src = random.nextInt(NODES);
+			int dest = random.nextInt(NODES);
+			float delay = random.nextInt(20) == 0 ? 0 : random.nextFloat() * 10;
+			graph.addLink(new TopologicalLink(src, dest, delay, 1));
+		}
+		return graph;
+	}
+
+	/**
+	 * Computes the delays as before the matrix was stored in a single array.
+	 */
+	private static float[][] floydWarshall(TopologicalGraph graph) {
+		float[][] adj = new float[NODES][NODES];
+		for (float[] row : adj) {
+			Arrays.fill(row, Float.MAX_VALUE);
+		}
+		graph.getLinkIterator().forEachRemaining(link -> {
+			adj[link.getSrcNodeID()][link.getDestNodeID()] = link.getLinkDelay();
+			adj[link.getDestNodeID()][link.getSrcNodeID()] = link.getLinkDelay();
+		});
+		FloydWarshall_Float floyd = new FloydWarshall_Float();
+		floyd.initialize(NODES);
+		return floyd.allPairsShortestPaths(adj);
+	}
+
+	@Test
+	public void testSameDelaysAsFloydWarshall() {
+		for (int links : new int[] { 0, 30, 80, 400 }) {
+			TopologicalGraph graph = randomGraph(links, links);
+			float[][] expected = floydWarshall(graph);
+			DelayMatrix_Float matrix = new DelayMatrix_Float(graph, false);
+			for (int i = 0; i < NODES; i++) {
+				for (int j = 0; j < NODES; j++) {
+					assertEquals(expected[i][j], matrix.getDelay(i, j));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testSparseDelays() {
+		for (int links : new int[] { 0, 30, 80, 400 }) {
+			TopologicalGraph graph = randomGraph(links, links);
+			DelayMatrix_Float expected = new DelayMatrix_Float(graph, false);
+			DelayMatrix_Float matrix = new DelayMatrix_Float(graph, false, true);
+			assertSameDelays(expected, matrix);
+		}
+	}
+
+	@Test
+	public void testIncrementalDelays() {
+		Random random = new Random(3);
+		TopologicalGraph graph = new TopologicalGraph();
+		graph.addNode(new TopologicalNode(0));
+		DelayMatrix_Float matrix = new DelayMatrix_Float(graph, false);
+		boolean[][] linked = new boolean[NODES][NODES];
+		for (int i = 0; i < 150; i++) {
+			int src = random.nextInt(Math.min(NODES, graph.getNumberOfNodes() + 1));
+			int dest = random.nextInt(Math.min(NODES, graph.getNumberOfNodes() + 1));
+			if (linked[src][dest]) {
+				continue;
+			}
+			linked[src][dest] = linked[dest][src] = true;
+			while (graph.getNumberOfNodes() <= Math.max(src, dest)) {
+				graph.addNode(new TopologicalNode(graph.getNumberOfNodes()));
+			}
+			float delay = random.nextFloat() * 10;
+			graph.addLink(new TopologicalLink(src, dest, delay, 1));
+			matrix.addLink(src, dest, delay, false);
+
+			assertSameDelays(new DelayMatrix_Float(graph, false), matrix);
+		}
+	}
+
+	private static void assertSameDelays(DelayMatrix_Float expected, DelayMatrix_Float actual) {
+		assertEquals(expected.getNumberOfNodes(), actual.getNumberOfNodes());
+		for (int i = 0; i < expected.getNumberOfNodes(); i++) {
+			for (int j = 0; j < expected.getNumberOfNodes(); j++) {
+				float delay = expected.getDelay(i, j);
+				assertEquals(delay, actual.getDelay(i, j), delay == Float.MAX_VALUE ? 0 : 1e-4f);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @since		CloudSim Toolkit 7.0
+ */
+public class DelayRowCacheTest {
+
+	private static final int NODES = 80;
+
+	/**
+	 * Creates a random sparse graph, with some links without delay and some links replacing a
+	 * link between the same nodes.
+	 */
+	private static TopologicalGraph randomGraph(long seed, int links) {
+		Random random = new Random(seed);
+		TopologicalGraph graph = new TopologicalGraph();
+		for (int i = 0; i < NODES; i++) {
+			graph.addNode(new TopologicalNode(i));
+		}
+		for (int i = 0; i < links; i++) {
+			int src = random.nextInt(NODES);
+			int dest = random.nextInt(NODES);
+			float delay = random.nextInt(20) == 0 ? 0 : random.nextFloat() * 1000;
+			graph.addLink(new TopologicalLink(src, dest, delay, 1));
+		}
+		return graph;
+	}
+
+	private static void assertSameDelays(DelayMatrix_Float expected, DelayMatrix_Float actual, float precision) {
+		Random random = new Random(5);
+		for (int k = 0; k < 5000; k++) {
+			int i = random.nextInt(NODES);
+			int j = random.nextInt(NODES);
+			float delay = expected.getDelay(i, j);
+			assertEquals(delay, actual.getDelay(i, j), delay == Float.MAX_VALUE ? 0 : delay * precision + 1e-3f);
+		}
+	}
+
+	@Test
+	public void testSameDelaysAsMatrix() {
+		for (boolean directed : new boolean[] { false, true }) {
+			for (int links : new int[] { 0, 60, 150, 600 }) {
+				TopologicalGraph graph = randomGraph(links, links);
+				DelayRowCache cache = new DelayRowCache(graph, directed, 4, false);
+				assertSameDelays(new DelayMatrix_Float(graph, directed, true), cache, 0);
+				assertTrue(cache.getCachedRows() <= 4);
+			}
+		}
+	}
+
+	@Test
+	public void testHalfPrecision() {
+		TopologicalGraph graph = randomGraph(1, 150);
+		assertSameDelays(new DelayMatrix_Float(graph, false), new DelayRowCache(graph, false, 8, true), 1e-3f);
+	}
+
+	@Test
+	public void testAddLink() {
+		TopologicalGraph graph = randomGraph(2, 100);
+		DelayRowCache cache = new DelayRowCache(graph, false, 8, false);
+		cache.getDelay(0, 1);
+		assertEquals(1, cache.getCachedRows());
+
+		Random random = new Random(2);
+		for (int i = 0; i < 20; i++) {
+			int src = random.nextInt(NODES);
+			int dest = random.nextInt(NODES);
+			float delay = random.nextFloat() * 1000;
+			graph.addLink(new TopologicalLink(src, dest, delay, 1));
+			cache.addLink(src, dest, delay, false);
+			assertEquals(0, cache.getCachedRows());
+			assertSameDelays(new DelayMatrix_Float(graph, false, true), cache, 0);
+		}
+	}
+
+	@Test
+	public void testSharedByThreads() throws Exception {
+		TopologicalGraph graph = randomGraph(3, 300);
+		DelayMatrix_Float expected = new DelayMatrix_Float(graph, false);
+		// few cached rows, so that the threads keep evicting each other's rows
+		DelayRowCache cache = new DelayRowCache(graph, false, 2, false);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> checks = new ArrayList<>();
+			for (int t = 0; t < 4; t++) {
+				checks.add(executor.submit(() -> assertSameDelays(expected, cache, 0)));
+			}
+			for (Future<?> check : checks) {
+				check.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertTrue(cache.getCachedRows() <= 2);
+	}
+
+}
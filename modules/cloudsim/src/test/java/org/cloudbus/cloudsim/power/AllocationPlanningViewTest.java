@@ -0,0 +1,190 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.cloudbus.cloudsim.CloudletSchedulerDynamicWorkload;
+import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.VmAllocationPolicy.GuestMapping;
+import org.cloudbus.cloudsim.VmSchedulerTimeSharedOverSubscription;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimulationContext;
+import org.cloudbus.cloudsim.power.models.PowerModelLinear;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.cloudbus.cloudsim.selectionPolicies.SelectionPolicyMinimumUtilization;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AllocationPlanningViewTest {
+
+	private static final int HOSTS = 12;
+	private static final int VMS = 30;
+	private static final int ROUNDS = 40;
+	private static final double SCHEDULING_INTERVAL = 300;
+
+	/** The scheduler of a VM requesting a given fraction of its MIPS. */
+	private static final class LoadScheduler extends CloudletSchedulerDynamicWorkload {
+		private final double mips;
+		double load;
+
+		LoadScheduler(double mips) {
+			super(mips, 1);
+			this.mips = mips;
+		}
+
+		@Override
+		public List<Double> getCurrentRequestedMips() {
+			List<Double> requestedMips = new ArrayList<>();
+			requestedMips.add(mips * load);
+			return requestedMips;
+		}
+
+		@Override
+		public double getCurrentRequestedTotalMips() {
+			return mips * load;
+		}
+
+		@Override
+		public double getTotalUtilizationOfCpu(double time) {
+			return load;
+		}
+	}
+
+	/**
+	 * Places the VMs, then changes their load and applies the migrations planned by the policy
+	 * for a number of rounds.
+	 *
+	 * @return the migrations and the resulting placement of every round
+	 */
+	private static String run(Function<List<PowerHost>, PowerVmAllocationPolicyMigrationAbstract> policyFactory,
+			Consumer<PowerVmAllocationPolicyMigrationAbstract> configuration) throws Exception {
+		return new SimulationContext().execute(() -> {
+			CloudSim.getContext().setLogDisabled(true);
+			CloudSim.init(1, Calendar.getInstance(), false);
+
+			List<PowerHost> hostList = new ArrayList<>();
+			for (int i = 0; i < HOSTS; i++) {
+				List<Pe> peList = new ArrayList<>();
+				peList.add(new Pe(0, new PeProvisionerSimple(2000)));
+				peList.add(new Pe(1, new PeProvisionerSimple(2000)));
+				hostList.add(new PowerHost(i, new RamProvisionerSimple(4096), new BwProvisionerSimple(100000), 1000000,
+						peList, new VmSchedulerTimeSharedOverSubscription(peList), new PowerModelLinear(250, 0.7)));
+			}
+			PowerVmAllocationPolicyMigrationAbstract policy = policyFactory.apply(hostList);
+			configuration.accept(policy);
+			new PowerDatacenter("Datacenter_0", new DatacenterCharacteristics(
+					"x86", "Linux", "Xen", hostList, 10.0, 3.0, 0.05, 0.001, 0.0),
+					policy, new LinkedList<>(), SCHEDULING_INTERVAL);
+
+			List<PowerVm> vmList = new ArrayList<>();
+			List<LoadScheduler> schedulers = new ArrayList<>();
+			for (int i = 0; i < VMS; i++) {
+				double mips = i % 3 == 0 ? 1000 : 500;
+				LoadScheduler scheduler = new LoadScheduler(mips);
+				PowerVm vm = new PowerVm(i, 0, mips, 1, 512, 1000, 1000, 1, "Xen", scheduler, SCHEDULING_INTERVAL);
+				assertTrue(policy.allocateHostForGuest(vm));
+				vm.setBeingInstantiated(false);
+				vmList.add(vm);
+				schedulers.add(scheduler);
+			}
+
+			Random random = new Random(42);
+			StringBuilder trace = new StringBuilder();
+			for (int round = 1; round <= ROUNDS; round++) {
+				for (int i = 0; i < VMS; i++) {
+					schedulers.get(i).load = random.nextDouble();
+					vmList.get(i).addUtilizationHistoryValue(schedulers.get(i).load);
+				}
+				for (PowerHost host : hostList) {
+					host.updateCloudletsProcessing(round * SCHEDULING_INTERVAL);
+				}
+
+				List<GuestMapping> migrationMap = policy.optimizeAllocation(vmList);
+				trace.append(placement(hostList));
+				for (GuestMapping migration : migrationMap) {
+					trace.append(migration.vm().getId()).append("->").append(migration.host().getId()).append(' ');
+					policy.deallocateHostForGuest(migration.vm());
+					assertTrue(policy.allocateHostForGuest(migration.vm(), migration.host()));
+				}
+				trace.append('\n').append(placement(hostList));
+			}
+			return trace.toString();
+		});
+	}
+
+	private static String placement(List<PowerHost> hostList) {
+		StringBuilder placement = new StringBuilder();
+		for (PowerHost host : hostList) {
+			placement.append(host.getId()).append(':');
+			for (PowerVm vm : host.<PowerVm>getGuestList()) {
+				placement.append(' ').append(vm.getId())
+						.append('@').append(vm.getHost() == null ? -1 : vm.getHost().getId())
+						.append('=').append(host.getTotalAllocatedMipsForGuest(vm))
+						.append('/').append(vm.getCurrentAllocatedRam());
+			}
+			placement.append(" mips ").append(host.getGuestScheduler().getAvailableMips())
+					.append(" ram ").append(host.getGuestRamProvisioner().getAvailableRam())
+					.append(" bw ").append(host.getGuestBwProvisioner().getAvailableBw())
+					.append(" storage ").append(host.getStorage()).append('\n');
+		}
+		return placement.toString();
+	}
+
+	private static void assertSamePlan(Function<List<PowerHost>, PowerVmAllocationPolicyMigrationAbstract> policyFactory)
+			throws Exception {
+		String expected = run(policyFactory, policy -> assertFalse(policy.getPlanningView().isEnabled()));
+		assertTrue(expected.contains("->"), "no migration was planned");
+		assertEquals(expected, run(policyFactory, policy -> policy.getPlanningView().setEnabled(true)));
+	}
+
+	@Test
+	public void testStaticThresholdPlanMatchesCreateAndDestroy() throws Exception {
+		assertSamePlan(hostList -> new PowerVmAllocationPolicyMigrationStaticThreshold(
+				hostList, new SelectionPolicyMinimumUtilization(), 0.8));
+	}
+
+	@Test
+	public void testLocalRegressionPlanMatchesCreateAndDestroy() throws Exception {
+		assertSamePlan(hostList -> new PowerVmAllocationPolicyMigrationLocalRegression(
+				hostList, new SelectionPolicyMinimumUtilization(), 1.2, SCHEDULING_INTERVAL,
+				new PowerVmAllocationPolicyMigrationStaticThreshold(
+						hostList, new SelectionPolicyMinimumUtilization(), 0.8)));
+	}
+
+	@Test
+	public void testParallelPlacementMatchesSequential() throws Exception {
+		Function<List<PowerHost>, PowerVmAllocationPolicyMigrationAbstract> policyFactory =
+				hostList -> new PowerVmAllocationPolicyMigrationLocalRegression(
+						hostList, new SelectionPolicyMinimumUtilization(), 1.2, SCHEDULING_INTERVAL,
+						new PowerVmAllocationPolicyMigrationStaticThreshold(
+								hostList, new SelectionPolicyMinimumUtilization(), 0.8));
+		String expected = run(policyFactory, policy -> policy.getPlanningView().setEnabled(true));
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			assertEquals(expected, run(policyFactory, policy -> {
+				policy.getPlanningView().setEnabled(true);
+				policy.setPlacementPool(pool);
+			}));
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
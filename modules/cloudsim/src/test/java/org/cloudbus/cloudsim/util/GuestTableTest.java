@@ -0,0 +1,82 @@
+package org.cloudbus.cloudsim.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GuestTableTest {
+
+    @Test
+    public void testSlotReuse() {
+        GuestIndex index = new GuestIndex();
+        int a = index.add(3, 0);
+        int b = index.add(3, 1);
+        int c = index.add(4, 0);
+        assertEquals(b, index.add(3, 1));
+        assertEquals(c, index.slot("4-0"));
+        assertEquals(-1, index.slot("Host-4"));
+        assertEquals("3-1", index.getUid(b));
+
+        assertEquals(b, index.remove(3, 1));
+        assertEquals(-1, index.slot(3, 1));
+        assertEquals(b, index.add(5, 7));
+        assertEquals(3, index.getSlotCount());
+        assertEquals(a, index.slot(3, 0));
+        assertThrows(IllegalArgumentException.class, () -> index.add("vm"));
+    }
+
+    @Test
+    public void testBehavesLikeHashMap() {
+        // random puts and removes, with enough keys to rehash and to reuse slots
+        Random random = new Random(7);
+        GuestTable<Integer> table = new GuestTable<>();
+        Map<String, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            int userId = random.nextInt(4);
+            int guestId = random.nextInt(300) - 1;
+            String uid = userId + "-" + guestId;
+            switch (random.nextInt(3)) {
+                case 0 -> assertEquals(expected.put(uid, i), table.put(userId, guestId, i));
+                case 1 -> assertEquals(expected.put(uid, i), table.put(uid, i));
+                default -> assertEquals(expected.remove(uid), table.remove(uid));
+            }
+            assertEquals(expected.get(uid), table.get(userId, guestId));
+        }
+        assertEquals(expected, table);
+        assertEquals(table, new GuestTable<>(expected));
+
+        // removal through the entry iterator
+        Iterator<Map.Entry<String, Integer>> it = table.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Integer> entry = it.next();
+            if (entry.getValue() % 2 == 0) {
+                it.remove();
+                expected.remove(entry.getKey());
+            } else {
+                int negated = -entry.getValue();
+                entry.setValue(negated);
+                expected.put(entry.getKey(), negated);
+            }
+        }
+        assertEquals(expected, table);
+
+        // the guest entries are the map entries, in the same order
+        Iterator<Map.Entry<String, Integer>> entries = table.entrySet().iterator();
+        for (GuestTable.GuestEntry<Integer> entry : table.guestEntries()) {
+            Map.Entry<String, Integer> mapEntry = entries.next();
+            assertEquals(mapEntry.getKey(), entry.getUid());
+            assertEquals(mapEntry.getValue(), entry.getValue());
+            assertEquals(entry.getValue(), table.get(entry.getUserId(), entry.getGuestId()));
+        }
+        assertFalse(entries.hasNext());
+
+        table.clear();
+        assertTrue(table.isEmpty());
+        assertNull(table.get("0-0"));
+    }
+}
@@ -4,7 +4,12 @@ package org.cloudbus.cloudsim.util;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
+import org.apache.commons.math3.stat.regression.SimpleRegression;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -70,4 +75,60 @@ public class MathUtilTest {
 		assertEquals(SUM1 / 10, MathUtil.sum(data2), 0);
 	}
 
+	@Test
+	public void testMedianMatchesDescriptiveStatistics() {
+		Random random = new Random(3);
+		for (int n = 1; n <= 40; n++) {
+			double[] data = new double[n];
+			for (int i = 0; i < n; i++) {
+				// ties and zero tails, as in utilization histories
+				data[i] = i % 7 == 6 ? 0 : Math.round(random.nextDouble() * 20) / 20.0;
+			}
+			DescriptiveStatistics stats = new DescriptiveStatistics(data);
+			assertEquals(stats.getPercentile(50), MathUtil.median(data), 0);
+
+			double[] deviations = new double[n];
+			for (int i = 0; i < n; i++) {
+				deviations[i] = Math.abs(stats.getPercentile(50) - data[i]);
+			}
+			assertEquals(new DescriptiveStatistics(deviations).getPercentile(50), MathUtil.mad(data), 0);
+		}
+	}
+
+	@Test
+	public void testLoessMatchesSimpleRegression() {
+		Random random = new Random(5);
+		for (int round = 0; round < 200; round++) {
+			int n = 3 + random.nextInt(28);
+			double[] y = new double[n];
+			double[] x = new double[n];
+			for (int i = 0; i < n; i++) {
+				y[i] = random.nextDouble();
+				x[i] = i + 1;
+			}
+			SimpleRegression tricube = MathUtil.createWeigthedLinearRegression(x, y, MathUtil.getTricubeWeigts(n));
+			double[] expected = tricube.regress().getParameterEstimates();
+			assertArrayEquals(expected, MathUtil.getLoessParameterEstimates(y), 0);
+
+			double[] residuals = new double[n];
+			for (int i = 0; i < n; i++) {
+				residuals[i] = y[i] - tricube.predict(x[i]);
+			}
+			double[] robust = MathUtil.createWeigthedLinearRegression(x, y, MathUtil.getTricubeBisquareWeigts(residuals))
+					.regress().getParameterEstimates();
+			if (Double.isNaN(robust[0]) || Double.isNaN(robust[1])) {
+				robust = expected;
+			}
+			assertArrayEquals(robust, MathUtil.getRobustLoessParameterEstimates(y), 0);
+		}
+	}
+
+	@Test
+	public void testTricubeWeightsAreCopies() {
+		double[] weights = MathUtil.getTricubeWeigts(10);
+		double[] expected = weights.clone();
+		Arrays.fill(weights, 0);
+		MathUtil.getTricubeWeigts(12);
+		assertArrayEquals(expected, MathUtil.getTricubeWeigts(10), 0);
+	}
 }
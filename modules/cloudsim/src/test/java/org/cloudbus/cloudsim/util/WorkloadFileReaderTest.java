@@ -2,12 +2,17 @@ package org.cloudbus.cloudsim.util;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 
 import org.cloudbus.cloudsim.Cloudlet;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class WorkloadFileReaderTest {
@@ -43,4 +48,58 @@ public class WorkloadFileReaderTest {
 	    assertTrue(cloudlet.getCloudletLength() > 0);
 	}
     }
+
+    @Test
+    public void readJobsMatchesWorkload() throws IOException {
+	WorkloadFileReader r = new WorkloadFileReader("src"
+		+ File.separator
+		+ "test"
+		+ File.separator
+		+ "LCG.swf.gz", 1);
+	List<Cloudlet> cloudletlist = r.generateWorkload();
+
+	int i = 0;
+	long submitTime = 0;
+	try (WorkloadFileReader.JobReader reader = r.readJobs()) {
+	    while (reader.next()) {
+		Cloudlet cloudlet = cloudletlist.get(i++);
+		assertEquals(cloudlet.getCloudletId(), reader.getId());
+		assertEquals(cloudlet.getCloudletLength(), reader.getRunTime());
+		assertEquals(cloudlet.getNumberOfPes(), reader.getNumProc());
+		assertTrue(reader.getSubmitTime() >= submitTime);
+		submitTime = reader.getSubmitTime();
+	    }
+	}
+	assertEquals(cloudletlist.size(), i);
+    }
+
+    @Test
+    public void readJobsSkipsInvalidLines(@TempDir Path dir) throws IOException {
+	Path trace = dir.resolve("trace.swf");
+	Files.writeString(trace, "; comment 1 2 3\r\n"
+		+ "  7 10 0 5 2 0 0 3 4 0 0 1 1 0 0 0 0 0\r\n"
+		+ "8 11 0 x 2 0 0 3 4 0 0 1 1 0 0 0 0 0\n"
+		+ "9 12 0 5 2\n"
+		+ "\n"
+		+ "10\t13 0 0 2 0 0 -1 4 0 0 1 1 0 0 0 0 0");
+
+	WorkloadFileReader r = new WorkloadFileReader(trace.toString(), 2);
+	try (WorkloadFileReader.JobReader reader = r.readJobs()) {
+	    assertTrue(reader.next());
+	    assertEquals(7, reader.getId());
+	    assertEquals(10, reader.getSubmitTime());
+	    assertEquals(5, reader.getRunTime());
+	    assertEquals(3, reader.getNumProc());
+	    assertEquals(10, reader.createCloudlet().getCloudletLength());
+
+	    assertTrue(reader.next());
+	    assertEquals(10, reader.getId());
+	    assertEquals(13, reader.getSubmitTime());
+	    assertEquals(1, reader.getRunTime());
+	    assertEquals(2, reader.getNumProc());
+
+	    assertFalse(reader.next());
+	}
+	assertEquals(2, r.generateWorkload().size());
+    }
 }